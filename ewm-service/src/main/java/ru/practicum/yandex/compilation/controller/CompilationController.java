@@ -2,30 +2,29 @@ package ru.practicum.yandex.compilation.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.practicum.yandex.compilation.dto.CompilationDto;
-import ru.practicum.yandex.compilation.mapper.CompilationMapper;
-import ru.practicum.yandex.compilation.model.Compilation;
-import ru.practicum.yandex.compilation.service.CompilationService;
+import ru.practicum.yandex.compilation.service.CompilationReadModel;
 
-import java.util.List;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 /**
- * Public API for compilations
+ * Public API for compilations. Compilations are served as precomputed JSON from {@link CompilationReadModel}.
  */
 @RestController
 @RequestMapping("/compilations")
 @RequiredArgsConstructor
+@Validated
 @Slf4j
 public class CompilationController {
 
-    private final CompilationService compilationService;
-
-    private final CompilationMapper compilationMapper;
+    private final CompilationReadModel compilationReadModel;
 
     /**
      * Find event compilations. If nothing was found according to search filter, returns empty list.
@@ -35,13 +34,12 @@ public class CompilationController {
      * @param size   number of event compilations to display (not required, default value 10)
      * @return lists of event compilations
      */
-    @GetMapping
-    public List<CompilationDto> findCompilations(@RequestParam(required = false) Boolean pinned,
-                                                 @RequestParam(defaultValue = "0") Long from,
-                                                 @RequestParam(defaultValue = "10") Integer size) {
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public String findCompilations(@RequestParam(required = false) Boolean pinned,
+                                   @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
+                                   @RequestParam(defaultValue = "10") @Positive Integer size) {
         log.info("Requesting compilations with params: pinned - '{}', from - '{}', size - '{}'.", pinned, from, size);
-        List<Compilation> compilations = compilationService.findCompilations(pinned, from, size);
-        return compilationMapper.toDtoList(compilations);
+        return compilationReadModel.findCompilations(pinned, from, size);
     }
 
     /**
@@ -50,10 +48,9 @@ public class CompilationController {
      * @param compId event compilation id.
      * @return found event compilation
      */
-    @GetMapping("/{compId}")
-    public CompilationDto findCompilationById(@PathVariable Long compId) {
+    @GetMapping(value = "/{compId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public String findCompilationById(@PathVariable Long compId) {
         log.info("Requesting compilation with id '{}'.", compId);
-        Compilation compilation = compilationService.findCompilationById(compId);
-        return compilationMapper.toDto(compilation);
+        return compilationReadModel.findCompilationById(compId);
     }
 }
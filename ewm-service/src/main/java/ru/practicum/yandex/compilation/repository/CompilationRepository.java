@@ -2,13 +2,35 @@ package ru.practicum.yandex.compilation.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.yandex.compilation.model.Compilation;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long>, JpaSpecificationExecutor<Compilation> {
 
-    @Query("SELECT c FROM Compilation c LEFT JOIN FETCH c.events e LEFT JOIN FETCH e.category LEFT JOIN FETCH e.initiator WHERE c.id = ?1")
+    @Query("SELECT c FROM Compilation c LEFT JOIN FETCH c.events e LEFT JOIN FETCH e.category LEFT JOIN FETCH e.initiator WHERE c.id = ?1 ORDER BY e.id")
     Optional<Compilation> findCompilationWithEventById(Long compId);
+
+    @Query("SELECT DISTINCT c FROM Compilation c LEFT JOIN FETCH c.events e LEFT JOIN FETCH e.category LEFT JOIN FETCH e.initiator")
+    List<Compilation> findAllCompilationsWithEvents();
+
+    @Query("SELECT e.id FROM Event e JOIN e.compilations c WHERE c.id = ?1")
+    List<Long> findCompilationEventIds(Long compId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO event_compilation (event_id, compilation_id) " +
+            "SELECT e.id, ?1 FROM events e WHERE e.id IN (?2)", nativeQuery = true)
+    int addEventsToCompilation(Long compId, Collection<Long> eventIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM event_compilation WHERE compilation_id = ?1 AND event_id IN (?2)", nativeQuery = true)
+    int removeEventsFromCompilation(Long compId, Collection<Long> eventIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM event_compilation WHERE compilation_id = ?1", nativeQuery = true)
+    int removeAllEventsFromCompilation(Long compId);
 }
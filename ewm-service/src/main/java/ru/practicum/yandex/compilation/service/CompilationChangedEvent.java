@@ -0,0 +1,14 @@
+package ru.practicum.yandex.compilation.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when compilation was added, updated or deleted.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CompilationChangedEvent {
+
+    private final Long compilationId;
+}
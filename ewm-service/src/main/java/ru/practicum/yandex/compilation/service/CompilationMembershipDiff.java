@@ -0,0 +1,36 @@
+package ru.practicum.yandex.compilation.service;
+
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Difference between current and requested sets of compilation event ids. Only added and removed ids are written to
+ * event_compilation table, events which stay in compilation are not touched.
+ */
+@Getter
+public class CompilationMembershipDiff {
+
+    private final Set<Long> added;
+
+    private final Set<Long> removed;
+
+    private CompilationMembershipDiff(Set<Long> added, Set<Long> removed) {
+        this.added = added;
+        this.removed = removed;
+    }
+
+    public static CompilationMembershipDiff of(Collection<Long> currentEventIds, Collection<Long> requestedEventIds) {
+        final Set<Long> added = new LinkedHashSet<>(requestedEventIds);
+        added.removeAll(currentEventIds);
+        final Set<Long> removed = new LinkedHashSet<>(currentEventIds);
+        removed.removeAll(requestedEventIds);
+        return new CompilationMembershipDiff(added, removed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,204 @@
+package ru.practicum.yandex.compilation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.yandex.compilation.mapper.CompilationMapper;
+import ru.practicum.yandex.compilation.model.Compilation;
+import ru.practicum.yandex.compilation.repository.CompilationRepository;
+import ru.practicum.yandex.shared.exception.NotFoundException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed read model of public compilations feed. Each compilation is kept as serialized CompilationDto JSON, so
+ * public requests are served from memory without touching compilations and events tables. Compilation is rebuilt
+ * after admin changes are committed. Whole model is periodically rebuilt to pick up changes of compilation events
+ * (views, confirmed requests, comments). Every read from database takes version before it starts, and read result is
+ * applied only if it is newer than last version applied to the same compilation, so slow full rebuild does not
+ * overwrite compilation changed while it was running.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CompilationReadModel {
+
+    private final CompilationRepository compilationRepository;
+
+    private final CompilationMapper compilationMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot = new Snapshot(new TreeMap<>());
+
+    /**
+     * Versions of reads applied to single compilations after last full rebuild. Guarded by this.
+     */
+    private final Map<Long, Long> appliedVersions = new HashMap<>();
+
+    private long version;
+
+    private long rebuiltVersion;
+
+    /**
+     * Find event compilations as JSON array, ordered by compilation id.
+     *
+     * @param pinned search only pinned or only not pinned event compilations (all if null)
+     * @param from   first event compilation to display
+     * @param size   number of event compilations to display
+     * @return JSON array of event compilations
+     */
+    public String findCompilations(Boolean pinned, Long from, Integer size) {
+        final NavigableMap<Long, CompilationView> compilations = snapshot.get(pinned);
+        final String json = compilations.values().stream()
+                .map(view -> view.json)
+                .skip(from)
+                .limit(size)
+                .collect(Collectors.joining(",", "[", "]"));
+        log.info("Requesting compilations from read model, search filter: pinned - '{}', from - '{}', size - '{}'.",
+                pinned, from, size);
+        return json;
+    }
+
+    /**
+     * Find event compilation by id as JSON object. If compilation is not in read model yet, it is loaded from database
+     * and added to read model. If nothing found, throws NotFoundException.
+     *
+     * @param compId event compilation id
+     * @return JSON of event compilation
+     */
+    @Transactional(readOnly = true)
+    public String findCompilationById(Long compId) {
+        final CompilationView view = snapshot.all.get(compId);
+        if (view != null) {
+            return view.json;
+        }
+        final long readVersion = nextVersion();
+        final Compilation compilation = compilationRepository.findCompilationWithEventById(compId)
+                .orElseThrow(() -> new NotFoundException("Compilation with id '" + compId + "' not found."));
+        return put(compId, toView(compilation), readVersion);
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onCompilationChanged(CompilationChangedEvent event) {
+        final Long compId = event.getCompilationId();
+        final long readVersion = nextVersion();
+        final CompilationView view = compilationRepository.findCompilationWithEventById(compId)
+                .map(this::toView)
+                .orElse(null);
+        put(compId, view, readVersion);
+        log.info("Compilation with id '{}' was rebuilt in read model.", compId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${ewm.compilations.refresh-interval:60000}",
+            initialDelayString = "${ewm.compilations.refresh-interval:60000}")
+    @Transactional(readOnly = true)
+    public void rebuildAll() {
+        final long readVersion = nextVersion();
+        final List<Compilation> compilations = compilationRepository.findAllCompilationsWithEvents();
+        final NavigableMap<Long, CompilationView> all = new TreeMap<>();
+        compilations.forEach(compilation -> all.put(compilation.getId(), toView(compilation)));
+        synchronized (this) {
+            if (readVersion < rebuiltVersion) {
+                log.info("Compilations read model was already rebuilt from newer read.");
+                return;
+            }
+            appliedVersions.forEach((compId, appliedVersion) -> {
+                if (appliedVersion > readVersion) {
+                    final CompilationView current = snapshot.all.get(compId);
+                    if (current != null) {
+                        all.put(compId, current);
+                    } else {
+                        all.remove(compId);
+                    }
+                }
+            });
+            appliedVersions.values().removeIf(appliedVersion -> appliedVersion <= readVersion);
+            rebuiltVersion = readVersion;
+            snapshot = new Snapshot(all);
+        }
+        log.info("Compilations read model was rebuilt, '{}' compilations.", all.size());
+    }
+
+    private synchronized long nextVersion() {
+        return ++version;
+    }
+
+    /**
+     * Put compilation view to read model, or remove compilation if view is null. Read older than last applied to this
+     * compilation is ignored.
+     */
+    private synchronized String put(Long compId, CompilationView view, long readVersion) {
+        if (readVersion < Math.max(rebuiltVersion, appliedVersions.getOrDefault(compId, 0L))) {
+            return view != null ? view.json : null;
+        }
+        appliedVersions.put(compId, readVersion);
+        final NavigableMap<Long, CompilationView> all = new TreeMap<>(snapshot.all);
+        if (view != null) {
+            all.put(compId, view);
+        } else {
+            all.remove(compId);
+        }
+        snapshot = new Snapshot(all);
+        return view != null ? view.json : null;
+    }
+
+    private CompilationView toView(Compilation compilation) {
+        try {
+            return new CompilationView(compilation.isPinned(),
+                    objectMapper.writeValueAsString(compilationMapper.toDto(compilation)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize compilation with id '" + compilation.getId() + "'.", e);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class CompilationView {
+
+        private final boolean pinned;
+
+        private final String json;
+    }
+
+    private static final class Snapshot {
+
+        private final NavigableMap<Long, CompilationView> all;
+
+        private final NavigableMap<Long, CompilationView> pinned;
+
+        private final NavigableMap<Long, CompilationView> notPinned;
+
+        private Snapshot(NavigableMap<Long, CompilationView> all) {
+            this.all = Collections.unmodifiableNavigableMap(all);
+            this.pinned = Collections.unmodifiableNavigableMap(new TreeMap<>(all.entrySet().stream()
+                    .filter(entry -> entry.getValue().pinned)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))));
+            this.notPinned = Collections.unmodifiableNavigableMap(new TreeMap<>(all.entrySet().stream()
+                    .filter(entry -> !entry.getValue().pinned)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))));
+        }
+
+        private NavigableMap<Long, CompilationView> get(Boolean pinned) {
+            if (pinned == null) {
+                return all;
+            }
+            return pinned ? this.pinned : notPinned;
+        }
+    }
+}
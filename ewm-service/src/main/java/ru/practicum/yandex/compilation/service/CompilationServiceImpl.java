@@ -2,6 +2,7 @@ package ru.practicum.yandex.compilation.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,13 +10,11 @@ import ru.practicum.yandex.compilation.dto.NewCompilationDto;
 import ru.practicum.yandex.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.yandex.compilation.model.Compilation;
 import ru.practicum.yandex.compilation.repository.CompilationRepository;
-import ru.practicum.yandex.events.model.Event;
-import ru.practicum.yandex.events.repository.EventRepository;
 import ru.practicum.yandex.shared.OffsetPageRequest;
 import ru.practicum.yandex.shared.exception.NotFoundException;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -27,7 +26,7 @@ public class CompilationServiceImpl implements CompilationService {
 
     private final CompilationRepository compilationRepository;
 
-    private final EventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Add new event compilation. Compilation can have no events.
@@ -38,16 +37,19 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     @Transactional
     public Compilation addCompilation(NewCompilationDto newCompilationDto) {
-        List<Long> compilationEventIds = newCompilationDto.getEvents();
-        List<Event> compilationEvents = getCompilationEvents(newCompilationDto, compilationEventIds);
         Compilation compilation = Compilation.builder()
                 .title(newCompilationDto.getTitle())
                 .pinned(newCompilationDto.isPinned())
-                .events(compilationEvents)
+                .events(new ArrayList<>())
                 .build();
         Compilation savedCompilation = compilationRepository.save(compilation);
+        if (newCompilationDto.getEvents() != null && !newCompilationDto.getEvents().isEmpty()) {
+            compilationRepository.addEventsToCompilation(savedCompilation.getId(),
+                    new LinkedHashSet<>(newCompilationDto.getEvents()));
+        }
         log.info("Compilation with id '{}' was saved.", savedCompilation.getId());
-        return savedCompilation;
+        eventPublisher.publishEvent(new CompilationChangedEvent(savedCompilation.getId()));
+        return getCompilationWithEvents(savedCompilation.getId());
     }
 
     /**
@@ -60,11 +62,13 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     @Transactional
     public Compilation updateCompilation(Long compId, UpdateCompilationRequest updateRequest) {
-        Compilation compilation = getCompilationWithEvents(compId);
+        Compilation compilation = getCompilation(compId);
         updateCompilationIfNeeded(updateRequest, compilation);
-        Compilation savedCompilation = compilationRepository.save(compilation);
+        compilationRepository.save(compilation);
+        updateCompilationEventsIfNeeded(updateRequest, compId);
         log.info("Compilation with id '{}' was updated.", compId);
-        return savedCompilation;
+        eventPublisher.publishEvent(new CompilationChangedEvent(compId));
+        return getCompilationWithEvents(compId);
     }
 
     /**
@@ -76,8 +80,10 @@ public class CompilationServiceImpl implements CompilationService {
     @Transactional
     public void deleteCompilation(Long compId) {
         getCompilation(compId);
+        compilationRepository.removeAllEventsFromCompilation(compId);
         compilationRepository.deleteById(compId);
         log.info("Compilation with id '{}' was deleted.", compId);
+        eventPublisher.publishEvent(new CompilationChangedEvent(compId));
     }
 
     /**
@@ -124,11 +130,6 @@ public class CompilationServiceImpl implements CompilationService {
     }
 
     private void updateCompilationIfNeeded(UpdateCompilationRequest updateRequest, Compilation compilation) {
-        if (updateRequest.getEvents() != null) {
-            List<Event> events = eventRepository.findAllById(updateRequest.getEvents());
-            bindEventsToCompilation(compilation, events);
-            compilation.setEvents(events);
-        }
         if (updateRequest.getTitle() != null) {
             compilation.setTitle(updateRequest.getTitle());
         }
@@ -137,9 +138,20 @@ public class CompilationServiceImpl implements CompilationService {
         }
     }
 
-    private void bindEventsToCompilation(Compilation compilation, List<Event> events) {
-        events.forEach(event -> event.addToCompilation(compilation));
-        eventRepository.saveAll(events);
+    private void updateCompilationEventsIfNeeded(UpdateCompilationRequest updateRequest, Long compId) {
+        if (updateRequest.getEvents() == null) {
+            return;
+        }
+        List<Long> currentEventIds = compilationRepository.findCompilationEventIds(compId);
+        CompilationMembershipDiff diff = CompilationMembershipDiff.of(currentEventIds, updateRequest.getEvents());
+        if (!diff.getRemoved().isEmpty()) {
+            compilationRepository.removeEventsFromCompilation(compId, diff.getRemoved());
+        }
+        if (!diff.getAdded().isEmpty()) {
+            compilationRepository.addEventsToCompilation(compId, diff.getAdded());
+        }
+        log.info("Compilation with id '{}' events updated: added '{}', removed '{}'.", compId, diff.getAdded().size(),
+                diff.getRemoved().size());
     }
 
     private Compilation getCompilation(Long compId) {
@@ -147,16 +159,6 @@ public class CompilationServiceImpl implements CompilationService {
                 .orElseThrow(() -> new NotFoundException("Compilation with id '" + compId + "' not found."));
     }
 
-    private List<Event> getCompilationEvents(NewCompilationDto newCompilationDto, List<Long> compilationEventIds) {
-        List<Event> compilationEvents;
-        if (newCompilationDto.getEvents() != null) {
-            compilationEvents = eventRepository.findAllById(compilationEventIds);
-        } else {
-            compilationEvents = Collections.emptyList();
-        }
-        return compilationEvents;
-    }
-
     private Compilation getCompilationWithEvents(Long compId) {
         return compilationRepository.findCompilationWithEventById(compId)
                 .orElseThrow(() -> new NotFoundException("Compilation with id '" + compId + "' not found."));
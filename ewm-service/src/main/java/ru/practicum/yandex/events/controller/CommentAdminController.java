@@ -0,0 +1,55 @@
+package ru.practicum.yandex.events.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.yandex.events.dto.CommentImportResultDto;
+import ru.practicum.yandex.events.dto.ImportCommentDto;
+import ru.practicum.yandex.events.mapper.CommentMapper;
+import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.service.CommentService;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Admin API for comments
+ */
+@RestController
+@RequestMapping("/admin/comments")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class CommentAdminController {
+
+    private final CommentService commentService;
+
+    private final CommentMapper commentMapper;
+
+    /**
+     * Import comments in bulk, for example from moderation tools. All comments are imported in single transaction,
+     * if any referenced event or author is not found, nothing is imported. If imported successfully, returns 201
+     * response status.
+     *
+     * @param importCommentDtos comments with event and author ids
+     * @return number of imported comments
+     */
+    @PostMapping("/import")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CommentImportResultDto importComments(@RequestBody @Size(max = 10_000)
+                                                 List<@Valid ImportCommentDto> importCommentDtos) {
+        log.info("Admin importing '{}' comments.", importCommentDtos.size());
+        final List<Comment> comments = commentMapper.toModelList(importCommentDtos);
+        final int imported = commentService.importComments(comments);
+        return CommentImportResultDto.builder()
+                .imported(imported)
+                .build();
+    }
+}
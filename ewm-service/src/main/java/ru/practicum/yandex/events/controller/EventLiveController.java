@@ -0,0 +1,43 @@
+package ru.practicum.yandex.events.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.yandex.events.service.EventLiveCounters;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Public (for all users) API for live event counters
+ */
+@RestController
+@RequestMapping("/events/live")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class EventLiveController {
+
+    private final EventLiveCounters eventLiveCounters;
+
+    /**
+     * Subscribe to live number of views and confirmed requests of events. Current counters are sent as 'counters'
+     * event right after subscription, after that only changed counters are sent, at most once per tick. If too many
+     * subscriptions are active, returns 503 response status with Retry-After header.
+     *
+     * @param ids ids of events to subscribe to
+     * @return stream of counters updates
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToCounters(@RequestParam @NotEmpty @Size(max = 100) List<Long> ids) {
+        log.info("Subscribing to live counters of events '{}'.", ids);
+        return eventLiveCounters.subscribe(ids);
+    }
+}
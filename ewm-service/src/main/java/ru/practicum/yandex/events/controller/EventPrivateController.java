@@ -13,11 +13,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.yandex.events.dto.AddCommentDto;
 import ru.practicum.yandex.events.dto.EventFullDto;
+import ru.practicum.yandex.events.dto.SavedCommentDto;
 import ru.practicum.yandex.events.dto.UpdateCommentDto;
 import ru.practicum.yandex.events.mapper.CommentMapper;
 import ru.practicum.yandex.events.mapper.EventMapper;
 import ru.practicum.yandex.events.model.Comment;
 import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.service.CommentService;
 import ru.practicum.yandex.events.service.EventService;
 
 import javax.validation.Valid;
@@ -30,6 +32,8 @@ public class EventPrivateController {
 
     private final EventService eventService;
 
+    private final CommentService commentService;
+
     private final EventMapper eventMapper;
 
     private final CommentMapper commentMapper;
@@ -71,6 +75,46 @@ public class EventPrivateController {
         return eventMapper.toDto(commentedEvent);
     }
 
+    /**
+     * Add comment to event without loading event info. Same as {@link #addCommentToEvent(Long, Long, AddCommentDto)},
+     * selected by 'slim=true' request parameter. If comment added successfully, returns 201 response status.
+     *
+     * @param userId        user adding comment
+     * @param eventId       event to comment
+     * @param addCommentDto comment parameters
+     * @return added comment with event and author ids
+     */
+    @PostMapping(value = "/{eventId}/comment/{userId}", params = "slim=true")
+    @ResponseStatus(HttpStatus.CREATED)
+    public SavedCommentDto addComment(@PathVariable Long userId,
+                                      @PathVariable Long eventId,
+                                      @RequestBody @Valid AddCommentDto addCommentDto) {
+        log.info("User with id '{}' adding comment to event with id '{}'.", userId, eventId);
+        final Comment comment = commentMapper.toModel(addCommentDto);
+        final Comment savedComment = commentService.addComment(userId, eventId, comment);
+        return commentMapper.toSavedDto(savedComment);
+    }
+
+    /**
+     * Update comment without loading event info. Same as {@link #updateComment(Long, Long, UpdateCommentDto)},
+     * selected by 'slim=true' request parameter.
+     *
+     * @param userId           user updating comment
+     * @param eventId          event of updated comment
+     * @param updateCommentDto update comment
+     * @return updated comment with event and author ids
+     */
+    @PatchMapping(value = "/{eventId}/comment/{userId}", params = "slim=true")
+    public SavedCommentDto editComment(@PathVariable Long userId,
+                                       @PathVariable Long eventId,
+                                       @RequestBody @Valid UpdateCommentDto updateCommentDto) {
+        log.info("User with id '{}' updating comment with id '{}' of event with id '{}'.", userId,
+                updateCommentDto.getCommentId(), eventId);
+        final Comment updatedComment = commentService.updateComment(userId, eventId, updateCommentDto.getCommentId(),
+                updateCommentDto.getText());
+        return commentMapper.toSavedDto(updatedComment);
+    }
+
     /**
      * Delete comment.
      *
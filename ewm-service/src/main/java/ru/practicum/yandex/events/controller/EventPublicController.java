@@ -7,20 +7,28 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.yandex.ReactiveStatClient;
 import ru.practicum.yandex.StatClient;
 import ru.practicum.yandex.dto.EndpointHitDto;
 import ru.practicum.yandex.dto.ViewStatsDto;
+import ru.practicum.yandex.events.dto.CommentDto;
 import ru.practicum.yandex.events.dto.EventFullDto;
 import ru.practicum.yandex.events.dto.EventSearchFilter;
 import ru.practicum.yandex.events.dto.EventShortDto;
+import ru.practicum.yandex.events.dto.EventSort;
+import ru.practicum.yandex.events.mapper.CommentMapper;
 import ru.practicum.yandex.events.mapper.EventMapper;
+import ru.practicum.yandex.events.model.Comment;
 import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.service.CommentService;
 import ru.practicum.yandex.events.service.EventService;
 import ru.practicum.yandex.shared.exception.IncorrectDateRangeException;
+import ru.practicum.yandex.shared.exception.IncorrectLocationFilterException;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Public (for all users) API for events
@@ -35,10 +43,16 @@ public class EventPublicController {
 
     private final EventService eventService;
 
+    private final CommentService commentService;
+
     private final EventMapper eventMapper;
 
+    private final CommentMapper commentMapper;
+
     private final StatClient statClient;
 
+    private final ReactiveStatClient reactiveStatClient;
+
     /**
      * Find event according to search filter. Only published events will be displayed. Information about this endpoint
      * is saved to stats server.
@@ -56,6 +70,7 @@ public class EventPublicController {
                                           HttpServletRequest request) {
         log.info("Requesting events, search filter: '{}'.", searchFilter);
         validateDateRange(searchFilter);
+        validateLocation(searchFilter);
         List<Event> events = eventService.findEvents(searchFilter, from, size);
         sendStatistics(request);
         return eventMapper.toShortDtoList(events);
@@ -63,7 +78,9 @@ public class EventPublicController {
 
     /**
      * Get full event info by event id. Number of endpoint hits is requested from stats server and used for number of
-     * events views.
+     * events views. Stats request is sent without blocking and runs concurrently with event lookup, endpoint hit is
+     * registered in background and is not awaited. Views are awaited between event lookup and update, outside of
+     * transaction, so database connection is not held while waiting for stats server.
      *
      * @param id      event id
      * @param request HttpServletRequest for request details. Information about this endpoint is saved to stats server.
@@ -73,25 +90,53 @@ public class EventPublicController {
     public EventFullDto getFullEventInfoById(@PathVariable Long id,
                                              HttpServletRequest request) {
         log.info("Requesting full event info with id '{}'.", id);
-        sendStatistics(request);
-        ViewStatsDto statistic = getStatisticsWithUniqueIp(request);
-        Long hits = statistic.getHits();
-        Event event = eventService.getFullEventInfoById(id, hits);
-        return eventMapper.toDto(event);
+        sendStatisticsAsync(request);
+        CompletableFuture<Long> views = getViewsWithUniqueIp(request);
+        Event event = eventService.getPublishedEvent(id);
+        Event eventWithViews = eventService.updateViews(event, views.join());
+        return eventMapper.toDto(eventWithViews);
+    }
+
+    /**
+     * Find comments of published event, ordered from oldest to newest. Full event info contains only latest comments,
+     * all comments are available page by page through this endpoint.
+     *
+     * @param id    event id
+     * @param after id of the last comment from previous page (not required, default value 0)
+     * @param size  number of comments to display (not required, default value 10)
+     * @return page of event comments
+     */
+    @GetMapping("/{id}/comments")
+    public List<CommentDto> findEventComments(@PathVariable Long id,
+                                              @RequestParam(defaultValue = "0") Long after,
+                                              @RequestParam(defaultValue = "10") Integer size) {
+        log.info("Requesting comments of event with id '{}', after = '{}', size = '{}'.", id, after, size);
+        List<Comment> comments = commentService.findEventComments(id, after, size);
+        return commentMapper.toDtoList(comments);
     }
 
     private void sendStatistics(HttpServletRequest request) {
-        EndpointHitDto endpointHitDto = EndpointHitDto.builder()
+        statClient.methodHit(createEndpointHit(request));
+    }
+
+    private void sendStatisticsAsync(HttpServletRequest request) {
+        reactiveStatClient.methodHit(createEndpointHit(request)).subscribe();
+    }
+
+    private EndpointHitDto createEndpointHit(HttpServletRequest request) {
+        return EndpointHitDto.builder()
                 .app(SERVICE_ID)
                 .ip(request.getRemoteAddr())
                 .uri(request.getRequestURI())
                 .timestamp(LocalDateTime.now())
                 .build();
-        statClient.methodHit(endpointHitDto);
     }
 
-    private ViewStatsDto getStatisticsWithUniqueIp(HttpServletRequest request) {
-        return statClient.getUniqueIpStatsForUri(request.getRequestURI());
+    private CompletableFuture<Long> getViewsWithUniqueIp(HttpServletRequest request) {
+        return reactiveStatClient.getUniqueIpStatsForUri(request.getRequestURI())
+                .map(ViewStatsDto::getHits)
+                .defaultIfEmpty(0L)
+                .toFuture();
     }
 
     private void validateDateRange(EventSearchFilter searchFilter) {
@@ -101,4 +146,26 @@ public class EventPublicController {
             }
         }
     }
+
+    private void validateLocation(EventSearchFilter searchFilter) {
+        Float lat = searchFilter.getLat();
+        Float lon = searchFilter.getLon();
+        Float radius = searchFilter.getRadius();
+        boolean distanceSort = searchFilter.getSort() == EventSort.DISTANCE;
+        if (lat == null && lon == null && radius == null && !distanceSort) {
+            return;
+        }
+        if (lat == null || lon == null) {
+            throw new IncorrectLocationFilterException("Both lat and lon must be set for location search.");
+        }
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new IncorrectLocationFilterException("Wrong coordinates: lat = " + lat + ", lon = " + lon + ".");
+        }
+        if (radius == null && !distanceSort) {
+            throw new IncorrectLocationFilterException("Radius must be set for location search.");
+        }
+        if (radius != null && radius <= 0) {
+            throw new IncorrectLocationFilterException("Radius must be positive.");
+        }
+    }
 }
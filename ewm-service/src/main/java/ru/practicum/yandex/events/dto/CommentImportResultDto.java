@@ -0,0 +1,15 @@
+package ru.practicum.yandex.events.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CommentImportResultDto {
+
+    private int imported;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.yandex.events.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EventCountersDto {
+
+    private Long eventId;
+
+    private long views;
+
+    private long confirmedRequests;
+}
@@ -8,6 +8,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 
 @Data
 @AllArgsConstructor
@@ -29,5 +30,29 @@ public class EventSearchFilter {
 
     private boolean onlyAvailable;
 
+    /**
+     * Latitude of search center in degrees.
+     */
+    private Float lat;
+
+    /**
+     * Longitude of search center in degrees.
+     */
+    private Float lon;
+
+    /**
+     * Search radius around center in kilometers.
+     */
+    private Float radius;
+
     private EventSort sort;
+
+    /**
+     * Search text as it is matched and cached: trimmed and in lower case.
+     *
+     * @return normalized search text or null if text is not set
+     */
+    public String getNormalizedText() {
+        return text == null ? null : text.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -4,5 +4,7 @@ public enum EventSort {
 
     EVENT_DATE,
     VIEWS,
-    MOST_COMMENTS
+    MOST_COMMENTS,
+    DISTANCE,
+    TRENDING
 }
@@ -0,0 +1,35 @@
+package ru.practicum.yandex.events.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportCommentDto {
+
+    @NotNull(message = "Event id must not be null or negative.")
+    @Positive(message = "Event id must not be null or negative.")
+    private Long eventId;
+
+    @NotNull(message = "Author id must not be null or negative.")
+    @Positive(message = "Author id must not be null or negative.")
+    private Long authorId;
+
+    @NotBlank(message = "Text must not be blank or empty and must have between 1 and 2000 characters.")
+    @Size(min = 1, max = 2000, message = "Text must not be blank or empty and must have between 1 and 2000 characters.")
+    private String text;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime postedOn;
+}
@@ -0,0 +1,27 @@
+package ru.practicum.yandex.events.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SavedCommentDto {
+
+    private Long id;
+
+    private Long eventId;
+
+    private Long authorId;
+
+    private String text;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime postedOn;
+}
@@ -4,6 +4,8 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.yandex.events.dto.AddCommentDto;
 import ru.practicum.yandex.events.dto.CommentDto;
+import ru.practicum.yandex.events.dto.ImportCommentDto;
+import ru.practicum.yandex.events.dto.SavedCommentDto;
 import ru.practicum.yandex.events.dto.ShortCommentDto;
 import ru.practicum.yandex.events.dto.UpdateCommentDto;
 import ru.practicum.yandex.events.model.Comment;
@@ -23,5 +25,15 @@ public interface CommentMapper {
 
     ShortCommentDto toShortDto(Comment comment);
 
-    List<AddCommentDto> toDtoList(List<Comment> comments);
+    List<CommentDto> toDtoList(List<Comment> comments);
+
+    @Mapping(source = "event.id", target = "eventId")
+    @Mapping(source = "author.id", target = "authorId")
+    SavedCommentDto toSavedDto(Comment comment);
+
+    @Mapping(source = "eventId", target = "event.id")
+    @Mapping(source = "authorId", target = "author.id")
+    Comment toModel(ImportCommentDto importCommentDto);
+
+    List<Comment> toModelList(List<ImportCommentDto> importCommentDtos);
 }
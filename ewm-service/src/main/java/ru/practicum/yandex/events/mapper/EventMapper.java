@@ -2,6 +2,7 @@ package ru.practicum.yandex.events.mapper;
 
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import ru.practicum.yandex.category.mapper.CategoryMapper;
 import ru.practicum.yandex.category.model.Category;
@@ -25,6 +26,7 @@ public interface EventMapper {
 
     NewEvent toModel(NewEventDto newEventDto);
 
+    @Mapping(source = "latestComments", target = "comments")
     EventFullDto toDto(Event addedEvent);
 
     List<EventFullDto> toDtoList(List<Event> events);
@@ -34,6 +36,7 @@ public interface EventMapper {
     List<EventShortDto> toShortDtoList(List<Event> events);
 
     @BeanMapping(nullValuePropertyMappingStrategy = IGNORE)
+    @Mapping(target = "location", ignore = true)
     void updateEvent(EventUpdateRequest updateEvent, @MappingTarget Event event);
 
     default Event toFullEvent(NewEvent newEventDto, Category category, User initiator, EventState state, Location location) {
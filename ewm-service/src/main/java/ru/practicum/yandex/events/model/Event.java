@@ -11,7 +11,6 @@ import ru.practicum.yandex.category.model.Category;
 import ru.practicum.yandex.compilation.model.Compilation;
 import ru.practicum.yandex.user.model.User;
 
-import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -26,6 +25,7 @@ import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -80,7 +80,7 @@ public class Event {
     @Column(name = "published_on")
     private LocalDateTime publishedOn;
 
-    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "location_id")
     @ToString.Exclude
     private Location location;
@@ -104,15 +104,15 @@ public class Event {
     @ToString.Exclude
     private final List<Compilation> compilations = new ArrayList<>();
 
+    @Transient
+    @ToString.Exclude
+    private List<Comment> latestComments;
+
     public int addParticipant() {
         return ++numberOfParticipants;
     }
 
-    public void addToCompilation(Compilation compilation) {
-        compilations.add(compilation);
-    }
-
-    public void addCommentToEvent(Comment comment) {
-        comments.add(comment);
+    public List<Comment> getLatestComments() {
+        return latestComments == null ? List.of() : latestComments;
     }
 }
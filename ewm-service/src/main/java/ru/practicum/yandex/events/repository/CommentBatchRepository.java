@@ -0,0 +1,10 @@
+package ru.practicum.yandex.events.repository;
+
+import ru.practicum.yandex.events.model.Comment;
+
+import java.util.List;
+
+public interface CommentBatchRepository {
+
+    int insertAll(List<Comment> comments);
+}
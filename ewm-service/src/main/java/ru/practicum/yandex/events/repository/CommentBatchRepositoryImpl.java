@@ -0,0 +1,45 @@
+package ru.practicum.yandex.events.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.yandex.events.model.Comment;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts comments with JDBC batches. Comment ids are generated by identity column, so Hibernate executes one insert
+ * per comment and batching is done here instead.
+ */
+@RequiredArgsConstructor
+public class CommentBatchRepositoryImpl implements CommentBatchRepository {
+
+    private static final String INSERT_COMMENT =
+            "INSERT INTO event_comments (text, created, event_id, author_id) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${ewm.comments.import-batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public int insertAll(List<Comment> comments) {
+        LocalDateTime now = LocalDateTime.now();
+        int[][] result = jdbcTemplate.batchUpdate(INSERT_COMMENT, comments, batchSize, (ps, comment) -> {
+            ps.setString(1, comment.getText());
+            ps.setTimestamp(2, Timestamp.valueOf(comment.getPostedOn() != null ? comment.getPostedOn() : now));
+            ps.setLong(3, comment.getEvent().getId());
+            ps.setLong(4, comment.getAuthor().getId());
+        });
+        int inserted = 0;
+        for (int[] batch : result) {
+            for (int rows : batch) {
+                inserted += rows == Statement.SUCCESS_NO_INFO ? 1 : rows;
+            }
+        }
+        return inserted;
+    }
+}
@@ -1,13 +1,23 @@
 package ru.practicum.yandex.events.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.yandex.events.model.Comment;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface CommentRepository extends JpaRepository<Comment, Long> {
+public interface CommentRepository extends JpaRepository<Comment, Long>, CommentBatchRepository {
 
     @Query("SELECT c FROM Comment c JOIN FETCH c.author a WHERE c.id = ?1")
     Optional<Comment> findCommentById(Long commentId);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author a WHERE c.event.id = ?1 AND c.id > ?2 ORDER BY c.id")
+    List<Comment> findEventCommentsAfter(Long eventId, Long afterCommentId, Pageable pageable);
+
+    @Query(value = "SELECT * FROM (SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.event_id ORDER BY c.id DESC) AS rn " +
+            "FROM event_comments c WHERE c.event_id IN (?1)) ranked WHERE ranked.rn <= ?2", nativeQuery = true)
+    List<Comment> findLatestEventsComments(Collection<Long> eventIds, int limit);
 }
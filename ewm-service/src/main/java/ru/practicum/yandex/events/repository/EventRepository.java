@@ -3,19 +3,33 @@ package ru.practicum.yandex.events.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.EventState;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
 
-    @Query("SELECT e FROM Event e JOIN FETCH e.category c JOIN FETCH e.initiator i JOIN FETCH  e.location LEFT JOIN FETCH e.comments WHERE i.id = ?1")
+    @Query("SELECT e FROM Event e JOIN FETCH e.category c JOIN FETCH e.initiator i JOIN FETCH  e.location WHERE i.id = ?1")
     List<Event> findEventsByUserId(Long userId, Pageable pageable);
 
-    @Query("SELECT e FROM Event e JOIN FETCH e.category c JOIN FETCH e.initiator i JOIN FETCH  e.location LEFT JOIN FETCH e.comments WHERE e.id = ?1")
+    @Query("SELECT e FROM Event e JOIN FETCH e.category c JOIN FETCH e.initiator i JOIN FETCH  e.location WHERE e.id = ?1")
     Optional<Event> findFullEventById(Long eventId);
 
+    @Query("SELECT e FROM Event e JOIN FETCH e.category c JOIN FETCH e.initiator i WHERE e.id IN ?1")
+    List<Event> findEventsWithCategoryAndInitiatorByIdIn(Collection<Long> eventIds);
+
     long countEventsByCategoryId(Long categoryId);
+
+    boolean existsByIdAndState(Long eventId, EventState state);
+
+    long countByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.views = ?2 WHERE e.id = ?1")
+    int updateViews(Long eventId, long views);
 }
@@ -2,15 +2,29 @@ package ru.practicum.yandex.events.repository;
 
 import lombok.experimental.UtilityClass;
 import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.yandex.events.dto.EventSearchFilter;
 import ru.practicum.yandex.events.model.Event;
 import ru.practicum.yandex.events.model.EventState;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @UtilityClass
 public class EventSpecification {
 
+    private static final double KM_PER_DEGREE = 111.195;
+
+    /**
+     * Match text in annotation or description ignoring case.
+     *
+     * @param text search text normalized by {@link EventSearchFilter#getNormalizedText()}
+     * @return specification or null if text is not set
+     */
     public static Specification<Event> textInAnnotationOrDescriptionIgnoreCase(String text) {
         if (text == null) {
             return null;
@@ -18,9 +32,9 @@ public class EventSpecification {
         return (root, query, criteriaBuilder) ->
                 criteriaBuilder.or(
                         criteriaBuilder.like(criteriaBuilder.lower(root.get("annotation")),
-                                "%" + text.toLowerCase() + "%"),
+                                "%" + text + "%"),
                         criteriaBuilder.like(criteriaBuilder.lower(root.get("description")),
-                                "%" + text.toLowerCase() + "%")
+                                "%" + text + "%")
                 );
     }
 
@@ -78,6 +92,77 @@ public class EventSpecification {
                 root.get("numberOfParticipants"));
     }
 
+    /**
+     * Events located within radius around center. Bounding box on location latitude and longitude is checked first,
+     * so that lat, lon index of locations table can be used, then distance is checked with equirectangular
+     * approximation, which is precise enough for city scale radius. If bounding box crosses antimeridian, longitude
+     * range is split in two at ±180°.
+     *
+     * @param lat    latitude of center in degrees
+     * @param lon    longitude of center in degrees
+     * @param radius radius in kilometers
+     * @return specification or null if filter is not set
+     */
+    public static Specification<Event> locationWithinRadius(Float lat, Float lon, Float radius) {
+        if (lat == null || lon == null || radius == null) {
+            return null;
+        }
+        double latDelta = radius / KM_PER_DEGREE;
+        double lonScale = Math.cos(Math.toRadians(lat));
+        double lonDelta = lonScale > 0 ? latDelta / lonScale : Double.MAX_VALUE;
+        return (root, query, criteriaBuilder) -> {
+            Path<Float> latPath = root.get("location").get("lat");
+            Path<Float> lonPath = root.get("location").get("lon");
+            Predicate latRange = criteriaBuilder.between(latPath, (float) (lat - latDelta), (float) (lat + latDelta));
+            Predicate withinRadius = criteriaBuilder.lessThanOrEqualTo(
+                    squaredDistanceInDegrees(root, criteriaBuilder, lat, lon), (float) (latDelta * latDelta));
+            if (lonDelta >= 180) {
+                return criteriaBuilder.and(latRange, withinRadius);
+            }
+            Predicate lonRange;
+            if (lon - lonDelta < -180) {
+                lonRange = criteriaBuilder.or(
+                        criteriaBuilder.greaterThanOrEqualTo(lonPath, (float) (lon - lonDelta + 360)),
+                        criteriaBuilder.lessThanOrEqualTo(lonPath, (float) (lon + lonDelta)));
+            } else if (lon + lonDelta > 180) {
+                lonRange = criteriaBuilder.or(
+                        criteriaBuilder.greaterThanOrEqualTo(lonPath, (float) (lon - lonDelta)),
+                        criteriaBuilder.lessThanOrEqualTo(lonPath, (float) (lon + lonDelta - 360)));
+            } else {
+                lonRange = criteriaBuilder.between(lonPath, (float) (lon - lonDelta), (float) (lon + lonDelta));
+            }
+            return criteriaBuilder.and(latRange, lonRange, withinRadius);
+        };
+    }
+
+    public static Specification<Event> orderByDistance(Specification<Event> spec, Float lat, Float lon) {
+        return (root, query, criteriaBuilder) -> {
+            query.orderBy(
+                    criteriaBuilder.asc(squaredDistanceInDegrees(root, criteriaBuilder, lat, lon)),
+                    criteriaBuilder.asc(root.get("id")));
+            return spec.toPredicate(root, query, criteriaBuilder);
+        };
+    }
+
+    /**
+     * Squared equirectangular distance in degrees of latitude. Longitude difference is wrapped into [-180, 180], so that
+     * points on both sides of antimeridian are near, and scaled by cosine of center latitude.
+     */
+    private static Expression<Float> squaredDistanceInDegrees(Root<Event> root, CriteriaBuilder criteriaBuilder,
+                                                              Float lat, Float lon) {
+        Path<Float> latPath = root.get("location").get("lat");
+        Path<Float> lonPath = root.get("location").get("lon");
+        Expression<Float> latDiff = criteriaBuilder.diff(latPath, lat);
+        Expression<Float> lonDiff = criteriaBuilder.diff(lonPath, lon);
+        Expression<Float> wrappedLonDiff = criteriaBuilder.<Float>selectCase()
+                .when(criteriaBuilder.gt(lonDiff, 180), criteriaBuilder.diff(lonDiff, 360F))
+                .when(criteriaBuilder.lt(lonDiff, -180), criteriaBuilder.sum(lonDiff, 360F))
+                .otherwise(lonDiff);
+        Expression<Float> scaledLonDiff = criteriaBuilder.prod(wrappedLonDiff, (float) Math.cos(Math.toRadians(lat)));
+        return criteriaBuilder.sum(criteriaBuilder.prod(latDiff, latDiff),
+                criteriaBuilder.prod(scaledLonDiff, scaledLonDiff));
+    }
+
     public static Specification<Event> orderByNumberOfComments(Specification<Event> spec) {
         return (root, query, criteriaBuilder) -> {
             query.orderBy(
@@ -111,4 +196,23 @@ public class EventSpecification {
             return spec.toPredicate(root, query, criteriaBuilder);
         };
     }
+
+    /**
+     * Order events by position in list of trending events, other events go after trending ones.
+     */
+    public static Specification<Event> orderByTrending(Specification<Event> spec, List<Long> trendingEventIds) {
+        if (trendingEventIds.isEmpty()) {
+            return orderById(spec);
+        }
+        return (root, query, criteriaBuilder) -> {
+            CriteriaBuilder.SimpleCase<Long, Integer> rank = criteriaBuilder.selectCase(root.get("id"));
+            for (int i = 0; i < trendingEventIds.size(); i++) {
+                rank = rank.when(trendingEventIds.get(i), i);
+            }
+            query.orderBy(
+                    criteriaBuilder.asc(rank.otherwise(trendingEventIds.size())),
+                    criteriaBuilder.asc(root.get("id")));
+            return spec.toPredicate(root, query, criteriaBuilder);
+        };
+    }
 }
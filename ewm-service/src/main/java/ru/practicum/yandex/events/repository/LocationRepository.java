@@ -3,5 +3,9 @@ package ru.practicum.yandex.events.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.yandex.events.model.Location;
 
-public interface LocationRepository extends JpaRepository<Location, Long> {
+import java.util.Optional;
+
+public interface LocationRepository extends JpaRepository<Location, Long>, LocationUpsertRepository {
+
+    Optional<Location> findByLatAndLon(Float lat, Float lon);
 }
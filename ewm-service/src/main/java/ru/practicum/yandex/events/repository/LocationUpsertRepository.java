@@ -0,0 +1,6 @@
+package ru.practicum.yandex.events.repository;
+
+public interface LocationUpsertRepository {
+
+    void insertIfAbsent(Float lat, Float lon);
+}
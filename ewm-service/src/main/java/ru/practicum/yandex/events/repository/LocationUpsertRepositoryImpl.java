@@ -0,0 +1,37 @@
+package ru.practicum.yandex.events.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Inserts location in single statement, which does nothing if location with same (lat, lon) exists, also when it was
+ * inserted by concurrent transaction. Unique constraint violation is not raised, so surrounding transaction is not
+ * aborted. PostgreSQL uses 'ON CONFLICT DO NOTHING', H2 uses 'MERGE ... KEY'.
+ */
+@RequiredArgsConstructor
+public class LocationUpsertRepositoryImpl implements LocationUpsertRepository {
+
+    private static final String INSERT_LOCATION_POSTGRESQL =
+            "INSERT INTO locations (lat, lon) VALUES (?, ?) ON CONFLICT (lat, lon) DO NOTHING";
+
+    private static final String MERGE_LOCATION = "MERGE INTO locations (lat, lon) KEY (lat, lon) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile String insertLocation;
+
+    @Override
+    public void insertIfAbsent(Float lat, Float lon) {
+        jdbcTemplate.update(getInsertLocation(), lat, lon);
+    }
+
+    private String getInsertLocation() {
+        if (insertLocation == null) {
+            String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            insertLocation = "PostgreSQL".equals(database) ? INSERT_LOCATION_POSTGRESQL : MERGE_LOCATION;
+        }
+        return insertLocation;
+    }
+}
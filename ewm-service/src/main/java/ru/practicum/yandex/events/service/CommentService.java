@@ -0,0 +1,20 @@
+package ru.practicum.yandex.events.service;
+
+import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.Event;
+
+import java.util.List;
+
+public interface CommentService {
+    Comment addComment(Long userId, Long eventId, Comment comment);
+
+    Comment updateComment(Long userId, Long eventId, Long commentId, String text);
+
+    int importComments(List<Comment> comments);
+
+    List<Comment> findEventComments(Long eventId, Long afterCommentId, Integer size);
+
+    Event attachLatestComments(Event event);
+
+    List<Event> attachLatestComments(List<Event> events);
+}
@@ -0,0 +1,183 @@
+package ru.practicum.yandex.events.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.EventState;
+import ru.practicum.yandex.events.repository.CommentRepository;
+import ru.practicum.yandex.events.repository.EventRepository;
+import ru.practicum.yandex.feed.model.ChangeType;
+import ru.practicum.yandex.feed.service.ChangeFeedService;
+import ru.practicum.yandex.shared.OffsetPageRequest;
+import ru.practicum.yandex.shared.exception.NotAuthorizedException;
+import ru.practicum.yandex.shared.exception.NotFoundException;
+import ru.practicum.yandex.user.repository.UserRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CommentServiceImpl implements CommentService {
+
+    private final CommentRepository commentRepository;
+
+    private final EventRepository eventRepository;
+
+    private final UserRepository userRepository;
+
+    private final ChangeFeedService changeFeedService;
+
+    @Value("${ewm.comments.latest-size:10}")
+    private int latestCommentsSize;
+
+    /**
+     * Add comment to event. Author and event are referenced by id only, they are not loaded to save comment.
+     *
+     * @param userId  user id adding comment
+     * @param eventId event id to comment
+     * @param comment comment
+     * @return saved comment
+     */
+    @Override
+    @Transactional
+    public Comment addComment(Long userId, Long eventId, Comment comment) {
+        checkIfUserExists(userId);
+        if (!eventRepository.existsById(eventId)) {
+            throw new NotFoundException("Event with id '" + eventId + "' was not found.");
+        }
+        comment.setAuthor(userRepository.getReferenceById(userId));
+        comment.setEvent(eventRepository.getReferenceById(eventId));
+        Comment savedComment = commentRepository.save(comment);
+        changeFeedService.recordCommentChange(savedComment, ChangeType.CREATED);
+        log.info("User with id '{}' added comment with id '{}' to event with id '{}'.", userId, savedComment.getId(),
+                eventId);
+        return savedComment;
+    }
+
+    /**
+     * Update comment text. Only author of comment can update comment, comment must belong to event. Neither author
+     * nor event are loaded.
+     *
+     * @param userId    user updating comment
+     * @param eventId   event of comment
+     * @param commentId comment id to update
+     * @param text      new comment text
+     * @return updated comment
+     */
+    @Override
+    @Transactional
+    public Comment updateComment(Long userId, Long eventId, Long commentId, String text) {
+        checkIfUserExists(userId);
+        Comment comment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new NotFoundException("Comment with id '" + commentId + "' not found."));
+        if (!comment.getAuthor().getId().equals(userId)) {
+            throw new NotAuthorizedException("User with id '" + userId + "' is not author of comment with id '" +
+                    commentId + "'.");
+        }
+        if (!comment.getEvent().getId().equals(eventId)) {
+            throw new NotFoundException("Comment with id '" + commentId + "' not found in event with id '" + eventId +
+                    "'.");
+        }
+        comment.setText(text);
+        changeFeedService.recordCommentChange(comment, ChangeType.UPDATED);
+        log.info("Comment with id '{}' was updated by user with id '{}'.", commentId, userId);
+        return comment;
+    }
+
+    /**
+     * Import comments in bulk, for example during moderation. Existence of all referenced events and authors is
+     * checked with one query per table, after that comments are inserted with JDBC batches in single transaction.
+     *
+     * @param comments comments with event and author ids
+     * @return number of imported comments
+     */
+    @Override
+    @Transactional
+    public int importComments(List<Comment> comments) {
+        if (comments.isEmpty()) {
+            return 0;
+        }
+        Set<Long> eventIds = comments.stream().map(comment -> comment.getEvent().getId()).collect(Collectors.toSet());
+        if (eventRepository.countByIdIn(eventIds) != eventIds.size()) {
+            throw new NotFoundException("Some of events with ids '" + eventIds + "' were not found.");
+        }
+        Set<Long> authorIds = comments.stream().map(comment -> comment.getAuthor().getId())
+                .collect(Collectors.toSet());
+        if (userRepository.countByIdIn(authorIds) != authorIds.size()) {
+            throw new NotFoundException("Some of users with ids '" + authorIds + "' were not found.");
+        }
+        int imported = commentRepository.insertAll(comments);
+        changeFeedService.recordCommentsImported(eventIds);
+        log.info("Imported '{}' comments to '{}' events.", imported, eventIds.size());
+        return imported;
+    }
+
+    /**
+     * Find comments of published event, ordered from oldest to newest. Comments are loaded page by page using id of
+     * the last comment from previous page as a cursor.
+     *
+     * @param eventId        event id
+     * @param afterCommentId id of the last comment from previous page, 0 for the first page
+     * @param size           number of comments to display
+     * @return page of event comments
+     */
+    @Override
+    public List<Comment> findEventComments(Long eventId, Long afterCommentId, Integer size) {
+        if (!eventRepository.existsByIdAndState(eventId, EventState.PUBLISHED)) {
+            throw new NotFoundException("Event with id '" + eventId + "' was not found.");
+        }
+        List<Comment> comments = commentRepository.findEventCommentsAfter(eventId, afterCommentId,
+                OffsetPageRequest.of(0L, size));
+        log.info("Requesting comments of event with id '{}' after comment with id '{}'. List size '{}'.", eventId,
+                afterCommentId, comments.size());
+        return comments;
+    }
+
+    /**
+     * Load latest comments of event, ordered from oldest to newest. Number of comments is limited by
+     * 'ewm.comments.latest-size' property, other comments are available through paged comments request.
+     *
+     * @param event event to attach comments to
+     * @return event with latest comments
+     */
+    @Override
+    public Event attachLatestComments(Event event) {
+        attachLatestComments(List.of(event));
+        return event;
+    }
+
+    /**
+     * Load latest comments for list of events with single query.
+     *
+     * @param events events to attach comments to
+     * @return events with latest comments
+     */
+    @Override
+    public List<Event> attachLatestComments(List<Event> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        List<Long> eventIds = events.stream().map(Event::getId).collect(Collectors.toList());
+        Map<Long, List<Comment>> commentsByEventId = commentRepository
+                .findLatestEventsComments(eventIds, latestCommentsSize).stream()
+                .sorted(Comparator.comparing(Comment::getId))
+                .collect(Collectors.groupingBy(comment -> comment.getEvent().getId()));
+        events.forEach(event -> event.setLatestComments(commentsByEventId.getOrDefault(event.getId(), List.of())));
+        return events;
+    }
+
+    private void checkIfUserExists(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("User with id '" + userId + "' not found.");
+        }
+    }
+}
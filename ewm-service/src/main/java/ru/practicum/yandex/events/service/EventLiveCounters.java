@@ -0,0 +1,318 @@
+package ru.practicum.yandex.events.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.yandex.events.dto.EventCountersDto;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.repository.EventRepository;
+import ru.practicum.yandex.shared.exception.SubscriberLimitExceededException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Live views and confirmed requests counters of events pushed to subscribers over Server-Sent Events. Counters are
+ * kept only for events that have subscribers and are updated in process when views are requested and participation
+ * requests are confirmed. Changed counters are sent once per tick, so number of sends does not depend on update rate.
+ * If subscriber is still receiving previous update, new values replace not yet sent ones instead of being queued.
+ * If maximum number of subscriptions is reached, new subscription is rejected with SubscriberLimitExceededException.
+ */
+@Component
+@Slf4j
+public class EventLiveCounters {
+
+    private static final String COUNTERS_EVENT_NAME = "counters";
+
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    private final EventRepository eventRepository;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    private final Set<Long> changedEventIds = ConcurrentHashMap.newKeySet();
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger reservedSubscriptions = new AtomicInteger();
+
+    private final ExecutorService sendExecutor;
+
+    private final Duration emitterTimeout;
+
+    private final int maxSubscriptions;
+
+    public EventLiveCounters(EventRepository eventRepository,
+                             @Value("${ewm.live.send-threads:4}") int sendThreads,
+                             @Value("${ewm.live.emitter-timeout:30m}") Duration emitterTimeout,
+                             @Value("${ewm.live.max-subscriptions:10000}") int maxSubscriptions) {
+        this.eventRepository = eventRepository;
+        this.sendExecutor = Executors.newFixedThreadPool(sendThreads, new CustomizableThreadFactory("event-live-"));
+        this.emitterTimeout = emitterTimeout;
+        this.maxSubscriptions = maxSubscriptions;
+    }
+
+    /**
+     * Subscribe to counters of events. Current counters are sent right after subscription, after that only changed
+     * counters are sent. Events that were not found are ignored. Slot of subscription is reserved before emitter is
+     * created and released when subscription is closed.
+     * <p>
+     * Current counters are sent on calling thread: emitter is not initialized by Spring MVC yet, so they are buffered
+     * until it is. Updates are not sent to subscription until current counters are buffered.
+     *
+     * @param eventIds ids of events to subscribe to
+     * @return emitter of counters updates
+     */
+    public SseEmitter subscribe(Collection<Long> eventIds) {
+        reserveSubscription();
+        final SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        final Set<Long> ids;
+        try {
+            ids = loadCounters(Set.copyOf(eventIds));
+        } catch (RuntimeException e) {
+            reservedSubscriptions.decrementAndGet();
+            throw e;
+        }
+        final Subscription subscription = new Subscription(emitter, ids);
+        subscription.sending.set(true);
+        subscriptions.add(subscription);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscription));
+        try {
+            final List<EventCountersDto> current = new ArrayList<>(ids.size());
+            ids.forEach(id -> {
+                final Counters eventCounters = counters.get(id);
+                if (eventCounters != null) {
+                    current.add(eventCounters.toDto(id));
+                }
+            });
+            if (!current.isEmpty()) {
+                emitter.send(SseEmitter.event()
+                        .name(COUNTERS_EVENT_NAME)
+                        .data(current, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException e) {
+            unsubscribe(subscription);
+            throw new UncheckedIOException(e);
+        } finally {
+            subscription.sending.set(false);
+        }
+        if (!subscription.pending.isEmpty()) {
+            send(subscription);
+        }
+        log.info("Subscribed to live counters of events '{}'.", ids);
+        return emitter;
+    }
+
+    /**
+     * Update number of event views. If called in transaction, counter is updated after commit.
+     *
+     * @param eventId event id
+     * @param views   number of views
+     */
+    public void updateViews(Long eventId, long views) {
+        afterCommit(() -> {
+            final Counters eventCounters = counters.get(eventId);
+            if (eventCounters != null && eventCounters.views != views) {
+                eventCounters.views = views;
+                changedEventIds.add(eventId);
+            }
+        });
+    }
+
+    /**
+     * Update number of confirmed participation requests. If called in transaction, counter is updated after commit.
+     *
+     * @param eventId           event id
+     * @param confirmedRequests number of confirmed participation requests
+     */
+    public void updateConfirmedRequests(Long eventId, long confirmedRequests) {
+        afterCommit(() -> {
+            final Counters eventCounters = counters.get(eventId);
+            if (eventCounters != null && eventCounters.confirmedRequests != confirmedRequests) {
+                eventCounters.confirmedRequests = confirmedRequests;
+                changedEventIds.add(eventId);
+            }
+        });
+    }
+
+    @Scheduled(fixedRateString = "${ewm.live.tick-interval:1000}")
+    public void sendChangedCounters() {
+        if (changedEventIds.isEmpty()) {
+            return;
+        }
+        final Map<Long, EventCountersDto> changed = new HashMap<>();
+        for (Long eventId : List.copyOf(changedEventIds)) {
+            changedEventIds.remove(eventId);
+            final Counters eventCounters = counters.get(eventId);
+            if (eventCounters != null) {
+                changed.put(eventId, eventCounters.toDto(eventId));
+            }
+        }
+        for (Subscription subscription : subscriptions) {
+            boolean hasUpdates = false;
+            for (Long eventId : subscription.eventIds) {
+                final EventCountersDto dto = changed.get(eventId);
+                if (dto != null) {
+                    subscription.pending.put(eventId, dto);
+                    hasUpdates = true;
+                }
+            }
+            if (hasUpdates) {
+                send(subscription);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    private void send(Subscription subscription) {
+        if (!subscription.sending.compareAndSet(false, true)) {
+            return;
+        }
+        sendExecutor.execute(() -> {
+            try {
+                final List<EventCountersDto> updates = new ArrayList<>(subscription.pending.size());
+                for (Long eventId : List.copyOf(subscription.pending.keySet())) {
+                    final EventCountersDto dto = subscription.pending.remove(eventId);
+                    if (dto != null) {
+                        updates.add(dto);
+                    }
+                }
+                if (!updates.isEmpty()) {
+                    subscription.emitter.send(SseEmitter.event()
+                            .name(COUNTERS_EVENT_NAME)
+                            .data(updates, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Failed to send live counters, subscription is closed: {}.", e.toString());
+                unsubscribe(subscription);
+                subscription.emitter.completeWithError(e);
+            } finally {
+                subscription.sending.set(false);
+            }
+            if (!subscription.pending.isEmpty() && subscriptions.contains(subscription)) {
+                send(subscription);
+            }
+        });
+    }
+
+    private void reserveSubscription() {
+        int reserved;
+        do {
+            reserved = reservedSubscriptions.get();
+            if (reserved >= maxSubscriptions) {
+                throw new SubscriberLimitExceededException("Live counters subscription was rejected, '" +
+                        reserved + "' subscriptions are active.", RETRY_AFTER_SECONDS);
+            }
+        } while (!reservedSubscriptions.compareAndSet(reserved, reserved + 1));
+    }
+
+    private Set<Long> loadCounters(Set<Long> eventIds) {
+        final Set<Long> subscribedIds = ConcurrentHashMap.newKeySet();
+        eventIds.forEach(id -> counters.computeIfPresent(id, (key, eventCounters) -> {
+            eventCounters.subscribers++;
+            subscribedIds.add(id);
+            return eventCounters;
+        }));
+        final Set<Long> missingIds = eventIds.stream()
+                .filter(id -> !subscribedIds.contains(id))
+                .collect(Collectors.toSet());
+        if (!missingIds.isEmpty()) {
+            for (Event event : eventRepository.findAllById(missingIds)) {
+                counters.merge(event.getId(), new Counters(event.getViews(), event.getNumberOfParticipants()),
+                        (current, loaded) -> {
+                            current.subscribers++;
+                            return current;
+                        });
+                subscribedIds.add(event.getId());
+            }
+        }
+        return subscribedIds;
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (!subscriptions.remove(subscription)) {
+            return;
+        }
+        reservedSubscriptions.decrementAndGet();
+        subscription.eventIds.forEach(id -> counters.computeIfPresent(id, (key, eventCounters) ->
+                --eventCounters.subscribers == 0 ? null : eventCounters));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class Counters {
+
+        private volatile long views;
+
+        private volatile long confirmedRequests;
+
+        private int subscribers = 1;
+
+        Counters(long views, long confirmedRequests) {
+            this.views = views;
+            this.confirmedRequests = confirmedRequests;
+        }
+
+        EventCountersDto toDto(Long eventId) {
+            return EventCountersDto.builder()
+                    .eventId(eventId)
+                    .views(views)
+                    .confirmedRequests(confirmedRequests)
+                    .build();
+        }
+    }
+
+    private static class Subscription {
+
+        private final SseEmitter emitter;
+
+        private final Set<Long> eventIds;
+
+        private final Map<Long, EventCountersDto> pending = new ConcurrentHashMap<>();
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscription(SseEmitter emitter, Set<Long> eventIds) {
+            this.emitter = emitter;
+            this.eventIds = eventIds;
+        }
+    }
+}
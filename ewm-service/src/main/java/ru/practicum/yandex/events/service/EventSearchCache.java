@@ -0,0 +1,194 @@
+package ru.practicum.yandex.events.service;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.yandex.events.dto.EventSearchFilter;
+import ru.practicum.yandex.events.dto.EventSort;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of public event search results. Stores ids of found events per page, keyed by normalized search filter:
+ * trimmed lower case text, sorted distinct category ids, exact date range as it is used by query. Concurrent
+ * requests with the same key wait for single query instead of running it each. Cache is invalidated when events are published,
+ * updated or canceled, entries also expire after 'ewm.events.search-cache.ttl' to pick up changes of views and
+ * confirmed requests.
+ */
+@Component
+@Slf4j
+public class EventSearchCache {
+
+    private final Map<SearchKey, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Duration ttl;
+
+    private final int maxEntries;
+
+    public EventSearchCache(@Value("${ewm.events.search-cache.ttl:30s}") Duration ttl,
+                            @Value("${ewm.events.search-cache.max-entries:10000}") int maxEntries) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Get ids of found events from cache. If there is no cached result, search is run once for all concurrent
+     * requests with the same key.
+     *
+     * @param searchFilter search filter
+     * @param from         first element to display
+     * @param size         number of elements to display
+     * @param search       search returning ids of found events
+     * @return ids of found events in search order
+     */
+    public List<Long> getEventIds(EventSearchFilter searchFilter, Long from, Integer size,
+                                  Supplier<List<Long>> search) {
+        final SearchKey key = SearchKey.of(searchFilter, from, size);
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired()) {
+            return join(entry);
+        }
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(Entry::isExpired);
+            if (entries.size() >= maxEntries) {
+                return search.get();
+            }
+        }
+        final Entry created = new Entry(System.nanoTime() + ttl.toNanos());
+        final Entry winner;
+        if (entry == null) {
+            final Entry existing = entries.putIfAbsent(key, created);
+            winner = existing == null ? created : existing;
+        } else {
+            winner = entries.replace(key, entry, created) ? created : entries.getOrDefault(key, created);
+        }
+        if (winner != created) {
+            return join(winner);
+        }
+        final long searchGeneration = generation.get();
+        try {
+            final List<Long> eventIds = List.copyOf(search.get());
+            created.result.complete(eventIds);
+            if (generation.get() != searchGeneration) {
+                // Cache was invalidated while search was running, result may be stale.
+                entries.remove(key, created);
+            }
+            return eventIds;
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drop all cached search results. Results are dropped immediately and once more after current transaction is
+     * completed, so that search run before commit does not leave stale result in cache.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        entries.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                    entries.clear();
+                }
+            });
+        }
+        log.debug("Event search cache was invalidated.");
+    }
+
+    private List<Long> join(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<List<Long>> result = new CompletableFuture<>();
+
+        private final long expiresAt;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+
+    @EqualsAndHashCode
+    @ToString
+    private static final class SearchKey {
+
+        private final String text;
+
+        private final List<Long> categories;
+
+        private final Boolean paid;
+
+        private final LocalDateTime rangeStart;
+
+        private final LocalDateTime rangeEnd;
+
+        private final boolean onlyAvailable;
+
+        private final Float lat;
+
+        private final Float lon;
+
+        private final Float radius;
+
+        private final EventSort sort;
+
+        private final Long from;
+
+        private final Integer size;
+
+        private SearchKey(EventSearchFilter filter, Long from, Integer size) {
+            this.text = filter.getNormalizedText();
+            this.categories = filter.getCategories() == null ? null : filter.getCategories().stream()
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+            this.paid = filter.getPaid();
+            this.rangeStart = filter.getRangeStart();
+            this.rangeEnd = filter.getRangeEnd();
+            this.onlyAvailable = filter.isOnlyAvailable();
+            this.lat = filter.getLat();
+            this.lon = filter.getLon();
+            this.radius = filter.getRadius();
+            this.sort = filter.getSort();
+            this.from = from;
+            this.size = size;
+        }
+
+        static SearchKey of(EventSearchFilter filter, Long from, Integer size) {
+            return new SearchKey(filter, from, size);
+        }
+    }
+}
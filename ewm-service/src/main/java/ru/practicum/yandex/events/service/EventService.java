@@ -13,13 +13,17 @@ public interface EventService {
 
     Event getFullEventInfoById(Long id, Long views);
 
+    Event getPublishedEvent(Long id);
+
+    Event updateViews(Event event, Long views);
+
     List<Event> getFullEventsInfoByAdmin(EventAdminSearchFilter searchFilter, Long from, Integer size);
 
     Event updateEventByAdmin(Long eventId, EventUpdateRequest updateRequest);
 
     Event addCommentToEvent(Long userId, Long eventId, Comment commentRequest);
 
-    Event updateComment(Long userId, Long commentId, Comment commentRequest);
+    Event updateComment(Long userId, Long eventId, Comment commentRequest);
 
     void deleteComment(Long userId, Long commentId);
 }
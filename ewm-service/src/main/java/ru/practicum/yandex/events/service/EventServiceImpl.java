@@ -15,6 +15,8 @@ import ru.practicum.yandex.events.model.Event;
 import ru.practicum.yandex.events.model.EventState;
 import ru.practicum.yandex.events.repository.CommentRepository;
 import ru.practicum.yandex.events.repository.EventRepository;
+import ru.practicum.yandex.feed.model.ChangeType;
+import ru.practicum.yandex.feed.service.ChangeFeedService;
 import ru.practicum.yandex.events.repository.EventSpecification;
 import ru.practicum.yandex.shared.OffsetPageRequest;
 import ru.practicum.yandex.shared.exception.NotAuthorizedException;
@@ -26,7 +28,10 @@ import ru.practicum.yandex.user.repository.UserRepository;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.yandex.events.repository.EventSpecification.categoriesIdIn;
@@ -36,6 +41,7 @@ import static ru.practicum.yandex.events.repository.EventSpecification.eventStat
 import static ru.practicum.yandex.events.repository.EventSpecification.initiatorIdIn;
 import static ru.practicum.yandex.events.repository.EventSpecification.isAvailable;
 import static ru.practicum.yandex.events.repository.EventSpecification.isPaid;
+import static ru.practicum.yandex.events.repository.EventSpecification.locationWithinRadius;
 import static ru.practicum.yandex.events.repository.EventSpecification.textInAnnotationOrDescriptionIgnoreCase;
 
 @Service
@@ -49,6 +55,18 @@ public class EventServiceImpl implements EventService {
 
     private final CommentRepository commentRepository;
 
+    private final CommentService commentService;
+
+    private final LocationService locationService;
+
+    private final EventSearchCache eventSearchCache;
+
+    private final ChangeFeedService changeFeedService;
+
+    private final EventLiveCounters eventLiveCounters;
+
+    private final TrendingEvents trendingEvents;
+
     private final EventMapper eventMapper;
 
     /**
@@ -63,11 +81,13 @@ public class EventServiceImpl implements EventService {
      */
     @Override
     public List<Event> findEvents(EventSearchFilter searchFilter, Long from, Integer size) {
-        OffsetPageRequest pageRequest = OffsetPageRequest.of(from, size);
-        List<Specification<Event>> specifications = eventSearchFilterToSpecifications(searchFilter);
-        Specification<Event> resultSpec = specifications.stream().reduce(Specification::and).orElse(null);
-        List<Event> events = eventRepository.findAll(getSort(searchFilter.getSort(), resultSpec),
-                pageRequest).getContent();
+        AtomicReference<List<Event>> foundEvents = new AtomicReference<>();
+        List<Long> eventIds = eventSearchCache.getEventIds(searchFilter, from, size, () -> {
+            List<Event> events = searchEvents(searchFilter, from, size);
+            foundEvents.set(events);
+            return events.stream().map(Event::getId).collect(Collectors.toList());
+        });
+        List<Event> events = foundEvents.get() != null ? foundEvents.get() : findEventsByIds(eventIds);
         log.info("Requesting events with filter '{}'. List size '{}.", searchFilter, events.size());
         return events;
     }
@@ -81,16 +101,44 @@ public class EventServiceImpl implements EventService {
      */
     @Override
     public Event getFullEventInfoById(Long id, Long views) {
+        return updateViews(getPublishedEvent(id), views);
+    }
+
+    /**
+     * Get published event by id. Lets caller look up event while number of views is still being computed and set
+     * views afterwards with {@link #updateViews(Event, Long)}.
+     *
+     * @param id event id to find
+     * @return found event
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Event getPublishedEvent(Long id) {
         Event event = getEvent(id);
         if (!event.getState().equals(EventState.PUBLISHED)) {
             throw new NotFoundException("Event with id '" + id + "' is not published. State: '" + event.getState() + "'");
         }
-        event.setViews(views);
-        eventRepository.save(event);
-        log.info("Requesting full event info with id '{}'.", id);
         return event;
     }
 
+    /**
+     * Save number of views of published event. Only views column is updated, so that changes of event committed
+     * after it was looked up are kept.
+     *
+     * @param event published event
+     * @param views number of event views
+     * @return event with views and latest comments
+     */
+    @Override
+    @Transactional
+    public Event updateViews(Event event, Long views) {
+        event.setViews(views);
+        eventRepository.updateViews(event.getId(), views);
+        eventLiveCounters.updateViews(event.getId(), event.getViews());
+        log.info("Requesting full event info with id '{}'.", event.getId());
+        return commentService.attachLatestComments(event);
+    }
+
     /**
      * Find full events info according to search filter. If nothing was found, returns empty list.
      *
@@ -106,7 +154,7 @@ public class EventServiceImpl implements EventService {
         List<Event> events = eventRepository.findAll(specifications.stream().reduce(Specification::and).orElse(null),
                 pageRequest).getContent();
         log.info("Requesting full events info by admin  with filter '{}'. List size '{}'.", searchFilter, events.size());
-        return events;
+        return commentService.attachLatestComments(events);
     }
 
     /**
@@ -122,10 +170,16 @@ public class EventServiceImpl implements EventService {
     public Event updateEventByAdmin(Long eventId, EventUpdateRequest updateRequest) {
         Event event = getEvent(eventId);
         eventMapper.updateEvent(updateRequest, event);
+        if (updateRequest.getLocation() != null) {
+            event.setLocation(locationService.getOrCreateLocation(updateRequest.getLocation().getLat(),
+                    updateRequest.getLocation().getLon()));
+        }
         updateEventState(updateRequest.getStateAction(), event);
         Event savedEvent = eventRepository.save(event);
+        changeFeedService.recordEventChange(savedEvent, ChangeType.UPDATED);
+        eventSearchCache.invalidate();
         log.info("Event with id '{}' was updated by admin.", eventId);
-        return savedEvent;
+        return commentService.attachLatestComments(savedEvent);
     }
 
     /**
@@ -138,19 +192,14 @@ public class EventServiceImpl implements EventService {
      */
     @Override
     public Event addCommentToEvent(Long userId, Long eventId, Comment comment) {
-        final User user = getUser(userId);
+        commentService.addComment(userId, eventId, comment);
         final Event event = getEvent(eventId);
-        comment.setAuthor(user);
-        comment.setEvent(event);
-        Comment savedComment = commentRepository.save(comment);
-        event.addCommentToEvent(savedComment);
-        eventRepository.save(event);
         log.info("User with id '{}' added comment to event with id '{}'.", userId, eventId);
-        return event;
+        return commentService.attachLatestComments(event);
     }
 
     /**
-     * Update comment. Only author of comment can update comment.
+     * Update comment. Only author of comment can update comment, comment must belong to event.
      *
      * @param userId        user updating comment
      * @param eventId       event comment to update
@@ -159,14 +208,11 @@ public class EventServiceImpl implements EventService {
      */
     @Override
     public Event updateComment(Long userId, Long eventId, Comment updateComment) {
-        getUser(userId);
-        Comment comment = getComment(updateComment.getId());
-        checkIfUserIsCommentAuthor(userId, comment);
-        comment.setText(updateComment.getText());
-        Comment updatedComment = commentRepository.save(comment);
+        Comment updatedComment = commentService.updateComment(userId, eventId, updateComment.getId(),
+                updateComment.getText());
         Event event = getEvent(eventId);
         log.info("Comment with id '" + updatedComment.getId() + "' was updated.");
-        return event;
+        return commentService.attachLatestComments(event);
     }
 
     /**
@@ -176,10 +222,12 @@ public class EventServiceImpl implements EventService {
      * @param commentId comment id to delete
      */
     @Override
+    @Transactional
     public void deleteComment(Long userId, Long commentId) {
         getUser(userId);
         Comment comment = getComment(commentId);
         checkIfUserIsCommentAuthor(userId, comment);
+        changeFeedService.recordCommentChange(comment, ChangeType.DELETED);
         commentRepository.deleteById(commentId);
         log.info("Comment with id '" + commentId + "' was deleted by user with id '" + userId + "'.");
     }
@@ -236,7 +284,27 @@ public class EventServiceImpl implements EventService {
                 .orElseThrow(() -> new NotFoundException("User with id '" + userId + "' not found."));
     }
 
-    private Specification<Event> getSort(EventSort eventSort, Specification<Event> spec) {
+    private List<Event> searchEvents(EventSearchFilter searchFilter, Long from, Integer size) {
+        OffsetPageRequest pageRequest = OffsetPageRequest.of(from, size);
+        List<Specification<Event>> specifications = eventSearchFilterToSpecifications(searchFilter);
+        Specification<Event> resultSpec = specifications.stream().reduce(Specification::and).orElse(null);
+        return eventRepository.findAll(getSort(searchFilter, resultSpec), pageRequest).getContent();
+    }
+
+    private List<Event> findEventsByIds(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Event> eventsById = eventRepository.findEventsWithCategoryAndInitiatorByIdIn(eventIds).stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        return eventIds.stream()
+                .map(eventsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Specification<Event> getSort(EventSearchFilter searchFilter, Specification<Event> spec) {
+        EventSort eventSort = searchFilter.getSort();
         if (eventSort == null) {
             return EventSpecification.orderById(spec);
         }
@@ -247,6 +315,10 @@ public class EventServiceImpl implements EventService {
                 return EventSpecification.orderByEventDate(spec);
             case MOST_COMMENTS:
                 return EventSpecification.orderByNumberOfComments(spec);
+            case DISTANCE:
+                return EventSpecification.orderByDistance(spec, searchFilter.getLat(), searchFilter.getLon());
+            case TRENDING:
+                return EventSpecification.orderByTrending(spec, trendingEvents.getTrendingEventIds());
             default:
                 throw new IllegalArgumentException("Sort '" + eventSort + "is not supported yet.");
         }
@@ -255,11 +327,13 @@ public class EventServiceImpl implements EventService {
     private List<Specification<Event>> eventSearchFilterToSpecifications(EventSearchFilter searchFilter) {
         List<Specification<Event>> resultSpecification = new ArrayList<>();
         resultSpecification.add(eventStatusEquals(EventState.PUBLISHED));
-        resultSpecification.add(textInAnnotationOrDescriptionIgnoreCase(searchFilter.getText()));
+        resultSpecification.add(textInAnnotationOrDescriptionIgnoreCase(searchFilter.getNormalizedText()));
         resultSpecification.add(categoriesIdIn(searchFilter.getCategories()));
         resultSpecification.add(isPaid(searchFilter.getPaid()));
         resultSpecification.add(eventDateInRange(searchFilter.getRangeStart(), searchFilter.getRangeEnd()));
         resultSpecification.add(isAvailable(searchFilter.isOnlyAvailable()));
+        resultSpecification.add(locationWithinRadius(searchFilter.getLat(), searchFilter.getLon(),
+                searchFilter.getRadius()));
         return resultSpecification.stream().filter(Objects::nonNull).collect(Collectors.toList());
     }
 
@@ -0,0 +1,7 @@
+package ru.practicum.yandex.events.service;
+
+import ru.practicum.yandex.events.model.Location;
+
+public interface LocationService {
+    Location getOrCreateLocation(Float lat, Float lon);
+}
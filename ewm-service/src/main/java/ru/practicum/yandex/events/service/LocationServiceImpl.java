@@ -0,0 +1,117 @@
+package ru.practicum.yandex.events.service;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.yandex.events.model.Location;
+import ru.practicum.yandex.events.repository.LocationRepository;
+import ru.practicum.yandex.shared.exception.NotFoundException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Interning location store. Each (lat, lon) pair is stored once and shared by all events at this venue. Known
+ * locations are served from memory, unknown are inserted only if absent and then looked up by unique (lat, lon) key.
+ * Locations are cached only after transaction which found or created them is committed, so ids of rolled back
+ * locations are never served. Locations are never modified or deleted, so cached entries do not become stale. Least
+ * recently used locations are evicted when cache is full.
+ */
+@Service
+@Slf4j
+public class LocationServiceImpl implements LocationService {
+
+    private static final double COORDINATE_QUANTUM = 1_000_000d;
+
+    private final LocationRepository locationRepository;
+
+    private final Map<LocationKey, Location> locations;
+
+    public LocationServiceImpl(LocationRepository locationRepository,
+                               @Value("${ewm.locations.cache-size:100000}") int cacheSize) {
+        this.locationRepository = locationRepository;
+        this.locations = Collections.synchronizedMap(new LocationCache(cacheSize));
+    }
+
+    /**
+     * Get location with given coordinates, location is created if it does not exist yet. Coordinates are quantized to
+     * 1e-6 degree when looking up cache.
+     *
+     * @param lat latitude
+     * @param lon longitude
+     * @return location
+     */
+    @Override
+    @Transactional
+    public Location getOrCreateLocation(Float lat, Float lon) {
+        final LocationKey key = LocationKey.of(lat, lon);
+        final Location cached = locations.get(key);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        locationRepository.insertIfAbsent(lat, lon);
+        final Location location = locationRepository.findByLatAndLon(lat, lon)
+                .orElseThrow(() -> new NotFoundException("Location with lat '" + lat + "' and lon '" + lon +
+                        "' was not found."));
+        cacheAfterCommit(key, location);
+        log.info("Location '{}' was found or created.", location);
+        return location;
+    }
+
+    private void cacheAfterCommit(LocationKey key, Location location) {
+        final Location snapshot = copyOf(location);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            locations.putIfAbsent(key, snapshot);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                locations.putIfAbsent(key, snapshot);
+            }
+        });
+    }
+
+    private Location copyOf(Location location) {
+        return Location.builder()
+                .id(location.getId())
+                .lat(location.getLat())
+                .lon(location.getLon())
+                .build();
+    }
+
+    private static final class LocationCache extends LinkedHashMap<LocationKey, Location> {
+
+        private final int maxSize;
+
+        LocationCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocationKey, Location> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    private static final class LocationKey {
+
+        private final long lat;
+
+        private final long lon;
+
+        static LocationKey of(Float lat, Float lon) {
+            return new LocationKey(Math.round(lat * COORDINATE_QUANTUM), Math.round(lon * COORDINATE_QUANTUM));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.yandex.events.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.ReactiveStatClient;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Ids of most viewed events of sliding window 'ewm.events.trending.window' (HOUR, DAY or WEEK), taken from trending
+ * uris of stat server. If stat server is unavailable, there are no trending events.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingEvents {
+
+    private static final String SERVICE_ID = "ewm-main-service";
+
+    private static final Pattern EVENT_URI = Pattern.compile("/events/(\\d+)");
+
+    private final ReactiveStatClient reactiveStatClient;
+
+    @Value("${ewm.events.trending.window:DAY}")
+    private String window = "DAY";
+
+    @Value("${ewm.events.trending.limit:100}")
+    private int limit = 100;
+
+    /**
+     * Get ids of trending events.
+     *
+     * @return event ids, most viewed first
+     */
+    public List<Long> getTrendingEventIds() {
+        List<ViewStatsDto> trending = reactiveStatClient.getTrending(window, SERVICE_ID, limit).collectList().block();
+        if (trending == null) {
+            return List.of();
+        }
+        List<Long> eventIds = trending.stream()
+                .map(stats -> EVENT_URI.matcher(stats.getUri()))
+                .filter(Matcher::matches)
+                .map(matcher -> Long.valueOf(matcher.group(1)))
+                .distinct()
+                .collect(Collectors.toList());
+        log.info("Found '{}' trending events for window '{}'.", eventIds.size(), window);
+        return eventIds;
+    }
+}
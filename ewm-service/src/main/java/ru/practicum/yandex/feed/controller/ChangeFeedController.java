@@ -0,0 +1,52 @@
+package ru.practicum.yandex.feed.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import ru.practicum.yandex.feed.dto.ChangeRecordDto;
+import ru.practicum.yandex.feed.service.ChangeFeedPoller;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.util.List;
+
+/**
+ * Admin API for incremental feed of event, participation request and comment changes
+ */
+@RestController
+@RequestMapping("/admin/changes")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class ChangeFeedController {
+
+    private final ChangeFeedPoller changeFeedPoller;
+
+    /**
+     * Get changes recorded after change with specified id, ordered by id. Consumer resumes from id of the last
+     * received change. If there are no new changes, response is delayed until changes are recorded or timeout
+     * expires, in which case empty list is returned. If change with specified id was deleted after retention period,
+     * returns 410 response status and consumer has to read changes from the beginning. If too many requests are
+     * waiting for changes, returns 503 response status with Retry-After header.
+     *
+     * @param after   id of the last received change, 0 to read from the oldest kept change
+     * @param size    maximum number of changes to return
+     * @param timeout time to wait for new changes, ms, 0 to return immediately
+     * @return list of changes
+     */
+    @GetMapping
+    public DeferredResult<List<ChangeRecordDto>> findChanges(@RequestParam(defaultValue = "0") @PositiveOrZero Long after,
+                                                             @RequestParam(defaultValue = "100") @Positive @Max(1000)
+                                                             Integer size,
+                                                             @RequestParam(defaultValue = "30000") @PositiveOrZero
+                                                             @Max(60000) Long timeout) {
+        log.info("Requesting changes after change with id '{}', size '{}', timeout '{}' ms.", after, size, timeout);
+        return changeFeedPoller.poll(after, size, timeout);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.yandex.feed.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.yandex.feed.model.ChangeEntityType;
+import ru.practicum.yandex.feed.model.ChangeType;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ChangeRecordDto {
+
+    private Long id;
+
+    private ChangeEntityType entityType;
+
+    private Long entityId;
+
+    private Long eventId;
+
+    private ChangeType changeType;
+
+    private String state;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdOn;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.yandex.feed.mapper;
+
+import org.mapstruct.Mapper;
+import ru.practicum.yandex.feed.dto.ChangeRecordDto;
+import ru.practicum.yandex.feed.model.ChangeRecord;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface ChangeRecordMapper {
+
+    ChangeRecordDto toDto(ChangeRecord changeRecord);
+
+    List<ChangeRecordDto> toDtoList(List<ChangeRecord> changeRecords);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.yandex.feed.model;
+
+public enum ChangeEntityType {
+    EVENT,
+    PARTICIPATION,
+    COMMENT
+}
@@ -0,0 +1,59 @@
+package ru.practicum.yandex.feed.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.CreationTimestamp;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * Change of event, participation request or comment saved to outbox in the same transaction as the change itself.
+ * Records are ordered by id, which is used by consumers as a cursor. Entity id is not set for comments imported in
+ * bulk.
+ */
+@Entity
+@Table(name = "change_records")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@Builder
+public class ChangeRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type")
+    private ChangeEntityType entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type")
+    private ChangeType changeType;
+
+    private String state;
+
+    @CreationTimestamp
+    @Column(name = "created_on")
+    private LocalDateTime createdOn;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.yandex.feed.model;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,22 @@
+package ru.practicum.yandex.feed.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.yandex.feed.model.ChangeRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChangeRecordRepository extends JpaRepository<ChangeRecord, Long> {
+
+    List<ChangeRecord> findByIdGreaterThanAndIdLessThanOrderByIdAsc(Long afterId, Long beforeId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM ChangeRecord c")
+    Long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM ChangeRecord c WHERE c.createdOn < ?1")
+    int deleteCreatedBefore(LocalDateTime dateTime);
+}
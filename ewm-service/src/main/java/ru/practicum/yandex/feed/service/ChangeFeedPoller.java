@@ -0,0 +1,159 @@
+package ru.practicum.yandex.feed.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import ru.practicum.yandex.feed.dto.ChangeRecordDto;
+import ru.practicum.yandex.feed.mapper.ChangeRecordMapper;
+import ru.practicum.yandex.feed.model.ChangeRecord;
+import ru.practicum.yandex.shared.exception.SubscriberLimitExceededException;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Long polling of change feed. If there are no changes after consumer's cursor, request is parked until new changes
+ * are committed or poll timeout expires, in which case empty list is returned. Parked requests are completed on
+ * separate thread, so that committing request does not wait for lookups of pollers. If maximum number of parked
+ * requests is reached, poll without changes is rejected with SubscriberLimitExceededException.
+ */
+@Component
+@Slf4j
+public class ChangeFeedPoller {
+
+    private final ChangeFeedService changeFeedService;
+
+    private final ChangeRecordMapper changeRecordMapper;
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService notifyExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("change-feed-"));
+
+    private final AtomicLong lastRecordedChangeId = new AtomicLong();
+
+    private final AtomicBoolean notifyScheduled = new AtomicBoolean();
+
+    private final int maxWaiters;
+
+    public ChangeFeedPoller(ChangeFeedService changeFeedService, ChangeRecordMapper changeRecordMapper,
+                            @Value("${ewm.changes.max-pollers:100}") int maxWaiters) {
+        this.changeFeedService = changeFeedService;
+        this.changeRecordMapper = changeRecordMapper;
+        this.maxWaiters = maxWaiters;
+    }
+
+    /**
+     * Poll changes recorded after change with specified id.
+     *
+     * @param afterChangeId id of the last change received by consumer
+     * @param size          maximum number of changes to return
+     * @param timeoutMs     time to wait for new changes, ms, 0 to return immediately
+     * @return changes, empty list if nothing was recorded until timeout
+     */
+    public DeferredResult<List<ChangeRecordDto>> poll(Long afterChangeId, Integer size, Long timeoutMs) {
+        final DeferredResult<List<ChangeRecordDto>> result = new DeferredResult<>(timeoutMs, Collections.emptyList());
+        final Waiter waiter = new Waiter(afterChangeId, size, result);
+        final boolean parked = timeoutMs > 0 && waiters.size() < maxWaiters;
+        if (parked) {
+            // Registered before first lookup, so that changes committed in between are not missed.
+            waiters.add(waiter);
+            result.onCompletion(() -> waiters.remove(waiter));
+        }
+        final List<ChangeRecord> changes;
+        try {
+            changes = changeFeedService.findChanges(afterChangeId, size);
+        } catch (RuntimeException e) {
+            waiters.remove(waiter);
+            throw e;
+        }
+        if (!changes.isEmpty()) {
+            waiters.remove(waiter);
+            result.setResult(changeRecordMapper.toDtoList(changes));
+        } else if (timeoutMs == 0) {
+            result.setResult(Collections.emptyList());
+        } else if (!parked) {
+            throw new SubscriberLimitExceededException("Change feed poll was rejected, '" + maxWaiters +
+                    "' polls are waiting for changes.", RETRY_AFTER_SECONDS);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChangesRecorded(ChangesRecordedEvent event) {
+        if (waiters.isEmpty()) {
+            return;
+        }
+        lastRecordedChangeId.accumulateAndGet(event.getChangeId(), Math::max);
+        if (notifyScheduled.compareAndSet(false, true)) {
+            notifyExecutor.execute(this::notifyWaiters);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifyExecutor.shutdownNow();
+    }
+
+    /**
+     * Complete parked polls with changes recorded after their cursors. Changes recorded while waiters are notified
+     * schedule one more notification.
+     */
+    private void notifyWaiters() {
+        notifyScheduled.set(false);
+        final long changeId = lastRecordedChangeId.get();
+        final Map<Long, List<Waiter>> waitersByCursor = waiters.stream()
+                .filter(waiter -> waiter.afterChangeId < changeId)
+                .collect(Collectors.groupingBy(waiter -> waiter.afterChangeId));
+        waitersByCursor.forEach((afterChangeId, cursorWaiters) -> {
+            final int size = cursorWaiters.stream().mapToInt(waiter -> waiter.size).max().orElse(0);
+            final List<ChangeRecord> changes;
+            try {
+                changes = changeFeedService.findChanges(afterChangeId, size);
+            } catch (RuntimeException e) {
+                log.warn("Failed to find changes after change with id '{}': {}.", afterChangeId, e.toString());
+                cursorWaiters.forEach(waiter -> waiter.result.setErrorResult(e));
+                return;
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            for (Waiter waiter : cursorWaiters) {
+                final List<ChangeRecord> waiterChanges = changes.subList(0, Math.min(waiter.size, changes.size()));
+                if (waiter.result.setResult(changeRecordMapper.toDtoList(waiterChanges))) {
+                    waiters.remove(waiter);
+                }
+            }
+        });
+        log.debug("Notified change feed pollers about change with id '{}'.", changeId);
+    }
+
+    private static class Waiter {
+
+        private final long afterChangeId;
+
+        private final int size;
+
+        private final DeferredResult<List<ChangeRecordDto>> result;
+
+        Waiter(long afterChangeId, int size, DeferredResult<List<ChangeRecordDto>> result) {
+            this.afterChangeId = afterChangeId;
+            this.size = size;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.yandex.feed.service;
+
+import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.feed.model.ChangeRecord;
+import ru.practicum.yandex.feed.model.ChangeType;
+import ru.practicum.yandex.user.model.ParticipationRequest;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ChangeFeedService {
+    void recordEventChange(Event event, ChangeType changeType);
+
+    void recordParticipationChange(ParticipationRequest participationRequest, ChangeType changeType);
+
+    void recordCommentChange(Comment comment, ChangeType changeType);
+
+    void recordCommentsImported(Collection<Long> eventIds);
+
+    List<ChangeRecord> findChanges(Long afterChangeId, Integer size);
+
+    int deleteExpiredChanges();
+}
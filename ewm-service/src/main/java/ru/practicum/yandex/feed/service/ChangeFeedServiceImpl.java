@@ -0,0 +1,266 @@
+package ru.practicum.yandex.feed.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.feed.model.ChangeEntityType;
+import ru.practicum.yandex.feed.model.ChangeRecord;
+import ru.practicum.yandex.feed.model.ChangeType;
+import ru.practicum.yandex.feed.repository.ChangeRecordRepository;
+import ru.practicum.yandex.shared.exception.ChangesExpiredException;
+import ru.practicum.yandex.user.model.ParticipationRequest;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox of changes. Ids of change records are assigned on insert, but transactions commit in any order, so record
+ * with smaller id may become visible after record with bigger id was already read by consumer, who would skip it. To
+ * prevent this, ids of records saved by transactions which are not completed yet are tracked, and changes are read
+ * only below the smallest of them. Only transactions of this service instance are tracked.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChangeFeedServiceImpl implements ChangeFeedService {
+
+    private final ChangeRecordRepository changeRecordRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final NavigableSet<Long> uncommittedChangeIds = new ConcurrentSkipListSet<>();
+
+    private final AtomicLong lastChangeId = new AtomicLong();
+
+    /**
+     * Shared by transactions saving change records, exclusive for reading smallest uncommitted id, so that id is not
+     * assigned by database but not tracked yet when it is read.
+     */
+    private final ReadWriteLock recordLock = new ReentrantReadWriteLock();
+
+    @Value("${ewm.changes.retention:7d}")
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Record change of event. Current event state is saved with change.
+     *
+     * @param event      changed event
+     * @param changeType type of change
+     */
+    @Override
+    @Transactional
+    public void recordEventChange(Event event, ChangeType changeType) {
+        save(ChangeRecord.builder()
+                .entityType(ChangeEntityType.EVENT)
+                .entityId(event.getId())
+                .eventId(event.getId())
+                .changeType(changeType)
+                .state(event.getState() == null ? null : event.getState().name())
+                .build());
+    }
+
+    /**
+     * Record change of participation request. Current request status is saved with change.
+     *
+     * @param participationRequest changed participation request
+     * @param changeType           type of change
+     */
+    @Override
+    @Transactional
+    public void recordParticipationChange(ParticipationRequest participationRequest, ChangeType changeType) {
+        save(ChangeRecord.builder()
+                .entityType(ChangeEntityType.PARTICIPATION)
+                .entityId(participationRequest.getId())
+                .eventId(participationRequest.getEvent().getId())
+                .changeType(changeType)
+                .state(participationRequest.getStatus() == null ? null : participationRequest.getStatus().name())
+                .build());
+    }
+
+    /**
+     * Record change of comment.
+     *
+     * @param comment    changed comment
+     * @param changeType type of change
+     */
+    @Override
+    @Transactional
+    public void recordCommentChange(Comment comment, ChangeType changeType) {
+        save(ChangeRecord.builder()
+                .entityType(ChangeEntityType.COMMENT)
+                .entityId(comment.getId())
+                .eventId(comment.getEvent().getId())
+                .changeType(changeType)
+                .build());
+    }
+
+    /**
+     * Record comments imported in bulk. Ids of imported comments are not known, so one change without entity id is
+     * recorded per event.
+     *
+     * @param eventIds ids of events comments were imported to
+     */
+    @Override
+    @Transactional
+    public void recordCommentsImported(Collection<Long> eventIds) {
+        final List<ChangeRecord> changeRecords = eventIds.stream()
+                .map(eventId -> ChangeRecord.builder()
+                        .entityType(ChangeEntityType.COMMENT)
+                        .eventId(eventId)
+                        .changeType(ChangeType.CREATED)
+                        .build())
+                .collect(Collectors.toList());
+        save(changeRecords);
+    }
+
+    /**
+     * Find changes recorded after change with specified id, ordered by id. Changes recorded after change of other
+     * transaction which is not committed yet are not returned until it is committed or rolled back. If change with
+     * specified id was deleted after retention period, throws ChangesExpiredException, since changes after it could
+     * be deleted too.
+     *
+     * @param afterChangeId id of the last change received by consumer, 0 for all changes
+     * @param size          number of changes to display
+     * @return changes
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ChangeRecord> findChanges(Long afterChangeId, Integer size) {
+        if (afterChangeId > 0 && !changeRecordRepository.existsById(afterChangeId)) {
+            throw new ChangesExpiredException("Change with id '" + afterChangeId + "' was not found or expired.");
+        }
+        return changeRecordRepository.findByIdGreaterThanAndIdLessThanOrderByIdAsc(afterChangeId,
+                getVisibleChangeIdLimit(), PageRequest.of(0, size));
+    }
+
+    /**
+     * Delete changes older than 'ewm.changes.retention'.
+     *
+     * @return number of deleted changes
+     */
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${ewm.changes.cleanup-interval:3600000}")
+    public int deleteExpiredChanges() {
+        final int deleted = changeRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        log.info("Deleted '{}' expired change records.", deleted);
+        return deleted;
+    }
+
+    @PostConstruct
+    void loadLastChangeId() {
+        lastChangeId.set(changeRecordRepository.findMaxId());
+    }
+
+    private void save(ChangeRecord changeRecord) {
+        save(List.of(changeRecord));
+    }
+
+    private void save(List<ChangeRecord> changeRecords) {
+        final List<ChangeRecord> savedRecords;
+        recordLock.readLock().lock();
+        try {
+            savedRecords = changeRecordRepository.saveAll(changeRecords);
+            savedRecords.forEach(savedRecord -> trackUntilCompletion(savedRecord.getId()));
+        } finally {
+            recordLock.readLock().unlock();
+        }
+        if (savedRecords.isEmpty()) {
+            return;
+        }
+        log.debug("Change records '{}' were saved.", savedRecords);
+        eventPublisher.publishEvent(new ChangesRecordedEvent(savedRecords.get(savedRecords.size() - 1).getId()));
+    }
+
+    private void trackUntilCompletion(Long changeId) {
+        lastChangeId.accumulateAndGet(changeId, Math::max);
+        final Set<Long> transactionChangeIds = getTransactionChangeIds();
+        if (transactionChangeIds == null) {
+            return;
+        }
+        transactionChangeIds.add(changeId);
+        uncommittedChangeIds.add(changeId);
+    }
+
+    /**
+     * Get ids of changes saved by current transaction, or null if there is no transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Long> getTransactionChangeIds() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        final Set<Long> transactionChangeIds = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (transactionChangeIds != null) {
+            return transactionChangeIds;
+        }
+        final Set<Long> createdChangeIds = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(this, createdChangeIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // Before change feed pollers are notified after commit.
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCommit() {
+                uncommittedChangeIds.removeAll(createdChangeIds);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                uncommittedChangeIds.removeAll(createdChangeIds);
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeFeedServiceImpl.this);
+                if (status != STATUS_COMMITTED) {
+                    // Changes of other transactions held back by rolled back changes are visible now.
+                    eventPublisher.publishEvent(new ChangesRecordedEvent(lastChangeId.get()));
+                }
+            }
+        });
+        return createdChangeIds;
+    }
+
+    /**
+     * Get id changes are read below: the smallest id saved by other uncommitted transaction, or next id after the last
+     * saved change. Changes of current transaction are visible to itself.
+     */
+    @SuppressWarnings("unchecked")
+    private long getVisibleChangeIdLimit() {
+        final Set<Long> ownChangeIds = TransactionSynchronizationManager.isSynchronizationActive()
+                ? (Set<Long>) TransactionSynchronizationManager.getResource(this)
+                : null;
+        recordLock.writeLock().lock();
+        try {
+            for (Long changeId : uncommittedChangeIds) {
+                if (ownChangeIds == null || !ownChangeIds.contains(changeId)) {
+                    return changeId;
+                }
+            }
+            return lastChangeId.get() + 1;
+        } finally {
+            recordLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.yandex.feed.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when change record was saved to outbox.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ChangesRecordedEvent {
+
+    private final Long changeId;
+}
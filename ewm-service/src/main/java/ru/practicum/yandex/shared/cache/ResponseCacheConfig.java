@@ -0,0 +1,21 @@
+package ru.practicum.yandex.shared.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.yandex.ReactiveStatClient;
+
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnProperty(name = "ewm.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCacheProperties properties,
+                                                   ReactiveStatClient reactiveStatClient,
+                                                   MeterRegistry meterRegistry) {
+        return new ResponseCacheFilter(properties, reactiveStatClient, meterRegistry);
+    }
+}
@@ -0,0 +1,258 @@
+package ru.practicum.yandex.shared.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.practicum.yandex.ReactiveStatClient;
+import ru.practicum.yandex.dto.EndpointHitDto;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Caches serialized responses of hot public GET endpoints: full event info, categories and compilations. Responses
+ * are keyed by path and sorted query parameters and served with ETag, so clients revalidating with If-None-Match get
+ * 304 response without body. Successful (2xx) POST, PUT, PATCH and DELETE requests invalidate affected groups: compilation changes invalidate
+ * compilations only, other changes (events, categories, users, requests, comments) invalidate all groups, since
+ * events, categories and users are embedded in each other's responses. Cache hits of full event info are still
+ * registered in stat server.
+ */
+@Slf4j
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String SERVICE_ID = "ewm-main-service";
+
+    private static final Pattern EVENT_PATH = Pattern.compile("/events/\\d+");
+
+    private static final Pattern CATEGORIES_PATH = Pattern.compile("/categories(/\\d+)?");
+
+    private static final Pattern COMPILATIONS_PATH = Pattern.compile("/compilations(/\\d+)?");
+
+    private final ResponseCacheProperties properties;
+
+    private final ReactiveStatClient reactiveStatClient;
+
+    private final Map<Group, Map<String, CachedResponse>> responses = new EnumMap<>(Group.class);
+
+    private final Map<Group, AtomicLong> generations = new EnumMap<>(Group.class);
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter notModified;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, ReactiveStatClient reactiveStatClient,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.reactiveStatClient = reactiveStatClient;
+        for (Group group : Group.values()) {
+            Map<String, CachedResponse> groupResponses = new ConcurrentHashMap<>();
+            responses.put(group, groupResponses);
+            generations.put(group, new AtomicLong());
+            meterRegistry.gaugeMapSize("ewm.response.cache.size", Tags.of("group", group.name().toLowerCase()),
+                    groupResponses);
+        }
+        this.hits = meterRegistry.counter("ewm.response.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("ewm.response.cache.requests", "result", "miss");
+        this.notModified = meterRegistry.counter("ewm.response.cache.requests", "result", "not_modified");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            chain.doFilter(request, response);
+            if (isWrite(request) && isSuccessful(response)) {
+                invalidateAfterWrite(request.getRequestURI());
+            }
+            return;
+        }
+        final Group group = groupOf(request.getRequestURI());
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        final String key = keyOf(request);
+        final CachedResponse cached = responses.get(group).get(key);
+        if (cached != null && !cached.isExpired()) {
+            hits.increment();
+            if (group == Group.EVENTS) {
+                registerHit(request);
+            }
+            write(cached, request, response);
+            return;
+        }
+        misses.increment();
+        final long generation = generations.get(group).get();
+        final ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, responseWrapper);
+        final byte[] body = responseWrapper.getContentAsByteArray();
+        if (responseWrapper.getStatus() == HttpServletResponse.SC_OK && body.length > 0) {
+            final CachedResponse fresh = new CachedResponse(body, responseWrapper.getContentType(), etagOf(body),
+                    System.nanoTime() + ttlOf(group).toNanos());
+            store(group, key, fresh, generation);
+            response.setHeader(HttpHeaders.ETAG, fresh.etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            if (isNotModified(request, fresh.etag)) {
+                notModified.increment();
+                responseWrapper.resetBuffer();
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        responseWrapper.copyBodyToResponse();
+    }
+
+    private void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (isNotModified(request, cached.etag)) {
+            notModified.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType);
+        response.setContentLength(cached.body.length);
+        response.getOutputStream().write(cached.body);
+    }
+
+    private void store(Group group, String key, CachedResponse fresh, long generation) {
+        final Map<String, CachedResponse> groupResponses = responses.get(group);
+        if (groupResponses.size() >= properties.getMaxEntries()) {
+            groupResponses.values().removeIf(CachedResponse::isExpired);
+            if (groupResponses.size() >= properties.getMaxEntries()) {
+                return;
+            }
+        }
+        groupResponses.put(key, fresh);
+        if (generations.get(group).get() != generation) {
+            // Group was invalidated while response was built, it may contain stale data.
+            groupResponses.remove(key, fresh);
+        }
+    }
+
+    private void invalidateAfterWrite(String uri) {
+        if (uri.startsWith("/admin/compilations")) {
+            invalidate(Group.COMPILATIONS);
+            return;
+        }
+        for (Group group : Group.values()) {
+            invalidate(group);
+        }
+    }
+
+    private void invalidate(Group group) {
+        generations.get(group).incrementAndGet();
+        responses.get(group).clear();
+        log.debug("Response cache group '{}' was invalidated.", group);
+    }
+
+    private void registerHit(HttpServletRequest request) {
+        EndpointHitDto endpointHit = EndpointHitDto.builder()
+                .app(SERVICE_ID)
+                .ip(request.getRemoteAddr())
+                .uri(request.getRequestURI())
+                .timestamp(LocalDateTime.now())
+                .build();
+        reactiveStatClient.methodHit(endpointHit).subscribe();
+    }
+
+    private Duration ttlOf(Group group) {
+        return group == Group.EVENTS ? properties.getEventTtl() : properties.getTtl();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        final HttpMethod method = HttpMethod.resolve(request.getMethod());
+        return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH
+                || method == HttpMethod.DELETE;
+    }
+
+    private static boolean isSuccessful(HttpServletResponse response) {
+        return response.getStatus() >= 200 && response.getStatus() < 300;
+    }
+
+    private static Group groupOf(String uri) {
+        if (EVENT_PATH.matcher(uri).matches()) {
+            return Group.EVENTS;
+        }
+        if (CATEGORIES_PATH.matcher(uri).matches()) {
+            return Group.CATEGORIES;
+        }
+        if (COMPILATIONS_PATH.matcher(uri).matches()) {
+            return Group.COMPILATIONS;
+        }
+        return null;
+    }
+
+    private static String keyOf(HttpServletRequest request) {
+        final Map<String, String[]> sortedParameters = new TreeMap<>(request.getParameterMap());
+        final StringBuilder key = new StringBuilder(request.getRequestURI());
+        sortedParameters.forEach((name, values) -> key.append('&').append(name).append('=')
+                .append(String.join(",", values)));
+        return key.toString();
+    }
+
+    private static String etagOf(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    private static boolean isNotModified(HttpServletRequest request, String etag) {
+        final String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag)
+                        || candidate.equals("W/" + etag));
+    }
+
+    private enum Group {
+        EVENTS,
+        CATEGORIES,
+        COMPILATIONS
+    }
+
+    private static final class CachedResponse {
+
+        private final byte[] body;
+
+        private final String contentType;
+
+        private final String etag;
+
+        private final long expiresAt;
+
+        private CachedResponse(byte[] body, String contentType, String etag, long expiresAt) {
+            this.body = body;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
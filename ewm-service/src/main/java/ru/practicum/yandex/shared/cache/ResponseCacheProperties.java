@@ -0,0 +1,36 @@
+package ru.practicum.yandex.shared.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of public GET responses cache.
+ */
+@ConfigurationProperties(prefix = "ewm.response-cache")
+@Getter
+@Setter
+public class ResponseCacheProperties {
+
+    /**
+     * Cache serialized responses of public GET endpoints.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time to live of cached full event info. Kept short, since number of views changes with every request.
+     */
+    private Duration eventTtl = Duration.ofSeconds(5);
+
+    /**
+     * Time to live of cached categories and compilations.
+     */
+    private Duration ttl = Duration.ofMinutes(1);
+
+    /**
+     * Maximum number of cached responses in each group (events, categories, compilations).
+     */
+    private int maxEntries = 10_000;
+}
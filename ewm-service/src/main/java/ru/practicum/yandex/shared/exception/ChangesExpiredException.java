@@ -0,0 +1,7 @@
+package ru.practicum.yandex.shared.exception;
+
+public class ChangesExpiredException extends RuntimeException {
+    public ChangesExpiredException(String message) {
+        super(message);
+    }
+}
@@ -2,7 +2,9 @@ package ru.practicum.yandex.shared.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,8 +19,10 @@ import java.util.Objects;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.GONE;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @RestControllerAdvice
 @Slf4j
@@ -92,6 +96,43 @@ public class EwmServiceExceptionHandler {
                 .build();
     }
 
+    @ExceptionHandler
+    @ResponseStatus(BAD_REQUEST)
+    public ErrorResponse handleIncorrectLocationFilterException(IncorrectLocationFilterException e) {
+        log.error(e.getLocalizedMessage());
+        return ErrorResponse.builder()
+                .errors(getStackTraceAsString(e))
+                .message(e.getLocalizedMessage())
+                .reason("Incorrect location filter.")
+                .status(BAD_REQUEST)
+                .build();
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(GONE)
+    public ErrorResponse handleChangesExpiredException(ChangesExpiredException e) {
+        log.warn(e.getLocalizedMessage());
+        return ErrorResponse.builder()
+                .errors(getStackTraceAsString(e))
+                .message(e.getLocalizedMessage())
+                .reason("Changes after cursor were deleted, read changes from the beginning.")
+                .status(GONE)
+                .build();
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleSubscriberLimitExceededException(SubscriberLimitExceededException e) {
+        log.warn(e.getLocalizedMessage());
+        return ResponseEntity.status(SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ErrorResponse.builder()
+                        .errors(getStackTraceAsString(e))
+                        .message(e.getLocalizedMessage())
+                        .reason("Too many subscribers.")
+                        .status(SERVICE_UNAVAILABLE)
+                        .build());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleConversionFailedException(MethodArgumentTypeMismatchException e) {
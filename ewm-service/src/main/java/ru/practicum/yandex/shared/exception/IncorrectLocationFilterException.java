@@ -0,0 +1,7 @@
+package ru.practicum.yandex.shared.exception;
+
+public class IncorrectLocationFilterException extends RuntimeException {
+    public IncorrectLocationFilterException(String message) {
+        super(message);
+    }
+}
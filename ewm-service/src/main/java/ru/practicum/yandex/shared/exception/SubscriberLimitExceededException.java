@@ -0,0 +1,14 @@
+package ru.practicum.yandex.shared.exception;
+
+import lombok.Getter;
+
+@Getter
+public class SubscriberLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public SubscriberLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
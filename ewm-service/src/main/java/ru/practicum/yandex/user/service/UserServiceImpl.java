@@ -14,7 +14,12 @@ import ru.practicum.yandex.events.model.EventState;
 import ru.practicum.yandex.events.model.Location;
 import ru.practicum.yandex.events.repository.CommentRepository;
 import ru.practicum.yandex.events.repository.EventRepository;
-import ru.practicum.yandex.events.repository.LocationRepository;
+import ru.practicum.yandex.events.service.CommentService;
+import ru.practicum.yandex.events.service.EventLiveCounters;
+import ru.practicum.yandex.events.service.EventSearchCache;
+import ru.practicum.yandex.events.service.LocationService;
+import ru.practicum.yandex.feed.model.ChangeType;
+import ru.practicum.yandex.feed.service.ChangeFeedService;
 import ru.practicum.yandex.shared.OffsetPageRequest;
 import ru.practicum.yandex.shared.exception.EventNotModifiableException;
 import ru.practicum.yandex.shared.exception.NotAuthorizedException;
@@ -49,12 +54,20 @@ public class UserServiceImpl implements UserService {
 
     private final EventRepository eventRepository;
 
-    private final LocationRepository locationRepository;
+    private final LocationService locationService;
+
+    private final EventSearchCache eventSearchCache;
+
+    private final ChangeFeedService changeFeedService;
+
+    private final EventLiveCounters eventLiveCounters;
 
     private final ParticipationRequestRepository participationRequestRepository;
 
     private final CommentRepository commentRepository;
 
+    private final CommentService commentService;
+
     private final EventMapper eventMapper;
 
     private final ParticipationMapper participationMapper;
@@ -117,6 +130,7 @@ public class UserServiceImpl implements UserService {
         Event fullEvent;
         fullEvent = createNewEvent(newEvent, category, initiator, eventLocation);
         final Event savedEvent = eventRepository.save(fullEvent);
+        changeFeedService.recordEventChange(savedEvent, ChangeType.CREATED);
         log.info("Event with id '{}' was saved.", savedEvent.getId());
         return savedEvent;
     }
@@ -152,7 +166,7 @@ public class UserServiceImpl implements UserService {
         final Event foundEvent = getEvent(eventId);
         checkIfUserIsEventInitiator(userId, foundEvent);
         log.info("Requesting info about event with id '{}' by user with id '{}'.", eventId, userId);
-        return foundEvent;
+        return commentService.attachLatestComments(foundEvent);
     }
 
     /**
@@ -172,9 +186,12 @@ public class UserServiceImpl implements UserService {
         checkEventIsPublished(eventToUpdate);
         changeStateIfNeeded(updateEvent, eventToUpdate);
         eventMapper.updateEvent(updateEvent, eventToUpdate);
+        updateLocationIfNeeded(updateEvent, eventToUpdate);
         Event updatedEvent = eventRepository.save(eventToUpdate);
+        changeFeedService.recordEventChange(updatedEvent, ChangeType.UPDATED);
+        eventSearchCache.invalidate();
         log.info("Event with id '{}' was updated by user with id '{}'.", eventId, userId);
-        return updatedEvent;
+        return commentService.attachLatestComments(updatedEvent);
     }
 
     /**
@@ -221,6 +238,9 @@ public class UserServiceImpl implements UserService {
         final EventRequestStatusUpdateDto eventRequestStatusUpdate = new EventRequestStatusUpdateDto();
         lastConfirmedRequest = populateStatusUpdateDto(statusUpdate, participationRequests, eventRequestStatusUpdate, lastConfirmedRequest, event, participantLimit);
         rejectRemainingRequestsAfterExceedingParticipantLimit(lastConfirmedRequest, participationRequests, eventRequestStatusUpdate);
+        if (lastConfirmedRequest > 0) {
+            changeFeedService.recordEventChange(event, ChangeType.UPDATED);
+        }
         log.info("Participation status for event with id '{}' was updated by user with id '{}'. Update request: '{}'.",
                 eventId, userId, statusUpdate);
         return eventRequestStatusUpdate;
@@ -247,6 +267,10 @@ public class UserServiceImpl implements UserService {
         log.info("User with id '{}' added participation request for event with id '{}'.", userId, eventId);
         final ParticipationRequest participationRequest = createParticipantRequest(user, event);
         final ParticipationRequest savedRequest = participationRequestRepository.save(participationRequest);
+        changeFeedService.recordParticipationChange(savedRequest, ChangeType.CREATED);
+        if (savedRequest.getStatus() == CONFIRMED) {
+            changeFeedService.recordEventChange(event, ChangeType.UPDATED);
+        }
         log.info("Participation request with '{}' was saved. Current number of participants on event with id '{}' is '{}'.", participationRequest.getId(),
                 eventId, event.getNumberOfParticipants());
         return savedRequest;
@@ -280,6 +304,7 @@ public class UserServiceImpl implements UserService {
         final ParticipationRequest participationRequest = getParticipationRequest(requestId);
         checkIfUserCanCancelParticipationRequest(userId, participationRequest);
         participationRequest.setStatus(CANCELED);
+        changeFeedService.recordParticipationChange(participationRequest, ChangeType.UPDATED);
         log.info("Participation request with id '{}' was canceled by user with id '{}'.", participationRequest.getId(),
                 userId);
         return participationRequest;
@@ -293,11 +318,13 @@ public class UserServiceImpl implements UserService {
             }
             participationRequest.setStatus(statusUpdate.getStatus());
             participationRequestRepository.save(participationRequest);
+            changeFeedService.recordParticipationChange(participationRequest, ChangeType.UPDATED);
             if (statusUpdate.getStatus().equals(CONFIRMED)) {
                 eventRequestStatusUpdate.addConfirmedRequest(participationMapper.toDto(participationRequest));
                 lastConfirmedRequest++;
                 int incrementedParticipants = event.addParticipant();
                 eventRepository.save(event);
+                eventLiveCounters.updateConfirmedRequests(event.getId(), incrementedParticipants);
                 if (incrementedParticipants == participantLimit) {
                     break;
                 }
@@ -311,6 +338,7 @@ public class UserServiceImpl implements UserService {
             ParticipationRequest participationRequest = participationRequests.get(i);
             participationRequest.setStatus(REJECTED);
             participationRequestRepository.save(participationRequest);
+            changeFeedService.recordParticipationChange(participationRequest, ChangeType.UPDATED);
             eventRequestStatusUpdate.addRejectedRequest(participationMapper.toDto(participationRequest));
         }
     }
@@ -361,11 +389,19 @@ public class UserServiceImpl implements UserService {
     }
 
     private Location saveLocation(NewEvent newEvent) {
-        final Location eventLocation = locationRepository.save(newEvent.getLocation());
-        log.info("UserService, location '{}' was saved.", eventLocation);
+        final Location eventLocation = locationService.getOrCreateLocation(newEvent.getLocation().getLat(),
+                newEvent.getLocation().getLon());
+        log.info("UserService, location '{}' was assigned to event.", eventLocation);
         return eventLocation;
     }
 
+    private void updateLocationIfNeeded(EventUpdateRequest updateEvent, Event event) {
+        if (updateEvent.getLocation() != null) {
+            event.setLocation(locationService.getOrCreateLocation(updateEvent.getLocation().getLat(),
+                    updateEvent.getLocation().getLon()));
+        }
+    }
+
     private Category getCategory(NewEvent newEvent) {
         return categoryRepository.findById(newEvent.getCategoryId())
                 .orElseThrow(() -> new NotFoundException("Category with id '" + newEvent.getCategoryId() + "' not found."));
@@ -436,7 +472,8 @@ public class UserServiceImpl implements UserService {
     }
 
     private void addConfirmedRequestToEvent(Event event) {
-        event.addParticipant();
+        int incrementedParticipants = event.addParticipant();
         eventRepository.save(event);
+        eventLiveCounters.updateConfirmedRequests(event.getId(), incrementedParticipants);
     }
 }
@@ -41,6 +41,8 @@ CREATE TABLE IF NOT EXISTS events (
     FOREIGN KEY (location_id) REFERENCES locations(id)
 );
 
+CREATE INDEX IF NOT EXISTS events_location_id_idx ON events (location_id);
+
 CREATE TABLE IF NOT EXISTS participations (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
     created_on TIMESTAMP NOT NULL,
@@ -73,4 +75,16 @@ CREATE TABLE IF NOT EXISTS event_comments (
     author_id BIGINT NOT NULL,
     FOREIGN KEY (event_id) REFERENCES events(id),
     FOREIGN KEY (author_id) REFERENCES users(id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS change_records (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY (START WITH 1) NOT NULL PRIMARY KEY,
+    entity_type VARCHAR(13) NOT NULL,
+    entity_id BIGINT,
+    event_id BIGINT NOT NULL,
+    change_type VARCHAR(7) NOT NULL,
+    state VARCHAR(11),
+    created_on TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS change_records_created_on_idx ON change_records (created_on);
@@ -7,19 +7,22 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.yandex.compilation.dto.CompilationDto;
-import ru.practicum.yandex.compilation.mapper.CompilationMapper;
-import ru.practicum.yandex.compilation.model.Compilation;
-import ru.practicum.yandex.compilation.service.CompilationService;
+import ru.practicum.yandex.compilation.service.CompilationReadModel;
+import ru.practicum.yandex.shared.exception.NotFoundException;
 
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -33,10 +36,7 @@ class CompilationControllerTest {
     private MockMvc mvc;
 
     @MockBean
-    private CompilationService compilationService;
-
-    @MockBean
-    private CompilationMapper compilationMapper;
+    private CompilationReadModel compilationReadModel;
 
     private CompilationDto compilationDto = CompilationDto.builder()
             .id(1L)
@@ -53,43 +53,57 @@ class CompilationControllerTest {
         Boolean pinned = true;
         Long from = 0L;
         Integer size = 24;
-        Compilation compilation = new Compilation();
-        when(compilationService.findCompilations(pinned, from, size))
-                .thenReturn(List.of(compilation));
-        when(compilationMapper.toDtoList(List.of(compilation)))
-                .thenReturn(List.of(compilationDto));
+        when(compilationReadModel.findCompilations(pinned, from, size))
+                .thenReturn(objectMapper.writeValueAsString(List.of(compilationDto)));
 
         mvc.perform(get("/compilations")
                         .param("pinned", String.valueOf(pinned))
                         .param("from", String.valueOf(from))
                         .param("size", String.valueOf(size)))
                 .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.length()", is(1)))
                 .andExpect(jsonPath("$.[0].pinned", is(compilationDto.isPinned())))
                 .andExpect(jsonPath("$.[0].title", is(compilationDto.getTitle())));
 
-        verify(compilationService, times(1)).findCompilations(pinned, from, size);
-        verify(compilationMapper, times(1)).toDtoList(List.of(compilation));
+        verify(compilationReadModel, times(1)).findCompilations(pinned, from, size);
     }
 
     @Test
     @SneakyThrows
-    @DisplayName("Find compilations")
-    void findCompilationById_shouldReturn200() {
+    @DisplayName("Find compilations from negative position")
+    void findCompilations_whenFromIsNegative_shouldReturn409() {
+        mvc.perform(get("/compilations")
+                        .param("from", "-1"))
+                .andExpect(status().isConflict());
 
-        Compilation compilation = new Compilation();
-        when(compilationService.findCompilationById(compId))
-                .thenReturn(compilation);
-        when(compilationMapper.toDto(compilation))
-                .thenReturn(compilationDto);
+        verify(compilationReadModel, never()).findCompilations(any(), any(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Find compilation by id")
+    void findCompilationById_shouldReturn200() {
+        when(compilationReadModel.findCompilationById(compId))
+                .thenReturn(objectMapper.writeValueAsString(compilationDto));
 
         mvc.perform(get("/compilations/{compId}", compId))
                 .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.pinned", is(compilationDto.isPinned())))
                 .andExpect(jsonPath("$.title", is(compilationDto.getTitle())));
 
-        verify(compilationService, times(1)).findCompilationById(compId);
-        verify(compilationMapper, times(1)).toDto(compilation);
+        verify(compilationReadModel, times(1)).findCompilationById(compId);
     }
 
-}
\ No newline at end of file
+    @Test
+    @SneakyThrows
+    @DisplayName("Find unknown compilation by id")
+    void findCompilationById_whenNotFound_shouldReturn404() {
+        when(compilationReadModel.findCompilationById(compId))
+                .thenThrow(new NotFoundException("Compilation with id '" + compId + "' not found."));
+
+        mvc.perform(get("/compilations/{compId}", compId))
+                .andExpect(status().isNotFound());
+    }
+}
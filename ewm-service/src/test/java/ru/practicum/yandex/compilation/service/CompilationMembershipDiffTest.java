@@ -0,0 +1,43 @@
+package ru.practicum.yandex.compilation.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+class CompilationMembershipDiffTest {
+
+    @Test
+    @DisplayName("Diff of changed event lists")
+    void of_whenEventsChanged_shouldReturnOnlyAddedAndRemovedIds() {
+        CompilationMembershipDiff diff = CompilationMembershipDiff.of(List.of(1L, 2L, 3L), List.of(2L, 3L, 4L, 5L));
+
+        assertThat(diff.getAdded(), containsInAnyOrder(4L, 5L));
+        assertThat(diff.getRemoved(), containsInAnyOrder(1L));
+        assertThat(diff.isEmpty(), is(false));
+    }
+
+    @Test
+    @DisplayName("Diff of same event lists")
+    void of_whenEventsNotChanged_shouldBeEmpty() {
+        CompilationMembershipDiff diff = CompilationMembershipDiff.of(List.of(1L, 2L), List.of(2L, 1L, 2L));
+
+        assertThat(diff.getAdded(), empty());
+        assertThat(diff.getRemoved(), empty());
+        assertThat(diff.isEmpty(), is(true));
+    }
+
+    @Test
+    @DisplayName("Diff to empty event list")
+    void of_whenAllEventsRemoved_shouldRemoveAll() {
+        CompilationMembershipDiff diff = CompilationMembershipDiff.of(List.of(1L, 2L), List.of());
+
+        assertThat(diff.getAdded(), empty());
+        assertThat(diff.getRemoved(), containsInAnyOrder(1L, 2L));
+    }
+}
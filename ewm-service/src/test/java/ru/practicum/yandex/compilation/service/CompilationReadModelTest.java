@@ -0,0 +1,107 @@
+package ru.practicum.yandex.compilation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.yandex.compilation.dto.CompilationDto;
+import ru.practicum.yandex.compilation.mapper.CompilationMapper;
+import ru.practicum.yandex.compilation.model.Compilation;
+import ru.practicum.yandex.compilation.repository.CompilationRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CompilationReadModelTest {
+
+    @Mock
+    private CompilationRepository compilationRepository;
+
+    @Mock
+    private CompilationMapper compilationMapper;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private CompilationReadModel compilationReadModel;
+
+    private Long compId;
+
+    @BeforeEach
+    void init() {
+        compId = 1L;
+        when(compilationMapper.toDto(any())).thenAnswer(invocation -> {
+            Compilation compilation = invocation.getArgument(0);
+            return CompilationDto.builder()
+                    .id(compilation.getId())
+                    .title(compilation.getTitle())
+                    .pinned(compilation.isPinned())
+                    .build();
+        });
+    }
+
+    @Test
+    @DisplayName("Rebuild should not overwrite compilation updated while rebuild was running")
+    void rebuildAll_whenCompilationUpdatedDuringRebuild_shouldKeepUpdatedCompilation() {
+        when(compilationRepository.findCompilationWithEventById(compId))
+                .thenReturn(Optional.of(compilation("updated")));
+        when(compilationRepository.findAllCompilationsWithEvents()).thenAnswer(invocation -> {
+            compilationReadModel.onCompilationChanged(new CompilationChangedEvent(compId));
+            return List.of(compilation("stale"));
+        });
+
+        compilationReadModel.rebuildAll();
+
+        assertThat(compilationReadModel.findCompilationById(compId), containsString("updated"));
+    }
+
+    @Test
+    @DisplayName("Rebuild should not restore compilation deleted while rebuild was running")
+    void rebuildAll_whenCompilationDeletedDuringRebuild_shouldNotRestoreCompilation() {
+        when(compilationRepository.findCompilationWithEventById(compId))
+                .thenReturn(Optional.empty());
+        when(compilationRepository.findAllCompilationsWithEvents()).thenAnswer(invocation -> {
+            compilationReadModel.onCompilationChanged(new CompilationChangedEvent(compId));
+            return List.of(compilation("stale"));
+        });
+
+        compilationReadModel.rebuildAll();
+
+        assertThat(compilationReadModel.findCompilations(null, 0L, 10), is("[]"));
+    }
+
+    @Test
+    @DisplayName("Compilation changed after rebuild should be updated")
+    void onCompilationChanged_afterRebuild_shouldUpdateCompilation() {
+        when(compilationRepository.findAllCompilationsWithEvents())
+                .thenReturn(List.of(compilation("stale")));
+        when(compilationRepository.findCompilationWithEventById(compId))
+                .thenReturn(Optional.of(compilation("updated")));
+
+        compilationReadModel.rebuildAll();
+        compilationReadModel.onCompilationChanged(new CompilationChangedEvent(compId));
+
+        assertThat(compilationReadModel.findCompilationById(compId), containsString("updated"));
+    }
+
+    private Compilation compilation(String title) {
+        return Compilation.builder()
+                .id(compId)
+                .title(title)
+                .pinned(true)
+                .build();
+    }
+}
@@ -24,6 +24,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -36,6 +37,9 @@ class CompilationServiceImplTest {
     @Autowired
     private CompilationService compilationService;
 
+    @Autowired
+    private CompilationReadModel compilationReadModel;
+
     @Autowired
     private UserService userService;
 
@@ -103,6 +107,31 @@ class CompilationServiceImplTest {
         assertThat(compilation.getEvents().size(), is(0));
     }
 
+    @Test
+    @DisplayName("Find compilation in read model")
+    void findCompilationById_whenNotInReadModelYet_shouldLoadCompilation() {
+        NewCompilationDto compilationDto = NewCompilationDto.builder()
+                .pinned(true)
+                .title("read model title")
+                .build();
+        Compilation compilation = compilationService.addCompilation(compilationDto);
+
+        String json = compilationReadModel.findCompilationById(compilation.getId());
+
+        assertThat(json, containsString("\"id\":" + compilation.getId()));
+        assertThat(json, containsString("\"title\":\"read model title\""));
+        assertThat(json, containsString("\"pinned\":true"));
+    }
+
+    @Test
+    @DisplayName("Find unknown compilation in read model")
+    void findCompilationById_whenNotFound_shouldThrowNotFoundException() {
+        NotFoundException e = assertThrows(NotFoundException.class, () -> compilationReadModel
+                .findCompilationById(999L));
+
+        assertThat(e.getMessage(), is("Compilation with id '999' not found."));
+    }
+
     @Test
     @DisplayName("Add compilation of two events")
     void addCompilation_whenCompilationOfTwoEvents() {
@@ -0,0 +1,143 @@
+package ru.practicum.yandex.events.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.repository.EventRepository;
+import ru.practicum.yandex.events.service.EventLiveCounters;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = EventLiveController.class, properties = "ewm.live.max-subscriptions=1")
+@Import(EventLiveCounters.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class EventLiveControllerTest {
+
+    private static final long SEND_TIMEOUT_MILLIS = 5000;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EventLiveCounters eventLiveCounters;
+
+    @MockBean
+    private EventRepository eventRepository;
+
+    @BeforeEach
+    void init() {
+        Event event = Event.builder()
+                .id(1L)
+                .views(5L)
+                .numberOfParticipants(2)
+                .build();
+        when(eventRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(event));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Current counters are sent right after subscription")
+    void subscribeToCounters_shouldSendCurrentCounters() {
+        MvcResult result = subscribe();
+
+        awaitContent(result, "\"views\":5");
+
+        assertThat(result.getResponse().getContentAsString(),
+                containsString("event:counters\ndata:[{\"eventId\":1,\"views\":5,\"confirmedRequests\":2}]"));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Updates within one tick are sent as single event with latest counters")
+    void sendChangedCounters_whenUpdatedSeveralTimes_shouldSendLatestCountersOnce() {
+        MvcResult result = subscribe();
+        awaitContent(result, "\"views\":5");
+
+        eventLiveCounters.updateViews(1L, 6L);
+        eventLiveCounters.updateViews(1L, 7L);
+        eventLiveCounters.updateConfirmedRequests(1L, 3L);
+        eventLiveCounters.updateViews(1L, 8L);
+        eventLiveCounters.sendChangedCounters();
+        awaitContent(result, "\"views\":8");
+        eventLiveCounters.sendChangedCounters();
+
+        String content = result.getResponse().getContentAsString();
+        assertThat(content, containsString("data:[{\"eventId\":1,\"views\":8,\"confirmedRequests\":3}]"));
+        assertThat(content, not(containsString("\"views\":6")));
+        assertThat(content, not(containsString("\"views\":7")));
+        assertThat(content.split("event:counters", -1).length - 1, is(2));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Updates of event without subscribers are not tracked")
+    void updateViews_whenEventNotSubscribed_shouldNotKeepCounters() {
+        eventLiveCounters.updateViews(1L, 10L);
+        eventLiveCounters.updateConfirmedRequests(1L, 3L);
+        eventLiveCounters.sendChangedCounters();
+
+        MvcResult result = subscribe();
+        awaitContent(result, "\"eventId\":1");
+
+        String content = result.getResponse().getContentAsString();
+        assertThat(content, containsString("\"views\":5,\"confirmedRequests\":2"));
+        assertThat(content, not(containsString("\"views\":10")));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Subscription over limit returns 503 with Retry-After")
+    void subscribeToCounters_whenTooManySubscriptions_shouldReturn503() {
+        subscribe();
+
+        mvc.perform(get("/events/live")
+                        .param("ids", "1")
+                        .accept(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @SneakyThrows
+    private MvcResult subscribe() {
+        return mvc.perform(get("/events/live")
+                        .param("ids", "1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    @SneakyThrows
+    private void awaitContent(MvcResult result, String expected) {
+        long deadline = System.currentTimeMillis() + SEND_TIMEOUT_MILLIS;
+        while (!result.getResponse().getContentAsString().contains(expected)) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Expected '" + expected + "' in '" +
+                        result.getResponse().getContentAsString() + "'.");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
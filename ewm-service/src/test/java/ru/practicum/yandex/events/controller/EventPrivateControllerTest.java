@@ -0,0 +1,93 @@
+package ru.practicum.yandex.events.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.yandex.events.dto.AddCommentDto;
+import ru.practicum.yandex.events.dto.UpdateCommentDto;
+import ru.practicum.yandex.events.mapper.CommentMapper;
+import ru.practicum.yandex.events.mapper.EventMapper;
+import ru.practicum.yandex.events.service.CommentService;
+import ru.practicum.yandex.events.service.EventService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = EventPrivateController.class)
+class EventPrivateControllerTest {
+
+    @MockBean
+    private EventService eventService;
+
+    @MockBean
+    private CommentService commentService;
+
+    @MockBean
+    private EventMapper eventMapper;
+
+    @MockBean
+    private CommentMapper commentMapper;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Long eventId = 1L;
+
+    private final Long userId = 2L;
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Add comment returns full event info")
+    void addCommentToEvent_shouldReturnEvent() {
+        mvc.perform(post("/events/{eventId}/comment/{userId}", eventId, userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AddCommentDto("comment"))))
+                .andExpect(status().isCreated());
+
+        verify(eventService, times(1)).addCommentToEvent(eq(userId), eq(eventId), any());
+        verify(commentService, never()).addComment(any(), any(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Add comment with slim response")
+    void addComment_whenSlim_shouldReturnComment() {
+        mvc.perform(post("/events/{eventId}/comment/{userId}", eventId, userId)
+                        .param("slim", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AddCommentDto("comment"))))
+                .andExpect(status().isCreated());
+
+        verify(commentService, times(1)).addComment(eq(userId), eq(eventId), any());
+        verify(eventService, never()).addCommentToEvent(any(), any(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Update comment with slim response")
+    void editComment_whenSlim_shouldUpdateCommentOfEvent() {
+        mvc.perform(patch("/events/{eventId}/comment/{userId}", eventId, userId)
+                        .param("slim", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateCommentDto(3L, "updated"))))
+                .andExpect(status().isOk());
+
+        verify(commentService, times(1)).updateComment(userId, eventId, 3L, "updated");
+        verify(eventService, never()).updateComment(any(), any(), any());
+    }
+}
@@ -0,0 +1,98 @@
+package ru.practicum.yandex.events.controller;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
+import ru.practicum.yandex.ReactiveStatClient;
+import ru.practicum.yandex.StatClient;
+import ru.practicum.yandex.dto.ViewStatsDto;
+import ru.practicum.yandex.events.mapper.CommentMapper;
+import ru.practicum.yandex.events.mapper.EventMapper;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.service.CommentService;
+import ru.practicum.yandex.events.service.EventService;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Latency of full event info request when event lookup and stats request take fixed time. Stats request runs
+ * concurrently with event lookup, so latency is expected to be close to the longest of them rather than their sum.
+ * Disabled by default, run with 'mvn test -Dbenchmark=true -Dtest=EventPublicControllerBenchmarkTest', number of
+ * requests is set by 'benchmark.requests'.
+ */
+@WebMvcTest(controllers = EventPublicController.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class EventPublicControllerBenchmarkTest {
+
+    private static final Duration LOOKUP_TIME = Duration.ofMillis(20);
+
+    private static final Duration STATS_TIME = Duration.ofMillis(30);
+
+    @MockBean
+    private EventService eventService;
+
+    @MockBean
+    private EventMapper eventMapper;
+
+    @MockBean
+    private CommentService commentService;
+
+    @MockBean
+    private CommentMapper commentMapper;
+
+    @MockBean
+    private StatClient statClient;
+
+    @MockBean
+    private ReactiveStatClient reactiveStatClient;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Get event info with slow event lookup and slow stats server")
+    void getFullEventInfoById() {
+        final int requests = Integer.getInteger("benchmark.requests", 200);
+        final Event event = new Event();
+        when(reactiveStatClient.methodHit(any())).thenReturn(Mono.empty());
+        when(reactiveStatClient.getUniqueIpStatsForUri(any()))
+                .thenAnswer(invocation -> Mono.just(new ViewStatsDto("app", invocation.getArgument(0), 1L))
+                        .delaySubscription(STATS_TIME));
+        when(eventService.getPublishedEvent(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(LOOKUP_TIME.toMillis());
+            return event;
+        });
+        when(eventService.updateViews(any(), any())).thenReturn(event);
+
+        for (int i = 0; i < 20; i++) {
+            mvc.perform(get("/events/{id}", i)).andExpect(status().isOk());
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            mvc.perform(get("/events/{id}", i)).andExpect(status().isOk());
+        }
+        final long latency = (System.nanoTime() - start) / requests;
+
+        log.info("Event lookup '{}' ms, stats request '{}' ms: '{}' us per request, sequential calls would take '{}' us.",
+                LOOKUP_TIME.toMillis(), STATS_TIME.toMillis(), latency / 1_000,
+                LOOKUP_TIME.plus(STATS_TIME).toNanos() / 1_000);
+        assertThat(latency, lessThan(LOOKUP_TIME.plus(STATS_TIME).toNanos()));
+    }
+}
@@ -8,11 +8,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import reactor.core.publisher.Mono;
+import ru.practicum.yandex.ReactiveStatClient;
 import ru.practicum.yandex.StatClient;
 import ru.practicum.yandex.dto.ViewStatsDto;
+import ru.practicum.yandex.events.mapper.CommentMapper;
 import ru.practicum.yandex.events.mapper.EventMapper;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.service.CommentService;
 import ru.practicum.yandex.events.service.EventService;
 import ru.practicum.yandex.shared.exception.IncorrectDateRangeException;
+import ru.practicum.yandex.shared.exception.IncorrectLocationFilterException;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -35,9 +41,18 @@ class EventPublicControllerTest {
     @MockBean
     private EventMapper eventMapper;
 
+    @MockBean
+    private CommentService commentService;
+
+    @MockBean
+    private CommentMapper commentMapper;
+
     @MockBean
     private StatClient statClient;
 
+    @MockBean
+    private ReactiveStatClient reactiveStatClient;
+
     @Autowired
     private MockMvc mvc;
 
@@ -83,14 +98,68 @@ class EventPublicControllerTest {
     @DisplayName("Get event info")
     void getFullEventInfoById_shouldReturn200() {
         ViewStatsDto viewStatsDto = new ViewStatsDto("app", "uri",5L);
-        when(statClient.getUniqueIpStatsForUri("/events/" + eventId))
-                .thenReturn(viewStatsDto);
+        when(reactiveStatClient.getUniqueIpStatsForUri("/events/" + eventId))
+                .thenReturn(Mono.just(viewStatsDto));
+        when(reactiveStatClient.methodHit(any()))
+                .thenReturn(Mono.empty());
+        Event event = new Event();
+        when(eventService.getPublishedEvent(eventId))
+                .thenReturn(event);
+        when(eventService.updateViews(event, viewStatsDto.getHits()))
+                .thenReturn(event);
         mvc.perform(get("/events/{id}", eventId))
                 .andExpect(status().isOk());
 
-        verify(statClient, times(1)).methodHit(any());
-        verify(statClient, times(1)).getUniqueIpStatsForUri("/events/" + eventId);
-        verify(eventService, times(1)).getFullEventInfoById(eventId, viewStatsDto.getHits());
-        verify(eventMapper, times(1)).toDto(any());
+        verify(reactiveStatClient, times(1)).methodHit(any());
+        verify(reactiveStatClient, times(1)).getUniqueIpStatsForUri("/events/" + eventId);
+        verify(statClient, never()).methodHit(any());
+        verify(eventService, times(1)).getPublishedEvent(eventId);
+        verify(eventService, times(1)).updateViews(event, viewStatsDto.getHits());
+        verify(eventMapper, times(1)).toDto(event);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Get event info when stats server returns no stats for uri")
+    void getFullEventInfoById_whenNoStats_shouldUseZeroViews() {
+        when(reactiveStatClient.getUniqueIpStatsForUri("/events/" + eventId))
+                .thenReturn(Mono.empty());
+        when(reactiveStatClient.methodHit(any()))
+                .thenReturn(Mono.empty());
+        Event event = new Event();
+        when(eventService.getPublishedEvent(eventId))
+                .thenReturn(event);
+        mvc.perform(get("/events/{id}", eventId))
+                .andExpect(status().isOk());
+
+        verify(eventService, times(1)).updateViews(event, 0L);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Find events with radius but without coordinates")
+    void findEvents_whenRadiusWithoutCoordinates_shouldThrowIncorrectLocationFilterException() {
+        mvc.perform(get("/events")
+                        .param("radius", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof IncorrectLocationFilterException))
+                .andExpect(jsonPath("$.message", is("Both lat and lon must be set for location search.")))
+                .andExpect(jsonPath("$.reason", is("Incorrect location filter.")))
+                .andExpect(jsonPath("$.status", is("BAD_REQUEST")));
+
+        verify(eventService, never()).findEvents(any(), any(), any());
+        verify(statClient, never()).methodHit(any());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Find event comments with cursor")
+    void findEventComments_shouldPassCursorAndSizeToService() {
+        mvc.perform(get("/events/{id}/comments", eventId)
+                        .param("after", "5")
+                        .param("size", "20"))
+                .andExpect(status().isOk());
+
+        verify(commentService, times(1)).findEventComments(eventId, 5L, 20);
     }
-}
\ No newline at end of file
+}
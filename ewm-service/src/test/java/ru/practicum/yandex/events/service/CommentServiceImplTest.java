@@ -0,0 +1,198 @@
+package ru.practicum.yandex.events.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.yandex.category.model.Category;
+import ru.practicum.yandex.category.service.CategoryService;
+import ru.practicum.yandex.events.dto.EventUpdateRequest;
+import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.Location;
+import ru.practicum.yandex.shared.exception.NotAuthorizedException;
+import ru.practicum.yandex.shared.exception.NotFoundException;
+import ru.practicum.yandex.user.dto.StateAction;
+import ru.practicum.yandex.user.model.NewEvent;
+import ru.practicum.yandex.user.model.User;
+import ru.practicum.yandex.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Transactional
+class CommentServiceImplTest {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    private Event savedEvent;
+
+    private User savedUser1;
+
+    private User savedUser2;
+
+    private Long unknownId;
+
+    @BeforeEach
+    void init() {
+        Location location = Location.builder()
+                .lat(-414.43F)
+                .lon(43.43F)
+                .build();
+        Category category = Category.builder()
+                .name("category")
+                .build();
+        Category savedCategory = categoryService.addCategory(category);
+        User user1 = User.builder()
+                .name("name1")
+                .email("user1@email.com")
+                .build();
+        savedUser1 = userService.createUser(user1);
+        User user2 = User.builder()
+                .name("name2")
+                .email("user2@email.com")
+                .build();
+        savedUser2 = userService.createUser(user2);
+        NewEvent newEvent = NewEvent.builder()
+                .annotation("annotation")
+                .description("description")
+                .eventDate(LocalDateTime.of(2025, 10, 11, 12, 23, 11))
+                .participantLimit(134)
+                .requestModeration(false)
+                .title("title")
+                .paid(false)
+                .location(location)
+                .categoryId(savedCategory.getId())
+                .build();
+        savedEvent = userService.addEventByUser(savedUser1.getId(), newEvent);
+        EventUpdateRequest updateRequest = EventUpdateRequest.builder()
+                .stateAction(StateAction.PUBLISH_EVENT)
+                .build();
+        eventService.updateEventByAdmin(savedEvent.getId(), updateRequest);
+        unknownId = 999L;
+    }
+
+    @Test
+    @DisplayName("Add comment")
+    void addComment_shouldReturnCommentWithIdAndReferences() {
+        Comment comment = Comment.builder()
+                .text("comment")
+                .build();
+
+        Comment savedComment = commentService.addComment(savedUser1.getId(), savedEvent.getId(), comment);
+
+        assertThat(savedComment.getId(), notNullValue());
+        assertThat(savedComment.getPostedOn(), notNullValue());
+        assertThat(savedComment.getEvent().getId(), is(savedEvent.getId()));
+        assertThat(savedComment.getAuthor().getId(), is(savedUser1.getId()));
+    }
+
+    @Test
+    @DisplayName("Add comment to unknown event")
+    void addComment_whenEventNotFound_shouldThrowNotFoundException() {
+        Comment comment = Comment.builder()
+                .text("comment")
+                .build();
+
+        NotFoundException e = assertThrows(NotFoundException.class, () -> commentService
+                .addComment(savedUser1.getId(), unknownId, comment));
+        assertThat(e.getMessage(), is("Event with id '" + unknownId + "' was not found."));
+    }
+
+    @Test
+    @DisplayName("Update comment")
+    void updateComment_shouldReturnCommentWithUpdatedText() {
+        Comment comment = Comment.builder()
+                .text("comment")
+                .build();
+        Comment savedComment = commentService.addComment(savedUser1.getId(), savedEvent.getId(), comment);
+
+        Comment updatedComment = commentService.updateComment(savedUser1.getId(), savedEvent.getId(), savedComment.getId(),
+                "updated");
+
+        assertThat(updatedComment.getId(), is(savedComment.getId()));
+        assertThat(updatedComment.getText(), is("updated"));
+    }
+
+    @Test
+    @DisplayName("Update comment by not author")
+    void updateComment_whenNotAuthorTryToUpdate_shouldThrowNotAuthorizedException() {
+        Comment comment = Comment.builder()
+                .text("comment")
+                .build();
+        Comment savedComment = commentService.addComment(savedUser1.getId(), savedEvent.getId(), comment);
+
+        NotAuthorizedException e = assertThrows(NotAuthorizedException.class, () -> commentService
+                .updateComment(savedUser2.getId(), savedEvent.getId(), savedComment.getId(), "updated"));
+        assertThat(e.getMessage(), is("User with id '" + savedUser2.getId() + "' is not author of comment with id '" +
+                savedComment.getId() + "'."));
+    }
+
+    @Test
+    @DisplayName("Update comment through other event")
+    void updateComment_whenCommentOfOtherEvent_shouldThrowNotFoundException() {
+        Comment comment = Comment.builder()
+                .text("comment")
+                .build();
+        Comment savedComment = commentService.addComment(savedUser1.getId(), savedEvent.getId(), comment);
+
+        NotFoundException e = assertThrows(NotFoundException.class, () -> commentService
+                .updateComment(savedUser1.getId(), unknownId, savedComment.getId(), "updated"));
+        assertThat(e.getMessage(), is("Comment with id '" + savedComment.getId() + "' not found in event with id '" +
+                unknownId + "'."));
+    }
+
+    @Test
+    @DisplayName("Import comments")
+    void importComments_shouldInsertAllComments() {
+        List<Comment> comments = List.of(importedComment(savedEvent.getId(), savedUser1.getId(), "first"),
+                importedComment(savedEvent.getId(), savedUser2.getId(), "second"));
+
+        int imported = commentService.importComments(comments);
+
+        List<Comment> eventComments = commentService.findEventComments(savedEvent.getId(), 0L, 10);
+        assertThat(imported, is(2));
+        assertThat(eventComments.size(), is(2));
+        assertThat(eventComments.get(0).getText(), is("first"));
+        assertThat(eventComments.get(1).getText(), is("second"));
+    }
+
+    @Test
+    @DisplayName("Import comments to unknown event")
+    void importComments_whenEventNotFound_shouldThrowNotFoundException() {
+        List<Comment> comments = List.of(importedComment(savedEvent.getId(), savedUser1.getId(), "first"),
+                importedComment(unknownId, savedUser1.getId(), "second"));
+
+        assertThrows(NotFoundException.class, () -> commentService.importComments(comments));
+        assertThat(commentService.findEventComments(savedEvent.getId(), 0L, 10).size(), is(0));
+    }
+
+    private Comment importedComment(Long eventId, Long authorId, String text) {
+        return Comment.builder()
+                .text(text)
+                .event(Event.builder().id(eventId).build())
+                .author(User.builder().id(authorId).build())
+                .build();
+    }
+}
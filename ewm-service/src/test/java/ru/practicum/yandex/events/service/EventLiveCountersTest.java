@@ -0,0 +1,137 @@
+package ru.practicum.yandex.events.service;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.repository.EventRepository;
+import ru.practicum.yandex.shared.exception.SubscriberLimitExceededException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventLiveCountersTest {
+
+    @Mock
+    private EventRepository eventRepository;
+
+    private EventLiveCounters eventLiveCounters;
+
+    private Event event;
+
+    @BeforeEach
+    void init() {
+        eventLiveCounters = new EventLiveCounters(eventRepository, 1, Duration.ofMinutes(1), 10);
+        event = Event.builder()
+                .id(1L)
+                .views(5L)
+                .numberOfParticipants(2)
+                .build();
+    }
+
+    @AfterEach
+    void shutdown() {
+        eventLiveCounters.shutdown();
+    }
+
+    @Test
+    @DisplayName("Subscription over limit is rejected")
+    void subscribe_whenTooManySubscriptions_shouldThrowSubscriberLimitExceededException() {
+        when(eventRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(event));
+        eventLiveCounters.shutdown();
+        eventLiveCounters = new EventLiveCounters(eventRepository, 1, Duration.ofMinutes(1), 1);
+
+        eventLiveCounters.subscribe(List.of(1L));
+        SubscriberLimitExceededException e = assertThrows(SubscriberLimitExceededException.class,
+                () -> eventLiveCounters.subscribe(List.of(1L)));
+
+        assertThat(e.getRetryAfterSeconds(), greaterThan(0L));
+        verify(eventRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Concurrent subscriptions do not exceed limit")
+    @SneakyThrows
+    void subscribe_whenConcurrentSubscriptions_shouldNotExceedLimit() {
+        when(eventRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(event));
+        eventLiveCounters.shutdown();
+        eventLiveCounters = new EventLiveCounters(eventRepository, 1, Duration.ofMinutes(1), 5);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger subscribed = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    eventLiveCounters.subscribe(List.of(1L));
+                    subscribed.incrementAndGet();
+                } catch (SubscriberLimitExceededException e) {
+                    // rejected over limit
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertThat(subscribed.get(), is(5));
+    }
+
+    @Test
+    @DisplayName("Slot of subscription that failed to load counters is released")
+    void subscribe_whenLoadingCountersFails_shouldReleaseSlot() {
+        when(eventRepository.findAllById(Set.of(1L)))
+                .thenThrow(new IllegalStateException("database is unavailable"))
+                .thenReturn(List.of(event));
+        eventLiveCounters.shutdown();
+        eventLiveCounters = new EventLiveCounters(eventRepository, 1, Duration.ofMinutes(1), 1);
+
+        assertThrows(IllegalStateException.class, () -> eventLiveCounters.subscribe(List.of(1L)));
+        SseEmitter emitter = eventLiveCounters.subscribe(List.of(1L));
+
+        assertThat(emitter, notNullValue());
+    }
+
+    @Test
+    @DisplayName("Counters of event are loaded once for all subscribers")
+    void subscribe_whenEventAlreadySubscribed_shouldNotLoadEventAgain() {
+        when(eventRepository.findAllById(Set.of(1L)))
+                .thenReturn(List.of(event));
+
+        eventLiveCounters.subscribe(List.of(1L));
+        eventLiveCounters.subscribe(List.of(1L));
+
+        verify(eventRepository, times(1)).findAllById(any());
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.yandex.category.model.Category;
 import ru.practicum.yandex.category.service.CategoryService;
@@ -19,6 +20,7 @@ import ru.practicum.yandex.events.model.Event;
 import ru.practicum.yandex.events.model.EventState;
 import ru.practicum.yandex.events.model.Location;
 import ru.practicum.yandex.events.repository.CommentRepository;
+import ru.practicum.yandex.events.repository.EventRepository;
 import ru.practicum.yandex.shared.exception.NotAuthorizedException;
 import ru.practicum.yandex.shared.exception.NotFoundException;
 import ru.practicum.yandex.user.dto.StateAction;
@@ -26,6 +28,7 @@ import ru.practicum.yandex.user.model.NewEvent;
 import ru.practicum.yandex.user.model.User;
 import ru.practicum.yandex.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +39,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
@@ -54,6 +58,15 @@ class EventServiceImplTest {
     @Autowired
     private CommentRepository commentRepository;
 
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private TrendingEvents trendingEvents;
+
     private Event savedEvent1;
 
     private Event savedEvent2;
@@ -70,8 +83,11 @@ class EventServiceImplTest {
 
     Long unknownId;
 
+    private LocalDateTime eventDate;
+
     @BeforeEach
     void init() {
+        eventDate = LocalDateTime.now().plusYears(1).withNano(0);
         Location location = Location.builder()
                 .lat(-414.43F)
                 .lon(43.43F)
@@ -97,7 +113,7 @@ class EventServiceImplTest {
         NewEvent newEvent1 = NewEvent.builder()
                 .annotation("annotation1")
                 .description("description1")
-                .eventDate(LocalDateTime.of(2025, 10, 11, 12, 23, 11))
+                .eventDate(eventDate)
                 .participantLimit(134)
                 .requestModeration(false)
                 .title("title")
@@ -108,7 +124,7 @@ class EventServiceImplTest {
         NewEvent newEvent2 = NewEvent.builder()
                 .annotation("annotation2")
                 .description("description2")
-                .eventDate(LocalDateTime.of(2025, 10, 11, 12, 23, 11))
+                .eventDate(eventDate)
                 .participantLimit(1)
                 .requestModeration(false)
                 .title("title")
@@ -299,8 +315,8 @@ class EventServiceImplTest {
                 .build();
         eventService.updateEventByAdmin(savedEvent1.getId(), updateRequest);
         searchFilter = EventSearchFilter.builder()
-                .rangeStart(LocalDateTime.of(2024, 10, 11, 12, 23, 11))
-                .rangeEnd(LocalDateTime.of(2026, 10, 11, 12, 23, 11))
+                .rangeStart(eventDate.minusYears(1))
+                .rangeEnd(eventDate.plusYears(1))
                 .build();
 
         List<Event> events = eventService.findEvents(searchFilter, 0L, 10);
@@ -318,8 +334,8 @@ class EventServiceImplTest {
                 .build();
         eventService.updateEventByAdmin(savedEvent1.getId(), updateRequest);
         searchFilter = EventSearchFilter.builder()
-                .rangeStart(LocalDateTime.of(2023, 10, 11, 12, 23, 11))
-                .rangeEnd(LocalDateTime.of(2024, 10, 11, 12, 23, 11))
+                .rangeStart(eventDate.minusYears(2))
+                .rangeEnd(eventDate.minusYears(1))
                 .build();
 
         List<Event> events = eventService.findEvents(searchFilter, 0L, 10);
@@ -328,6 +344,32 @@ class EventServiceImplTest {
         assertThat(events, emptyIterable());
     }
 
+    @Test
+    @DisplayName("Search by date ranges differing only in seconds")
+    void findEvents_whenDateRangesDifferInSeconds_shouldNotShareCachedResult() {
+        LocalDateTime exactEventDate = eventDate.withSecond(30);
+        EventUpdateRequest updateRequest = EventUpdateRequest.builder()
+                .stateAction(StateAction.PUBLISH_EVENT)
+                .eventDate(exactEventDate)
+                .build();
+        eventService.updateEventByAdmin(savedEvent1.getId(), updateRequest);
+        EventSearchFilter beforeEventFilter = EventSearchFilter.builder()
+                .rangeStart(exactEventDate.minusSeconds(1))
+                .rangeEnd(exactEventDate.plusYears(1))
+                .build();
+        EventSearchFilter afterEventFilter = EventSearchFilter.builder()
+                .rangeStart(exactEventDate.plusSeconds(1))
+                .rangeEnd(exactEventDate.plusYears(1))
+                .build();
+
+        List<Event> beforeEventEvents = eventService.findEvents(beforeEventFilter, 0L, 10);
+        List<Event> afterEventEvents = eventService.findEvents(afterEventFilter, 0L, 10);
+
+        assertThat(beforeEventEvents.size(), is(1));
+        assertThat(beforeEventEvents.get(0).getId(), is(savedEvent1.getId()));
+        assertThat(afterEventEvents, emptyIterable());
+    }
+
     @Test
     @DisplayName("Search by available")
     void findEvents_whenSearchByOnlyAvailable_shouldReturnEvent() {
@@ -410,8 +452,8 @@ class EventServiceImplTest {
                 .text("annot")
                 .categories(List.of(savedCategory1.getId()))
                 .paid(false)
-                .rangeStart(LocalDateTime.of(2024, 10, 11, 12, 23, 11))
-                .rangeEnd(LocalDateTime.of(2026, 10, 11, 12, 23, 11))
+                .rangeStart(eventDate.minusYears(1))
+                .rangeEnd(eventDate.plusYears(1))
                 .build();
 
         List<Event> events = eventService.findEvents(searchFilter, 0L, 10);
@@ -432,8 +474,8 @@ class EventServiceImplTest {
                 .text("annot")
                 .categories(List.of(savedCategory1.getId()))
                 .paid(false)
-                .rangeStart(LocalDateTime.of(2024, 10, 11, 12, 23, 11))
-                .rangeEnd(LocalDateTime.of(2026, 10, 11, 12, 23, 11))
+                .rangeStart(eventDate.minusYears(1))
+                .rangeEnd(eventDate.plusYears(1))
                 .onlyAvailable(true)
                 .build();
 
@@ -455,8 +497,8 @@ class EventServiceImplTest {
                 .text("annot")
                 .categories(List.of(savedCategory1.getId()))
                 .paid(false)
-                .rangeStart(LocalDateTime.of(2024, 10, 11, 12, 23, 11))
-                .rangeEnd(LocalDateTime.of(2026, 10, 11, 12, 23, 11))
+                .rangeStart(eventDate.minusYears(1))
+                .rangeEnd(eventDate.plusYears(1))
                 .onlyAvailable(true)
                 .sort(EventSort.EVENT_DATE)
                 .build();
@@ -479,8 +521,8 @@ class EventServiceImplTest {
                 .text("annot")
                 .categories(List.of(savedCategory1.getId()))
                 .paid(false)
-                .rangeStart(LocalDateTime.of(2024, 10, 11, 12, 23, 11))
-                .rangeEnd(LocalDateTime.of(2026, 10, 11, 12, 23, 11))
+                .rangeStart(eventDate.minusYears(1))
+                .rangeEnd(eventDate.plusYears(1))
                 .onlyAvailable(true)
                 .build();
 
@@ -509,8 +551,8 @@ class EventServiceImplTest {
                 .text("Ducimus aut nihil praesentium officia. Exercitationem voluptates sint incidunt quia voluptas itaque itaque commodi. Facilis quis vero voluptas adipisci et est quia. Repudiandae qui vero quisquam.")
                 .categories(List.of(savedCategory1.getId()))
                 .paid(false)
-                .rangeStart(LocalDateTime.of(2024, 10, 11, 12, 23, 11))
-                .rangeEnd(LocalDateTime.of(2026, 10, 11, 12, 23, 11))
+                .rangeStart(eventDate.minusYears(1))
+                .rangeEnd(eventDate.plusYears(1))
                 .onlyAvailable(true)
                 .sort(EventSort.VIEWS)
                 .build();
@@ -538,6 +580,29 @@ class EventServiceImplTest {
         assertThat(event.getViews(), is(views));
     }
 
+    @Test
+    @DisplayName("Update views of event looked up before it was changed should keep the change")
+    void updateViews_whenEventChangedAfterLookup_shouldKeepChange() {
+        EventUpdateRequest updateRequest = EventUpdateRequest.builder()
+                .stateAction(StateAction.PUBLISH_EVENT)
+                .build();
+        eventService.updateEventByAdmin(savedEvent1.getId(), updateRequest);
+        Event event = eventService.getPublishedEvent(savedEvent1.getId());
+        entityManager.detach(event);
+        Event changedEvent = eventRepository.findById(savedEvent1.getId()).orElseThrow();
+        changedEvent.setTitle("changed title");
+        eventRepository.saveAndFlush(changedEvent);
+
+        Event eventWithViews = eventService.updateViews(event, 10L);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(eventWithViews.getViews(), is(10L));
+        Event savedEvent = eventRepository.findById(savedEvent1.getId()).orElseThrow();
+        assertThat(savedEvent.getTitle(), is("changed title"));
+        assertThat(savedEvent.getViews(), is(10L));
+    }
+
     @Test
     @DisplayName("Get not published event by id")
     void getFullEventInfoById_whenEventIsNotPublished_shouldThrowNotFoundException() {
@@ -650,9 +715,9 @@ class EventServiceImplTest {
         eventService.addCommentToEvent(savedUser1.getId(), savedEvent1.getId(), comment);
 
         Event event = userService.getFullEventByInitiator(savedUser1.getId(), savedEvent1.getId());
-        assertThat(event.getComments(), notNullValue());
-        assertThat(event.getComments().size(), is(1));
-        assertThat(event.getComments().get(0).getText(), is(comment.getText()));
+        assertThat(event.getLatestComments(), notNullValue());
+        assertThat(event.getLatestComments().size(), is(1));
+        assertThat(event.getLatestComments().get(0).getText(), is(comment.getText()));
     }
 
     @Test
@@ -676,7 +741,7 @@ class EventServiceImplTest {
                 .build();
 
         Event commentedEvent = eventService.addCommentToEvent(savedUser1.getId(), savedEvent1.getId(), comment);
-        Comment addedComment = commentedEvent.getComments().get(0);
+        Comment addedComment = commentedEvent.getLatestComments().get(0);
 
         Comment updateComment = Comment.builder()
                 .id(addedComment.getId())
@@ -685,10 +750,10 @@ class EventServiceImplTest {
         Event eventWithUpdatedComment = eventService.updateComment(savedUser1.getId(), savedEvent1.getId(), updateComment);
 
         assertThat(eventWithUpdatedComment, notNullValue());
-        assertThat(eventWithUpdatedComment.getComments(), notNullValue());
-        assertThat(eventWithUpdatedComment.getComments().size(), is(1));
-        assertThat(eventWithUpdatedComment.getComments().get(0).getId(), is(addedComment.getId()));
-        assertThat(eventWithUpdatedComment.getComments().get(0).getText(), is(updateComment.getText()));
+        assertThat(eventWithUpdatedComment.getLatestComments(), notNullValue());
+        assertThat(eventWithUpdatedComment.getLatestComments().size(), is(1));
+        assertThat(eventWithUpdatedComment.getLatestComments().get(0).getId(), is(addedComment.getId()));
+        assertThat(eventWithUpdatedComment.getLatestComments().get(0).getText(), is(updateComment.getText()));
     }
 
     @Test
@@ -698,7 +763,7 @@ class EventServiceImplTest {
                 .text("comment")
                 .build();
         Event commentedEvent = eventService.addCommentToEvent(savedUser1.getId(), savedEvent1.getId(), comment);
-        Comment addedComment = commentedEvent.getComments().get(0);
+        Comment addedComment = commentedEvent.getLatestComments().get(0);
         Comment updateComment = Comment.builder()
                 .id(addedComment.getId())
                 .text("updated comment")
@@ -718,7 +783,7 @@ class EventServiceImplTest {
                 .text("comment")
                 .build();
         Event commentedEvent = eventService.addCommentToEvent(savedUser1.getId(), savedEvent1.getId(), comment);
-        Comment addedComment = commentedEvent.getComments().get(0);
+        Comment addedComment = commentedEvent.getLatestComments().get(0);
 
         eventService.deleteComment(savedUser1.getId(), addedComment.getId());
 
@@ -734,7 +799,7 @@ class EventServiceImplTest {
                 .text("comment")
                 .build();
         Event commentedEvent = eventService.addCommentToEvent(savedUser1.getId(), savedEvent1.getId(), comment);
-        Comment addedComment = commentedEvent.getComments().get(0);
+        Comment addedComment = commentedEvent.getLatestComments().get(0);
 
         NotAuthorizedException e = assertThrows(NotAuthorizedException.class, () -> eventService
                 .deleteComment(savedUser2.getId(), addedComment.getId()));
@@ -767,4 +832,136 @@ class EventServiceImplTest {
         assertThat(events.get(0).getId(), is(savedEvent2.getId()));
         assertThat(events.get(1).getId(), is(savedEvent1.getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Find events order by trending")
+    void findEvents_whenOrderByTrending_shouldReturnTrendingEventFirst() {
+        EventUpdateRequest updateRequest = EventUpdateRequest.builder()
+                .stateAction(StateAction.PUBLISH_EVENT)
+                .build();
+        eventService.updateEventByAdmin(savedEvent1.getId(), updateRequest);
+        eventService.updateEventByAdmin(savedEvent2.getId(), updateRequest);
+        searchFilter = EventSearchFilter.builder()
+                .text("NNOTaT")
+                .rangeStart(eventDate.minusYears(5))
+                .rangeEnd(eventDate.plusYears(5))
+                .sort(EventSort.TRENDING)
+                .build();
+        when(trendingEvents.getTrendingEventIds())
+                .thenReturn(List.of(unknownId, savedEvent2.getId()));
+
+        List<Event> events = eventService.findEvents(searchFilter, 0L, 10);
+
+        assertThat(events.size(), is(2));
+        assertThat(events.get(0).getId(), is(savedEvent2.getId()));
+        assertThat(events.get(1).getId(), is(savedEvent1.getId()));
+    }
+
+    @Test
+    @DisplayName("Find events within radius")
+    void findEvents_whenSearchWithinRadius_shouldReturnOnlyNearEvents() {
+        Event nearEvent = addPublishedEventAt(55.7558F, 37.6173F);
+        addPublishedEventAt(59.9343F, 30.3351F);
+        searchFilter = EventSearchFilter.builder()
+                .lat(55.75F)
+                .lon(37.62F)
+                .radius(10F)
+                .build();
+
+        List<Event> events = eventService.findEvents(searchFilter, 0L, 10);
+
+        assertThat(events, notNullValue());
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).getId(), is(nearEvent.getId()));
+    }
+
+    @Test
+    @DisplayName("Find events within radius across antimeridian")
+    void findEvents_whenRadiusCrossesAntimeridian_shouldReturnEventsOnBothSides() {
+        Event westEvent = addPublishedEventAt(-16.5F, 179.95F);
+        Event eastEvent = addPublishedEventAt(-16.5F, -179.95F);
+        addPublishedEventAt(-16.5F, 178F);
+        searchFilter = EventSearchFilter.builder()
+                .lat(-16.5F)
+                .lon(179.99F)
+                .radius(20F)
+                .sort(EventSort.DISTANCE)
+                .build();
+
+        List<Event> events = eventService.findEvents(searchFilter, 0L, 10);
+
+        assertThat(events, notNullValue());
+        assertThat(events.size(), is(2));
+        assertThat(events.get(0).getId(), is(westEvent.getId()));
+        assertThat(events.get(1).getId(), is(eastEvent.getId()));
+    }
+
+    @Test
+    @DisplayName("Find events order by distance")
+    void findEvents_whenOrderByDistance_shouldReturnNearestEventFirst() {
+        Event farEvent = addPublishedEventAt(59.9343F, 30.3351F);
+        Event nearEvent = addPublishedEventAt(55.7558F, 37.6173F);
+        searchFilter = EventSearchFilter.builder()
+                .lat(55.75F)
+                .lon(37.62F)
+                .radius(1000F)
+                .sort(EventSort.DISTANCE)
+                .build();
+
+        List<Event> events = eventService.findEvents(searchFilter, 0L, 10);
+
+        assertThat(events, notNullValue());
+        assertThat(events.size(), is(2));
+        assertThat(events.get(0).getId(), is(nearEvent.getId()));
+        assertThat(events.get(1).getId(), is(farEvent.getId()));
+    }
+
+    @Test
+    @DisplayName("Search result is refreshed after event is published")
+    void findEvents_whenEventPublishedAfterSearch_shouldReturnNewEvent() {
+        EventUpdateRequest updateRequest = EventUpdateRequest.builder()
+                .stateAction(StateAction.PUBLISH_EVENT)
+                .build();
+        eventService.updateEventByAdmin(savedEvent1.getId(), updateRequest);
+        searchFilter = EventSearchFilter.builder()
+                .text("annot")
+                .categories(List.of(savedCategory2.getId(), savedCategory1.getId()))
+                .build();
+
+        List<Event> events = eventService.findEvents(searchFilter, 0L, 10);
+
+        assertThat(events.size(), is(1));
+
+        eventService.updateEventByAdmin(savedEvent2.getId(), updateRequest);
+        searchFilter = EventSearchFilter.builder()
+                .text(" ANNOT")
+                .categories(List.of(savedCategory1.getId(), savedCategory2.getId()))
+                .build();
+
+        events = eventService.findEvents(searchFilter, 0L, 10);
+
+        assertThat(events.size(), is(2));
+    }
+
+    private Event addPublishedEventAt(Float lat, Float lon) {
+        NewEvent newEvent = NewEvent.builder()
+                .annotation("annotation")
+                .description("description")
+                .eventDate(LocalDateTime.now().plusDays(10))
+                .participantLimit(10)
+                .requestModeration(false)
+                .title("title")
+                .paid(false)
+                .location(Location.builder()
+                        .lat(lat)
+                        .lon(lon)
+                        .build())
+                .categoryId(savedCategory1.getId())
+                .build();
+        Event event = userService.addEventByUser(savedUser1.getId(), newEvent);
+        EventUpdateRequest updateRequest = EventUpdateRequest.builder()
+                .stateAction(StateAction.PUBLISH_EVENT)
+                .build();
+        return eventService.updateEventByAdmin(event.getId(), updateRequest);
+    }
+}
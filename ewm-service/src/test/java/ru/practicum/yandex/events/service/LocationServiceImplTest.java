@@ -0,0 +1,58 @@
+package ru.practicum.yandex.events.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.yandex.events.model.Location;
+import ru.practicum.yandex.events.repository.LocationRepository;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class LocationServiceImplTest {
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Location created in rolled back transaction should not be served from cache")
+    void getOrCreateLocation_whenTransactionRolledBack_shouldCreateLocationAgain() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Location rolledBack = transactionTemplate.execute(status -> {
+            locationService.getOrCreateLocation(-71.123456f, 12.654321f);
+            Location location = locationService.getOrCreateLocation(-71.123456f, 12.654321f);
+            status.setRollbackOnly();
+            return location;
+        });
+        Location location = locationService.getOrCreateLocation(-71.123456f, 12.654321f);
+
+        assertThat(locationRepository.existsById(rolledBack.getId()), is(false));
+        assertThat(location.getId(), notNullValue());
+        assertThat(locationRepository.existsById(location.getId()), is(true));
+    }
+
+    @Test
+    @DisplayName("Same coordinates should resolve to same location")
+    void getOrCreateLocation_whenCalledTwice_shouldReturnSameLocation() {
+        Location first = locationService.getOrCreateLocation(-72.5f, 13.5f);
+        Location second = locationService.getOrCreateLocation(-72.5f, 13.5f);
+
+        assertThat(second.getId(), is(first.getId()));
+        assertThat(locationRepository.findByLatAndLon(-72.5f, 13.5f).orElseThrow().getId(), is(first.getId()));
+    }
+}
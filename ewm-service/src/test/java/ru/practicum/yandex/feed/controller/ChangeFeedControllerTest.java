@@ -0,0 +1,53 @@
+package ru.practicum.yandex.feed.controller;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.yandex.feed.service.ChangeFeedPoller;
+import ru.practicum.yandex.shared.exception.ChangesExpiredException;
+import ru.practicum.yandex.shared.exception.SubscriberLimitExceededException;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ChangeFeedController.class)
+class ChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private ChangeFeedPoller changeFeedPoller;
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Poll over limit of waiting polls returns 503 with Retry-After")
+    void findChanges_whenTooManyPolls_shouldReturn503() {
+        when(changeFeedPoller.poll(5L, 100, 30000L))
+                .thenThrow(new SubscriberLimitExceededException("Too many polls.", 1));
+
+        mvc.perform(get("/admin/changes")
+                        .param("after", "5"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Poll after expired change returns 410")
+    void findChanges_whenCursorExpired_shouldReturn410() {
+        when(changeFeedPoller.poll(5L, 100, 30000L))
+                .thenThrow(new ChangesExpiredException("Change with id '5' was not found or expired."));
+
+        mvc.perform(get("/admin/changes")
+                        .param("after", "5"))
+                .andExpect(status().isGone());
+    }
+}
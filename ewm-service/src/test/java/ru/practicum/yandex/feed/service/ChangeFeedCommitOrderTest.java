@@ -0,0 +1,139 @@
+package ru.practicum.yandex.feed.service;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.EventState;
+import ru.practicum.yandex.feed.model.ChangeRecord;
+import ru.practicum.yandex.feed.model.ChangeType;
+import ru.practicum.yandex.feed.repository.ChangeRecordRepository;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.emptyIterable;
+
+/**
+ * Changes committed by concurrent transactions out of id order. Transactions are committed, so changes created by
+ * tests are deleted after each test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class ChangeFeedCommitOrderTest {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ChangeRecordRepository changeRecordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService executor;
+
+    private Long cursor;
+
+    @BeforeEach
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newSingleThreadExecutor();
+        recordEventChange(1L);
+        List<ChangeRecord> changes = changeFeedService.findChanges(0L, 1000);
+        cursor = changes.get(changes.size() - 1).getId();
+    }
+
+    @AfterEach
+    void cleanup() {
+        executor.shutdownNow();
+        changeRecordRepository.deleteAll(changeRecordRepository.findAll().stream()
+                .filter(change -> change.getId() >= cursor)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Change committed before change with smaller id is read only after that change is committed")
+    void findChanges_whenChangeWithSmallerIdNotCommitted_shouldNotReturnLaterChange() {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Future<?> slowTransaction = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            changeFeedService.recordEventChange(event(2L), ChangeType.UPDATED);
+            recorded.countDown();
+            await(commit);
+        }));
+        recorded.await(5, TimeUnit.SECONDS);
+        recordEventChange(3L);
+
+        List<ChangeRecord> changesBeforeCommit = changeFeedService.findChanges(cursor, 10);
+        commit.countDown();
+        slowTransaction.get(5, TimeUnit.SECONDS);
+        List<ChangeRecord> changesAfterCommit = changeFeedService.findChanges(cursor, 10);
+
+        assertThat(changesBeforeCommit, emptyIterable());
+        assertThat(eventIds(changesAfterCommit), contains(2L, 3L));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Change held back by rolled back change is read after rollback")
+    void findChanges_whenChangeWithSmallerIdRolledBack_shouldReturnLaterChange() {
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch rollback = new CountDownLatch(1);
+        Future<?> slowTransaction = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            changeFeedService.recordEventChange(event(2L), ChangeType.UPDATED);
+            recorded.countDown();
+            await(rollback);
+            status.setRollbackOnly();
+        }));
+        recorded.await(5, TimeUnit.SECONDS);
+        recordEventChange(3L);
+
+        rollback.countDown();
+        slowTransaction.get(5, TimeUnit.SECONDS);
+        List<ChangeRecord> changes = changeFeedService.findChanges(cursor, 10);
+
+        assertThat(eventIds(changes), contains(3L));
+    }
+
+    private void recordEventChange(Long eventId) {
+        transactionTemplate.executeWithoutResult(status ->
+                changeFeedService.recordEventChange(event(eventId), ChangeType.UPDATED));
+    }
+
+    private Event event(Long id) {
+        return Event.builder()
+                .id(id)
+                .state(EventState.PENDING)
+                .build();
+    }
+
+    private List<Long> eventIds(List<ChangeRecord> changes) {
+        return changes.stream()
+                .map(ChangeRecord::getEventId)
+                .collect(Collectors.toList());
+    }
+
+    @SneakyThrows
+    private void await(CountDownLatch latch) {
+        latch.await(5, TimeUnit.SECONDS);
+    }
+}
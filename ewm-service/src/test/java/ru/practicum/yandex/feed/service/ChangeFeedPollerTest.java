@@ -0,0 +1,123 @@
+package ru.practicum.yandex.feed.service;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+import ru.practicum.yandex.feed.dto.ChangeRecordDto;
+import ru.practicum.yandex.feed.mapper.ChangeRecordMapper;
+import ru.practicum.yandex.feed.model.ChangeRecord;
+import ru.practicum.yandex.shared.exception.ChangesExpiredException;
+import ru.practicum.yandex.shared.exception.SubscriberLimitExceededException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChangeFeedPollerTest {
+
+    private ChangeFeedService changeFeedService;
+
+    private ChangeFeedPoller changeFeedPoller;
+
+    private List<ChangeRecord> changes;
+
+    private List<ChangeRecordDto> changeDtos;
+
+    @BeforeEach
+    void init() {
+        changeFeedService = mock(ChangeFeedService.class);
+        ChangeRecordMapper changeRecordMapper = mock(ChangeRecordMapper.class);
+        changeFeedPoller = new ChangeFeedPoller(changeFeedService, changeRecordMapper, 1);
+        changes = List.of(ChangeRecord.builder()
+                .id(2L)
+                .build());
+        changeDtos = List.of(ChangeRecordDto.builder()
+                .id(2L)
+                .build());
+        when(changeRecordMapper.toDtoList(any())).thenReturn(changeDtos);
+    }
+
+    @AfterEach
+    void shutdown() {
+        changeFeedPoller.shutdown();
+    }
+
+    @Test
+    @DisplayName("Poll without changes over limit of waiting polls is rejected")
+    void poll_whenLimitReachedAndNoChanges_shouldThrowSubscriberLimitExceededException() {
+        when(changeFeedService.findChanges(1L, 10)).thenReturn(List.of());
+        changeFeedPoller.poll(1L, 10, 30000L);
+
+        SubscriberLimitExceededException e = assertThrows(SubscriberLimitExceededException.class,
+                () -> changeFeedPoller.poll(1L, 10, 30000L));
+
+        assertThat(e.getRetryAfterSeconds(), is(1L));
+    }
+
+    @Test
+    @DisplayName("Poll with changes over limit of waiting polls returns changes")
+    void poll_whenLimitReachedAndChangesExist_shouldReturnChanges() {
+        when(changeFeedService.findChanges(1L, 10)).thenReturn(List.of());
+        when(changeFeedService.findChanges(0L, 10)).thenReturn(changes);
+        changeFeedPoller.poll(1L, 10, 30000L);
+
+        DeferredResult<List<ChangeRecordDto>> result = changeFeedPoller.poll(0L, 10, 30000L);
+
+        assertThat(result.getResult(), is(changeDtos));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Waiting poll is completed on notify thread after changes are recorded")
+    void onChangesRecorded_whenPollIsWaiting_shouldCompletePollOnNotifyThread() {
+        CompletableFuture<String> lookupThread = new CompletableFuture<>();
+        when(changeFeedService.findChanges(1L, 10))
+                .thenReturn(List.of())
+                .thenAnswer(invocation -> {
+                    lookupThread.complete(Thread.currentThread().getName());
+                    return changes;
+                });
+        DeferredResult<List<ChangeRecordDto>> result = changeFeedPoller.poll(1L, 10, 30000L);
+
+        changeFeedPoller.onChangesRecorded(new ChangesRecordedEvent(2L));
+
+        assertThat(lookupThread.get(5, TimeUnit.SECONDS), startsWith("change-feed-"));
+        awaitResult(result);
+        assertThat(result.getResult(), is(changeDtos));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Waiting poll is completed with error when its cursor expired")
+    void onChangesRecorded_whenCursorExpired_shouldCompletePollWithError() {
+        when(changeFeedService.findChanges(1L, 10))
+                .thenReturn(List.of())
+                .thenThrow(new ChangesExpiredException("Change with id '1' was not found or expired."));
+        DeferredResult<List<ChangeRecordDto>> result = changeFeedPoller.poll(1L, 10, 30000L);
+
+        changeFeedPoller.onChangesRecorded(new ChangesRecordedEvent(2L));
+
+        awaitResult(result);
+        assertThat(result.getResult(), instanceOf(ChangesExpiredException.class));
+    }
+
+    @SneakyThrows
+    private void awaitResult(DeferredResult<?> result) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.hasResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
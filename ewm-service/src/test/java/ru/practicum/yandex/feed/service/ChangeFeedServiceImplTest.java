@@ -0,0 +1,164 @@
+package ru.practicum.yandex.feed.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.async.DeferredResult;
+import ru.practicum.yandex.category.model.Category;
+import ru.practicum.yandex.category.service.CategoryService;
+import ru.practicum.yandex.events.dto.EventUpdateRequest;
+import ru.practicum.yandex.events.model.Comment;
+import ru.practicum.yandex.events.model.Event;
+import ru.practicum.yandex.events.model.Location;
+import ru.practicum.yandex.events.service.CommentService;
+import ru.practicum.yandex.events.service.EventService;
+import ru.practicum.yandex.feed.dto.ChangeRecordDto;
+import ru.practicum.yandex.feed.model.ChangeEntityType;
+import ru.practicum.yandex.feed.model.ChangeRecord;
+import ru.practicum.yandex.feed.model.ChangeType;
+import ru.practicum.yandex.shared.exception.ChangesExpiredException;
+import ru.practicum.yandex.user.dto.StateAction;
+import ru.practicum.yandex.user.model.NewEvent;
+import ru.practicum.yandex.user.model.User;
+import ru.practicum.yandex.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.emptyIterable;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Transactional
+class ChangeFeedServiceImplTest {
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private ChangeFeedPoller changeFeedPoller;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    private User savedUser;
+
+    private Event savedEvent;
+
+    @BeforeEach
+    void init() {
+        Category category = Category.builder()
+                .name("category")
+                .build();
+        Category savedCategory = categoryService.addCategory(category);
+        User user = User.builder()
+                .name("name")
+                .email("user@email.com")
+                .build();
+        savedUser = userService.createUser(user);
+        NewEvent newEvent = NewEvent.builder()
+                .annotation("annotation")
+                .description("description")
+                .eventDate(LocalDateTime.now().plusDays(10))
+                .participantLimit(10)
+                .requestModeration(false)
+                .title("title")
+                .paid(false)
+                .location(Location.builder()
+                        .lat(55.75F)
+                        .lon(37.62F)
+                        .build())
+                .categoryId(savedCategory.getId())
+                .build();
+        savedEvent = userService.addEventByUser(savedUser.getId(), newEvent);
+    }
+
+    @Test
+    @DisplayName("Event creation and publication are recorded in order")
+    void findChanges_whenEventPublished_shouldReturnCreatedAndUpdatedChanges() {
+        EventUpdateRequest updateRequest = EventUpdateRequest.builder()
+                .stateAction(StateAction.PUBLISH_EVENT)
+                .build();
+        eventService.updateEventByAdmin(savedEvent.getId(), updateRequest);
+
+        List<ChangeRecord> changes = changeFeedService.findChanges(0L, 10);
+
+        assertThat(changes.size(), is(2));
+        assertThat(changes.get(0).getEntityType(), is(ChangeEntityType.EVENT));
+        assertThat(changes.get(0).getEntityId(), is(savedEvent.getId()));
+        assertThat(changes.get(0).getChangeType(), is(ChangeType.CREATED));
+        assertThat(changes.get(0).getState(), is("PENDING"));
+        assertThat(changes.get(1).getChangeType(), is(ChangeType.UPDATED));
+        assertThat(changes.get(1).getState(), is("PUBLISHED"));
+    }
+
+    @Test
+    @DisplayName("Changes are read after cursor")
+    void findChanges_whenAfterLastChange_shouldReturnOnlyNewChanges() {
+        EventUpdateRequest updateRequest = EventUpdateRequest.builder()
+                .stateAction(StateAction.PUBLISH_EVENT)
+                .build();
+        eventService.updateEventByAdmin(savedEvent.getId(), updateRequest);
+        List<ChangeRecord> changes = changeFeedService.findChanges(0L, 10);
+        Long lastChangeId = changes.get(changes.size() - 1).getId();
+        Comment comment = Comment.builder()
+                .text("comment")
+                .build();
+        Comment savedComment = commentService.addComment(savedUser.getId(), savedEvent.getId(), comment);
+
+        List<ChangeRecord> newChanges = changeFeedService.findChanges(lastChangeId, 10);
+
+        assertThat(newChanges.size(), is(1));
+        assertThat(newChanges.get(0).getEntityType(), is(ChangeEntityType.COMMENT));
+        assertThat(newChanges.get(0).getEntityId(), is(savedComment.getId()));
+        assertThat(newChanges.get(0).getEventId(), is(savedEvent.getId()));
+        assertThat(newChanges.get(0).getChangeType(), is(ChangeType.CREATED));
+    }
+
+    @Test
+    @DisplayName("Poll returns existing changes without waiting")
+    void poll_whenChangesExist_shouldSetResultImmediately() {
+        DeferredResult<List<ChangeRecordDto>> result = changeFeedPoller.poll(0L, 10, 30000L);
+
+        assertThat(result.hasResult(), is(true));
+        assertThat(((List<?>) result.getResult()).size(), is(1));
+    }
+
+    @Test
+    @DisplayName("Poll without timeout returns empty list when there are no changes")
+    void poll_whenNoChangesAndZeroTimeout_shouldSetEmptyResult() {
+        List<ChangeRecord> changes = changeFeedService.findChanges(0L, 10);
+        Long lastChangeId = changes.get(changes.size() - 1).getId();
+
+        DeferredResult<List<ChangeRecordDto>> result = changeFeedPoller.poll(lastChangeId, 10, 0L);
+
+        assertThat(result.hasResult(), is(true));
+        assertThat((List<?>) result.getResult(), emptyIterable());
+    }
+
+    @Test
+    @DisplayName("Reading after deleted change throws ChangesExpiredException")
+    void findChanges_whenCursorChangeDeleted_shouldThrowChangesExpiredException() {
+        List<ChangeRecord> changes = changeFeedService.findChanges(0L, 10);
+        Long unknownChangeId = changes.get(changes.size() - 1).getId() + 1000;
+
+        assertThrows(ChangesExpiredException.class, () -> changeFeedService.findChanges(unknownChangeId, 10));
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.yandex.shared.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import reactor.core.publisher.Mono;
+import ru.practicum.yandex.ReactiveStatClient;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResponseCacheFilterTest {
+
+    private final AtomicInteger handled = new AtomicInteger();
+
+    private ReactiveStatClient reactiveStatClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    void init() {
+        reactiveStatClient = mock(ReactiveStatClient.class);
+        when(reactiveStatClient.methodHit(any())).thenReturn(Mono.empty());
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new ResponseCacheFilter(new ResponseCacheProperties(), reactiveStatClient, meterRegistry);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Repeated request is served from cache")
+    void doFilter_whenRepeatedRequest_shouldServeFromCache() {
+        MockHttpServletResponse first = perform(get("/categories"));
+        MockHttpServletResponse second = perform(get("/categories"));
+
+        assertThat(handled.get(), is(1));
+        assertThat(second.getStatus(), is(200));
+        assertThat(second.getContentAsString(), is(first.getContentAsString()));
+        assertThat(second.getHeader(HttpHeaders.ETAG), is(first.getHeader(HttpHeaders.ETAG)));
+        assertThat(meterRegistry.counter("ewm.response.cache.requests", "result", "hit").count(), is(1.0));
+        assertThat(meterRegistry.counter("ewm.response.cache.requests", "result", "miss").count(), is(1.0));
+    }
+
+    @Test
+    @DisplayName("Request with matching ETag")
+    void doFilter_whenIfNoneMatchEqualsEtag_shouldReturn304() {
+        MockHttpServletResponse first = perform(get("/compilations/1"));
+        MockHttpServletRequest request = get("/compilations/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletResponse second = perform(request);
+
+        assertThat(first.getHeader(HttpHeaders.ETAG), notNullValue());
+        assertThat(second.getStatus(), is(304));
+        assertThat(second.getContentAsByteArray().length, is(0));
+    }
+
+    @Test
+    @DisplayName("Write request invalidates cache")
+    void doFilter_whenWriteRequest_shouldInvalidateCache() {
+        perform(get("/categories"));
+        perform(new MockHttpServletRequest("POST", "/admin/categories"));
+        perform(get("/categories"));
+
+        assertThat(handled.get(), is(3));
+    }
+
+    @Test
+    @DisplayName("Failed write request does not invalidate cache")
+    void doFilter_whenWriteRequestFailed_shouldKeepCache() {
+        perform(get("/categories"));
+        perform(new MockHttpServletRequest("POST", "/admin/categories"), HttpServletResponse.SC_CONFLICT);
+        perform(get("/categories"));
+
+        assertThat(handled.get(), is(2));
+    }
+
+    @Test
+    @DisplayName("Options and head requests do not invalidate cache")
+    void doFilter_whenOptionsOrHeadRequest_shouldKeepCache() {
+        perform(get("/categories"));
+        perform(new MockHttpServletRequest("OPTIONS", "/admin/categories"));
+        perform(new MockHttpServletRequest("HEAD", "/categories"));
+        perform(get("/categories"));
+
+        assertThat(handled.get(), is(3));
+    }
+
+    @Test
+    @DisplayName("Compilation write does not invalidate categories")
+    void doFilter_whenCompilationWriteRequest_shouldKeepCategories() {
+        perform(get("/categories"));
+        perform(new MockHttpServletRequest("PATCH", "/admin/compilations/1"));
+        perform(get("/categories"));
+
+        assertThat(handled.get(), is(2));
+    }
+
+    @Test
+    @DisplayName("Cached event request is registered in stats")
+    void doFilter_whenEventServedFromCache_shouldRegisterHit() {
+        perform(get("/events/1"));
+        verify(reactiveStatClient, never()).methodHit(any());
+
+        perform(get("/events/1"));
+
+        assertThat(handled.get(), is(1));
+        verify(reactiveStatClient, times(1)).methodHit(any());
+    }
+
+    @Test
+    @DisplayName("Different query parameters are cached separately")
+    void doFilter_whenDifferentParameters_shouldNotShareCache() {
+        MockHttpServletRequest first = get("/compilations");
+        first.addParameter("pinned", "true");
+        MockHttpServletRequest second = get("/compilations");
+        second.addParameter("pinned", "false");
+
+        perform(first);
+        perform(second);
+
+        assertThat(handled.get(), is(2));
+    }
+
+    private MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) {
+        return perform(request, HttpServletResponse.SC_OK);
+    }
+
+    @SneakyThrows
+    private MockHttpServletResponse perform(MockHttpServletRequest request, int status) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                handled.incrementAndGet();
+                resp.setStatus(status);
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"uri\":\"" + req.getRequestURI() + "\"}");
+            }
+        }));
+        return response;
+    }
+}
@@ -393,6 +393,19 @@ class UserEventServiceImplTest {
         assertThat(updatedEvent.getInitiator().getId(), is(savedUser1.getId()));
     }
 
+    @Test
+    @DisplayName("Add events at same location")
+    void addEventByUser_whenLocationAlreadyExists_shouldReuseLocation() {
+        NewEvent newEvent1 = createNewEvent(1);
+        NewEvent newEvent2 = createNewEvent(2);
+
+        Event savedEvent1 = userService.addEventByUser(savedUser1.getId(), newEvent1);
+        Event savedEvent2 = userService.addEventByUser(savedUser1.getId(), newEvent2);
+
+        assertThat(savedEvent1.getLocation().getId(), notNullValue());
+        assertThat(savedEvent2.getLocation().getId(), is(savedEvent1.getLocation().getId()));
+    }
+
     private User createUser(int id) {
         return User.builder()
                 .name("name" + id)
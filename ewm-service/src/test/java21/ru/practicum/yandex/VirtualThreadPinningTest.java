@@ -0,0 +1,64 @@
+package ru.practicum.yandex;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class VirtualThreadPinningTest {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Requests served on virtual threads should not pin carrier threads")
+    void databaseEndpoints_whenServedOnVirtualThreads_shouldNotPinCarrierThreads() {
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+        List<Future<HttpStatus>> statuses = new ArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinnedEvents::add);
+            recording.startAsync();
+            try (ExecutorService clients = Executors.newFixedThreadPool(32)) {
+                for (int i = 0; i < REQUESTS; i++) {
+                    // Admin endpoints are not cached, each request runs JDBC query on virtual thread.
+                    statuses.add(clients.submit(() -> restTemplate.getForEntity("/admin/users", String.class)
+                            .getStatusCode()));
+                    statuses.add(clients.submit(() -> restTemplate.getForEntity("/admin/events", String.class)
+                            .getStatusCode()));
+                }
+            }
+            recording.stop();
+        }
+
+        assertThat(pinnedEvents.toString(), pinnedEvents, empty());
+        for (Future<HttpStatus> status : statuses) {
+            assertThat(status.get().is2xxSuccessful(), is(true));
+        }
+    }
+}
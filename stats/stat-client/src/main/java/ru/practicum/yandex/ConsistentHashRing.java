@@ -0,0 +1,117 @@
+package ru.practicum.yandex;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring of nodes. Each node is placed on the ring at several points (virtual nodes), key belongs to
+ * the first node point clockwise from key hash. When node is added or removed, only keys of its ring segments move.
+ * <p>
+ * Ring may keep previous layout of nodes, in which case key also belongs to its node in previous layout, so that data
+ * stored by key before nodes were changed is still found.
+ *
+ * @param <T> type of node
+ */
+public class ConsistentHashRing<T> {
+
+    private final NavigableMap<Long, T> ring;
+
+    private final NavigableMap<Long, T> previousRing;
+
+    private final List<T> nodes;
+
+    /**
+     * @param nodesByName  nodes by unique names, names are hashed to place nodes on the ring
+     * @param virtualNodes number of points of each node on the ring
+     */
+    public ConsistentHashRing(Map<String, T> nodesByName, int virtualNodes) {
+        this(nodesByName, Map.of(), virtualNodes);
+    }
+
+    /**
+     * @param nodesByName         nodes by unique names, names are hashed to place nodes on the ring
+     * @param previousNodesByName nodes of previous layout by names, no previous layout if empty
+     * @param virtualNodes        number of points of each node on the ring
+     */
+    public ConsistentHashRing(Map<String, T> nodesByName, Map<String, T> previousNodesByName, int virtualNodes) {
+        if (nodesByName.isEmpty()) {
+            throw new IllegalArgumentException("Hash ring requires at least one node.");
+        }
+        this.ring = place(nodesByName, virtualNodes);
+        this.previousRing = place(previousNodesByName, virtualNodes);
+        final Set<T> allNodes = new LinkedHashSet<>(nodesByName.values());
+        allNodes.addAll(previousNodesByName.values());
+        this.nodes = List.copyOf(allNodes);
+    }
+
+    /**
+     * Get node key belongs to.
+     *
+     * @param key key
+     * @return node of key
+     */
+    public T getNode(String key) {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        return getNode(ring, key);
+    }
+
+    /**
+     * Get nodes that hold data of key: node of key and, if it differs, node of key in previous layout.
+     *
+     * @param key key
+     * @return nodes of key, node of key first
+     */
+    public List<T> getNodes(String key) {
+        final T node = getNode(key);
+        if (previousRing.isEmpty()) {
+            return List.of(node);
+        }
+        final T previousNode = getNode(previousRing, key);
+        return previousNode.equals(node) ? List.of(node) : List.of(node, previousNode);
+    }
+
+    /**
+     * Get nodes of current and previous layout.
+     */
+    public List<T> getNodes() {
+        return nodes;
+    }
+
+    private static <T> NavigableMap<Long, T> place(Map<String, T> nodesByName, int virtualNodes) {
+        final NavigableMap<Long, T> ring = new TreeMap<>();
+        nodesByName.forEach((name, node) -> {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(name + "#" + i), node);
+            }
+        });
+        return ring;
+    }
+
+    private static <T> T getNode(NavigableMap<Long, T> ring, String key) {
+        final Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(String key) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = hash << 8 | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.yandex;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.util.MimeType;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.HitBatchAckDto;
+import ru.practicum.yandex.dto.HitBatchDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Persistent stream of hits to stat server node over RSocket request channel. Hits are collected into batches of
+ * stat-client.stream.batch-size hits or stat-client.stream.max-batch-delay, whichever comes first. Stat server
+ * requests batches as it saves them and acknowledges each batch. Batches are kept until acknowledged and are sent
+ * again after reconnect, so hit may be saved twice if connection is lost before acknowledgement is received. Hits
+ * rejected in acknowledgement are not valid or failed to save and are not sent again. Name and key of app are sent in
+ * metadata of stream, stat server queues hits of stream by authenticated app.
+ * <p>
+ * Each connection attempt uses new requester from supplier, as requester does not connect again once its connection
+ * failed.
+ */
+@Slf4j
+public class HitStream {
+
+    static final String ROUTE = "hits.stream";
+
+    private static final MimeType APP_MIME_TYPE = MimeType.valueOf("message/x.stat-app");
+
+    private static final MimeType APP_KEY_MIME_TYPE = MimeType.valueOf("message/x.stat-app-key");
+
+    private final String node;
+
+    private final Supplier<RSocketRequester> requesters;
+
+    private final String appName;
+
+    private final String appKey;
+
+    private final StatClientProperties.Stream properties;
+
+    private final Sinks.Many<EndpointHitDto> hits;
+
+    private final Map<Long, HitBatchDto> unacknowledgedBatches = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Sinks.Empty<Void> completed = Sinks.empty();
+
+    private final Disposable subscription;
+
+    public HitStream(String node, Supplier<RSocketRequester> requesters, String appName, String appKey,
+                     StatClientProperties.Stream properties) {
+        this.node = node;
+        this.requesters = requesters;
+        this.appName = appName;
+        this.appKey = appKey;
+        this.properties = properties;
+        this.hits = Sinks.many().multicast().onBackpressureBuffer(properties.getBufferSize(), false);
+        this.subscription = Flux.defer(this::openChannel)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, properties.getMinReconnectDelay())
+                        .maxBackoff(properties.getMaxReconnectDelay())
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Hit stream to node '{}' failed, reconnecting: {}.", node,
+                                signal.failure().toString())))
+                .doFinally(signal -> completed.tryEmitEmpty())
+                .subscribe(this::acknowledge);
+    }
+
+    /**
+     * Queue hit to be sent. Hits are buffered while stream reconnects.
+     *
+     * @param endpointHitDto hit
+     * @return false if buffer of stream is full and hit is dropped
+     */
+    public boolean send(EndpointHitDto endpointHitDto) {
+        Sinks.EmitResult result;
+        while ((result = hits.tryEmitNext(endpointHitDto)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        return result.isSuccess();
+    }
+
+    /**
+     * Send buffered hits and close stream. Waits up to stat-client.stream.close-timeout for last batches to be
+     * acknowledged.
+     */
+    public void close() {
+        hits.tryEmitComplete();
+        completed.asMono()
+                .timeout(properties.getCloseTimeout(), Mono.empty())
+                .block();
+        subscription.dispose();
+        if (!unacknowledgedBatches.isEmpty()) {
+            log.warn("Hit stream to node '{}' was closed with '{}' unacknowledged batches.", node,
+                    unacknowledgedBatches.size());
+        }
+    }
+
+    int getUnacknowledgedBatches() {
+        return unacknowledgedBatches.size();
+    }
+
+    private Flux<HitBatchAckDto> openChannel() {
+        Flux<HitBatchDto> batches = hits.asFlux()
+                .bufferTimeout(properties.getBatchSize(), properties.getMaxBatchDelay())
+                .map(batchHits -> new HitBatchDto(sequence.incrementAndGet(), batchHits))
+                .doOnNext(batch -> unacknowledgedBatches.put(batch.getSequence(), batch))
+                .onBackpressureBuffer(properties.getMaxPendingBatches(), this::drop,
+                        BufferOverflowStrategy.DROP_OLDEST);
+        Flux<HitBatchDto> resentBatches = Flux.defer(() ->
+                Flux.fromIterable(new ArrayList<>(unacknowledgedBatches.values())));
+        log.info("Opening hit stream to node '{}'.", node);
+        return Flux.using(requesters::get, requester -> {
+            RSocketRequester.RequestSpec request = requester.route(ROUTE);
+            if (appName != null) {
+                request.metadata(appName, APP_MIME_TYPE);
+            }
+            if (appKey != null) {
+                request.metadata(appKey, APP_KEY_MIME_TYPE);
+            }
+            return request
+                    .data(Flux.concat(resentBatches, batches))
+                    .retrieveFlux(HitBatchAckDto.class);
+        }, RSocketRequester::dispose);
+    }
+
+    private void drop(HitBatchDto batch) {
+        unacknowledgedBatches.remove(batch.getSequence());
+        log.warn("Hit stream to node '{}' is overloaded, batch of '{}' hits was dropped.", node,
+                batch.getHits().size());
+    }
+
+    private void acknowledge(HitBatchAckDto ack) {
+        unacknowledgedBatches.remove(ack.getSequence());
+        if (ack.getRejected() != null && ack.getRejected() > 0) {
+            log.warn("Stat server node '{}' rejected '{}' hits of batch '{}'.", node, ack.getRejected(),
+                    ack.getSequence());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.yandex;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Non-blocking stat client. Calls are sent to stat server only on subscription, so hit registration and stats
+ * requests can be composed and issued concurrently.
+ */
+public interface ReactiveStatClient {
+
+    Mono<EndpointHitDto> methodHit(EndpointHitDto endpointHitDto);
+
+    Flux<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
+
+    Mono<ViewStatsDto> getUniqueIpStatsForUri(String uri);
+
+    Flux<ViewStatsDto> getTrending(String window, String app, Integer limit);
+}
@@ -0,0 +1,297 @@
+package ru.practicum.yandex;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class ReactiveStatClientImpl implements ReactiveStatClient {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final Comparator<ViewStatsDto> BY_HITS_DESC = Comparator.comparing(ViewStatsDto::getHits,
+            Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final int DEFAULT_TRENDING_LIMIT = 10;
+
+    private final ConsistentHashRing<StatNode> statNodes;
+
+    private final StatClientResilience resilience;
+
+    private final Map<String, ViewStatsDto> lastKnownStats;
+
+    private final Map<String, SharedStats> sharedUniqueIpStats = new ConcurrentHashMap<>();
+
+    private final Duration singleFlightTtl;
+
+    private final int maxSharedStats;
+
+    public ReactiveStatClientImpl(ConsistentHashRing<StatNode> statNodes, StatClientResilience resilience,
+                                  StatClientProperties properties) {
+        this.statNodes = statNodes;
+        this.resilience = resilience;
+        this.lastKnownStats = Collections.synchronizedMap(new LastKnownStatsCache(properties.getFallbackCacheSize()));
+        this.singleFlightTtl = properties.getSingleFlightTtl();
+        this.maxSharedStats = properties.getSingleFlightMaxEntries();
+    }
+
+    /**
+     * Register endpoint hit on node of hit uri. If stat server is unavailable, hit is dropped and request body is
+     * emitted as is. If hit stream is enabled, hit is queued to stream of node and request body is emitted without
+     * waiting for hit to be saved.
+     */
+    @Override
+    public Mono<EndpointHitDto> methodHit(EndpointHitDto endpointHitDto) {
+        String uri = "/hit";
+        StatNode node = statNodes.getNode(endpointHitDto.getUri());
+        if (node.getHitStream() != null) {
+            return Mono.fromSupplier(() -> {
+                if (!node.getHitStream().send(endpointHitDto)) {
+                    log.warn("StatClient hit stream buffer is full, hit '{}' was dropped.", endpointHitDto);
+                }
+                return endpointHitDto;
+            });
+        }
+        return resilience.guardHit(node.getUrl(), node.getWebClient()
+                        .post()
+                        .uri(uri)
+                        .bodyValue(endpointHitDto)
+                        .retrieve()
+                        .bodyToMono(EndpointHitDto.class))
+                .doOnSubscribe(s -> log.info("StatClient request on uri '{}'. Body '{}'.", uri, endpointHitDto))
+                .onErrorResume(e -> {
+                    log.warn("StatClient failed to register hit '{}': {}.", endpointHitDto, e.toString());
+                    return Mono.just(endpointHitDto);
+                });
+    }
+
+    /**
+     * Get stats from stat server. Stats of uris are requested from their nodes concurrently, including nodes of uris
+     * in stat-client.previous-nodes, stats of all uris are requested from all nodes. Stats of the same app and uri from
+     * different nodes are summed, results are sorted by number of hits. If node is unavailable, its stats are missing
+     * from result.
+     */
+    @Override
+    public Flux<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        final Flux<ViewStatsDto> stats;
+        if (uris == null || uris.isEmpty()) {
+            stats = Flux.fromIterable(statNodes.getNodes())
+                    .flatMap(node -> requestStats(node, start, end, null, unique));
+        } else {
+            Map<StatNode, List<String>> urisByNode = new LinkedHashMap<>();
+            uris.stream()
+                    .distinct()
+                    .forEach(uri -> statNodes.getNodes(uri)
+                            .forEach(node -> urisByNode.computeIfAbsent(node, key -> new ArrayList<>()).add(uri)));
+            stats = Flux.fromIterable(urisByNode.entrySet())
+                    .flatMap(entry -> requestStats(entry.getKey(), start, end, entry.getValue(), unique));
+        }
+        return statNodes.getNodes().size() == 1 ? stats : merge(stats);
+    }
+
+    /**
+     * Send buffered hits and close hit streams.
+     */
+    @PreDestroy
+    public void closeHitStreams() {
+        statNodes.getNodes().stream()
+                .map(StatNode::getHitStream)
+                .filter(Objects::nonNull)
+                .forEach(HitStream::close);
+    }
+
+    private Flux<ViewStatsDto> requestStats(StatNode node, LocalDateTime start, LocalDateTime end, List<String> uris,
+                                            Boolean unique) {
+        return resilience.guardStats(node.getUrl(), node.getWebClient().get()
+                        .uri(uriBuilder -> {
+                            uriBuilder.path("/stats")
+                                    .queryParam("start", "{start}")
+                                    .queryParam("end", "{end}")
+                                    .queryParam("unique", unique);
+                            if (uris != null) {
+                                uriBuilder.queryParam("uris", uris);
+                            }
+                            return uriBuilder.build(Map.of(
+                                    "start", DATE_TIME_FORMATTER.format(start),
+                                    "end", DATE_TIME_FORMATTER.format(end)));
+                        })
+                        .retrieve()
+                        .bodyToFlux(ViewStatsDto.class))
+                .doOnSubscribe(s -> log.info("StatClient request stats on node '{}', uris '{}'.", node.getUrl(), uris))
+                .onErrorResume(e -> {
+                    log.warn("StatClient failed to get stats on node '{}': {}.", node.getUrl(), e.toString());
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * Get unique ip stats for uri. Identical requests issued while stat server call is in flight, or within
+     * stat-client.single-flight-ttl after it completed, share its result. Requests are shared for at most
+     * stat-client.single-flight-max-entries uris. If stat server is unavailable, emits last known stats for uri or zero
+     * hits.
+     */
+    @Override
+    public Mono<ViewStatsDto> getUniqueIpStatsForUri(String uri) {
+        return Mono.defer(() -> shareUniqueIpStats(uri));
+    }
+
+    /**
+     * Get most viewed uris of sliding window (HOUR, DAY or WEEK), 10 uris if limit is null. Top uris of all nodes are
+     * merged, hits of the same app and uri from different nodes are summed. If stat server is unavailable, completes
+     * without stats.
+     */
+    @Override
+    public Flux<ViewStatsDto> getTrending(String window, String app, Integer limit) {
+        int trendingLimit = limit != null ? limit : DEFAULT_TRENDING_LIMIT;
+        return merge(Flux.fromIterable(statNodes.getNodes())
+                .flatMap(node -> requestTrending(node, window, app, trendingLimit)))
+                .take(trendingLimit);
+    }
+
+    private Flux<ViewStatsDto> requestTrending(StatNode node, String window, String app, int limit) {
+        return resilience.guardStats(node.getUrl(), node.getWebClient().get()
+                        .uri(uriBuilder -> uriBuilder
+                                .path("/stats/trending")
+                                .queryParam("window", window)
+                                .queryParamIfPresent("app", Optional.ofNullable(app))
+                                .queryParam("limit", limit)
+                                .build())
+                        .retrieve()
+                        .bodyToFlux(ViewStatsDto.class))
+                .doOnSubscribe(s -> log.info("StatClient request trending stats on node '{}', window '{}', app '{}'.",
+                        node.getUrl(), window, app))
+                .onErrorResume(e -> {
+                    log.warn("StatClient failed to get trending stats on node '{}': {}.", node.getUrl(),
+                            e.toString());
+                    return Flux.empty();
+                });
+    }
+
+    private Mono<ViewStatsDto> shareUniqueIpStats(String uri) {
+        if (sharedUniqueIpStats.size() >= maxSharedStats) {
+            sharedUniqueIpStats.values().removeIf(SharedStats::isExpired);
+            if (sharedUniqueIpStats.size() >= maxSharedStats && !sharedUniqueIpStats.containsKey(uri)) {
+                return requestUniqueIpStatsForUri(uri);
+            }
+        }
+        return sharedUniqueIpStats.compute(uri, (key, current) -> current == null || current.isExpired()
+                ? new SharedStats(requestUniqueIpStatsForUri(uri))
+                : current).stats;
+    }
+
+    /**
+     * Request unique ip stats of uri from its node, and from its node in stat-client.previous-nodes if it differs.
+     * Hits from nodes are summed, so ip that hit uri on both nodes is counted twice.
+     */
+    private Mono<ViewStatsDto> requestUniqueIpStatsForUri(String uri) {
+        List<StatNode> nodes = statNodes.getNodes(uri);
+        Mono<ViewStatsDto> uniqueIpStats = nodes.size() == 1
+                ? requestUniqueIpStats(nodes.get(0), uri)
+                : Flux.fromIterable(nodes)
+                        .flatMap(node -> requestUniqueIpStats(node, uri))
+                        .reduce(ReactiveStatClientImpl::sum);
+        return uniqueIpStats
+                .doOnSubscribe(s -> log.info("StatClient request unique stats on uri '{}'.", uri))
+                .doOnNext(stats -> lastKnownStats.put(uri, stats))
+                .onErrorResume(e -> {
+                    log.warn("StatClient failed to get unique stats on uri '{}': {}.", uri, e.toString());
+                    return Mono.just(getLastKnownStats(uri));
+                });
+    }
+
+    private Mono<ViewStatsDto> requestUniqueIpStats(StatNode node, String uri) {
+        return resilience.guardStats(node.getUrl(), node.getWebClient().get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/statistic")
+                        .queryParam("uri", uri)
+                        .build())
+                .retrieve()
+                .bodyToMono(ViewStatsDto.class));
+    }
+
+    /**
+     * Sum stats of the same app and uri, which come from several nodes when uri moved between nodes, and sort them by
+     * number of hits.
+     */
+    private static Flux<ViewStatsDto> merge(Flux<ViewStatsDto> stats) {
+        return stats
+                .collect(Collectors.toMap(viewStats -> Arrays.asList(viewStats.getApp(), viewStats.getUri()),
+                        Function.identity(), ReactiveStatClientImpl::sum, LinkedHashMap::new))
+                .flatMapIterable(Map::values)
+                .sort(BY_HITS_DESC);
+    }
+
+    private static ViewStatsDto sum(ViewStatsDto first, ViewStatsDto second) {
+        long hits = Optional.ofNullable(first.getHits()).orElse(0L) + Optional.ofNullable(second.getHits()).orElse(0L);
+        return new ViewStatsDto(first.getApp(), first.getUri(), hits);
+    }
+
+    private ViewStatsDto getLastKnownStats(String uri) {
+        ViewStatsDto stats = lastKnownStats.get(uri);
+        return stats != null ? stats : new ViewStatsDto(null, uri, 0L);
+    }
+
+    private class SharedStats {
+
+        private final Mono<ViewStatsDto> stats;
+
+        private volatile boolean completed;
+
+        private volatile long expiresAt;
+
+        SharedStats(Mono<ViewStatsDto> source) {
+            // Expiry is set before result reaches subscribers, so subscriber repeating request as soon as it got
+            // result does not share it when ttl is zero.
+            this.stats = source
+                    .doOnSuccess(result -> expireAfter(singleFlightTtl))
+                    .doOnError(e -> expireAfter(singleFlightTtl))
+                    .doOnCancel(() -> expireAfter(Duration.ZERO))
+                    .cache();
+        }
+
+        private void expireAfter(Duration ttl) {
+            expiresAt = System.nanoTime() + ttl.toNanos();
+            completed = true;
+        }
+
+        boolean isExpired() {
+            return completed && System.nanoTime() - expiresAt >= 0;
+        }
+    }
+
+    private static class LastKnownStatsCache extends LinkedHashMap<String, ViewStatsDto> {
+
+        private final int maxSize;
+
+        LastKnownStatsCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ViewStatsDto> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
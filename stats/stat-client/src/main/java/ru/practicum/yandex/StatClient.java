@@ -13,4 +13,6 @@ public interface StatClient {
     List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
 
     ViewStatsDto getUniqueIpStatsForUri(String uri);
+
+    List<ViewStatsDto> getTrending(String window, String app, Integer limit);
 }
@@ -0,0 +1,258 @@
+package ru.practicum.yandex;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stat client settings: transport, connection pool, timeouts, circuit breaker and bulkhead limits for calls to stat
+ * server.
+ */
+@ConfigurationProperties(prefix = "stat-client")
+@Getter
+@Setter
+public class StatClientProperties {
+
+    /**
+     * Name of app sent to stat server in 'X-Stat-App' header, stat server applies query rate limit of this app.
+     */
+    private String appName = "ewm-main-service";
+
+    /**
+     * Key of app sent to stat server in 'X-Stat-App-Key' header and hit stream metadata. Without valid key stat server
+     * treats requests as coming from unknown app. If set, must not be empty.
+     */
+    private String appKey;
+
+    /**
+     * Urls of stat server nodes. Hits and stats of uri are sent to node chosen by consistent hashing of uri, stats of
+     * several uris are gathered from their nodes. If empty, single stat-server.url node is used.
+     */
+    private List<String> nodes = new ArrayList<>();
+
+    /**
+     * Urls of stat server nodes before nodes were added or removed. Hits saved before the change stay on node that
+     * owned uri then, so stats of uri are also requested from its previous node and summed with stats of its current
+     * node. Keep previous nodes while stats of period before the change are requested. Unique hits of uri that moved
+     * count ip twice if it hit uri before and after the change.
+     */
+    private List<String> previousNodes = new ArrayList<>();
+
+    /**
+     * Number of points of each node on consistent hash ring, more points give more even distribution of uris.
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * Time to establish connection with stat server.
+     */
+    private Duration connectTimeout = Duration.ofMillis(500);
+
+    /**
+     * Time to wait for stat server response after request was sent.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximum number of uris with last known stats kept for fallback responses.
+     */
+    private int fallbackCacheSize = 10_000;
+
+    /**
+     * Time result of unique stats request for uri is shared with identical requests. Concurrent identical requests
+     * always share one call to stat server, zero disables sharing of completed result.
+     */
+    private Duration singleFlightTtl = Duration.ofMillis(200);
+
+    /**
+     * Maximum number of uris with shared unique stats requests. When reached, requests for other uris are not shared.
+     */
+    private int singleFlightMaxEntries = 10_000;
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    private final Pool pool = new Pool();
+
+    private final Transport transport = new Transport();
+
+    private final Stream stream = new Stream();
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        /**
+         * Failure rate in percents after which circuit is opened.
+         */
+        private float failureRateThreshold = 50;
+
+        /**
+         * Number of last calls used to calculate failure rate.
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Minimum number of calls before failure rate is calculated.
+         */
+        private int minimumNumberOfCalls = 10;
+
+        /**
+         * Time circuit stays open before trial calls are permitted.
+         */
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+        /**
+         * Number of trial calls permitted in half-open state.
+         */
+        private int permittedCallsInHalfOpenState = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+
+        /**
+         * Maximum number of concurrent hit requests to stat server.
+         */
+        private int maxConcurrentHits = 50;
+
+        /**
+         * Maximum number of concurrent stats requests to stat server.
+         */
+        private int maxConcurrentStats = 50;
+
+        /**
+         * Time to wait for free bulkhead slot before falling back.
+         */
+        private Duration maxWaitDuration = Duration.ZERO;
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        /**
+         * Maximum number of connections to stat server.
+         */
+        private int maxConnections = 64;
+
+        /**
+         * Maximum number of requests waiting for free connection, -1 for no limit.
+         */
+        private int pendingAcquireMaxCount = 256;
+
+        /**
+         * Time to wait for free connection before request fails.
+         */
+        private Duration pendingAcquireTimeout = Duration.ofMillis(500);
+
+        /**
+         * Time after which idle connection is closed.
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        /**
+         * Maximum lifetime of connection, after which it is closed when released to pool.
+         */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        /**
+         * Interval of background eviction of idle and expired connections, zero to disable.
+         */
+        private Duration evictInBackground = Duration.ofSeconds(30);
+
+        /**
+         * Publish connection pool metrics to Micrometer global registry.
+         */
+        private boolean metrics = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Transport {
+
+        /**
+         * HTTP protocols to use, HTTP11 and/or H2C (HTTP/2 over cleartext).
+         */
+        private HttpProtocol[] protocols = {HttpProtocol.HTTP11};
+
+        /**
+         * Keep connections alive between requests.
+         */
+        private boolean keepAlive = true;
+
+        /**
+         * Request gzip compressed responses from stat server.
+         */
+        private boolean compress = false;
+
+        /**
+         * Format of hits and stats, JSON or SMILE. Smile is smaller on the wire and cheaper to encode and decode, stat
+         * server keeps JSON as default.
+         */
+        private WireFormat wireFormat = WireFormat.JSON;
+
+        /**
+         * Path of Unix domain socket of co-located stat server. If set, stat-server.url host and port are ignored.
+         * Supported on Linux (epoll) and macOS (kqueue) x86_64 and aarch64.
+         */
+        private String unixSocketPath;
+    }
+
+    @Getter
+    @Setter
+    public static class Stream {
+
+        /**
+         * Send hits to stat server nodes over persistent RSocket streams in batches instead of HTTP request per hit.
+         */
+        private boolean enabled = false;
+
+        /**
+         * RSocket port of stat server nodes, host is taken from node url.
+         */
+        private int port = 9091;
+
+        /**
+         * Maximum number of hits in batch.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Time to wait for batch to fill up before it is sent.
+         */
+        private Duration maxBatchDelay = Duration.ofMillis(50);
+
+        /**
+         * Maximum number of hits buffered while stream reconnects, hits are dropped when buffer is full.
+         */
+        private int bufferSize = 10_000;
+
+        /**
+         * Maximum number of batches waiting to be requested by stat server, oldest batches are dropped when exceeded.
+         */
+        private int maxPendingBatches = 100;
+
+        /**
+         * Delay of first reconnect attempt after stream failure, delay doubles with each failed attempt.
+         */
+        private Duration minReconnectDelay = Duration.ofMillis(100);
+
+        /**
+         * Maximum delay between reconnect attempts.
+         */
+        private Duration maxReconnectDelay = Duration.ofSeconds(10);
+
+        /**
+         * Time to wait for buffered hits to be sent and acknowledged on shutdown.
+         */
+        private Duration closeTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.yandex;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Protects stat server calls with per-call timeout, circuit breaker per stat server node and separate bulkheads for
+ * hit and stats requests, so slow or failing stat server node does not hold ewm-service request threads.
+ */
+@Component
+public class StatClientResilience {
+
+    private final Duration callTimeout;
+
+    private final CircuitBreakerConfig circuitBreakerConfig;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    private final Bulkhead hitBulkhead;
+
+    private final Bulkhead statsBulkhead;
+
+    public StatClientResilience(StatClientProperties properties) {
+        this.callTimeout = properties.getConnectTimeout().plus(properties.getResponseTimeout());
+        StatClientProperties.CircuitBreaker breakerSettings = properties.getCircuitBreaker();
+        this.circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(breakerSettings.getFailureRateThreshold())
+                .slidingWindowSize(breakerSettings.getSlidingWindowSize())
+                .minimumNumberOfCalls(breakerSettings.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(breakerSettings.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(breakerSettings.getPermittedCallsInHalfOpenState())
+                .build();
+        StatClientProperties.Bulkhead bulkheadSettings = properties.getBulkhead();
+        this.hitBulkhead = Bulkhead.of("stat-server-hits", BulkheadConfig.custom()
+                .maxConcurrentCalls(bulkheadSettings.getMaxConcurrentHits())
+                .maxWaitDuration(bulkheadSettings.getMaxWaitDuration())
+                .build());
+        this.statsBulkhead = Bulkhead.of("stat-server-stats", BulkheadConfig.custom()
+                .maxConcurrentCalls(bulkheadSettings.getMaxConcurrentStats())
+                .maxWaitDuration(bulkheadSettings.getMaxWaitDuration())
+                .build());
+    }
+
+    public <T> Mono<T> guardHit(String node, Mono<T> call) {
+        return call
+                .timeout(callTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(getCircuitBreaker(node)))
+                .transformDeferred(BulkheadOperator.of(hitBulkhead));
+    }
+
+    public <T> Mono<T> guardStats(String node, Mono<T> call) {
+        return call
+                .timeout(callTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(getCircuitBreaker(node)))
+                .transformDeferred(BulkheadOperator.of(statsBulkhead));
+    }
+
+    public <T> Flux<T> guardStats(String node, Flux<T> call) {
+        return call
+                .timeout(callTimeout)
+                .transformDeferred(CircuitBreakerOperator.of(getCircuitBreaker(node)))
+                .transformDeferred(BulkheadOperator.of(statsBulkhead));
+    }
+
+    private CircuitBreaker getCircuitBreaker(String node) {
+        return circuitBreakers.computeIfAbsent(node, name -> CircuitBreaker.of("stat-server-" + name,
+                circuitBreakerConfig));
+    }
+}
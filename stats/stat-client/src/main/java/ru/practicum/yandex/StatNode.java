@@ -0,0 +1,30 @@
+package ru.practicum.yandex;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Stat server node and client for it. Hit stream is set if hits are sent over persistent stream.
+ */
+@Getter
+@ToString(onlyExplicitlyIncluded = true)
+public class StatNode {
+
+    @ToString.Include
+    private final String url;
+
+    private final WebClient webClient;
+
+    private final HitStream hitStream;
+
+    public StatNode(String url, WebClient webClient) {
+        this(url, webClient, null);
+    }
+
+    public StatNode(String url, WebClient webClient, HitStream hitStream) {
+        this.url = url;
+        this.webClient = webClient;
+        this.hitStream = hitStream;
+    }
+}
@@ -1,21 +1,133 @@
 package ru.practicum.yandex;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.unix.DomainSocketAddress;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.yandex.dto.StatBinaryFormat;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Configuration
+@EnableConfigurationProperties(StatClientProperties.class)
 public class WebConfig {
 
+    private static final String APP_HEADER = "X-Stat-App";
+
+    private static final String APP_KEY_HEADER = "X-Stat-App-Key";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider statClientConnectionProvider(StatClientProperties properties) {
+        StatClientProperties.Pool pool = properties.getPool();
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("stat-client")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .metrics(pool.isMetrics());
+        if (!pool.getEvictInBackground().isZero()) {
+            builder.evictInBackground(pool.getEvictInBackground());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Stat server nodes on consistent hash ring. Nodes are taken from stat-client.nodes, or single stat-server.url node
+     * if it is empty, previous layout of ring from stat-client.previous-nodes. Unix domain socket transport supports
+     * single node only. Requests and responses use
+     * stat-client.transport.wire-format. If stat-client.stream is enabled, each node gets persistent hit stream.
+     * Fails if stat-client.app-key is set to empty value or unresolved placeholder.
+     */
     @Bean
-    public WebClient webClient(@Value("${stat-server.url}") String addressBaseUrl) {
-        return WebClient.builder()
-                .baseUrl(addressBaseUrl)
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE,
-                               HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+    public ConsistentHashRing<StatNode> statNodes(@Value("${stat-server.url}") String addressBaseUrl,
+                                                  ConnectionProvider statClientConnectionProvider,
+                                                  StatClientProperties properties) {
+        StatClientProperties.Transport transport = properties.getTransport();
+        HttpClient httpClient = HttpClient.create(statClientConnectionProvider)
+                .protocol(transport.getProtocols())
+                .keepAlive(transport.isKeepAlive())
+                .compress(transport.isCompress())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        String appKey = properties.getAppKey();
+        if (appKey != null && (!StringUtils.hasText(appKey) || appKey.contains("${"))) {
+            throw new IllegalStateException("Key of app '" + properties.getAppName() + "' is not set, set "
+                    + "'stat-client.app-key'.");
+        }
+        List<String> urls = properties.getNodes().isEmpty() ? List.of(addressBaseUrl) : properties.getNodes();
+        if (transport.getUnixSocketPath() != null) {
+            if (urls.size() > 1) {
+                throw new IllegalStateException("Unix domain socket transport supports single stat server node.");
+            }
+            DomainSocketAddress socketAddress = new DomainSocketAddress(transport.getUnixSocketPath());
+            httpClient = httpClient.remoteAddress(() -> socketAddress);
+        }
+        // Reactor Netty connects to remote address only for relative request uris, absolute ones are resolved by host.
+        boolean relativeUris = transport.getUnixSocketPath() != null;
+        String mediaType = transport.getWireFormat().getMediaType().toString();
+        ObjectMapper smileObjectMapper = StatBinaryFormat.createObjectMapper();
+        // Codecs created with object mapper default to JSON media types, Smile media type is set explicitly.
+        MediaType smileMediaType = WireFormat.SMILE.getMediaType();
+        ReactorClientHttpConnector connector = new ReactorClientHttpConnector(httpClient);
+        Function<String, WebClient> webClients = url -> {
+            WebClient.Builder webClient = WebClient.builder()
+                    .baseUrl(relativeUris ? "" : url)
+                    .clientConnector(connector)
+                    .codecs(codecs -> {
+                        codecs.customCodecs().register(new Jackson2SmileEncoder(smileObjectMapper, smileMediaType));
+                        codecs.customCodecs().register(new Jackson2SmileDecoder(smileObjectMapper, smileMediaType));
+                    })
+                    .defaultHeader(HttpHeaders.CONTENT_TYPE, mediaType)
+                    .defaultHeader(HttpHeaders.ACCEPT, mediaType)
+                    .defaultHeader(APP_HEADER, properties.getAppName());
+            if (properties.getAppKey() != null) {
+                webClient.defaultHeader(APP_KEY_HEADER, properties.getAppKey());
+            }
+            return webClient.build();
+        };
+        Map<String, StatNode> nodes = new LinkedHashMap<>();
+        for (String url : urls) {
+            HitStream hitStream = properties.getStream().isEnabled() ? createHitStream(url, properties) : null;
+            nodes.put(url, new StatNode(url, webClients.apply(url), hitStream));
+        }
+        // Hits are not sent to previous nodes, so nodes that were removed get no hit stream.
+        Map<String, StatNode> previousNodes = new LinkedHashMap<>();
+        for (String url : properties.getPreviousNodes()) {
+            previousNodes.put(url, nodes.containsKey(url) ? nodes.get(url) : new StatNode(url, webClients.apply(url)));
+        }
+        return new ConsistentHashRing<>(nodes, previousNodes, properties.getVirtualNodes());
+    }
+
+    private HitStream createHitStream(String url, StatClientProperties properties) {
+        RSocketStrategies strategies = RSocketStrategies.builder()
+                .encoders(encoders -> encoders.add(new Jackson2CborEncoder()))
+                .decoders(decoders -> decoders.add(new Jackson2CborDecoder()))
                 .build();
+        String host = URI.create(url).getHost();
+        return new HitStream(url, () -> RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .tcp(host, properties.getStream().getPort()),
+                properties.getAppName(), properties.getAppKey(), properties.getStream());
     }
 }
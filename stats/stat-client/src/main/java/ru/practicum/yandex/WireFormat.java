@@ -0,0 +1,30 @@
+package ru.practicum.yandex;
+
+import org.springframework.http.MediaType;
+import ru.practicum.yandex.dto.StatBinaryFormat;
+
+/**
+ * Formats of hits and stats sent between stat client and stat server.
+ */
+public enum WireFormat {
+
+    /**
+     * JSON with date and time as 'yyyy-MM-dd HH:mm:ss' strings.
+     */
+    JSON(MediaType.APPLICATION_JSON),
+
+    /**
+     * Smile binary JSON with date and time as epoch millis.
+     */
+    SMILE(MediaType.parseMediaType(StatBinaryFormat.MEDIA_TYPE));
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.yandex;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    @DisplayName("Keys are spread evenly between nodes")
+    void getNode_shouldSpreadKeysBetweenNodes() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes(3), 160);
+        Map<String, Integer> keysByNode = new HashMap<>();
+
+        for (int i = 0; i < KEYS; i++) {
+            keysByNode.merge(ring.getNode("/events/" + i), 1, Integer::sum);
+        }
+
+        assertThat(keysByNode.size(), is(3));
+        keysByNode.values().forEach(keys -> {
+            assertThat(keys, greaterThan(KEYS / 4));
+            assertThat(keys, lessThan(KEYS / 2));
+        });
+    }
+
+    @Test
+    @DisplayName("When node is added, keys move only to added node")
+    void getNode_whenNodeIsAdded_shouldMoveKeysOnlyToNewNode() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes(3), 160);
+        ConsistentHashRing<String> extendedRing = new ConsistentHashRing<>(nodes(4), 160);
+        int moved = 0;
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "/events/" + i;
+            String node = extendedRing.getNode(key);
+            if (!node.equals(ring.getNode(key))) {
+                assertThat(node, is("node3"));
+                moved++;
+            }
+        }
+
+        assertThat(moved, greaterThan(KEYS / 8));
+        assertThat(moved, lessThan(KEYS / 3));
+    }
+
+    private static Map<String, String> nodes(int count) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            nodes.put("http://localhost:909" + i, "node" + i);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,141 @@
+package ru.practicum.yandex;
+
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import reactor.core.publisher.Flux;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.HitBatchAckDto;
+import ru.practicum.yandex.dto.HitBatchDto;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Hit stream to in-process RSocket server, which acknowledges every batch it receives.
+ */
+class HitStreamTest {
+
+    private final RSocketStrategies strategies = RSocketStrategies.builder()
+            .encoders(encoders -> encoders.add(new Jackson2CborEncoder()))
+            .decoders(decoders -> decoders.add(new Jackson2CborDecoder()))
+            .build();
+
+    private final HitStreamHandler handler = new HitStreamHandler();
+
+    private final StatClientProperties.Stream properties = new StatClientProperties.Stream();
+
+    private int port;
+
+    private CloseableChannel server;
+
+    @BeforeEach
+    @SneakyThrows
+    void init() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        properties.setBatchSize(100);
+        properties.setMaxBatchDelay(Duration.ofMillis(20));
+        properties.setMaxReconnectDelay(Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void shutdown() {
+        if (server != null) {
+            server.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("Hits are sent in batches and every batch is acknowledged")
+    void send_shouldSendHitsInAcknowledgedBatches() {
+        startServer();
+        HitStream hitStream = createHitStream();
+        List<EndpointHitDto> hits = hits(250);
+
+        hits.forEach(hit -> assertThat(hitStream.send(hit), is(true)));
+        hitStream.close();
+
+        assertThat(handler.hits, is(hits));
+        assertThat(handler.batchSizes, everyItem(lessThanOrEqualTo(100)));
+        assertThat(hitStream.getUnacknowledgedBatches(), is(0));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Hits sent while server is unavailable are sent after reconnect")
+    void send_whenServerIsUnavailable_shouldSendHitsAfterReconnect() {
+        HitStream hitStream = createHitStream();
+        List<EndpointHitDto> hits = hits(10);
+
+        hits.forEach(hitStream::send);
+        Thread.sleep(300);
+        startServer();
+        hitStream.close();
+
+        assertThat(handler.hits, is(hits));
+        assertThat(hitStream.getUnacknowledgedBatches(), is(0));
+    }
+
+    private void startServer() {
+        RSocketMessageHandler messageHandler = new RSocketMessageHandler();
+        messageHandler.setRSocketStrategies(strategies);
+        messageHandler.setHandlers(List.of(handler));
+        messageHandler.afterPropertiesSet();
+        server = RSocketServer.create(messageHandler.responder())
+                .bind(TcpServerTransport.create("localhost", port))
+                .block();
+    }
+
+    private HitStream createHitStream() {
+        return new HitStream("localhost:" + port, () -> RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .tcp("localhost", port), "ewm-main-service", null, properties);
+    }
+
+    private List<EndpointHitDto> hits(int count) {
+        List<EndpointHitDto> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            hits.add(EndpointHitDto.of((long) i, "ewm-main-service", "/events/" + i, "127.0.0.1",
+                    LocalDateTime.of(2022, 9, 6, 11, 0, 23)));
+        }
+        return hits;
+    }
+
+    static class HitStreamHandler {
+
+        private final List<EndpointHitDto> hits = new CopyOnWriteArrayList<>();
+
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @MessageMapping(HitStream.ROUTE)
+        public Flux<HitBatchAckDto> streamHits(Flux<HitBatchDto> batches) {
+            return batches.map(batch -> {
+                hits.addAll(batch.getHits());
+                batchSizes.add(batch.getHits().size());
+                return new HitBatchAckDto(batch.getSequence(), batch.getHits().size(), 0);
+            });
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package ru.practicum.yandex;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Stat client with several in-process stat server nodes. Nodes count hits per uri and return counts as stats.
+ */
+class ReactiveStatClientImplTest {
+
+    private static final int NODES = 3;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+    private final List<DisposableServer> servers = new ArrayList<>();
+
+    private final Map<String, Map<String, Long>> hitsByNode = new ConcurrentHashMap<>();
+
+    private final Map<String, StatNode> nodes = new LinkedHashMap<>();
+
+    private final AtomicInteger statisticRequests = new AtomicInteger();
+
+    private ConsistentHashRing<StatNode> statNodes;
+
+    private ReactiveStatClient statClient;
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < NODES; i++) {
+            Map<String, Long> hits = new ConcurrentHashMap<>();
+            DisposableServer server = HttpServer.create()
+                    .port(0)
+                    .route(routes -> routes
+                            .post("/hit", (request, response) -> request.receive().aggregate().asString()
+                                    .map(body -> {
+                                        EndpointHitDto hit = readHit(body);
+                                        hits.merge(hit.getUri(), 1L, Long::sum);
+                                        return body;
+                                    })
+                                    .flatMap(body -> response.header("Content-Type", "application/json")
+                                            .sendString(Mono.just(body)).then()))
+                            .get("/stats/trending", (request, response) -> response
+                                    .header("Content-Type", "application/json")
+                                    .sendString(Mono.fromCallable(() -> writeStats(hits, List.of()))))
+                            .get("/stats", (request, response) -> {
+                                List<String> uris = new QueryStringDecoder(request.uri()).parameters()
+                                        .getOrDefault("uris", List.of());
+                                return response.header("Content-Type", "application/json")
+                                        .sendString(Mono.fromCallable(() -> writeStats(hits, uris)));
+                            })
+                            .get("/statistic", (request, response) -> {
+                                statisticRequests.incrementAndGet();
+                                String uri = new QueryStringDecoder(request.uri()).parameters().get("uri").get(0);
+                                ViewStatsDto stats = new ViewStatsDto("app", uri, hits.getOrDefault(uri, 0L));
+                                return response.header("Content-Type", "application/json")
+                                        .sendString(Mono.delay(Duration.ofMillis(100))
+                                                .map(delay -> writeStats(stats)));
+                            }))
+                    .bindNow();
+            servers.add(server);
+            String url = "http://localhost:" + server.port();
+            hitsByNode.put(url, hits);
+            nodes.put(url, new StatNode(url, WebClient.create(url)));
+        }
+        StatClientProperties properties = new StatClientProperties();
+        statNodes = new ConsistentHashRing<>(nodes, properties.getVirtualNodes());
+        statClient = createClient(properties);
+    }
+
+    @AfterEach
+    void shutdown() {
+        servers.forEach(DisposableServer::disposeNow);
+    }
+
+    @Test
+    @DisplayName("Hits of uri are sent to node of uri")
+    void methodHit_shouldSendHitsOfUriToItsNode() {
+        for (int i = 0; i < 30; i++) {
+            statClient.methodHit(hit("/events/" + i % 10)).block();
+        }
+
+        for (int i = 0; i < 10; i++) {
+            String uri = "/events/" + i;
+            String node = statNodes.getNode(uri).getUrl();
+            hitsByNode.forEach((url, hits) -> assertThat(hits.get(uri), is(url.equals(node) ? 3L : null)));
+        }
+    }
+
+    @Test
+    @DisplayName("Stats of several uris are gathered from nodes and sorted by hits")
+    void getStats_withUris_shouldMergeStatsOfNodes() {
+        for (int i = 1; i <= 5; i++) {
+            for (int j = 0; j < i; j++) {
+                statClient.methodHit(hit("/events/" + i)).block();
+            }
+        }
+
+        List<ViewStatsDto> stats = statClient.getStats(LocalDateTime.now().minusDays(1), LocalDateTime.now(),
+                List.of("/events/1", "/events/3", "/events/5"), false).collectList().block();
+
+        assertThat(stats.stream().map(ViewStatsDto::getUri).collect(Collectors.toList()),
+                contains("/events/5", "/events/3", "/events/1"));
+        assertThat(statClient.getStats(LocalDateTime.now().minusDays(1), LocalDateTime.now(), null, false)
+                .count().block(), is(5L));
+    }
+
+    @Test
+    @DisplayName("Hit is sent only when subscribed")
+    @SneakyThrows
+    void methodHit_whenNotSubscribed_shouldNotSendHit() {
+        Mono<EndpointHitDto> hit = statClient.methodHit(hit("/events/1"));
+        Thread.sleep(200);
+
+        hitsByNode.values().forEach(hits -> assertThat(hits.isEmpty(), is(true)));
+
+        hit.block();
+
+        assertThat(hitsByNode.get(statNodes.getNode("/events/1").getUrl()).get("/events/1"), is(1L));
+    }
+
+    @Test
+    @DisplayName("When node is unavailable, hit is emitted as is and stats complete empty")
+    void methodHit_whenNodeIsUnavailable_shouldEmitHit() {
+        servers.forEach(DisposableServer::disposeNow);
+        EndpointHitDto hit = hit("/events/1");
+
+        assertThat(statClient.methodHit(hit).block(), is(hit));
+        assertThat(statClient.getStats(LocalDateTime.now().minusDays(1), LocalDateTime.now(), null, false)
+                .count().block(), is(0L));
+    }
+
+    @Test
+    @DisplayName("Concurrent identical unique stats requests share one call to stat server")
+    void getUniqueIpStatsForUri_whenRequestedConcurrently_shouldCallStatServerOnce() {
+        statClient.methodHit(hit("/events/1")).block();
+
+        List<ViewStatsDto> stats = Flux.range(0, 20)
+                .flatMap(i -> statClient.getUniqueIpStatsForUri("/events/1"))
+                .collectList()
+                .block();
+
+        assertThat(stats.size(), is(20));
+        stats.forEach(result -> assertThat(result.getHits(), is(1L)));
+        assertThat(statisticRequests.get(), is(1));
+    }
+
+    @Test
+    @DisplayName("With zero single flight ttl, request repeated on result is sent to stat server")
+    void getUniqueIpStatsForUri_whenTtlIsZeroAndRequestRepeatedOnResult_shouldCallStatServerAgain() {
+        StatClientProperties properties = new StatClientProperties();
+        properties.setSingleFlightTtl(Duration.ZERO);
+        ReactiveStatClient client = createClient(properties);
+
+        client.getUniqueIpStatsForUri("/events/1")
+                .flatMap(first -> client.getUniqueIpStatsForUri("/events/1"))
+                .block();
+
+        assertThat(statisticRequests.get(), is(2));
+    }
+
+    @Test
+    @DisplayName("Unique stats requests over single flight limit are not shared")
+    void getUniqueIpStatsForUri_whenSingleFlightLimitReached_shouldCallStatServerForEachRequest() {
+        StatClientProperties properties = new StatClientProperties();
+        properties.setSingleFlightMaxEntries(1);
+        ReactiveStatClient client = createClient(properties);
+
+        Flux.merge(client.getUniqueIpStatsForUri("/events/1"),
+                        client.getUniqueIpStatsForUri("/events/2"),
+                        client.getUniqueIpStatsForUri("/events/2"))
+                .blockLast();
+
+        assertThat(statisticRequests.get(), is(3));
+    }
+
+    @Test
+    @DisplayName("When node is added, stats of uri moved to it are summed with stats on its previous node")
+    void getStats_whenUriMovedToAddedNode_shouldSumStatsOfNodes() {
+        Map<String, StatNode> previousNodes = new LinkedHashMap<>(nodes);
+        previousNodes.remove(List.copyOf(nodes.keySet()).get(NODES - 1));
+        statNodes = new ConsistentHashRing<>(nodes, previousNodes, new StatClientProperties().getVirtualNodes());
+        String uri = IntStream.range(0, 1000)
+                .mapToObj(i -> "/events/" + i)
+                .filter(key -> statNodes.getNodes(key).size() == 2)
+                .findFirst()
+                .orElseThrow();
+        hitsByNode.get(statNodes.getNodes(uri).get(0).getUrl()).put(uri, 3L);
+        hitsByNode.get(statNodes.getNodes(uri).get(1).getUrl()).put(uri, 2L);
+        ReactiveStatClient client = createClient(new StatClientProperties());
+        ViewStatsDto expected = new ViewStatsDto("app", uri, 5L);
+
+        assertThat(client.getStats(LocalDateTime.now().minusDays(1), LocalDateTime.now(), List.of(uri), false)
+                .collectList().block(), contains(expected));
+        assertThat(client.getStats(LocalDateTime.now().minusDays(1), LocalDateTime.now(), null, false)
+                .collectList().block(), contains(expected));
+        assertThat(client.getTrending("DAY", null, null).collectList().block(), contains(expected));
+        assertThat(client.getUniqueIpStatsForUri(uri).block(), is(expected));
+    }
+
+    private ReactiveStatClient createClient(StatClientProperties properties) {
+        return new ReactiveStatClientImpl(statNodes, new StatClientResilience(properties), properties);
+    }
+
+    private String writeStats(Map<String, Long> hits, List<String> uris) {
+        return writeStats(hits.entrySet().stream()
+                .filter(entry -> uris.isEmpty() || uris.contains(entry.getKey()))
+                .map(entry -> new ViewStatsDto("app", entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+    }
+
+    private String writeStats(Object stats) {
+        try {
+            return objectMapper.writeValueAsString(stats);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private EndpointHitDto hit(String uri) {
+        return EndpointHitDto.builder()
+                .app("app")
+                .uri(uri)
+                .ip("1.1.1.1")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private EndpointHitDto readHit(String body) {
+        try {
+            return objectMapper.readValue(body, EndpointHitDto.class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
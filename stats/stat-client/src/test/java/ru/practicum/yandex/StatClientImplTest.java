@@ -0,0 +1,106 @@
+package ru.practicum.yandex;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Blocking stat client over stat server stub: timeouts, fallbacks and circuit breaker.
+ */
+class StatClientImplTest {
+
+    private final StatClientProperties properties = new StatClientProperties();
+
+    private final WebConfig webConfig = new WebConfig();
+
+    private StatServerStub server;
+
+    private ConnectionProvider connectionProvider;
+
+    private StatClient statClient;
+
+    @BeforeEach
+    void init() {
+        server = new StatServerStub();
+        properties.setResponseTimeout(Duration.ofMillis(300));
+        properties.setSingleFlightTtl(Duration.ZERO);
+        properties.getPool().setMetrics(false);
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        properties.getCircuitBreaker().setMinimumNumberOfCalls(4);
+    }
+
+    @AfterEach
+    void shutdown() {
+        connectionProvider.dispose();
+        server.dispose();
+    }
+
+    @Test
+    @DisplayName("Hit is sent without waiting for stat server response")
+    void methodHit_whenServerIsSlow_shouldNotWaitForResponse() throws InterruptedException {
+        createClient();
+        server.delay = Duration.ofSeconds(2);
+        EndpointHitDto hit = EndpointHitDto.of(null, "ewm-main-service", "/events/1", "127.0.0.1",
+                LocalDateTime.now().withNano(0));
+
+        long start = System.nanoTime();
+        EndpointHitDto result = statClient.methodHit(hit);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), lessThan(1000L));
+        assertThat(result, is(hit));
+        for (int i = 0; i < 100 && server.hits.isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        assertThat(server.hits.get(0), is(hit));
+    }
+
+    @Test
+    @DisplayName("When stat server times out, last known unique stats of uri are returned")
+    void getUniqueIpStatsForUri_whenServerTimesOut_shouldReturnLastKnownStats() {
+        createClient();
+        server.uniqueHits = 5;
+        assertThat(statClient.getUniqueIpStatsForUri("/events/1").getHits(), is(5L));
+
+        server.uniqueHits = 7;
+        server.delay = Duration.ofSeconds(2);
+        long start = System.nanoTime();
+        ViewStatsDto stats = statClient.getUniqueIpStatsForUri("/events/1");
+
+        assertThat(stats.getHits(), is(5L));
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), lessThan(1500L));
+        assertThat(statClient.getUniqueIpStatsForUri("/events/2").getHits(), is(0L));
+    }
+
+    @Test
+    @DisplayName("When stat server fails, circuit is opened and calls are not sent")
+    void getStats_whenServerFails_shouldOpenCircuit() {
+        createClient();
+        server.status = 500;
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(statClient.getStats(LocalDateTime.now().minusDays(1), LocalDateTime.now(), null, false),
+                    is(empty()));
+        }
+
+        assertThat(server.headers.size(), is(4));
+    }
+
+    private void createClient() {
+        connectionProvider = webConfig.statClientConnectionProvider(properties);
+        ConsistentHashRing<StatNode> statNodes = webConfig.statNodes(server.getUrl(), connectionProvider, properties);
+        statClient = new StatClientImpl(new ReactiveStatClientImpl(statNodes, new StatClientResilience(properties),
+                properties));
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.yandex;
+
+import io.netty.channel.unix.DomainSocketAddress;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Latency of unique stats requests over default WebClient and over transport configured by {@link WebConfig}: pooled
+ * keep-alive connections, Smile wire format and Unix domain socket. Disabled by default, run with
+ * 'mvn test -Dbenchmark=true -Dtest=StatClientTransportBenchmarkTest', number of requests is set by
+ * 'benchmark.requests'.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class StatClientTransportBenchmarkTest {
+
+    private static final int WARMUP_REQUESTS = 2_000;
+
+    private static final int CONCURRENCY = 16;
+
+    private final StatClientProperties properties = new StatClientProperties();
+
+    private final WebConfig webConfig = new WebConfig();
+
+    private StatServerStub server;
+
+    private ConnectionProvider connectionProvider;
+
+    @AfterEach
+    void shutdown() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        server.dispose();
+    }
+
+    @Test
+    @DisplayName("Default WebClient against configured TCP transport")
+    void tcp() {
+        server = new StatServerStub();
+        server.uniqueHits = 1;
+        WebClient webClient = WebClient.create(server.getUrl());
+        measure("Default WebClient", uri -> webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/statistic").queryParam("uri", uri).build())
+                .retrieve()
+                .bodyToMono(ViewStatsDto.class));
+
+        ReactiveStatClient jsonClient = createClient(server.getUrl(), WireFormat.JSON);
+        measure("Configured JSON", jsonClient::getUniqueIpStatsForUri);
+        connectionProvider.dispose();
+
+        ReactiveStatClient smileClient = createClient(server.getUrl(), WireFormat.SMILE);
+        measure("Configured Smile", smileClient::getUniqueIpStatsForUri);
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    @DisplayName("Configured Unix domain socket transport")
+    void unixSocket(@TempDir Path dir) {
+        String socketPath = dir.resolve("stat-server.sock").toString();
+        server = new StatServerStub(HttpServer.create().bindAddress(() -> new DomainSocketAddress(socketPath)));
+        server.uniqueHits = 1;
+        properties.getTransport().setUnixSocketPath(socketPath);
+
+        ReactiveStatClient statClient = createClient("http://localhost", WireFormat.SMILE);
+        measure("Unix socket Smile", statClient::getUniqueIpStatsForUri);
+    }
+
+    private void measure(String name, Function<String, Mono<ViewStatsDto>> request) {
+        final int requests = Integer.getInteger("benchmark.requests", 20_000);
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            request.apply("/events/" + i).block();
+        }
+
+        final long sequentialStart = System.nanoTime();
+        long hits = 0;
+        for (int i = 0; i < requests; i++) {
+            hits += request.apply("/events/" + i).block().getHits();
+        }
+        final long sequentialTime = System.nanoTime() - sequentialStart;
+
+        final long concurrentStart = System.nanoTime();
+        hits += Flux.range(0, requests)
+                .flatMap(i -> request.apply("/events/" + i), CONCURRENCY)
+                .map(ViewStatsDto::getHits)
+                .reduce(0L, Long::sum)
+                .block(Duration.ofMinutes(5));
+        final long concurrentTime = System.nanoTime() - concurrentStart;
+
+        log.info("{}: sequential '{}' us, concurrent '{}' us per request, '{}' connections, '{}' hits.", name,
+                sequentialTime / requests / 1_000, concurrentTime / requests / 1_000, server.connections.size(), hits);
+        assertThat(hits, is(2L * requests));
+        server.connections.clear();
+    }
+
+    private ReactiveStatClient createClient(String url, WireFormat wireFormat) {
+        properties.getPool().setMetrics(false);
+        properties.setSingleFlightTtl(Duration.ZERO);
+        properties.getTransport().setWireFormat(wireFormat);
+        connectionProvider = webConfig.statClientConnectionProvider(properties);
+        ConsistentHashRing<StatNode> statNodes = webConfig.statNodes(url, connectionProvider, properties);
+        return new ReactiveStatClientImpl(statNodes, new StatClientResilience(properties), properties);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.practicum.yandex;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.netty.channel.ChannelId;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.StatBinaryFormat;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process stat server for stat client tests. Records received hits, request headers and client connections,
+ * responses can be delayed or failed. Smile is used for request and response bodies if client asks for it, JSON
+ * otherwise.
+ */
+class StatServerStub {
+
+    private final ObjectMapper jsonObjectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+
+    private final ObjectMapper smileObjectMapper = StatBinaryFormat.createObjectMapper();
+
+    final List<EndpointHitDto> hits = new CopyOnWriteArrayList<>();
+
+    final List<HttpHeaders> headers = new CopyOnWriteArrayList<>();
+
+    final Set<ChannelId> connections = ConcurrentHashMap.newKeySet();
+
+    volatile Duration delay = Duration.ZERO;
+
+    volatile int status = 200;
+
+    volatile long uniqueHits = 0;
+
+    private final DisposableServer server;
+
+    StatServerStub() {
+        this(HttpServer.create().port(0));
+    }
+
+    StatServerStub(HttpServer httpServer) {
+        server = httpServer
+                .route(routes -> routes
+                        .post("/hit", (request, response) -> request.receive().aggregate().asByteArray()
+                                .flatMap(body -> {
+                                    EndpointHitDto hit = read(request, body);
+                                    hits.add(hit);
+                                    return respond(request, response, hit);
+                                }))
+                        .get("/stats", (request, response) -> respond(request, response, List.of()))
+                        .get("/statistic", (request, response) -> {
+                            String uri = new QueryStringDecoder(request.uri()).parameters().get("uri").get(0);
+                            return respond(request, response, new ViewStatsDto("app", uri, uniqueHits));
+                        }))
+                .bindNow();
+    }
+
+    String getUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    void dispose() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(HttpServerRequest request, HttpServerResponse response, Object body) {
+        headers.add(request.requestHeaders());
+        request.withConnection(connection -> connections.add(connection.channel().id()));
+        if (status != 200) {
+            return Mono.delay(delay).then(response.status(status).send());
+        }
+        boolean smile = isSmile(request.requestHeaders().get(HttpHeaderNames.ACCEPT));
+        return Mono.delay(delay)
+                .then(response.header(HttpHeaderNames.CONTENT_TYPE, smile ? StatBinaryFormat.MEDIA_TYPE
+                                : "application/json")
+                        .sendByteArray(Mono.fromCallable(() -> (smile ? smileObjectMapper : jsonObjectMapper)
+                                .writeValueAsBytes(body)))
+                        .then());
+    }
+
+    private EndpointHitDto read(HttpServerRequest request, byte[] body) {
+        boolean smile = isSmile(request.requestHeaders().get(HttpHeaderNames.CONTENT_TYPE));
+        try {
+            return (smile ? smileObjectMapper : jsonObjectMapper).readValue(body, EndpointHitDto.class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static boolean isSmile(String mediaType) {
+        return mediaType != null && mediaType.contains("smile");
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.yandex;
+
+import io.netty.channel.unix.DomainSocketAddress;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Transport of stat client built by {@link WebConfig}.
+ */
+class WebConfigTest {
+
+    private final StatClientProperties properties = new StatClientProperties();
+
+    private final WebConfig webConfig = new WebConfig();
+
+    private final EndpointHitDto hit = EndpointHitDto.of(1L, "ewm-main-service", "/events/1", "127.0.0.1",
+            LocalDateTime.of(2022, 9, 6, 11, 0, 23));
+
+    private StatServerStub server;
+
+    private ConnectionProvider connectionProvider;
+
+    @AfterEach
+    void shutdown() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        if (server != null) {
+            server.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("When keep-alive is on, sequential requests reuse one connection")
+    @SneakyThrows
+    void whenKeepAlive_shouldReuseConnection() {
+        server = new StatServerStub();
+        ReactiveStatClient statClient = createClient(server.getUrl());
+
+        for (int i = 0; i < 5; i++) {
+            statClient.getUniqueIpStatsForUri("/events/" + i).block();
+            // response is emitted before connection is released to pool
+            Thread.sleep(50);
+        }
+
+        assertThat(server.connections.size(), is(1));
+    }
+
+    @Test
+    @DisplayName("When keep-alive is off, each request opens new connection")
+    void whenKeepAliveOff_shouldOpenConnectionPerRequest() {
+        server = new StatServerStub();
+        properties.getTransport().setKeepAlive(false);
+        ReactiveStatClient statClient = createClient(server.getUrl());
+
+        for (int i = 0; i < 5; i++) {
+            statClient.getUniqueIpStatsForUri("/events/" + i).block();
+        }
+
+        assertThat(server.connections.size(), is(5));
+    }
+
+    @Test
+    @DisplayName("Requests carry app name header, gzip is not requested by default")
+    void whenDefault_shouldSendAppHeaderWithoutGzip() {
+        server = new StatServerStub();
+        properties.setAppName("ewm-test-service");
+        ReactiveStatClient statClient = createClient(server.getUrl());
+
+        statClient.methodHit(hit).block();
+
+        assertThat(server.headers.get(0).get("X-Stat-App"), is("ewm-test-service"));
+        assertThat(server.headers.get(0).get("Accept-Encoding"), nullValue());
+    }
+
+    @Test
+    @DisplayName("When compress is on, gzip responses are requested")
+    void whenCompress_shouldRequestGzip() {
+        server = new StatServerStub(HttpServer.create().port(0).compress(true));
+        server.uniqueHits = 3;
+        properties.getTransport().setCompress(true);
+        ReactiveStatClient statClient = createClient(server.getUrl());
+
+        assertThat(statClient.getUniqueIpStatsForUri("/events/1").block(),
+                is(new ViewStatsDto("app", "/events/1", 3L)));
+        assertThat(server.headers.get(0).get("Accept-Encoding"), containsString("gzip"));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    @DisplayName("When Unix socket path is set, requests go over Unix domain socket")
+    void whenUnixSocket_shouldSendOverDomainSocket(@TempDir Path dir) {
+        String socketPath = dir.resolve("stat-server.sock").toString();
+        server = new StatServerStub(HttpServer.create().bindAddress(() -> new DomainSocketAddress(socketPath)));
+        server.uniqueHits = 7;
+        properties.getTransport().setUnixSocketPath(socketPath);
+        ReactiveStatClient statClient = createClient("http://localhost");
+
+        assertThat(statClient.methodHit(hit).block(), is(hit));
+        assertThat(statClient.getUniqueIpStatsForUri("/events/1").block(),
+                is(new ViewStatsDto("app", "/events/1", 7L)));
+        assertThat(server.hits, is(List.of(hit)));
+    }
+
+    @Test
+    @DisplayName("When app key placeholder is not resolved, client is not created")
+    void whenAppKeyNotResolved_shouldFail() {
+        properties.setAppKey("${STATS_APP_KEY}");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> createClient("http://localhost"));
+
+        assertThat(e.getMessage(), containsString("stat-client.app-key"));
+    }
+
+    private ReactiveStatClient createClient(String url) {
+        properties.getPool().setMetrics(false);
+        properties.setSingleFlightTtl(Duration.ZERO);
+        connectionProvider = webConfig.statClientConnectionProvider(properties);
+        ConsistentHashRing<StatNode> statNodes = webConfig.statNodes(url, connectionProvider, properties);
+        return new ReactiveStatClientImpl(statNodes, new StatClientResilience(properties), properties);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.yandex;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.StatBinaryFormat;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Stat client built by {@link WebConfig} in JSON and Smile wire formats.
+ */
+class WireFormatTest {
+
+    private final StatClientProperties properties = new StatClientProperties();
+
+    private final WebConfig webConfig = new WebConfig();
+
+    private final EndpointHitDto hit = EndpointHitDto.of(1L, "ewm-main-service", "/events/1", "127.0.0.1",
+            LocalDateTime.of(2022, 9, 6, 11, 0, 23));
+
+    private StatServerStub server;
+
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void init() {
+        server = new StatServerStub();
+        server.uniqueHits = 5;
+        properties.getPool().setMetrics(false);
+    }
+
+    @AfterEach
+    void shutdown() {
+        connectionProvider.dispose();
+        server.dispose();
+    }
+
+    @Test
+    @DisplayName("By default hits and stats are sent as JSON")
+    void whenJson_shouldSendAndReceiveJson() {
+        ReactiveStatClient statClient = createClient(WireFormat.JSON);
+
+        assertThat(statClient.methodHit(hit).block(), is(hit));
+        assertThat(statClient.getUniqueIpStatsForUri("/events/1").block(),
+                is(new ViewStatsDto("app", "/events/1", 5L)));
+
+        assertThat(server.hits, is(List.of(hit)));
+        server.headers.forEach(headers -> assertThat(headers.get("Accept"), is("application/json")));
+    }
+
+    @Test
+    @DisplayName("When Smile is set, hits and stats are sent as Smile")
+    void whenSmile_shouldSendAndReceiveSmile() {
+        ReactiveStatClient statClient = createClient(WireFormat.SMILE);
+
+        assertThat(statClient.methodHit(hit).block(), is(hit));
+        assertThat(statClient.getUniqueIpStatsForUri("/events/1").block(),
+                is(new ViewStatsDto("app", "/events/1", 5L)));
+
+        assertThat(server.hits, is(List.of(hit)));
+        assertThat(server.headers.get(0).get("Content-Type"), is(StatBinaryFormat.MEDIA_TYPE));
+        server.headers.forEach(headers -> assertThat(headers.get("Accept"), is(StatBinaryFormat.MEDIA_TYPE)));
+    }
+
+    private ReactiveStatClient createClient(WireFormat wireFormat) {
+        properties.getTransport().setWireFormat(wireFormat);
+        connectionProvider = webConfig.statClientConnectionProvider(properties);
+        ConsistentHashRing<StatNode> statNodes = webConfig.statNodes(server.getUrl(), connectionProvider, properties);
+        return new ReactiveStatClientImpl(statNodes, new StatClientResilience(properties), properties);
+    }
+}
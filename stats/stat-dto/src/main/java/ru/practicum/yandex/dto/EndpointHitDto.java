@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Data
@@ -16,12 +18,16 @@ public class EndpointHitDto {
 
     private Long id;
 
+    @NotBlank
     private String app;
 
+    @NotBlank
     private String uri;
 
+    @NotBlank
     private String ip;
 
+    @NotNull
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime timestamp;
 }
@@ -0,0 +1,20 @@
+package ru.practicum.yandex.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Acknowledgement of hit batch, sent when all hits of batch are saved or rejected.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitBatchAckDto {
+
+    private Long sequence;
+
+    private Integer accepted;
+
+    private Integer rejected;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.yandex.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Batch of hits sent over hit stream. Sequence is unique within stream and is returned in acknowledgement of batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitBatchDto {
+
+    private Long sequence;
+
+    private List<EndpointHitDto> hits;
+}
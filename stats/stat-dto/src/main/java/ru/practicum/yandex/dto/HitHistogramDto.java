@@ -0,0 +1,29 @@
+package ru.practicum.yandex.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hits of uri per fixed interval. Element i of hits is number of hits in interval starting at start + i * interval.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HitHistogramDto {
+
+    private String app;
+
+    private String uri;
+
+    private String interval;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime start;
+
+    private List<Long> hits;
+}
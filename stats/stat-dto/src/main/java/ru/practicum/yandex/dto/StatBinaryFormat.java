@@ -0,0 +1,65 @@
+package ru.practicum.yandex.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary wire format of stat client and stat server: Smile (binary JSON) with date and time written as epoch millis
+ * of UTC instead of formatted string. Field names and repeated short strings, like app and uri prefixes, are written
+ * once per message and referenced afterwards. JSON stays default format, binary format is chosen by content type and
+ * accept headers.
+ */
+@UtilityClass
+public class StatBinaryFormat {
+
+    public static final String MEDIA_TYPE = "application/x-jackson-smile";
+
+    /**
+     * Create object mapper of binary format. Mapper is thread safe and should be shared.
+     *
+     * @return Smile object mapper
+     */
+    public static ObjectMapper createObjectMapper() {
+        SmileFactory smileFactory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        SimpleModule epochMillisModule = new SimpleModule("EpochMillisLocalDateTime")
+                .addSerializer(LocalDateTime.class, new EpochMillisSerializer())
+                .addDeserializer(LocalDateTime.class, new EpochMillisDeserializer());
+        return new ObjectMapper(smileFactory)
+                .registerModule(epochMillisModule)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    private static class EpochMillisSerializer extends JsonSerializer<LocalDateTime> {
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider serializers)
+                throws IOException {
+            generator.writeNumber(value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    private static class EpochMillisDeserializer extends JsonDeserializer<LocalDateTime> {
+
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneOffset.UTC);
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package dto;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.StatBinaryFormat;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -40,4 +43,19 @@ class EndpointHitDtoTest {
 
         assertEquals(endpointHitDto, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void whenBinaryFormat_ShouldWriteTimestampAsEpochMillis() {
+        ObjectMapper smileObjectMapper = StatBinaryFormat.createObjectMapper();
+        LocalDateTime timestamp = LocalDateTime.of(2022, 9, 6, 11, 0, 23);
+        EndpointHitDto endpointHitDto = EndpointHitDto.of(1L, "ewm-main-service", "/events/1", "192.163.0.1",
+                timestamp);
+
+        byte[] smile = smileObjectMapper.writeValueAsBytes(endpointHitDto);
+        JsonNode node = smileObjectMapper.readTree(smile);
+
+        assertEquals(timestamp.toInstant(ZoneOffset.UTC).toEpochMilli(), node.get("timestamp").longValue());
+        assertEquals(endpointHitDto, smileObjectMapper.readValue(smile, EndpointHitDto.class));
+    }
+}
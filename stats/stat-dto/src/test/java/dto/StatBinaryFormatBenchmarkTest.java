@@ -0,0 +1,102 @@
+package dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.StatBinaryFormat;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.lang.reflect.Array;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Encode and decode cost and size of JSON and Smile formats. Disabled by default, run with
+ * 'mvn test -Dbenchmark=true -Dtest=StatBinaryFormatBenchmarkTest', number of iterations is set by
+ * 'benchmark.iterations'.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class StatBinaryFormatBenchmarkTest {
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+
+    private final ObjectMapper jsonObjectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final ObjectMapper smileObjectMapper = StatBinaryFormat.createObjectMapper();
+
+    @Test
+    @DisplayName("Encode and decode hits")
+    void hits() {
+        final LocalDateTime created = LocalDateTime.of(2022, 9, 21, 11, 23, 44);
+        final List<EndpointHitDto> hits = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            hits.add(EndpointHitDto.of((long) i, "ewm-main-service", "/events/" + i % 100, "10.0." + i % 256 + ".1",
+                    created.plusSeconds(i)));
+        }
+        final EndpointHitDto[] decoded = measure("hits", hits.toArray(new EndpointHitDto[0]),
+                EndpointHitDto[].class);
+        assertThat(List.of(decoded), is(hits));
+    }
+
+    @Test
+    @DisplayName("Encode and decode stats")
+    void stats() {
+        final List<ViewStatsDto> stats = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            stats.add(new ViewStatsDto("ewm-main-service", "/events/" + i, (long) BATCH_SIZE - i));
+        }
+        final ViewStatsDto[] decoded = measure("stats", stats.toArray(new ViewStatsDto[0]), ViewStatsDto[].class);
+        assertThat(List.of(decoded), is(stats));
+    }
+
+    @SneakyThrows
+    private <T> T measure(String name, T value, Class<T> type) {
+        final int iterations = Integer.getInteger("benchmark.iterations", 20_000);
+        final byte[] json = jsonObjectMapper.writeValueAsBytes(value);
+        final byte[] smile = smileObjectMapper.writeValueAsBytes(value);
+        log.info("Batch of '{}' {}: JSON '{}' bytes, Smile '{}' bytes.", BATCH_SIZE, name, json.length, smile.length);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            jsonObjectMapper.readValue(jsonObjectMapper.writeValueAsBytes(value), type);
+            smileObjectMapper.readValue(smileObjectMapper.writeValueAsBytes(value), type);
+        }
+        logCost(name, "JSON", jsonObjectMapper, value, json, type, iterations);
+        logCost(name, "Smile", smileObjectMapper, value, smile, type, iterations);
+
+        assertThat(smile.length, lessThan(json.length));
+        return smileObjectMapper.readValue(smile, type);
+    }
+
+    @SneakyThrows
+    private <T> void logCost(String name, String format, ObjectMapper objectMapper, T value, byte[] encoded,
+                             Class<T> type, int iterations) {
+        long bytes = 0;
+        final long encodeStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            bytes += objectMapper.writeValueAsBytes(value).length;
+        }
+        final long encodeTime = System.nanoTime() - encodeStart;
+        long elements = 0;
+        final long decodeStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            elements += Array.getLength(objectMapper.readValue(encoded, type));
+        }
+        final long decodeTime = System.nanoTime() - decodeStart;
+        log.info("{} {}: encode '{}' ns, decode '{}' ns per element, '{}' bytes encoded, '{}' elements decoded.",
+                format, name, encodeTime / iterations / BATCH_SIZE, decodeTime / iterations / BATCH_SIZE, bytes,
+                elements);
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.yandex.apps;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Authenticates app of request by 'X-Stat-App' and 'X-Stat-App-Key' headers and keeps it in request attribute
+ * {@link #APP_ATTRIBUTE}, used for query rate limit and ingest queue of request.
+ */
+@RequiredArgsConstructor
+public class AppAuthenticationInterceptor implements HandlerInterceptor {
+
+    public static final String APP_ATTRIBUTE = "ru.practicum.yandex.apps.app";
+
+    private final AppAuthenticator appAuthenticator;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(APP_ATTRIBUTE) == null) {
+            request.setAttribute(APP_ATTRIBUTE, appAuthenticator.authenticate(
+                    request.getHeader(AppAuthenticator.APP_HEADER), request.getHeader(AppAuthenticator.APP_KEY_HEADER)));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.yandex.apps;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Authenticates apps by keys from 'stat-server.apps.api-keys'. Ingest queue and query rate limit are chosen by
+ * authenticated app, not by app of hit or app name sent by client: app name sent without its key is not trusted, and
+ * such requests share 'unknown' app.
+ * <p>
+ * Over HTTP app and key are sent in 'X-Stat-App' and 'X-Stat-App-Key' headers, over hit stream in metadata of
+ * {@link #APP_MIME_TYPE} and {@link #APP_KEY_MIME_TYPE} types.
+ * <p>
+ * Keys have no defaults: server does not start if key of configured app is empty or its placeholder is not resolved.
+ */
+@Component
+public class AppAuthenticator {
+
+    public static final String APP_HEADER = "X-Stat-App";
+
+    public static final String APP_KEY_HEADER = "X-Stat-App-Key";
+
+    public static final MimeType APP_MIME_TYPE = MimeType.valueOf("message/x.stat-app");
+
+    public static final MimeType APP_KEY_MIME_TYPE = MimeType.valueOf("message/x.stat-app-key");
+
+    private final AppIsolationProperties properties;
+
+    public AppAuthenticator(AppIsolationProperties properties) {
+        properties.getApiKeys().forEach((app, key) -> {
+            if (!StringUtils.hasText(key) || key.contains("${")) {
+                throw new IllegalStateException("Key of app '" + app + "' is not set, set 'stat-server.apps.api-keys."
+                        + app + "'.");
+            }
+        });
+        this.properties = properties;
+    }
+
+    /**
+     * Authenticate app by its key.
+     *
+     * @param app name of app sent by client
+     * @param key key of app sent by client
+     * @return name of app if key is valid, 'unknown' otherwise
+     */
+    public String authenticate(String app, String key) {
+        if (app == null || key == null) {
+            return AppIngestScheduler.UNKNOWN_APP;
+        }
+        final String appKey = properties.getApiKeys().get(app);
+        if (appKey == null || !MessageDigest.isEqual(appKey.getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8))) {
+            return AppIngestScheduler.UNKNOWN_APP;
+        }
+        return app;
+    }
+}
@@ -0,0 +1,266 @@
+package ru.practicum.yandex.apps;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.exception.ServiceUnavailableException;
+import ru.practicum.yandex.exception.TooManyRequestsException;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Saves hits through bounded queue per app. Ingest threads take one hit from each app with waiting hits in turn, so
+ * an app sending a burst of hits fills its own queue and does not delay hits of other apps. When queue of app is
+ * full, its hits are rejected with {@link TooManyRequestsException}, or wait for room in queue if submitted with
+ * {@link #submitWaiting}. On shutdown hits waiting in queues are failed with {@link ServiceUnavailableException}.
+ */
+@Component
+@Slf4j
+public class AppIngestScheduler {
+
+    static final String UNKNOWN_APP = "unknown";
+
+    static final String OTHER_APPS = "other";
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final AppIsolationProperties properties;
+
+    private final AppMetrics appMetrics;
+
+    private final Map<String, AppQueue> appQueues = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<AppQueue> readyQueues = new LinkedBlockingQueue<>();
+
+    private final ExecutorService ingestExecutor;
+
+    private volatile boolean closed;
+
+    public AppIngestScheduler(AppIsolationProperties properties, AppMetrics appMetrics) {
+        this.properties = properties;
+        this.appMetrics = appMetrics;
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.ingestExecutor = Executors.newFixedThreadPool(properties.getIngestThreads(), runnable -> {
+            final Thread thread = new Thread(runnable, "stat-ingest-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < properties.getIngestThreads(); i++) {
+            ingestExecutor.execute(this::runIngest);
+        }
+    }
+
+    /**
+     * Queue hit of app to be saved.
+     *
+     * @param app  app that sent hit
+     * @param save saves hit
+     * @param <T>  type of save result
+     * @return result of save, completed exceptionally with {@link TooManyRequestsException} if queue of app is full
+     * or with {@link ServiceUnavailableException} if scheduler is shut down
+     */
+    public <T> CompletableFuture<T> submit(String app, Supplier<T> save) {
+        if (closed) {
+            return CompletableFuture.failedFuture(shutdownException());
+        }
+        final AppQueue appQueue = getAppQueue(app);
+        final IngestTask<T> task = new IngestTask<>(save);
+        if (!appQueue.tasks.offer(task)) {
+            appMetrics.hitRejected(appQueue.app);
+            return CompletableFuture.failedFuture(new TooManyRequestsException("Ingest queue of app '" + app +
+                    "' is full."));
+        }
+        // Hit queued while scheduler shuts down may be missed by drain of queues.
+        if (closed && appQueue.tasks.remove(task)) {
+            task.result.completeExceptionally(shutdownException());
+            return task.result;
+        }
+        appMetrics.hitAccepted(appQueue.app);
+        schedule(appQueue);
+        return task.result;
+    }
+
+    /**
+     * Queue hit of app to be saved, waiting for room if queue of app is full. Waiting hits are not limited, so caller
+     * must limit hits it submits before earlier ones are saved, as hit stream does by requesting next batches only
+     * when hits of current batches are saved.
+     *
+     * @param app  app that sent hit
+     * @param save saves hit
+     * @param <T>  type of save result
+     * @return result of save, completed exceptionally with {@link ServiceUnavailableException} if scheduler is shut
+     * down
+     */
+    public <T> CompletableFuture<T> submitWaiting(String app, Supplier<T> save) {
+        if (closed) {
+            return CompletableFuture.failedFuture(shutdownException());
+        }
+        final AppQueue appQueue = getAppQueue(app);
+        final IngestTask<T> task = new IngestTask<>(save);
+        synchronized (appQueue.waiting) {
+            appQueue.waiting.add(task);
+        }
+        if (closed && (appQueue.removeWaiting(task) || appQueue.tasks.remove(task))) {
+            task.result.completeExceptionally(shutdownException());
+            return task.result;
+        }
+        queueWaiting(appQueue);
+        return task.result;
+    }
+
+    /**
+     * Stop ingest threads after hits being saved are saved, and fail hits waiting in queues.
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        ingestExecutor.shutdownNow();
+        try {
+            if (!ingestExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Ingest threads did not stop in '{}' seconds.", SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int failed = 0;
+        for (AppQueue appQueue : appQueues.values()) {
+            IngestTask<?> task;
+            while ((task = appQueue.tasks.poll()) != null) {
+                task.result.completeExceptionally(shutdownException());
+                failed++;
+            }
+            synchronized (appQueue.waiting) {
+                while ((task = appQueue.waiting.poll()) != null) {
+                    task.result.completeExceptionally(shutdownException());
+                    failed++;
+                }
+            }
+        }
+        if (failed > 0) {
+            log.warn("Failed '{}' queued hits on shutdown.", failed);
+        }
+    }
+
+    private static ServiceUnavailableException shutdownException() {
+        return new ServiceUnavailableException("Stat server is shutting down.");
+    }
+
+    private void schedule(AppQueue appQueue) {
+        if (appQueue.scheduled.compareAndSet(false, true)) {
+            readyQueues.add(appQueue);
+        }
+    }
+
+    /**
+     * Move waiting hits of app to its queue while queue has room.
+     */
+    private void queueWaiting(AppQueue appQueue) {
+        synchronized (appQueue.waiting) {
+            IngestTask<?> task;
+            while ((task = appQueue.waiting.peek()) != null && appQueue.tasks.offer(task)) {
+                appQueue.waiting.poll();
+                appMetrics.hitAccepted(appQueue.app);
+                schedule(appQueue);
+            }
+        }
+    }
+
+    private AppQueue getAppQueue(String app) {
+        final String appName = app == null ? UNKNOWN_APP : app;
+        final AppQueue appQueue = appQueues.get(appName);
+        if (appQueue != null) {
+            return appQueue;
+        }
+        final String queueName = appQueues.size() < properties.getMaxApps() ? appName : OTHER_APPS;
+        return appQueues.computeIfAbsent(queueName, name -> {
+            final AppQueue created = new AppQueue(name, properties.getQueueCapacity());
+            appMetrics.registerQueue(name, created.tasks);
+            return created;
+        });
+    }
+
+    private void runIngest() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final AppQueue appQueue;
+            try {
+                appQueue = readyQueues.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            final IngestTask<?> task = appQueue.tasks.poll();
+            queueWaiting(appQueue);
+            // App goes to the end of ready queues before its hit is saved, so that other threads may save its next
+            // hits only after hits of other waiting apps.
+            if (!appQueue.tasks.isEmpty()) {
+                readyQueues.add(appQueue);
+            } else {
+                appQueue.scheduled.set(false);
+                if (!appQueue.tasks.isEmpty() && appQueue.scheduled.compareAndSet(false, true)) {
+                    readyQueues.add(appQueue);
+                }
+            }
+            if (task != null) {
+                task.run();
+                appMetrics.hitSaved(appQueue.app, System.nanoTime() - task.acceptedAt);
+            }
+        }
+    }
+
+    private static final class AppQueue {
+
+        private final String app;
+
+        private final BlockingQueue<IngestTask<?>> tasks;
+
+        private final Queue<IngestTask<?>> waiting = new ArrayDeque<>();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private AppQueue(String app, int capacity) {
+            this.app = app;
+            this.tasks = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private boolean removeWaiting(IngestTask<?> task) {
+            synchronized (waiting) {
+                return waiting.remove(task);
+            }
+        }
+    }
+
+    private static final class IngestTask<T> {
+
+        private final Supplier<T> save;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private final long acceptedAt = System.nanoTime();
+
+        private IngestTask(Supplier<T> save) {
+            this.save = save;
+        }
+
+        private void run() {
+            try {
+                result.complete(save.get());
+            } catch (RuntimeException e) {
+                log.warn("Failed to save hit: {}.", e.toString());
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.yandex.apps;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(AppIsolationProperties.class)
+@RequiredArgsConstructor
+public class AppIsolationConfig implements WebMvcConfigurer {
+
+    public static final String APP_METADATA = "app";
+
+    public static final String APP_KEY_METADATA = "appKey";
+
+    private final AppAuthenticator appAuthenticator;
+
+    private final AppRateLimiter appRateLimiter;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AppAuthenticationInterceptor(appAuthenticator));
+        registry.addInterceptor(new AppRateLimitInterceptor(appRateLimiter))
+                .addPathPatterns("/stats", "/stats/**", "/statistic");
+    }
+
+    /**
+     * Extract app and key from metadata of hit stream requests into 'app' and 'appKey' headers.
+     */
+    @Bean
+    public RSocketStrategiesCustomizer appMetadataExtractor() {
+        return strategies -> strategies.metadataExtractorRegistry(registry -> {
+            registry.metadataToExtract(AppAuthenticator.APP_MIME_TYPE, String.class, APP_METADATA);
+            registry.metadataToExtract(AppAuthenticator.APP_KEY_MIME_TYPE, String.class, APP_KEY_METADATA);
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.yandex.apps;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Isolation of apps sending hits and querying stats: ingest queue per app and query rate limits per app.
+ */
+@ConfigurationProperties(prefix = "stat-server.apps")
+@Getter
+@Setter
+public class AppIsolationProperties {
+
+    /**
+     * Maximum number of hits of one app waiting to be saved, hits over capacity are rejected.
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * Number of threads saving hits. Threads take hits from app queues in turn.
+     */
+    private int ingestThreads = 4;
+
+    /**
+     * Maximum number of apps with own queue, rate limit and metrics. Other apps share one.
+     */
+    private int maxApps = 100;
+
+    /**
+     * Keys of apps by app name. Ingest queue and query rate limit of app are applied only to requests with its key,
+     * other requests share 'unknown' app.
+     */
+    private Map<String, String> apiKeys = new HashMap<>();
+
+    /**
+     * Default number of stats queries per second of one app, zero or less for no limit.
+     */
+    private double queryRateLimit = 50;
+
+    /**
+     * Number of stats queries per second by app name, overrides default limit.
+     */
+    private Map<String, Double> queryRateLimits = new HashMap<>();
+}
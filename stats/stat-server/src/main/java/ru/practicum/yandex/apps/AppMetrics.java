@@ -0,0 +1,49 @@
+package ru.practicum.yandex.apps;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of hits and stats queries tagged by app.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public void registerQueue(String app, Collection<?> queue) {
+        Gauge.builder("stat.app.ingest.queue.size", queue, Collection::size)
+                .tag("app", app)
+                .register(meterRegistry);
+    }
+
+    public void hitAccepted(String app) {
+        meterRegistry.counter("stat.app.hits", "app", app, "result", "accepted").increment();
+    }
+
+    public void hitRejected(String app) {
+        meterRegistry.counter("stat.app.hits", "app", app, "result", "rejected").increment();
+    }
+
+    public void hitSaved(String app, long nanosSinceAccepted) {
+        Timer.builder("stat.app.ingest.latency")
+                .tag("app", app)
+                .register(meterRegistry)
+                .record(nanosSinceAccepted, TimeUnit.NANOSECONDS);
+    }
+
+    public void queryAllowed(String app) {
+        meterRegistry.counter("stat.app.queries", "app", app, "result", "allowed").increment();
+    }
+
+    public void queryLimited(String app) {
+        meterRegistry.counter("stat.app.queries", "app", app, "result", "limited").increment();
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.yandex.apps;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.yandex.exception.TooManyRequestsException;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Rejects stats queries of app over its rate limit. App is authenticated by {@link AppAuthenticationInterceptor}.
+ * Async dispatches of already permitted queries are not counted.
+ */
+@RequiredArgsConstructor
+public class AppRateLimitInterceptor implements HandlerInterceptor {
+
+    private final AppRateLimiter appRateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        final String app = (String) request.getAttribute(AppAuthenticationInterceptor.APP_ATTRIBUTE);
+        if (!appRateLimiter.tryAcquire(app)) {
+            throw new TooManyRequestsException("Query rate limit of app '" + app + "' is exceeded.");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.yandex.apps;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token bucket rate limit of stats queries per app. Bucket of app holds up to one second of queries.
+ */
+@Component
+@RequiredArgsConstructor
+public class AppRateLimiter {
+
+    private final AppIsolationProperties properties;
+
+    private final AppMetrics appMetrics;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Take permit for query of app.
+     *
+     * @param app app querying stats
+     * @return true if query is permitted
+     */
+    public boolean tryAcquire(String app) {
+        final String appName = app == null ? AppIngestScheduler.UNKNOWN_APP : app;
+        TokenBucket bucket = buckets.get(appName);
+        if (bucket == null) {
+            final String bucketName = buckets.size() < properties.getMaxApps() ? appName
+                    : AppIngestScheduler.OTHER_APPS;
+            bucket = buckets.computeIfAbsent(bucketName, name -> new TokenBucket(name,
+                    properties.getQueryRateLimits().getOrDefault(name, properties.getQueryRateLimit())));
+        }
+        final boolean acquired = bucket.tryAcquire();
+        if (acquired) {
+            appMetrics.queryAllowed(bucket.app);
+        } else {
+            appMetrics.queryLimited(bucket.app);
+        }
+        return acquired;
+    }
+
+    private static final class TokenBucket {
+
+        private final String app;
+
+        private final double permitsPerSecond;
+
+        private double permits;
+
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(String app, double permitsPerSecond) {
+            this.app = app;
+            this.permitsPerSecond = permitsPerSecond;
+            this.permits = permitsPerSecond;
+        }
+
+        private synchronized boolean tryAcquire() {
+            if (permitsPerSecond <= 0) {
+                return true;
+            }
+            final long now = System.nanoTime();
+            permits = Math.min(permitsPerSecond, permits + (now - refilledAt) * permitsPerSecond / 1_000_000_000);
+            refilledAt = now;
+            if (permits < 1) {
+                return false;
+            }
+            permits--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package ru.practicum.yandex.archive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.yandex.model.ArchivedHitRange;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.repository.StatExportRepository;
+import ru.practicum.yandex.service.StatService;
+import ru.practicum.yandex.service.StatServiceImpl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Stat service that merges stats of hot endpointhits table with archived hits. If requested date range does not
+ * overlap archive, request is passed to {@link StatServiceImpl} as is. Not used with 'stat-server.storage=log'.
+ * <p>
+ * Archived stats are read from per segment summaries, so that stats of uri are found without scan of archived hits.
+ * Hits of segments which are not deleted from table yet are skipped when table is read.
+ */
+@Service
+@Primary
+@ConditionalOnExpression("${stat-server.archive.enabled:false} and '${stat-server.storage:jpa}' == 'jpa'")
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveAwareStatService implements StatService {
+
+    private static final LocalDateTime ALL_TIME_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final LocalDateTime ALL_TIME_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final StatServiceImpl statService;
+
+    private final HitArchive hitArchive;
+
+    private final StatExportRepository statExportRepository;
+
+    @Override
+    public EndpointHit methodHit(EndpointHit endpointHit) {
+        return statService.methodHit(endpointHit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ViewStats> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        if (!hitArchive.covers(start)) {
+            return statService.viewStats(start, end, uris, unique);
+        }
+        log.info("Requesting stats between '{}' and '{}' from uris '{}' including archive, unique = '{}'.", start,
+                end, uris, unique);
+        return hitArchive.query(snapshot -> {
+            final StatsAccumulator accumulator = new StatsAccumulator(Boolean.TRUE.equals(unique));
+            snapshot.accumulate(start, end, uris, accumulator);
+            accumulateHotStats(start, end, uris, snapshot.pendingRanges(), accumulator);
+            return accumulator.toViewStats();
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ViewStats viewStatsForSingleUriWithUniqueIps(String uri) {
+        if (!hitArchive.covers(ALL_TIME_START)) {
+            return statService.viewStatsForSingleUriWithUniqueIps(uri);
+        }
+        final List<ViewStats> stats = viewStats(ALL_TIME_START, ALL_TIME_END, List.of(uri), true);
+        return stats.isEmpty() ? null : stats.get(0);
+    }
+
+    /**
+     * Pass stats between dates to consumer row by row. If date range overlaps archive, rows are not ordered by number
+     * of hits: rows of app and uri found in table are passed first, with archived hits added, then rows of app and uri
+     * found only in archive. Only app and uri of passed rows and ips of one app and uri are kept in memory.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                            Consumer<ViewStats> consumer) {
+        if (!hitArchive.covers(start)) {
+            statService.exportStats(start, end, uris, unique, consumer);
+            return;
+        }
+        log.info("Exporting stats between '{}' and '{}' from uris '{}' including archive, unique = '{}'.", start, end,
+                uris, unique);
+        hitArchive.query(snapshot -> {
+            final List<SegmentSummary> summaries = snapshot.summaries(start, end, uris);
+            final Set<List<String>> exported = new HashSet<>();
+            final Consumer<ViewStats> exportingConsumer = stats -> {
+                exported.add(List.of(stats.getApp(), stats.getUri()));
+                consumer.accept(stats);
+            };
+            if (Boolean.TRUE.equals(unique)) {
+                exportHotUniqueStats(start, end, uris, snapshot.pendingRanges(), summaries, exportingConsumer);
+            } else {
+                statExportRepository.streamStats(start, end, uris, false, snapshot.pendingRanges(), stats ->
+                        exportingConsumer.accept(new ViewStats(stats.getApp(), stats.getUri(),
+                                stats.getHits() + archivedHits(summaries, stats.getApp(), stats.getUri()))));
+            }
+            exportArchivedStats(summaries, uris, Boolean.TRUE.equals(unique), exported, consumer);
+            return null;
+        });
+    }
+
+    private void accumulateHotStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                    List<ArchivedHitRange> excluded, StatsAccumulator accumulator) {
+        if (accumulator.isUnique()) {
+            statExportRepository.streamDistinctHits(start, end, uris, excluded, hit ->
+                    accumulator.addIp(hit.getApp(), hit.getUri(), hit.getIp()));
+        } else {
+            statExportRepository.streamStats(start, end, uris, false, excluded, stats ->
+                    accumulator.addHits(stats.getApp(), stats.getUri(), stats.getHits()));
+        }
+    }
+
+    /**
+     * Pass unique stats of app and uri found in table. Distinct hits are read grouped by app and uri, so that only ips
+     * of current app and uri are collected.
+     */
+    private void exportHotUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                      List<ArchivedHitRange> excluded, List<SegmentSummary> summaries,
+                                      Consumer<ViewStats> consumer) {
+        final IpGroup group = new IpGroup();
+        statExportRepository.streamDistinctHits(start, end, uris, excluded, hit -> {
+            if (!hit.getApp().equals(group.app) || !hit.getUri().equals(group.uri)) {
+                group.export(summaries, consumer);
+                group.app = hit.getApp();
+                group.uri = hit.getUri();
+            }
+            group.ips.add(hit.getIp());
+        });
+        group.export(summaries, consumer);
+    }
+
+    /**
+     * Pass stats of app and uri found only in archive. Summaries are merged in order of uri and app.
+     */
+    private void exportArchivedStats(List<SegmentSummary> summaries, List<String> uris, boolean unique,
+                                     Set<List<String>> exported, Consumer<ViewStats> consumer) {
+        final PriorityQueue<SummaryCursor> cursors = new PriorityQueue<>(Comparator.comparing(SummaryCursor::uri)
+                .thenComparing(SummaryCursor::app));
+        for (SegmentSummary summary : summaries) {
+            final IntStream.Builder entries = IntStream.builder();
+            summary.forEachEntry(uris, entries::add);
+            final SummaryCursor cursor = new SummaryCursor(summary, entries.build().toArray());
+            if (cursor.hasEntry()) {
+                cursors.add(cursor);
+            }
+        }
+        while (!cursors.isEmpty()) {
+            final List<SummaryCursor> sameKey = new ArrayList<>();
+            sameKey.add(cursors.poll());
+            final String app = sameKey.get(0).app();
+            final String uri = sameKey.get(0).uri();
+            while (!cursors.isEmpty() && cursors.peek().app().equals(app) && cursors.peek().uri().equals(uri)) {
+                sameKey.add(cursors.poll());
+            }
+            if (!exported.contains(List.of(app, uri))) {
+                long hits = 0;
+                final Set<String> ips = new HashSet<>();
+                for (SummaryCursor cursor : sameKey) {
+                    if (unique) {
+                        cursor.summary.forEachIp(cursor.entry(), ips::add);
+                    } else {
+                        hits += cursor.summary.hits(cursor.entry());
+                    }
+                }
+                consumer.accept(new ViewStats(app, uri, unique ? ips.size() : hits));
+            }
+            for (SummaryCursor cursor : sameKey) {
+                cursor.position++;
+                if (cursor.hasEntry()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+    }
+
+    private static long archivedHits(List<SegmentSummary> summaries, String app, String uri) {
+        long hits = 0;
+        for (SegmentSummary summary : summaries) {
+            final int entry = summary.find(app, uri);
+            if (entry >= 0) {
+                hits += summary.hits(entry);
+            }
+        }
+        return hits;
+    }
+
+    private static final class IpGroup {
+
+        private String app;
+
+        private String uri;
+
+        private final Set<String> ips = new HashSet<>();
+
+        void export(List<SegmentSummary> summaries, Consumer<ViewStats> consumer) {
+            if (app == null) {
+                return;
+            }
+            for (SegmentSummary summary : summaries) {
+                final int entry = summary.find(app, uri);
+                if (entry >= 0) {
+                    summary.forEachIp(entry, ips::add);
+                }
+            }
+            consumer.accept(new ViewStats(app, uri, (long) ips.size()));
+            ips.clear();
+        }
+    }
+
+    private static final class SummaryCursor {
+
+        private final SegmentSummary summary;
+
+        private final int[] entries;
+
+        private int position;
+
+        SummaryCursor(SegmentSummary summary, int[] entries) {
+            this.summary = summary;
+            this.entries = entries;
+        }
+
+        boolean hasEntry() {
+            return position < entries.length;
+        }
+
+        int entry() {
+            return entries[position];
+        }
+
+        String app() {
+            return summary.app(entry());
+        }
+
+        String uri() {
+            return summary.uri(entry());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.yandex.archive;
+
+import ru.practicum.yandex.model.ArchivedHitRange;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable state of archive used by one query: published segments and segments which hits may be not deleted from
+ * endpointhits table yet. Hits of pending segments must be skipped when table is read, so that they are not counted
+ * twice.
+ */
+class ArchiveSnapshot {
+
+    private final List<HitSegment> segments;
+
+    private final Set<HitSegment> pendingSegments;
+
+    private final AtomicInteger readers = new AtomicInteger();
+
+    ArchiveSnapshot(Collection<HitSegment> segments, Collection<HitSegment> pendingSegments) {
+        this.segments = segments.stream()
+                .sorted(Comparator.comparing(HitSegment::sliceStart))
+                .collect(Collectors.toUnmodifiableList());
+        this.pendingSegments = Set.copyOf(pendingSegments);
+    }
+
+    /**
+     * Check if hits in date range may be archived.
+     *
+     * @param start start of date range
+     * @return true if some segment covers time after start
+     */
+    boolean covers(LocalDateTime start) {
+        final long startSecond = HitColumns.toEpochSecond(start);
+        return segments.stream().anyMatch(segment -> segment.sliceEnd() > startSecond);
+    }
+
+    /**
+     * Add archived stats between dates to accumulator.
+     *
+     * @param start       start of date range, exclusive
+     * @param end         end of date range, exclusive
+     * @param uris        uris to get stats for, all uris if null
+     * @param accumulator accumulator of stats
+     */
+    void accumulate(LocalDateTime start, LocalDateTime end, Collection<String> uris, StatsAccumulator accumulator) {
+        for (SegmentSummary summary : summaries(start, end, uris)) {
+            summary.forEachEntry(uris, entry -> {
+                if (accumulator.isUnique()) {
+                    summary.forEachIp(entry, ip -> accumulator.addIp(summary.app(entry), summary.uri(entry), ip));
+                } else {
+                    accumulator.addHits(summary.app(entry), summary.uri(entry), summary.hits(entry));
+                }
+            });
+        }
+    }
+
+    /**
+     * Get summaries of archived hits between dates, one per segment overlapping date range.
+     *
+     * @param start start of date range, exclusive
+     * @param end   end of date range, exclusive
+     * @param uris  uris to get stats for, all uris if null
+     * @return summaries of segments, may include entries of other uris
+     */
+    List<SegmentSummary> summaries(LocalDateTime start, LocalDateTime end, Collection<String> uris) {
+        final long startSecond = HitColumns.toEpochSecond(start);
+        final long endSecond = HitColumns.toEpochSecond(end);
+        final List<SegmentSummary> summaries = new ArrayList<>();
+        for (HitSegment segment : segments) {
+            if (segment.overlaps(startSecond, endSecond)) {
+                summaries.add(segment.summary(startSecond, endSecond, uris));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Get ranges of table hits archived to pending segments.
+     */
+    List<ArchivedHitRange> pendingRanges() {
+        return pendingSegments.stream()
+                .sorted(Comparator.comparing(HitSegment::sliceStart))
+                .map(segment -> new ArchivedHitRange(HitColumns.fromEpochSecond(segment.sliceStart()),
+                        HitColumns.fromEpochSecond(segment.sliceEnd()), segment.maxHitId()))
+                .collect(Collectors.toList());
+    }
+
+    List<HitSegment> segments() {
+        return segments;
+    }
+
+    List<HitSegment> pendingSegments() {
+        return segments.stream()
+                .filter(pendingSegments::contains)
+                .collect(Collectors.toList());
+    }
+
+    ArchiveSnapshot withSegment(HitSegment segment) {
+        final List<HitSegment> newSegments = new ArrayList<>(segments);
+        newSegments.add(segment);
+        final Set<HitSegment> newPendingSegments = new HashSet<>(pendingSegments);
+        newPendingSegments.add(segment);
+        return new ArchiveSnapshot(newSegments, newPendingSegments);
+    }
+
+    ArchiveSnapshot withoutPendingSegment(HitSegment segment) {
+        final Set<HitSegment> newPendingSegments = new HashSet<>(pendingSegments);
+        newPendingSegments.remove(segment);
+        return new ArchiveSnapshot(segments, newPendingSegments);
+    }
+
+    ArchiveSnapshot withoutSegment(HitSegment segment) {
+        final List<HitSegment> newSegments = new ArrayList<>(segments);
+        newSegments.remove(segment);
+        final Set<HitSegment> newPendingSegments = new HashSet<>(pendingSegments);
+        newPendingSegments.remove(segment);
+        return new ArchiveSnapshot(newSegments, newPendingSegments);
+    }
+
+    AtomicInteger readers() {
+        return readers;
+    }
+}
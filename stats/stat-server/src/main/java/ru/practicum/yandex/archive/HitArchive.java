@@ -0,0 +1,158 @@
+package ru.practicum.yandex.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Archived hits kept in segment files on local disk. Segments are opened on startup and scanned with memory mapping
+ * when requested date range overlaps archived time slices.
+ * <p>
+ * Queries read archive through {@link ArchiveSnapshot}, which is replaced when segment is published, settled or
+ * removed. Segment is pending after it is published and until its hits are deleted from endpointhits table, segments
+ * opened on startup are pending until archiver checks that their hits are deleted.
+ */
+@Component
+@ConditionalOnProperty(name = "stat-server.archive.enabled", havingValue = "true")
+@Slf4j
+public class HitArchive {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final long AWAIT_QUERIES_INTERVAL_MILLIS = 10;
+
+    private final Path directory;
+
+    private volatile ArchiveSnapshot snapshot = new ArchiveSnapshot(List.of(), List.of());
+
+    private final List<ArchiveSnapshot> replacedSnapshots = new CopyOnWriteArrayList<>();
+
+    public HitArchive(@Value("${stat-server.archive.directory:archive}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        Files.createDirectories(directory);
+        final List<HitSegment> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .map(HitSegment::open)
+                    .collect(Collectors.toList());
+        }
+        snapshot = new ArchiveSnapshot(segments, segments);
+        log.info("Opened '{}' hit archive segments in '{}'.", segments.size(), directory.toAbsolutePath());
+    }
+
+    /**
+     * Check if hits in date range may be archived.
+     *
+     * @param start start of date range
+     * @return true if some segment covers time after start
+     */
+    public boolean covers(LocalDateTime start) {
+        return snapshot.covers(start);
+    }
+
+    /**
+     * Run query on current snapshot of archive. Archiver does not delete hits of segment from table while queries
+     * started before segment was published are running.
+     *
+     * @param query query of archive and table
+     * @return query result
+     */
+    <T> T query(Function<ArchiveSnapshot, T> query) {
+        ArchiveSnapshot current;
+        while (true) {
+            current = snapshot;
+            current.readers().incrementAndGet();
+            if (current == snapshot) {
+                break;
+            }
+            current.readers().decrementAndGet();
+        }
+        try {
+            return query.apply(current);
+        } finally {
+            current.readers().decrementAndGet();
+        }
+    }
+
+    /**
+     * Wait until queries on replaced snapshots of archive are completed.
+     */
+    void awaitQueries() throws InterruptedException {
+        for (ArchiveSnapshot replaced : replacedSnapshots) {
+            while (replaced.readers().get() > 0) {
+                Thread.sleep(AWAIT_QUERIES_INTERVAL_MILLIS);
+            }
+            replacedSnapshots.remove(replaced);
+        }
+    }
+
+    /**
+     * Publish segment written by archiver. Segment is pending until it is settled.
+     *
+     * @param path segment file
+     * @return published segment
+     */
+    synchronized HitSegment addSegment(Path path) {
+        final HitSegment segment = HitSegment.open(path);
+        replaceSnapshot(snapshot.withSegment(segment));
+        return segment;
+    }
+
+    /**
+     * Mark segment as settled after its hits were deleted from table.
+     *
+     * @param segment published segment
+     */
+    synchronized void settleSegment(HitSegment segment) {
+        replaceSnapshot(snapshot.withoutPendingSegment(segment));
+    }
+
+    /**
+     * Remove segment which hits are kept in table and delete its file.
+     *
+     * @param segment published segment
+     */
+    synchronized void removeSegment(HitSegment segment) {
+        replaceSnapshot(snapshot.withoutSegment(segment));
+        try {
+            Files.deleteIfExists(segment.path());
+        } catch (IOException e) {
+            log.error("Failed to delete removed segment '{}'.", segment.path(), e);
+        }
+    }
+
+    List<HitSegment> segments() {
+        return snapshot.segments();
+    }
+
+    List<HitSegment> pendingSegments() {
+        return snapshot.pendingSegments();
+    }
+
+    Path segmentPath(long sliceStart, long maxHitId) {
+        return directory.resolve(String.format("hits-%d-%d%s", sliceStart, maxHitId, SEGMENT_SUFFIX));
+    }
+
+    private void replaceSnapshot(ArchiveSnapshot newSnapshot) {
+        replacedSnapshots.add(snapshot);
+        snapshot = newSnapshot;
+    }
+}
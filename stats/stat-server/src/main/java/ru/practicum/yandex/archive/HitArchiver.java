@@ -0,0 +1,154 @@
+package ru.practicum.yandex.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Moves hits older than retention window from endpointhits table to archive segments, one segment per time slice.
+ * Segment is written and published before hits are deleted from table, so that hits are always either in table or in
+ * archive. Until hits are deleted, segment is pending and queries skip its hits in table using time slice and max hit
+ * id saved in segment. If server stops before hits are deleted, they are deleted on next startup.
+ */
+@Component
+@ConditionalOnProperty(name = "stat-server.archive.enabled", havingValue = "true")
+@Slf4j
+public class HitArchiver {
+
+    private final HitArchive hitArchive;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration retention;
+
+    private final long segmentSeconds;
+
+    public HitArchiver(HitArchive hitArchive, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                       @Value("${stat-server.archive.retention:90d}") Duration retention,
+                       @Value("${stat-server.archive.segment-duration:1d}") Duration segmentDuration) {
+        this.hitArchive = hitArchive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+        this.segmentSeconds = segmentDuration.getSeconds();
+    }
+
+    /**
+     * Delete hits of pending segments from table. Segment is settled if hits are deleted or were deleted before.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void deleteArchivedHits() {
+        for (HitSegment segment : hitArchive.pendingSegments()) {
+            deleteArchivedHits(segment);
+        }
+    }
+
+    /**
+     * Archive hits older than retention window. Time slices are archived from oldest to newest.
+     */
+    @Scheduled(fixedDelayString = "${stat-server.archive.interval:3600000}",
+            initialDelayString = "${stat-server.archive.interval:3600000}")
+    public synchronized void archive() {
+        deleteArchivedHits();
+        final long cutoff = alignToSlice(HitColumns.toEpochSecond(LocalDateTime.now().minus(retention)));
+        Timestamp oldest;
+        while ((oldest = findOldestHitBefore(cutoff)) != null) {
+            final long sliceStart = alignToSlice(HitColumns.toEpochSecond(oldest.toLocalDateTime()));
+            if (archiveSlice(sliceStart, sliceStart + segmentSeconds) == 0) {
+                break;
+            }
+        }
+    }
+
+    private int archiveSlice(long sliceStart, long sliceEnd) {
+        final HitColumns hits = new HitColumns();
+        jdbcTemplate.query("SELECT id, app, uri, ip, created FROM endpointhits WHERE created >= ? AND created < ? " +
+                        "ORDER BY created",
+                rs -> {
+                    hits.add(rs.getLong("id"), rs.getString("app"), rs.getString("uri"), rs.getString("ip"),
+                            rs.getTimestamp("created").toLocalDateTime());
+                },
+                toTimestamp(sliceStart), toTimestamp(sliceEnd));
+        if (hits.isEmpty()) {
+            return 0;
+        }
+        final Path path = hitArchive.segmentPath(sliceStart, hits.maxHitId());
+        try {
+            HitSegment.write(path, sliceStart, sliceEnd, hits);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final HitSegment segment = hitArchive.addSegment(path);
+        try {
+            hitArchive.awaitQueries();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Archiving was interrupted, hits of segment '{}' will be deleted on next run.", path);
+            return 0;
+        }
+        if (!deleteArchivedHits(segment)) {
+            return 0;
+        }
+        log.info("Archived '{}' hits from '{}' to '{}' to segment '{}'.", hits.size(),
+                HitColumns.fromEpochSecond(sliceStart), HitColumns.fromEpochSecond(sliceEnd), path);
+        return hits.size();
+    }
+
+    /**
+     * Delete hits of segment from table. If table has other hits of slice with id not greater than max archived hit
+     * id, for example hit inserted in transaction that was committed after slice was read, hits are kept in table,
+     * segment is removed and slice is archived again on next run.
+     *
+     * @return true if segment was settled
+     */
+    private boolean deleteArchivedHits(HitSegment segment) {
+        final int deleted = transactionTemplate.execute(status -> {
+            final int count = deleteHits(segment.sliceStart(), segment.sliceEnd(), segment.maxHitId());
+            if (count != 0 && count != segment.size()) {
+                status.setRollbackOnly();
+            }
+            return count;
+        });
+        if (deleted != 0 && deleted != segment.size()) {
+            log.warn("Found '{}' hits of segment '{}' with '{}' hits in table, segment is removed.", deleted,
+                    segment.path(), segment.size());
+            hitArchive.removeSegment(segment);
+            return false;
+        }
+        hitArchive.settleSegment(segment);
+        return true;
+    }
+
+    private int deleteHits(long sliceStart, long sliceEnd, long maxHitId) {
+        return jdbcTemplate.update("DELETE FROM endpointhits WHERE created >= ? AND created < ? AND id <= ?",
+                toTimestamp(sliceStart), toTimestamp(sliceEnd), maxHitId);
+    }
+
+    private Timestamp findOldestHitBefore(long cutoff) {
+        return jdbcTemplate.queryForObject("SELECT MIN(created) FROM endpointhits WHERE created < ?",
+                Timestamp.class, toTimestamp(cutoff));
+    }
+
+    private long alignToSlice(long epochSecond) {
+        return Math.floorDiv(epochSecond, segmentSeconds) * segmentSeconds;
+    }
+
+    private static Timestamp toTimestamp(long epochSecond) {
+        return Timestamp.valueOf(HitColumns.fromEpochSecond(epochSecond));
+    }
+}
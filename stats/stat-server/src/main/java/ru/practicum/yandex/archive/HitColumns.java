@@ -0,0 +1,116 @@
+package ru.practicum.yandex.archive;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hits of one archive segment collected column by column. App, uri and ip are replaced with ids in per segment
+ * dictionaries. Hits must be added in order of timestamps.
+ */
+class HitColumns {
+
+    private final Dictionary apps = new Dictionary();
+
+    private final Dictionary uris = new Dictionary();
+
+    private final Dictionary ips = new Dictionary();
+
+    private long[] timestamps = new long[1024];
+
+    private int[] appIds = new int[1024];
+
+    private int[] uriIds = new int[1024];
+
+    private int[] ipIds = new int[1024];
+
+    private int size;
+
+    private long maxHitId;
+
+    void add(long id, String app, String uri, String ip, LocalDateTime timestamp) {
+        final long epochSecond = toEpochSecond(timestamp);
+        if (size > 0 && epochSecond < timestamps[size - 1]) {
+            throw new IllegalArgumentException("Hits must be added in order of timestamps.");
+        }
+        if (size == timestamps.length) {
+            final int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            appIds = Arrays.copyOf(appIds, capacity);
+            uriIds = Arrays.copyOf(uriIds, capacity);
+            ipIds = Arrays.copyOf(ipIds, capacity);
+        }
+        timestamps[size] = epochSecond;
+        appIds[size] = apps.idOf(app);
+        uriIds[size] = uris.idOf(uri);
+        ipIds[size] = ips.idOf(ip);
+        size++;
+        maxHitId = Math.max(maxHitId, id);
+    }
+
+    static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime fromEpochSecond(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long maxHitId() {
+        return maxHitId;
+    }
+
+    long timestamp(int row) {
+        return timestamps[row];
+    }
+
+    int appId(int row) {
+        return appIds[row];
+    }
+
+    int uriId(int row) {
+        return uriIds[row];
+    }
+
+    int ipId(int row) {
+        return ipIds[row];
+    }
+
+    List<String> apps() {
+        return apps.values;
+    }
+
+    List<String> uris() {
+        return uris.values;
+    }
+
+    List<String> ips() {
+        return ips.values;
+    }
+
+    private static class Dictionary {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        private final List<String> values = new ArrayList<>();
+
+        int idOf(String value) {
+            return ids.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package ru.practicum.yandex.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable file with archived hits of one time slice. Hits are sorted by time and stored column by column: app, uri
+ * and ip columns hold ids in segment dictionaries, time column holds deltas from previous hit, all as variable length
+ * integers. File is memory-mapped and scanned without loading hits to heap.
+ * <p>
+ * Layout: magic, version, slice start and end, min and max hit time (epoch seconds, UTC), max archived hit id, number
+ * of hits, app, uri and ip dictionaries (count, then length and UTF-8 bytes of each value), time, app, uri and ip
+ * columns (length in bytes, then values), {@link SegmentSummary} of all hits. Version 1 segments have no summary, it
+ * is built on open.
+ */
+class HitSegment {
+
+    private static final int MAGIC = 0x48534547;
+
+    private static final short VERSION = 2;
+
+    private static final short VERSION_WITHOUT_SUMMARY = 1;
+
+    private final Path path;
+
+    private final long sliceStart;
+
+    private final long sliceEnd;
+
+    private final long minTimestamp;
+
+    private final long maxTimestamp;
+
+    private final long maxHitId;
+
+    private final int size;
+
+    private final String[] apps;
+
+    private final String[] uris;
+
+    private final String[] ips;
+
+    private final ByteBuffer timeColumn;
+
+    private final ByteBuffer appColumn;
+
+    private final ByteBuffer uriColumn;
+
+    private final ByteBuffer ipColumn;
+
+    private final SegmentSummary summary;
+
+    private HitSegment(Path path, ByteBuffer buffer) {
+        final int magic = buffer.getInt();
+        final short version = buffer.getShort();
+        if (magic != MAGIC || version < VERSION_WITHOUT_SUMMARY || version > VERSION) {
+            throw new IllegalStateException("File '" + path + "' is not a hit segment.");
+        }
+        this.path = path;
+        this.sliceStart = buffer.getLong();
+        this.sliceEnd = buffer.getLong();
+        this.minTimestamp = buffer.getLong();
+        this.maxTimestamp = buffer.getLong();
+        this.maxHitId = buffer.getLong();
+        this.size = buffer.getInt();
+        this.apps = readDictionary(buffer);
+        this.uris = readDictionary(buffer);
+        this.ips = readDictionary(buffer);
+        this.timeColumn = readColumn(buffer);
+        this.appColumn = readColumn(buffer);
+        this.uriColumn = readColumn(buffer);
+        this.ipColumn = readColumn(buffer);
+        this.summary = version == VERSION_WITHOUT_SUMMARY
+                ? SegmentSummary.build(apps, uris, ips, visitor -> scan(Long.MIN_VALUE, Long.MAX_VALUE, null, visitor))
+                : SegmentSummary.read(buffer, apps, uris, ips);
+    }
+
+    /**
+     * Open segment file with memory mapping.
+     *
+     * @param path segment file
+     * @return opened segment
+     */
+    static HitSegment open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new HitSegment(path, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write hits to segment file. File is written next to target and moved to target when complete, so that partially
+     * written segment is never opened.
+     *
+     * @param path       segment file
+     * @param sliceStart start of archived time slice, epoch seconds
+     * @param sliceEnd   end of archived time slice, epoch seconds
+     * @param hits       hits sorted by time
+     */
+    static void write(Path path, long sliceStart, long sliceEnd, HitColumns hits) throws IOException {
+        final ByteArrayOutputStream timeColumn = new ByteArrayOutputStream(hits.size() * 2);
+        final ByteArrayOutputStream appColumn = new ByteArrayOutputStream(hits.size());
+        final ByteArrayOutputStream uriColumn = new ByteArrayOutputStream(hits.size() * 2);
+        final ByteArrayOutputStream ipColumn = new ByteArrayOutputStream(hits.size() * 3);
+        long previousTimestamp = hits.isEmpty() ? 0 : hits.timestamp(0);
+        for (int row = 0; row < hits.size(); row++) {
+            writeVarLong(timeColumn, hits.timestamp(row) - previousTimestamp);
+            previousTimestamp = hits.timestamp(row);
+            writeVarLong(appColumn, hits.appId(row));
+            writeVarLong(uriColumn, hits.uriId(row));
+            writeVarLong(ipColumn, hits.ipId(row));
+        }
+        final Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                     Channels.newOutputStream(channel), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(sliceStart);
+            out.writeLong(sliceEnd);
+            out.writeLong(hits.isEmpty() ? sliceStart : hits.timestamp(0));
+            out.writeLong(hits.isEmpty() ? sliceStart : hits.timestamp(hits.size() - 1));
+            out.writeLong(hits.maxHitId());
+            out.writeInt(hits.size());
+            writeDictionary(out, hits.apps());
+            writeDictionary(out, hits.uris());
+            writeDictionary(out, hits.ips());
+            writeColumn(out, timeColumn);
+            writeColumn(out, appColumn);
+            writeColumn(out, uriColumn);
+            writeColumn(out, ipColumn);
+            final String[] apps = hits.apps().toArray(new String[0]);
+            final String[] uris = hits.uris().toArray(new String[0]);
+            final String[] ips = hits.ips().toArray(new String[0]);
+            SegmentSummary.build(apps, uris, ips, visitor -> {
+                for (int row = 0; row < hits.size(); row++) {
+                    visitor.visit(hits.appId(row), hits.uriId(row), hits.ipId(row));
+                }
+            }).write(out);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Pass hits with time strictly between start and end to visitor. Segments outside of range are skipped without
+     * reading columns, scan of segment stops at first hit after end.
+     *
+     * @param start     start of range, epoch seconds, exclusive
+     * @param end       end of range, epoch seconds, exclusive
+     * @param uriFilter uris to scan, all uris if null
+     * @param visitor   visitor of matching hits
+     */
+    void scan(long start, long end, Collection<String> uriFilter, HitVisitor visitor) {
+        if (size == 0 || maxTimestamp <= start || minTimestamp >= end) {
+            return;
+        }
+        final boolean[] uriMatches = new boolean[uris.length];
+        boolean anyUriMatches = false;
+        for (int uriId = 0; uriId < uris.length; uriId++) {
+            uriMatches[uriId] = uriFilter == null || uriFilter.contains(uris[uriId]);
+            anyUriMatches |= uriMatches[uriId];
+        }
+        if (!anyUriMatches) {
+            return;
+        }
+        final ByteBuffer time = timeColumn.duplicate();
+        final ByteBuffer app = appColumn.duplicate();
+        final ByteBuffer uri = uriColumn.duplicate();
+        final ByteBuffer ip = ipColumn.duplicate();
+        long timestamp = minTimestamp;
+        for (int row = 0; row < size; row++) {
+            timestamp += readVarLong(time);
+            final int appId = (int) readVarLong(app);
+            final int uriId = (int) readVarLong(uri);
+            final int ipId = (int) readVarLong(ip);
+            if (timestamp >= end) {
+                return;
+            }
+            if (timestamp > start && uriMatches[uriId]) {
+                visitor.visit(appId, uriId, ipId);
+            }
+        }
+    }
+
+    /**
+     * Get summary of hits with time strictly between start and end. Stored summary is used if all hits of segment are
+     * in range, otherwise summary is built on scan.
+     *
+     * @param start     start of range, epoch seconds, exclusive
+     * @param end       end of range, epoch seconds, exclusive
+     * @param uriFilter uris to include in built summary, all uris if null
+     * @return summary of hits in range
+     */
+    SegmentSummary summary(long start, long end, Collection<String> uriFilter) {
+        if (minTimestamp > start && maxTimestamp < end) {
+            return summary;
+        }
+        return SegmentSummary.build(apps, uris, ips, visitor -> scan(start, end, uriFilter, visitor));
+    }
+
+    /**
+     * Check if segment may have hits with time strictly between start and end.
+     */
+    boolean overlaps(long start, long end) {
+        return size > 0 && maxTimestamp > start && minTimestamp < end;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long sliceStart() {
+        return sliceStart;
+    }
+
+    long sliceEnd() {
+        return sliceEnd;
+    }
+
+    long maxHitId() {
+        return maxHitId;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String app(int appId) {
+        return apps[appId];
+    }
+
+    String uri(int uriId) {
+        return uris[uriId];
+    }
+
+    String ip(int ipId) {
+        return ips[ipId];
+    }
+
+    int ipCount() {
+        return ips.length;
+    }
+
+    private static String[] readDictionary(ByteBuffer buffer) {
+        final String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            final byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static ByteBuffer readColumn(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        final ByteBuffer column = buffer.slice();
+        column.limit(length);
+        buffer.position(buffer.position() + length);
+        return column;
+    }
+
+    private static void writeDictionary(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeColumn(DataOutputStream out, ByteArrayOutputStream column) throws IOException {
+        out.writeInt(column.size());
+        column.writeTo(out);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) {
+        try {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Visitor of archived hits, receives ids in segment dictionaries.
+     */
+    interface HitVisitor {
+        void visit(int appId, int uriId, int ipId);
+    }
+}
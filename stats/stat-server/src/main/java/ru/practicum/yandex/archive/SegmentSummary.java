@@ -0,0 +1,204 @@
+package ru.practicum.yandex.archive;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Stats of archived hits per uri and app: number of hits and distinct ips. Entries are sorted by uri, then by app, so
+ * that stats of uri are found with binary search instead of scan of hits, and summaries of several segments are
+ * merged in one pass. Summary of whole segment is stored in segment file, summary of part of segment is built on
+ * scan.
+ * <p>
+ * Layout: number of entries, entries (uri id, app id, number of hits, offset and number of ip ids), number of ip ids,
+ * ip ids of all entries, each sorted.
+ */
+class SegmentSummary {
+
+    private static final int ENTRY_BYTES = 24;
+
+    private final String[] apps;
+
+    private final String[] uris;
+
+    private final String[] ips;
+
+    private final ByteBuffer entries;
+
+    private final ByteBuffer ipIds;
+
+    private final int size;
+
+    private SegmentSummary(String[] apps, String[] uris, String[] ips, ByteBuffer entries, ByteBuffer ipIds) {
+        this.apps = apps;
+        this.uris = uris;
+        this.ips = ips;
+        this.entries = entries;
+        this.ipIds = ipIds;
+        this.size = entries.limit() / ENTRY_BYTES;
+    }
+
+    /**
+     * Read summary from segment buffer. Buffer position is moved after summary.
+     */
+    static SegmentSummary read(ByteBuffer buffer, String[] apps, String[] uris, String[] ips) {
+        final ByteBuffer entries = slice(buffer, buffer.getInt() * ENTRY_BYTES);
+        final ByteBuffer ipIds = slice(buffer, buffer.getInt() * Integer.BYTES);
+        return new SegmentSummary(apps, uris, ips, entries, ipIds);
+    }
+
+    /**
+     * Build summary of hits passed by scan.
+     *
+     * @param apps app dictionary of segment
+     * @param uris uri dictionary of segment
+     * @param ips  ip dictionary of segment
+     * @param scan scan passing hits to visitor
+     * @return summary held in heap
+     */
+    static SegmentSummary build(String[] apps, String[] uris, String[] ips, Consumer<HitSegment.HitVisitor> scan) {
+        final Map<Long, long[]> hitsByKey = new HashMap<>();
+        final Map<Long, BitSet> ipsByKey = new HashMap<>();
+        scan.accept((appId, uriId, ipId) -> {
+            final long key = key(appId, uriId);
+            hitsByKey.computeIfAbsent(key, k -> new long[1])[0]++;
+            ipsByKey.computeIfAbsent(key, k -> new BitSet()).set(ipId);
+        });
+        final Long[] keys = hitsByKey.keySet().toArray(new Long[0]);
+        Arrays.sort(keys, Comparator.<Long, String>comparing(key -> uris[uriId(key)])
+                .thenComparing(key -> apps[appId(key)]));
+        final ByteBuffer entries = ByteBuffer.allocate(keys.length * ENTRY_BYTES);
+        final ByteBuffer ipIds = ByteBuffer.allocate(ipsByKey.values().stream()
+                .mapToInt(BitSet::cardinality)
+                .sum() * Integer.BYTES);
+        for (Long key : keys) {
+            final BitSet keyIps = ipsByKey.get(key);
+            entries.putInt(uriId(key))
+                    .putInt(appId(key))
+                    .putLong(hitsByKey.get(key)[0])
+                    .putInt(ipIds.position() / Integer.BYTES)
+                    .putInt(keyIps.cardinality());
+            keyIps.stream().forEach(ipIds::putInt);
+        }
+        return new SegmentSummary(apps, uris, ips, entries.flip(), ipIds.flip());
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        writeBuffer(out, entries);
+        out.writeInt(ipIds.limit() / Integer.BYTES);
+        writeBuffer(out, ipIds);
+    }
+
+    int size() {
+        return size;
+    }
+
+    String uri(int entry) {
+        return uris[entries.getInt(entry * ENTRY_BYTES)];
+    }
+
+    String app(int entry) {
+        return apps[entries.getInt(entry * ENTRY_BYTES + 4)];
+    }
+
+    long hits(int entry) {
+        return entries.getLong(entry * ENTRY_BYTES + 8);
+    }
+
+    void forEachIp(int entry, Consumer<String> consumer) {
+        final int offset = entries.getInt(entry * ENTRY_BYTES + 16);
+        final int count = entries.getInt(entry * ENTRY_BYTES + 20);
+        for (int i = offset; i < offset + count; i++) {
+            consumer.accept(ips[ipIds.getInt(i * Integer.BYTES)]);
+        }
+    }
+
+    /**
+     * Pass entries of uris to consumer in order of uri and app.
+     *
+     * @param uriFilter uris to pass entries of, all entries if null
+     * @param consumer  consumer of entry indexes
+     */
+    void forEachEntry(Collection<String> uriFilter, IntConsumer consumer) {
+        if (uriFilter == null) {
+            for (int entry = 0; entry < size; entry++) {
+                consumer.accept(entry);
+            }
+            return;
+        }
+        for (String uri : new TreeSet<>(uriFilter)) {
+            for (int entry = firstEntry(uri); entry < size && uri(entry).equals(uri); entry++) {
+                consumer.accept(entry);
+            }
+        }
+    }
+
+    /**
+     * Find entry of app and uri.
+     *
+     * @return entry index or -1 if there are no hits of app and uri
+     */
+    int find(String app, String uri) {
+        for (int entry = firstEntry(uri); entry < size && uri(entry).equals(uri); entry++) {
+            final int compared = app(entry).compareTo(app);
+            if (compared == 0) {
+                return entry;
+            }
+            if (compared > 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private int firstEntry(String uri) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (uri(middle).compareTo(uri) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        final ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        buffer.position(buffer.position() + length);
+        return slice;
+    }
+
+    private static void writeBuffer(DataOutputStream out, ByteBuffer buffer) throws IOException {
+        final ByteBuffer source = buffer.duplicate();
+        source.rewind();
+        final byte[] bytes = new byte[source.remaining()];
+        source.get(bytes);
+        out.write(bytes);
+    }
+
+    private static long key(int appId, int uriId) {
+        return ((long) appId << 32) | (uriId & 0xFFFFFFFFL);
+    }
+
+    private static int appId(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int uriId(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.yandex.archive;
+
+import ru.practicum.yandex.model.ViewStats;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Merges stats of archived and hot hits. For unique stats ips are collected, since distinct counts of archive and hot
+ * table can not be summed.
+ */
+class StatsAccumulator {
+
+    private final boolean unique;
+
+    private final Map<List<String>, Counter> counters = new HashMap<>();
+
+    StatsAccumulator(boolean unique) {
+        this.unique = unique;
+    }
+
+    boolean isUnique() {
+        return unique;
+    }
+
+    void addHits(String app, String uri, long hits) {
+        counters.computeIfAbsent(List.of(app, uri), key -> new Counter()).hits += hits;
+    }
+
+    void addIp(String app, String uri, String ip) {
+        counters.computeIfAbsent(List.of(app, uri), key -> new Counter()).ips.add(ip);
+    }
+
+    List<ViewStats> toViewStats() {
+        return counters.entrySet().stream()
+                .map(entry -> new ViewStats(entry.getKey().get(0), entry.getKey().get(1),
+                        unique ? entry.getValue().ips.size() : entry.getValue().hits))
+                .sorted(Comparator.comparing(ViewStats::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static class Counter {
+
+        private long hits;
+
+        private final Set<String> ips = new HashSet<>();
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.yandex.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.yandex.apps.AppAuthenticator;
+import ru.practicum.yandex.apps.AppIsolationConfig;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.HitBatchAckDto;
+import ru.practicum.yandex.dto.HitBatchDto;
+import ru.practicum.yandex.exception.ServiceUnavailableException;
+import ru.practicum.yandex.mapper.EndpointHitMapper;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.service.HitIngestService;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * Stream of hit batches over RSocket request channel. Client keeps one stream open and sends batches as hits arrive,
+ * each batch is acknowledged in order when all its hits are saved or rejected. Hits are saved through ingest queue of
+ * app authenticated by app and key in metadata of stream request, waiting for room when queue is full. Only a few
+ * batches are requested ahead, so client slows down when ingest queues are busy.
+ * <p>
+ * Hits that are not valid or fail to save are rejected. When stat server shuts down, stream fails without
+ * acknowledging the batch, so client sends it again after reconnect.
+ */
+@Controller
+@Slf4j
+@RequiredArgsConstructor
+public class HitStreamController {
+
+    static final int PREFETCH_BATCHES = 2;
+
+    private final HitIngestService hitIngestService;
+
+    private final AppAuthenticator appAuthenticator;
+
+    private final EndpointHitMapper endpointHitMapper;
+
+    private final Validator validator;
+
+    @MessageMapping("hits.stream")
+    public Flux<HitBatchAckDto> streamHits(@Header(name = AppIsolationConfig.APP_METADATA, required = false) String app,
+                                           @Header(name = AppIsolationConfig.APP_KEY_METADATA, required = false)
+                                           String appKey,
+                                           Flux<HitBatchDto> batches) {
+        String authenticatedApp = appAuthenticator.authenticate(app, appKey);
+        return batches.concatMap(batch -> ingest(authenticatedApp, batch), PREFETCH_BATCHES);
+    }
+
+    private Mono<HitBatchAckDto> ingest(String app, HitBatchDto batch) {
+        List<EndpointHitDto> hits = batch.getHits() != null ? batch.getHits() : List.of();
+        log.debug("Adding batch '{}' of '{}' hits from hit stream.", batch.getSequence(), hits.size());
+        List<CompletableFuture<Boolean>> results = hits.stream()
+                .map(endpointHitDto -> ingest(app, endpointHitDto))
+                .collect(Collectors.toList());
+        return Mono.fromFuture(CompletableFuture.allOf(results.toArray(new CompletableFuture[0])))
+                .then(Mono.fromSupplier(() -> {
+                    int accepted = (int) results.stream().filter(CompletableFuture::join).count();
+                    return new HitBatchAckDto(batch.getSequence(), accepted, results.size() - accepted);
+                }));
+    }
+
+    private CompletableFuture<Boolean> ingest(String app, EndpointHitDto endpointHitDto) {
+        Set<ConstraintViolation<EndpointHitDto>> violations = validator.validate(endpointHitDto);
+        if (!violations.isEmpty()) {
+            log.warn("Hit '{}' from hit stream is not valid: {}.", endpointHitDto, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .collect(Collectors.joining(", ")));
+            return CompletableFuture.completedFuture(false);
+        }
+        EndpointHit hit = endpointHitMapper.toModel(endpointHitDto);
+        return hitIngestService.ingestWaiting(app, hit).handle((savedHit, e) -> {
+            if (e == null) {
+                return true;
+            }
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof ServiceUnavailableException) {
+                throw new CompletionException(cause);
+            }
+            log.warn("Hit '{}' from hit stream was rejected: {}.", hit, cause.toString());
+            return false;
+        });
+    }
+}
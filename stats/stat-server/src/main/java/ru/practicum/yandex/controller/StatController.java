@@ -1,28 +1,51 @@
 package ru.practicum.yandex.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.yandex.apps.AppAuthenticationInterceptor;
 import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.HitHistogramDto;
 import ru.practicum.yandex.dto.ViewStatsDto;
 import ru.practicum.yandex.exception.IncorrectDateIntervalException;
 import ru.practicum.yandex.mapper.EndpointHitMapper;
+import ru.practicum.yandex.mapper.HitHistogramMapper;
 import ru.practicum.yandex.mapper.ViewStatsMapper;
 import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.HistogramInterval;
+import ru.practicum.yandex.model.HitHistogram;
 import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.service.HitHistogramService;
+import ru.practicum.yandex.service.HitIngestService;
 import ru.practicum.yandex.service.StatService;
+import ru.practicum.yandex.trending.TrendingTracker;
+import ru.practicum.yandex.trending.TrendingWindow;
 
 import javax.validation.Valid;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
 
 import static org.springframework.http.HttpStatus.CREATED;
 
@@ -31,19 +54,39 @@ import static org.springframework.http.HttpStatus.CREATED;
 @RequiredArgsConstructor
 public class StatController {
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final StatService statService;
 
+    private final HitIngestService hitIngestService;
+
     private final EndpointHitMapper endpointHitMapper;
 
     private final ViewStatsMapper viewStatsMapper;
 
+    private final ObjectMapper objectMapper;
+
+    private final TrendingTracker trendingTracker;
+
+    private final HitHistogramService hitHistogramService;
+
+    private final HitHistogramMapper hitHistogramMapper;
+
+    /**
+     * Register hit. Hit is saved through ingest queue of authenticated app of request, response is sent when hit is
+     * saved.
+     */
     @PostMapping("/hit")
     @ResponseStatus(CREATED)
-    public EndpointHitDto methodHit(@RequestBody @Valid EndpointHitDto endpointHitDto) {
+    public CompletableFuture<EndpointHitDto> methodHit(@RequestBody @Valid EndpointHitDto endpointHitDto,
+                                                       @RequestAttribute(AppAuthenticationInterceptor.APP_ATTRIBUTE)
+                                                       String app) {
         EndpointHit endpointHit = endpointHitMapper.toModel(endpointHitDto);
         log.info("Adding method hit, request body '{}'.", endpointHitDto);
-        EndpointHit savedHit = statService.methodHit(endpointHit);
-        return endpointHitMapper.toDto(savedHit);
+        return hitIngestService.ingest(app, endpointHit)
+                .thenApply(endpointHitMapper::toDto);
     }
 
     @GetMapping("/stats")
@@ -59,6 +102,79 @@ public class StatController {
         return viewStatsMapper.toDtoList(statsList);
     }
 
+    /**
+     * Export stats as NDJSON or CSV. Rows are streamed to client while they are read from database with forward-only
+     * cursor, so memory usage does not depend on size of date range. Response is optionally gzip compressed.
+     */
+    @GetMapping("/stats/export")
+    public ResponseEntity<StreamingResponseBody> exportStats(@RequestParam String start,
+                                                             @RequestParam String end,
+                                                             @RequestParam(required = false) List<String> uris,
+                                                             @RequestParam(defaultValue = "false") Boolean unique,
+                                                             @RequestParam(defaultValue = "NDJSON")
+                                                             StatsExportFormat format,
+                                                             @RequestParam(defaultValue = "false") boolean gzip) {
+        LocalDateTime decodedStart = decodeLocalDateTime(start);
+        LocalDateTime decodedEnd = decodeLocalDateTime(end);
+        validateDates(decodedStart, decodedEnd);
+        log.info("Exporting stats as '{}', start = '{}', end = '{}', uris = '{}', unique = '{}', gzip = '{}'.",
+                format, start, end, uris, unique, gzip);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+            format.writeHeader(writer);
+            statService.exportStats(decodedStart, decodedEnd, uris, unique, stats -> {
+                try {
+                    format.writeRow(writer, viewStatsMapper.toDto(stats), objectMapper);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            if (gzip) {
+                ((GZIPOutputStream) out).finish();
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"stats." + format.getFileExtension()
+                        + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Get number of hits per minute, hour or day for uris. Histograms are built from pre-aggregated buckets, zero hits
+     * are returned for intervals without hits.
+     */
+    @GetMapping("/stats/histogram")
+    public List<HitHistogramDto> viewHistograms(@RequestParam String start,
+                                                @RequestParam String end,
+                                                @RequestParam(required = false) List<String> uris,
+                                                @RequestParam(defaultValue = "HOUR") HistogramInterval interval) {
+        LocalDateTime decodedStart = decodeLocalDateTime(start);
+        LocalDateTime decodedEnd = decodeLocalDateTime(end);
+        validateDates(decodedStart, decodedEnd);
+        log.info("Requesting histograms, start = '{}', end = '{}', uris = '{}', interval = '{}'.", start, end, uris,
+                interval);
+        List<HitHistogram> histograms = hitHistogramService.getHistograms(interval, decodedStart, decodedEnd, uris);
+        return hitHistogramMapper.toDtoList(histograms);
+    }
+
+    /**
+     * Get most viewed uris of sliding window (last hour, day or week). Number of hits is approximate.
+     */
+    @GetMapping("/stats/trending")
+    public List<ViewStatsDto> viewTrendingStats(@RequestParam(defaultValue = "DAY") TrendingWindow window,
+                                                @RequestParam(required = false) String app,
+                                                @RequestParam(defaultValue = "10") Integer limit) {
+        log.info("Requesting trending stats, window = '{}', app = '{}', limit = '{}'.", window, app, limit);
+        List<ViewStats> statsList = trendingTracker.getTrending(window, app, limit);
+        return viewStatsMapper.toDtoList(statsList);
+    }
+
     @GetMapping("/statistic")
     public ViewStatsDto viewUniqueStatsForUri(@RequestParam String uri) {
         log.info("Requesting stats for unique ips for uri '{}'.", uri);
@@ -74,8 +190,7 @@ public class StatController {
 
     private LocalDateTime decodeLocalDateTime(String encodedDateTime) {
         String decodedDateTime = URLDecoder.decode(encodedDateTime, StandardCharsets.UTF_8);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        return LocalDateTime.parse(decodedDateTime, formatter);
+        return LocalDateTime.parse(decodedDateTime, DATE_TIME_FORMATTER);
     }
 
 }
@@ -0,0 +1,79 @@
+package ru.practicum.yandex.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.yandex.dto.ViewStatsDto;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Formats of stats export. Each row is written as soon as it is read from database.
+ */
+public enum StatsExportFormat {
+
+    /**
+     * Newline delimited JSON, one stats object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        void writeHeader(Writer writer) {
+        }
+
+        @Override
+        void writeRow(Writer writer, ViewStatsDto stats, ObjectMapper objectMapper) throws IOException {
+            writer.write(objectMapper.writeValueAsString(stats));
+            writer.write('\n');
+        }
+    },
+
+    /**
+     * Comma separated values with header row.
+     */
+    CSV("text/csv", "csv") {
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write("app,uri,hits\n");
+        }
+
+        @Override
+        void writeRow(Writer writer, ViewStatsDto stats, ObjectMapper objectMapper) throws IOException {
+            writer.write(escape(stats.getApp()));
+            writer.write(',');
+            writer.write(escape(stats.getUri()));
+            writer.write(',');
+            writer.write(String.valueOf(stats.getHits()));
+            writer.write('\n');
+        }
+    };
+
+    private final String contentType;
+
+    private final String fileExtension;
+
+    StatsExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    abstract void writeHeader(Writer writer) throws IOException;
+
+    abstract void writeRow(Writer writer, ViewStatsDto stats, ObjectMapper objectMapper) throws IOException;
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.yandex.controller;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.yandex.dto.StatBinaryFormat;
+
+import java.util.List;
+
+/**
+ * Binary wire format of stat client. Spring MVC registers default Smile converter after JSON converter when Smile is
+ * on classpath, it is replaced in place by converter of {@link StatBinaryFormat}, so JSON is used unless request body
+ * is Smile or client accepts Smile only.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        MappingJackson2SmileHttpMessageConverter smileConverter =
+                new MappingJackson2SmileHttpMessageConverter(StatBinaryFormat.createObjectMapper());
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2SmileHttpMessageConverter) {
+                converters.set(i, smileConverter);
+                return;
+            }
+        }
+        converters.add(smileConverter);
+    }
+}
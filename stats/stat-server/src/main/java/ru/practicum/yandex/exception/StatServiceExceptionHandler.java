@@ -38,6 +38,18 @@ public class StatServiceExceptionHandler {
         return e.getParsedString() + " : " + e.getLocalizedMessage();
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public String handleTooManyRequestsException(TooManyRequestsException e) {
+        return e.getLocalizedMessage();
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleServiceUnavailableException(ServiceUnavailableException e) {
+        return e.getLocalizedMessage();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public String handleExceptions(RuntimeException e) {
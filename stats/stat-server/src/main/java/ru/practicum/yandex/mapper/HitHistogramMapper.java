@@ -0,0 +1,15 @@
+package ru.practicum.yandex.mapper;
+
+import org.mapstruct.Mapper;
+import ru.practicum.yandex.dto.HitHistogramDto;
+import ru.practicum.yandex.model.HitHistogram;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface HitHistogramMapper {
+
+    HitHistogramDto toDto(HitHistogram hitHistogram);
+
+    List<HitHistogramDto> toDtoList(List<HitHistogram> hitHistograms);
+}
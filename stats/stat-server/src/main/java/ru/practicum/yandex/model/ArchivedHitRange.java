@@ -0,0 +1,27 @@
+package ru.practicum.yandex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hits of endpointhits table that are already archived, but may be not deleted from table yet: hits created in time
+ * slice with id not greater than max archived hit id.
+ */
+@Data
+@AllArgsConstructor
+public class ArchivedHitRange {
+
+    /**
+     * Start of archived time slice, inclusive.
+     */
+    private LocalDateTime start;
+
+    /**
+     * End of archived time slice, exclusive.
+     */
+    private LocalDateTime end;
+
+    private long maxHitId;
+}
@@ -0,0 +1,33 @@
+package ru.practicum.yandex.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum HistogramInterval {
+
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    HistogramInterval(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime truncate(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+
+    /**
+     * Number of whole intervals between start of interval and date.
+     */
+    public long between(LocalDateTime intervalStart, LocalDateTime dateTime) {
+        return Duration.between(intervalStart, dateTime).getSeconds() / unit.getDuration().getSeconds();
+    }
+
+    public LocalDateTime plus(LocalDateTime dateTime, long intervals) {
+        return dateTime.plus(intervals, unit);
+    }
+}
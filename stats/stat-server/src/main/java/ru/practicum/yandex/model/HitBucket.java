@@ -0,0 +1,28 @@
+package ru.practicum.yandex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of hits of app and uri within interval starting at bucket start.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HitBucket {
+
+    private HistogramInterval interval;
+
+    private String app;
+
+    private String uri;
+
+    private LocalDateTime start;
+
+    private Long hits;
+}
@@ -0,0 +1,26 @@
+package ru.practicum.yandex.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HitHistogram {
+
+    private String app;
+
+    private String uri;
+
+    private HistogramInterval interval;
+
+    private LocalDateTime start;
+
+    private List<Long> hits;
+}
@@ -0,0 +1,122 @@
+package ru.practicum.yandex.repository;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.yandex.model.HistogramInterval;
+import ru.practicum.yandex.model.HitBucket;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Pre-aggregated number of hits per app, uri and interval.
+ */
+@Repository
+public class HitBucketRepository {
+
+    private static final String UPDATE_SQL = "UPDATE hit_buckets SET hits = hits + :hits " +
+            "WHERE granularity = :granularity AND uri = :uri AND bucket_start = :start AND app = :app";
+
+    private static final String INSERT_SQL = "INSERT INTO hit_buckets (granularity, app, uri, bucket_start, hits) " +
+            "VALUES (:granularity, :app, :uri, :start, :hits)";
+
+    private static final String BACKFILL_SQL = "INSERT INTO hit_buckets (granularity, app, uri, bucket_start, hits) " +
+            "SELECT '%1$s', app, uri, DATE_TRUNC('%1$s', created), COUNT(*) FROM endpointhits " +
+            "GROUP BY app, uri, DATE_TRUNC('%1$s', created)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public HitBucketRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Add hits to buckets, buckets that do not exist yet are created. Hits are added by update followed by insert of
+     * buckets that were not updated: PostgreSQL 14 has no MERGE, H2 has no ON CONFLICT DO UPDATE, and H2
+     * MERGE INTO ... KEY replaces number of hits instead of adding to it.
+     *
+     * @param buckets buckets with number of hits to add
+     */
+    @Transactional
+    public void addHits(List<HitBucket> buckets) {
+        final int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, toParams(buckets));
+        final List<HitBucket> created = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                created.add(buckets.get(i));
+            }
+        }
+        if (!created.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, toParams(created));
+        }
+    }
+
+    /**
+     * Fill empty hit_buckets table from endpointhits table, so that histograms include hits registered before buckets
+     * were kept or after buckets were lost. Does nothing if table has buckets.
+     *
+     * @return number of created buckets
+     */
+    @Transactional
+    public int backfill() {
+        final Boolean hasBuckets = jdbcTemplate.getJdbcTemplate()
+                .queryForObject("SELECT EXISTS (SELECT 1 FROM hit_buckets)", Boolean.class);
+        if (Boolean.TRUE.equals(hasBuckets)) {
+            return 0;
+        }
+        int created = 0;
+        for (HistogramInterval interval : HistogramInterval.values()) {
+            created += jdbcTemplate.getJdbcTemplate().update(String.format(BACKFILL_SQL, interval.name()));
+        }
+        return created;
+    }
+
+    /**
+     * Pass buckets starting within date range to consumer, ordered by app, uri and bucket start.
+     *
+     * @param interval bucket interval
+     * @param start    start of date range, inclusive
+     * @param end      end of date range, exclusive
+     * @param uris     uris to get buckets for, all uris if null
+     * @param consumer consumer of buckets
+     */
+    public void findBuckets(HistogramInterval interval, LocalDateTime start, LocalDateTime end, List<String> uris,
+                            Consumer<HitBucket> consumer) {
+        final StringBuilder sql = new StringBuilder("SELECT app, uri, bucket_start, hits FROM hit_buckets " +
+                "WHERE granularity = :granularity AND bucket_start >= :start AND bucket_start < :end");
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("granularity", interval.name())
+                .addValue("start", start)
+                .addValue("end", end);
+        if (uris != null) {
+            sql.append(" AND uri IN (:uris)");
+            params.addValue("uris", uris);
+        }
+        sql.append(" ORDER BY app, uri, bucket_start");
+        jdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs -> consumer.accept(HitBucket.builder()
+                .interval(interval)
+                .app(rs.getString("app"))
+                .uri(rs.getString("uri"))
+                .start(rs.getTimestamp("bucket_start").toLocalDateTime())
+                .hits(rs.getLong("hits"))
+                .build()));
+    }
+
+    private static SqlParameterSource[] toParams(List<HitBucket> buckets) {
+        return buckets.stream()
+                .map(bucket -> new MapSqlParameterSource()
+                        .addValue("granularity", bucket.getInterval().name())
+                        .addValue("app", bucket.getApp())
+                        .addValue("uri", bucket.getUri())
+                        .addValue("start", bucket.getStart())
+                        .addValue("hits", bucket.getHits()))
+                .toArray(SqlParameterSource[]::new);
+    }
+}
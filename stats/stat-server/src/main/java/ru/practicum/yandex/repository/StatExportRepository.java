@@ -0,0 +1,119 @@
+package ru.practicum.yandex.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.yandex.model.ArchivedHitRange;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads aggregated stats row by row with forward-only JDBC cursor, so that stats for large date ranges are not
+ * collected in memory. To stream rows PostgreSQL driver requires call within transaction.
+ */
+@Repository
+public class StatExportRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public StatExportRepository(DataSource dataSource,
+                                @Value("${stat-server.export.fetch-size:1000}") int fetchSize) {
+        final JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /**
+     * Pass stats between dates to consumer, ordered by number of hits from most to least.
+     *
+     * @param start    start of date range
+     * @param end      end of date range
+     * @param uris     uris to get stats for, all uris if null
+     * @param unique   count only hits from unique ips
+     * @param consumer consumer of stats rows
+     */
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                            Consumer<ViewStats> consumer) {
+        streamStats(start, end, uris, unique, List.of(), consumer);
+    }
+
+    /**
+     * Pass stats between dates to consumer, ordered by number of hits from most to least. Hits of excluded ranges are
+     * not counted.
+     *
+     * @param start    start of date range
+     * @param end      end of date range
+     * @param uris     uris to get stats for, all uris if null
+     * @param unique   count only hits from unique ips
+     * @param excluded ranges of archived hits to skip
+     * @param consumer consumer of stats rows
+     */
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique,
+                            List<ArchivedHitRange> excluded, Consumer<ViewStats> consumer) {
+        final StringBuilder sql = new StringBuilder("SELECT app, uri, COUNT(")
+                .append(unique ? "DISTINCT ip" : "ip")
+                .append(") AS hits FROM endpointhits WHERE created > :start AND created < :end");
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("end", end);
+        if (uris != null) {
+            sql.append(" AND uri IN (:uris)");
+            params.addValue("uris", uris);
+        }
+        appendExcluded(sql, params, excluded);
+        sql.append(" GROUP BY app, uri ORDER BY hits DESC");
+        jdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs ->
+                consumer.accept(new ViewStats(rs.getString("app"), rs.getString("uri"), rs.getLong("hits"))));
+    }
+
+    /**
+     * Pass distinct app, uri and ip of hits between dates to consumer. Hits of same app and uri are passed one after
+     * another. Hits of excluded ranges are skipped.
+     *
+     * @param start    start of date range
+     * @param end      end of date range
+     * @param uris     uris to get hits for, all uris if null
+     * @param excluded ranges of archived hits to skip
+     * @param consumer consumer of hits, only app, uri and ip are set
+     */
+    public void streamDistinctHits(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                   List<ArchivedHitRange> excluded, Consumer<EndpointHit> consumer) {
+        final StringBuilder sql = new StringBuilder("SELECT DISTINCT app, uri, ip FROM endpointhits " +
+                "WHERE created > :start AND created < :end");
+        final MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", start)
+                .addValue("end", end);
+        if (uris != null) {
+            sql.append(" AND uri IN (:uris)");
+            params.addValue("uris", uris);
+        }
+        appendExcluded(sql, params, excluded);
+        sql.append(" ORDER BY app, uri");
+        jdbcTemplate.query(sql.toString(), params, (RowCallbackHandler) rs -> consumer.accept(EndpointHit.builder()
+                .app(rs.getString("app"))
+                .uri(rs.getString("uri"))
+                .ip(rs.getString("ip"))
+                .build()));
+    }
+
+    private static void appendExcluded(StringBuilder sql, MapSqlParameterSource params,
+                                       List<ArchivedHitRange> excluded) {
+        for (int i = 0; i < excluded.size(); i++) {
+            final ArchivedHitRange range = excluded.get(i);
+            sql.append(" AND NOT (created >= :excludedStart").append(i)
+                    .append(" AND created < :excludedEnd").append(i)
+                    .append(" AND id <= :excludedMaxId").append(i).append(")");
+            params.addValue("excludedStart" + i, range.getStart())
+                    .addValue("excludedEnd" + i, range.getEnd())
+                    .addValue("excludedMaxId" + i, range.getMaxHitId());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.yandex.service;
+
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.HistogramInterval;
+import ru.practicum.yandex.model.HitHistogram;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HitHistogramService {
+
+    void record(EndpointHit endpointHit);
+
+    void flush();
+
+    List<HitHistogram> getHistograms(HistogramInterval interval, LocalDateTime start, LocalDateTime end,
+                                     List<String> uris);
+}
@@ -0,0 +1,162 @@
+package ru.practicum.yandex.service;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.yandex.exception.IncorrectDateIntervalException;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.HistogramInterval;
+import ru.practicum.yandex.model.HitBucket;
+import ru.practicum.yandex.model.HitHistogram;
+import ru.practicum.yandex.repository.HitBucketRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Histograms of hits built from pre-aggregated buckets. Registered hits are counted in memory per minute, hour and
+ * day bucket and added to hit_buckets table every 'stat-server.histogram.flush-interval', so histograms lag behind
+ * registered hits by no more than flush interval. Empty table is filled from endpointhits table on startup, before
+ * hits are registered.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HitHistogramServiceImpl implements HitHistogramService {
+
+    private final HitBucketRepository hitBucketRepository;
+
+    private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+
+    private Map<BucketKey, LongAdder> pendingHits = new ConcurrentHashMap<>();
+
+    @Value("${stat-server.histogram.max-points:10000}")
+    private int maxPoints = 10_000;
+
+    @Override
+    public void record(EndpointHit endpointHit) {
+        pendingLock.readLock().lock();
+        try {
+            for (HistogramInterval interval : HistogramInterval.values()) {
+                final BucketKey key = new BucketKey(interval, endpointHit.getApp(), endpointHit.getUri(),
+                        interval.truncate(endpointHit.getTimestamp()));
+                pendingHits.computeIfAbsent(key, k -> new LongAdder()).increment();
+            }
+        } finally {
+            pendingLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${stat-server.histogram.flush-interval:1000}")
+    public void flush() {
+        final Map<BucketKey, LongAdder> flushed;
+        pendingLock.writeLock().lock();
+        try {
+            if (pendingHits.isEmpty()) {
+                return;
+            }
+            flushed = pendingHits;
+            pendingHits = new ConcurrentHashMap<>();
+        } finally {
+            pendingLock.writeLock().unlock();
+        }
+        final List<HitBucket> buckets = flushed.entrySet().stream()
+                .map(entry -> HitBucket.builder()
+                        .interval(entry.getKey().interval)
+                        .app(entry.getKey().app)
+                        .uri(entry.getKey().uri)
+                        .start(entry.getKey().start)
+                        .hits(entry.getValue().sum())
+                        .build())
+                .collect(Collectors.toList());
+        try {
+            hitBucketRepository.addHits(buckets);
+            log.debug("Flushed '{}' hit buckets.", buckets.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush '{}' hit buckets, will retry: {}.", buckets.size(), e.toString());
+            pendingLock.readLock().lock();
+            try {
+                flushed.forEach((key, hits) -> pendingHits.computeIfAbsent(key, k -> new LongAdder()).add(hits.sum()));
+            } finally {
+                pendingLock.readLock().unlock();
+            }
+        }
+    }
+
+    @PostConstruct
+    public void backfill() {
+        final int created = hitBucketRepository.backfill();
+        if (created > 0) {
+            log.info("Filled '{}' hit buckets from registered hits.", created);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Get number of hits per interval for each app and uri with hits in date range. Range is extended to whole
+     * intervals: histograms start at interval containing start and end at interval containing end.
+     */
+    @Override
+    public List<HitHistogram> getHistograms(HistogramInterval interval, LocalDateTime start, LocalDateTime end,
+                                            List<String> uris) {
+        final LocalDateTime firstStart = interval.truncate(start);
+        final long intervalCount = interval.between(firstStart, interval.truncate(end)) + 1;
+        if (intervalCount > maxPoints) {
+            throw new IncorrectDateIntervalException("Date range contains '" + intervalCount + "' intervals, " +
+                    "maximum is '" + maxPoints + "'.");
+        }
+        final List<HitHistogram> histograms = new ArrayList<>();
+        hitBucketRepository.findBuckets(interval, firstStart, interval.plus(firstStart, intervalCount), uris,
+                bucket -> {
+                    HitHistogram histogram = histograms.isEmpty() ? null : histograms.get(histograms.size() - 1);
+                    if (histogram == null || !histogram.getApp().equals(bucket.getApp())
+                            || !histogram.getUri().equals(bucket.getUri())) {
+                        final Long[] hits = new Long[(int) intervalCount];
+                        Arrays.fill(hits, 0L);
+                        histogram = new HitHistogram(bucket.getApp(), bucket.getUri(), interval, firstStart,
+                                Arrays.asList(hits));
+                        histograms.add(histogram);
+                    }
+                    histogram.getHits().set((int) interval.between(firstStart, bucket.getStart()), bucket.getHits());
+                });
+        log.info("Found '{}' histograms by '{}' from '{}' to '{}'.", histograms.size(), interval, start, end);
+        return histograms;
+    }
+
+    @EqualsAndHashCode
+    private static final class BucketKey {
+
+        private final HistogramInterval interval;
+
+        private final String app;
+
+        private final String uri;
+
+        private final LocalDateTime start;
+
+        private BucketKey(HistogramInterval interval, String app, String uri, LocalDateTime start) {
+            this.interval = interval;
+            this.app = app;
+            this.uri = uri;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.yandex.service;
+
+import ru.practicum.yandex.model.EndpointHit;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface HitIngestService {
+
+    /**
+     * Save hit through ingest queue of app that sent it.
+     *
+     * @param app         authenticated app that sent hit
+     * @param endpointHit hit
+     * @return saved hit
+     */
+    CompletableFuture<EndpointHit> ingest(String app, EndpointHit endpointHit);
+
+    /**
+     * Save hit through ingest queue of app that sent it, waiting for room in queue if it is full.
+     *
+     * @param app         authenticated app that sent hit
+     * @param endpointHit hit
+     * @return saved hit
+     */
+    CompletableFuture<EndpointHit> ingestWaiting(String app, EndpointHit endpointHit);
+}
@@ -0,0 +1,43 @@
+package ru.practicum.yandex.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.yandex.apps.AppIngestScheduler;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.trending.TrendingTracker;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ingest of hits received over HTTP and hit stream. Hit is saved through ingest queue of authenticated app that sent
+ * it, then recorded in trending and histogram counters.
+ */
+@Service
+@RequiredArgsConstructor
+public class HitIngestServiceImpl implements HitIngestService {
+
+    private final StatService statService;
+
+    private final AppIngestScheduler appIngestScheduler;
+
+    private final TrendingTracker trendingTracker;
+
+    private final HitHistogramService hitHistogramService;
+
+    @Override
+    public CompletableFuture<EndpointHit> ingest(String app, EndpointHit endpointHit) {
+        return appIngestScheduler.submit(app, () -> registerHit(endpointHit));
+    }
+
+    @Override
+    public CompletableFuture<EndpointHit> ingestWaiting(String app, EndpointHit endpointHit) {
+        return appIngestScheduler.submitWaiting(app, () -> registerHit(endpointHit));
+    }
+
+    private EndpointHit registerHit(EndpointHit endpointHit) {
+        EndpointHit savedHit = statService.methodHit(endpointHit);
+        trendingTracker.record(savedHit);
+        hitHistogramService.record(savedHit);
+        return savedHit;
+    }
+}
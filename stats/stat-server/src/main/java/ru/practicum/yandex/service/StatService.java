@@ -5,6 +5,7 @@ import ru.practicum.yandex.model.ViewStats;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatService {
     EndpointHit methodHit(EndpointHit endpointHitDto);
@@ -12,4 +13,7 @@ public interface StatService {
     List<ViewStats> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique);
 
     ViewStats viewStatsForSingleUriWithUniqueIps(String uri);
+
+    void exportStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                     Consumer<ViewStats> consumer);
 }
@@ -2,13 +2,22 @@ package ru.practicum.yandex.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.yandex.model.EndpointHit;
 import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.repository.StatExportRepository;
 import ru.practicum.yandex.repository.StatRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +26,16 @@ public class StatServiceImpl implements StatService {
 
     private final StatRepository statRepository;
 
+    private final StatExportRepository statExportRepository;
+
+    private final Map<String, SharedStats> sharedUniqueIpStats = new ConcurrentHashMap<>();
+
+    @Value("${stat-server.single-flight-ttl:200ms}")
+    private Duration singleFlightTtl = Duration.ofMillis(200);
+
+    @Value("${stat-server.single-flight-max-entries:10000}")
+    private int singleFlightMaxEntries = 10_000;
+
     @Override
     public EndpointHit methodHit(EndpointHit endpointHit) {
         EndpointHit savedHit = statRepository.save(endpointHit);
@@ -33,10 +52,49 @@ public class StatServiceImpl implements StatService {
         }
     }
 
+    /**
+     * Get stats for uri from unique ips. Concurrent identical requests, and requests within
+     * 'stat-server.single-flight-ttl' after query completed, share result of one query. Results are shared for at most
+     * 'stat-server.single-flight-max-entries' uris, requests for other uris query database directly.
+     */
     @Override
     public ViewStats viewStatsForSingleUriWithUniqueIps(String uri) {
+        if (sharedUniqueIpStats.size() >= singleFlightMaxEntries) {
+            sharedUniqueIpStats.values().removeIf(SharedStats::isExpired);
+            if (sharedUniqueIpStats.size() >= singleFlightMaxEntries && !sharedUniqueIpStats.containsKey(uri)) {
+                log.info("Requesting stats for unique ip for uri '{}' without sharing.", uri);
+                return statRepository.findStatsForUriWithUniqueIps(uri);
+            }
+        }
+        final SharedStats created = new SharedStats();
+        final SharedStats shared = sharedUniqueIpStats.compute(uri, (key, current) ->
+                current == null || current.isExpired() ? created : current);
+        if (shared != created) {
+            log.info("Joining request of stats for unique ip for uri '{}'.", uri);
+            return shared.join();
+        }
         log.info("Requesting stats for unique ip for uri '{}.'", uri);
-        return statRepository.findStatsForUriWithUniqueIps(uri);
+        try {
+            final ViewStats stats = statRepository.findStatsForUriWithUniqueIps(uri);
+            created.complete(stats, singleFlightTtl);
+            return stats;
+        } catch (RuntimeException e) {
+            sharedUniqueIpStats.remove(uri, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Pass stats between dates to consumer row by row, without collecting them in memory. Rows are ordered by number
+     * of hits from most to least.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                            Consumer<ViewStats> consumer) {
+        log.info("Exporting stats between '{}' and '{}' from uris '{}', unique = '{}'.", start, end, uris, unique);
+        statExportRepository.streamStats(start, end, uris, Boolean.TRUE.equals(unique), consumer);
     }
 
     private List<ViewStats> getAllStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
@@ -58,4 +116,31 @@ public class StatServiceImpl implements StatService {
             return statRepository.findStatsFromUriListWithUniqueIps(start, end, uris);
         }
     }
+
+    private static class SharedStats {
+
+        private final CompletableFuture<ViewStats> result = new CompletableFuture<>();
+
+        private volatile long expiresAt;
+
+        void complete(ViewStats stats, Duration ttl) {
+            expiresAt = System.nanoTime() + ttl.toNanos();
+            result.complete(stats);
+        }
+
+        ViewStats join() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        boolean isExpired() {
+            return result.isDone() && System.nanoTime() - expiresAt >= 0;
+        }
+    }
 }
@@ -0,0 +1,218 @@
+package ru.practicum.yandex.storage;
+
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Index of hits from {@link HitLog}. Hits of active segment are indexed in heap by {@link SegmentHits}. When segment is
+ * sealed, its index is written to file and memory-mapped as {@link SegmentIndex}, and hits of segment are dropped from
+ * heap, so that heap holds hits of one segment whatever the size of log is.
+ */
+class HitIndex implements HitLog.Listener {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<SegmentIndex> sealedSegments = new ArrayList<>();
+
+    private SegmentHits activeSegment = new SegmentHits();
+
+    @Override
+    public void hitAppended(int segmentNumber, int position, EndpointHit hit) {
+        lock.writeLock().lock();
+        try {
+            activeSegment.add(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC), position, hit.getApp(), hit.getUri(),
+                    hit.getIp());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void segmentSealed(int segmentNumber, ByteBuffer records, Path indexPath) {
+        // Hits are appended under lock of log, so active segment does not change while its index is written.
+        final SegmentIndex segmentIndex = SegmentIndex.open(indexPath, records, activeSegment);
+        lock.writeLock().lock();
+        try {
+            sealedSegments.add(segmentIndex);
+            activeSegment = new SegmentHits();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Count hits between start and end (both exclusive), grouped by app and uri.
+     *
+     * @param start  start of range, epoch seconds
+     * @param end    end of range, epoch seconds
+     * @param uris   uris to count, all uris if null or empty
+     * @param unique count only hits from unique ips
+     * @return stats sorted by number of hits in descending order
+     */
+    List<ViewStats> stats(long start, long end, Collection<String> uris, boolean unique) {
+        final List<ViewStats> stats = new ArrayList<>();
+        export(start, end, uris, unique, stats::add);
+        stats.sort(Comparator.comparing(ViewStats::getHits).reversed());
+        return stats;
+    }
+
+    /**
+     * Pass stats of hits between start and end (both exclusive) to consumer as they are counted, in order of uri and
+     * app. Stats of one uri are held in heap at a time.
+     *
+     * @param start    start of range, epoch seconds
+     * @param end      end of range, epoch seconds
+     * @param uris     uris to count, all uris if null or empty
+     * @param unique   count only hits from unique ips
+     * @param consumer consumer of stats
+     */
+    void export(long start, long end, Collection<String> uris, boolean unique, Consumer<ViewStats> consumer) {
+        final Set<String> uriFilter = uris == null || uris.isEmpty() ? null : new TreeSet<>(uris);
+        final List<SegmentIndex> segments;
+        final TreeMap<String, UriStats> activeStats;
+        lock.readLock().lock();
+        try {
+            segments = sealedSegments.stream()
+                    .filter(segment -> segment.overlaps(start, end))
+                    .collect(Collectors.toList());
+            activeStats = activeSegment.stats(start, end, uriFilter, unique);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (uriFilter != null) {
+            for (String uri : uriFilter) {
+                final UriStats stats = new UriStats(unique);
+                for (SegmentIndex segment : segments) {
+                    final int entry = segment.find(uri);
+                    if (entry >= 0) {
+                        segment.accumulate(entry, start, end, stats);
+                    }
+                }
+                if (activeStats.containsKey(uri)) {
+                    stats.addAll(activeStats.get(uri));
+                }
+                stats.forEachRow(uri, consumer);
+            }
+            return;
+        }
+        final PriorityQueue<UriCursor> cursors = new PriorityQueue<>(Comparator.comparing(UriCursor::uri));
+        segments.stream()
+                .map(segment -> new SegmentCursor(segment, start, end))
+                .filter(UriCursor::next)
+                .forEach(cursors::add);
+        final UriCursor activeCursor = new ActiveCursor(activeStats.entrySet().iterator());
+        if (activeCursor.next()) {
+            cursors.add(activeCursor);
+        }
+        while (!cursors.isEmpty()) {
+            final String uri = cursors.peek().uri();
+            final UriStats stats = new UriStats(unique);
+            while (!cursors.isEmpty() && cursors.peek().uri().equals(uri)) {
+                final UriCursor cursor = cursors.poll();
+                cursor.accumulate(stats);
+                if (cursor.next()) {
+                    cursors.add(cursor);
+                }
+            }
+            stats.forEachRow(uri, consumer);
+        }
+    }
+
+    /**
+     * Uris of segment in ascending order.
+     */
+    private interface UriCursor {
+
+        boolean next();
+
+        String uri();
+
+        void accumulate(UriStats stats);
+    }
+
+    private static final class SegmentCursor implements UriCursor {
+
+        private final SegmentIndex segment;
+
+        private final long start;
+
+        private final long end;
+
+        private int entry = -1;
+
+        private String uri;
+
+        private SegmentCursor(SegmentIndex segment, long start, long end) {
+            this.segment = segment;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean next() {
+            if (++entry >= segment.size()) {
+                return false;
+            }
+            uri = segment.uri(entry);
+            return true;
+        }
+
+        @Override
+        public String uri() {
+            return uri;
+        }
+
+        @Override
+        public void accumulate(UriStats stats) {
+            segment.accumulate(entry, start, end, stats);
+        }
+    }
+
+    private static final class ActiveCursor implements UriCursor {
+
+        private final Iterator<Map.Entry<String, UriStats>> entries;
+
+        private Map.Entry<String, UriStats> entry;
+
+        private ActiveCursor(Iterator<Map.Entry<String, UriStats>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean next() {
+            if (!entries.hasNext()) {
+                return false;
+            }
+            entry = entries.next();
+            return true;
+        }
+
+        @Override
+        public String uri() {
+            return entry.getKey();
+        }
+
+        @Override
+        public void accumulate(UriStats stats) {
+            stats.addAll(entry.getValue());
+        }
+    }
+}
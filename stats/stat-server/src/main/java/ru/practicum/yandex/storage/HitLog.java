@@ -0,0 +1,309 @@
+package ru.practicum.yandex.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.model.EndpointHit;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of hits in fixed size segment files. Active segment is memory-mapped, records are written to mapped
+ * buffer and flushed to disk periodically, so hits registered after the last flush may be lost on power failure.
+ * Each record is prefixed with payload length and CRC32 checksum. On startup segments are read until the first record
+ * with zero length or wrong checksum, torn record at the end of the last segment is erased.
+ * <p>
+ * Record layout: payload length, checksum, then payload: hit id, time (epoch seconds, UTC), app, uri and ip (length
+ * and UTF-8 bytes).
+ * <p>
+ * Appended hits and sealed segments are passed to {@link Listener}, which keeps index of log. Index of sealed segment
+ * is stored in file next to segment ({@link #indexPath}), index of active segment is rebuilt on startup.
+ */
+@Component
+@ConditionalOnProperty(name = "stat-server.storage", havingValue = "log")
+@Slf4j
+public class HitLog {
+
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final String SEGMENT_PREFIX = "hits-";
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final CRC32 crc32 = new CRC32();
+
+    private FileChannel activeChannel;
+
+    private MappedByteBuffer activeSegment;
+
+    private int activeSegmentNumber;
+
+    private long lastHitId;
+
+    private boolean dirty;
+
+    private Listener listener;
+
+    public HitLog(@Value("${stat-server.log.directory:hit-log}") String directory,
+                  @Value("${stat-server.log.segment-size:67108864}") int segmentSize) {
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Read all hits from log and open the last segment for appends.
+     *
+     * @param listener listener of recovered and appended hits and sealed segments
+     */
+    public synchronized void recover(Listener listener) {
+        this.listener = listener;
+        try {
+            Files.createDirectories(directory);
+            final List<Path> segments;
+            try (Stream<Path> files = Files.list(directory)) {
+                segments = files.filter(this::isSegment).sorted().collect(Collectors.toList());
+            }
+            long recovered = 0;
+            for (int i = 0; i < segments.size(); i++) {
+                final boolean last = i == segments.size() - 1;
+                recovered += recoverSegment(segments.get(i), last);
+            }
+            if (activeSegment == null) {
+                openSegment(0);
+            }
+            log.info("Recovered '{}' hits from '{}' log segments in '{}'.", recovered, segments.size(),
+                    directory.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append hit to log and assign id to it.
+     *
+     * @param hit hit to append
+     * @return appended hit with id
+     */
+    public synchronized EndpointHit append(EndpointHit hit) {
+        final byte[] app = hit.getApp().getBytes(StandardCharsets.UTF_8);
+        final byte[] uri = hit.getUri().getBytes(StandardCharsets.UTF_8);
+        final byte[] ip = hit.getIp().getBytes(StandardCharsets.UTF_8);
+        final int payloadSize = Long.BYTES * 2 + Short.BYTES * 3 + app.length + uri.length + ip.length;
+        if (RECORD_HEADER_SIZE + payloadSize > segmentSize) {
+            throw new IllegalArgumentException("Hit '" + hit + "' does not fit into log segment.");
+        }
+        if (activeSegment.remaining() < RECORD_HEADER_SIZE + payloadSize) {
+            rollSegment();
+        }
+        hit.setId(++lastHitId);
+        final ByteBuffer payload = ByteBuffer.allocate(payloadSize)
+                .putLong(hit.getId())
+                .putLong(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        putString(payload, app);
+        putString(payload, uri);
+        putString(payload, ip);
+        crc32.reset();
+        crc32.update(payload.array());
+        // Checksum is written before length, so that record is not visible to recovery until it is complete.
+        final int position = activeSegment.position();
+        activeSegment.position(position + Integer.BYTES);
+        activeSegment.putInt((int) crc32.getValue());
+        activeSegment.put(payload.array());
+        activeSegment.putInt(position, payloadSize);
+        dirty = true;
+        listener.hitAppended(activeSegmentNumber, position, hit);
+        return hit;
+    }
+
+    /**
+     * Flush appended hits of active segment to disk.
+     */
+    @Scheduled(fixedDelayString = "${stat-server.log.fsync-interval:1000}")
+    public synchronized void sync() {
+        if (dirty && activeSegment != null) {
+            activeSegment.force();
+            dirty = false;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        sync();
+        if (activeChannel != null) {
+            activeChannel.close();
+        }
+    }
+
+    /**
+     * Path of index file of segment.
+     */
+    public Path indexPath(int segmentNumber) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segmentNumber, INDEX_SUFFIX));
+    }
+
+    /**
+     * Read hit of record at position of segment.
+     *
+     * @param records  records of segment, as passed to {@link Listener#segmentSealed}
+     * @param position position of record
+     */
+    static EndpointHit readRecord(ByteBuffer records, int position) {
+        final ByteBuffer payload = records.duplicate();
+        payload.position(position + RECORD_HEADER_SIZE);
+        return readHit(payload);
+    }
+
+    private long recoverSegment(Path path, boolean last) throws IOException {
+        final int number = segmentNumber(path);
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.max(channel.size(), segmentSize));
+        long recovered = 0;
+        int position = 0;
+        boolean torn = false;
+        while (position + RECORD_HEADER_SIZE <= segment.capacity()) {
+            final int payloadSize = segment.getInt(position);
+            if (payloadSize == 0) {
+                break;
+            }
+            if (payloadSize < 0 || position + RECORD_HEADER_SIZE + payloadSize > segment.capacity()) {
+                torn = true;
+                break;
+            }
+            final byte[] payload = new byte[payloadSize];
+            segment.duplicate().position(position + RECORD_HEADER_SIZE).get(payload);
+            crc32.reset();
+            crc32.update(payload);
+            if ((int) crc32.getValue() != segment.getInt(position + Integer.BYTES)) {
+                torn = true;
+                break;
+            }
+            final EndpointHit hit = readHit(ByteBuffer.wrap(payload));
+            lastHitId = Math.max(lastHitId, hit.getId());
+            listener.hitAppended(number, position, hit);
+            recovered++;
+            position += RECORD_HEADER_SIZE + payloadSize;
+        }
+        if (torn) {
+            log.warn("Log segment '{}' has damaged record at position '{}'.", path, position);
+        }
+        if (!last) {
+            channel.close();
+            listener.segmentSealed(number, segment.asReadOnlyBuffer(), indexPath(number));
+            return recovered;
+        }
+        // Index written when segment was sealed before restart does not cover hits appended after restart.
+        Files.deleteIfExists(indexPath(number));
+        if (torn) {
+            for (int i = position; i < segment.capacity(); i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+        segment.position(position);
+        activeChannel = channel;
+        activeSegment = segment;
+        activeSegmentNumber = number;
+        return recovered;
+    }
+
+    private void rollSegment() {
+        activeSegment.force();
+        listener.segmentSealed(activeSegmentNumber, activeSegment.asReadOnlyBuffer(), indexPath(activeSegmentNumber));
+        try {
+            activeChannel.close();
+            openSegment(activeSegmentNumber + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment(int number) throws IOException {
+        Files.deleteIfExists(indexPath(number));
+        final Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        activeSegment = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        activeSegmentNumber = number;
+        log.info("Opened log segment '{}'.", path);
+    }
+
+    private boolean isSegment(Path path) {
+        final String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static int segmentNumber(Path path) {
+        final String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static EndpointHit readHit(ByteBuffer payload) {
+        return EndpointHit.builder()
+                .id(payload.getLong())
+                .timestamp(LocalDateTime.ofEpochSecond(payload.getLong(), 0, ZoneOffset.UTC))
+                .app(getString(payload))
+                .uri(getString(payload))
+                .ip(getString(payload))
+                .build();
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Listener of log, called under lock of log in order of appends.
+     */
+    public interface Listener {
+
+        /**
+         * Hit was appended to segment or recovered from it.
+         *
+         * @param segmentNumber number of segment
+         * @param position      position of hit record in segment
+         * @param hit           hit with id
+         */
+        void hitAppended(int segmentNumber, int position, EndpointHit hit);
+
+        /**
+         * Segment is full and no more hits are appended to it.
+         *
+         * @param segmentNumber number of segment
+         * @param records       read-only records of segment, valid after segment is closed
+         * @param indexPath     path of index file of segment
+         */
+        void segmentSealed(int segmentNumber, ByteBuffer records, Path indexPath);
+    }
+}
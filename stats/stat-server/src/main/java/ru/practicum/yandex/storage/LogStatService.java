@@ -0,0 +1,69 @@
+package ru.practicum.yandex.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.service.StatService;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Stat service storing hits in {@link HitLog} instead of endpointhits table, enabled by 'stat-server.storage=log'.
+ * Stats are computed from {@link HitIndex}: index files of sealed segments and in-memory index of active segment,
+ * rebuilt from log on startup. Exported stats are ordered by uri and app.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "stat-server.storage", havingValue = "log")
+@RequiredArgsConstructor
+@Slf4j
+public class LogStatService implements StatService {
+
+    private static final long ALL_TIME_START = Long.MIN_VALUE;
+
+    private static final long ALL_TIME_END = Long.MAX_VALUE;
+
+    private final HitLog hitLog;
+
+    private final HitIndex hitIndex = new HitIndex();
+
+    @PostConstruct
+    public void recover() {
+        hitLog.recover(hitIndex);
+    }
+
+    @Override
+    public EndpointHit methodHit(EndpointHit endpointHit) {
+        final EndpointHit savedHit = hitLog.append(endpointHit);
+        log.info("Endpoint with id '{}' was registered.", savedHit.getId());
+        return savedHit;
+    }
+
+    @Override
+    public List<ViewStats> viewStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        return hitIndex.stats(start.toEpochSecond(ZoneOffset.UTC), end.toEpochSecond(ZoneOffset.UTC), uris,
+                Boolean.TRUE.equals(unique));
+    }
+
+    @Override
+    public ViewStats viewStatsForSingleUriWithUniqueIps(String uri) {
+        log.info("Requesting stats for unique ip for uri '{}.'", uri);
+        final List<ViewStats> stats = hitIndex.stats(ALL_TIME_START, ALL_TIME_END, List.of(uri), true);
+        return stats.isEmpty() ? null : stats.get(0);
+    }
+
+    @Override
+    public void exportStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                            Consumer<ViewStats> consumer) {
+        hitIndex.export(start.toEpochSecond(ZoneOffset.UTC), end.toEpochSecond(ZoneOffset.UTC), uris,
+                Boolean.TRUE.equals(unique), consumer);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.yandex.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of hits of active log segment. Hits are grouped by uri, times of each uri are kept sorted with
+ * positions of hit records in segment, so that date range is found by binary search. App names and ips are replaced
+ * by dictionary ids.
+ */
+class SegmentHits {
+
+    private final Map<String, UriHits> hitsByUri = new TreeMap<>();
+
+    private final Map<String, Integer> appIds = new HashMap<>();
+
+    private final List<String> apps = new ArrayList<>();
+
+    private final Map<String, Integer> ipIds = new HashMap<>();
+
+    private final List<String> ips = new ArrayList<>();
+
+    private long minTime = Long.MAX_VALUE;
+
+    private long maxTime = Long.MIN_VALUE;
+
+    void add(long time, int position, String app, String uri, String ip) {
+        final int appId = appIds.computeIfAbsent(app, key -> {
+            apps.add(key);
+            return apps.size() - 1;
+        });
+        final int ipId = ipIds.computeIfAbsent(ip, key -> {
+            ips.add(key);
+            return ips.size() - 1;
+        });
+        hitsByUri.computeIfAbsent(uri, key -> new UriHits()).add(time, position, appId, ipId);
+        minTime = Math.min(minTime, time);
+        maxTime = Math.max(maxTime, time);
+    }
+
+    long getMinTime() {
+        return minTime;
+    }
+
+    long getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Collect hits between start and end (both exclusive).
+     *
+     * @param start  start of range, epoch seconds
+     * @param end    end of range, epoch seconds
+     * @param uris   uris to collect, all uris if null
+     * @param unique collect ips instead of counting hits
+     * @return stats of uris with hits in range, in order of uri
+     */
+    TreeMap<String, UriStats> stats(long start, long end, Collection<String> uris, boolean unique) {
+        final TreeMap<String, UriStats> stats = new TreeMap<>();
+        final Collection<String> targetUris = uris == null ? hitsByUri.keySet() : uris;
+        for (String uri : targetUris) {
+            final UriHits uriHits = hitsByUri.get(uri);
+            if (uriHits == null) {
+                continue;
+            }
+            for (int i = uriHits.firstAfter(start); i < uriHits.size && uriHits.times[i] < end; i++) {
+                stats.computeIfAbsent(uri, key -> new UriStats(unique))
+                        .addHit(apps.get(uriHits.appIds[i]), ips.get(uriHits.ipIds[i]));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Pass hits to writer of segment index, in order of uri.
+     */
+    void write(SegmentIndex.Writer writer) {
+        for (Map.Entry<String, UriHits> entry : hitsByUri.entrySet()) {
+            final UriHits uriHits = entry.getValue();
+            final Map<Integer, long[]> hitsByApp = new TreeMap<>();
+            final Map<Integer, BitSet> ipsByApp = new HashMap<>();
+            for (int i = 0; i < uriHits.size; i++) {
+                hitsByApp.computeIfAbsent(uriHits.appIds[i], appId -> new long[1])[0]++;
+                ipsByApp.computeIfAbsent(uriHits.appIds[i], appId -> new BitSet()).set(uriHits.ipIds[i]);
+            }
+            writer.uri(entry.getKey(), Arrays.copyOf(uriHits.times, uriHits.size),
+                    Arrays.copyOf(uriHits.positions, uriHits.size), hitsByApp.size());
+            hitsByApp.forEach((appId, hits) -> writer.app(apps.get(appId), hits[0],
+                    ipsByApp.get(appId).stream().mapToObj(ips::get)));
+        }
+    }
+
+    private static final class UriHits {
+
+        private long[] times = new long[4];
+
+        private int[] positions = new int[4];
+
+        private int[] appIds = new int[4];
+
+        private int[] ipIds = new int[4];
+
+        private int size;
+
+        private void add(long time, int position, int appId, int ipId) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+                appIds = Arrays.copyOf(appIds, size * 2);
+                ipIds = Arrays.copyOf(ipIds, size * 2);
+            }
+            // Hits mostly come in time order, late hits are inserted into place.
+            final int index = size == 0 || times[size - 1] <= time ? size : firstAfter(time);
+            if (index < size) {
+                System.arraycopy(times, index, times, index + 1, size - index);
+                System.arraycopy(positions, index, positions, index + 1, size - index);
+                System.arraycopy(appIds, index, appIds, index + 1, size - index);
+                System.arraycopy(ipIds, index, ipIds, index + 1, size - index);
+            }
+            times[index] = time;
+            positions[index] = position;
+            appIds[index] = appId;
+            ipIds[index] = ipId;
+            size++;
+        }
+
+        private int firstAfter(long time) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (times[middle] <= time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package ru.practicum.yandex.storage;
+
+import ru.practicum.yandex.model.EndpointHit;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Index of sealed log segment, stored in file next to segment and memory-mapped, so that it does not take heap.
+ * Entries of index are sorted by uri and found by binary search. Entry holds times of hits of uri with positions of
+ * their records in segment, used to read hits of range that covers segment partially, and number of hits and distinct
+ * ips per app, used when range covers whole segment.
+ * <p>
+ * Layout: entries, then offsets of entries in order of uri, then footer: min and max time of hits, offset and number of
+ * entry offsets, magic number. Entry: uri, number of hits, times of hits sorted, positions of their records, number of
+ * apps, then per app: app, number of hits, number of distinct ips and ips. Strings are length and UTF-8 bytes.
+ */
+class SegmentIndex {
+
+    private static final int MAGIC = 0x48495831;
+
+    private static final int FOOTER_SIZE = Long.BYTES * 3 + Integer.BYTES * 2;
+
+    private final ByteBuffer index;
+
+    private final ByteBuffer records;
+
+    private final long minTime;
+
+    private final long maxTime;
+
+    private final int offsetsPosition;
+
+    private final int size;
+
+    private SegmentIndex(ByteBuffer index, ByteBuffer records) {
+        this.index = index;
+        this.records = records;
+        final int footer = index.limit() - FOOTER_SIZE;
+        this.minTime = index.getLong(footer);
+        this.maxTime = index.getLong(footer + Long.BYTES);
+        this.offsetsPosition = (int) index.getLong(footer + Long.BYTES * 2);
+        this.size = index.getInt(footer + Long.BYTES * 3);
+    }
+
+    /**
+     * Open index of segment, writing it from hits of segment if it was not written before.
+     *
+     * @param path    path of index file
+     * @param records records of segment
+     * @param hits    hits of segment
+     */
+    static SegmentIndex open(Path path, ByteBuffer records, SegmentHits hits) {
+        try {
+            if (!isComplete(path)) {
+                write(path, hits);
+            }
+            final MappedByteBuffer index;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                index = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            return new SegmentIndex(index, records);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Check if segment has hits between start and end (both exclusive).
+     */
+    boolean overlaps(long start, long end) {
+        return maxTime > start && minTime < end;
+    }
+
+    String uri(int entry) {
+        return getString(entryBuffer(entry));
+    }
+
+    /**
+     * Find entry of uri.
+     *
+     * @return entry index or -1 if segment has no hits of uri
+     */
+    int find(String uri) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int compared = uri(middle).compareTo(uri);
+            if (compared < 0) {
+                low = middle + 1;
+            } else if (compared > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collect hits of entry between start and end (both exclusive).
+     */
+    void accumulate(int entry, long start, long end, UriStats stats) {
+        final ByteBuffer buffer = entryBuffer(entry);
+        skipString(buffer);
+        final int hits = buffer.getInt();
+        final int timesPosition = buffer.position();
+        final int positionsPosition = timesPosition + hits * Long.BYTES;
+        if (minTime <= start || maxTime >= end) {
+            for (int i = firstAfter(timesPosition, hits, start);
+                 i < hits && index.getLong(timesPosition + i * Long.BYTES) < end; i++) {
+                final EndpointHit hit = HitLog.readRecord(records, index.getInt(positionsPosition + i * Integer.BYTES));
+                stats.addHit(hit.getApp(), hit.getIp());
+            }
+            return;
+        }
+        buffer.position(positionsPosition + hits * Integer.BYTES);
+        final int apps = buffer.getInt();
+        for (int i = 0; i < apps; i++) {
+            final String app = getString(buffer);
+            final long appHits = buffer.getLong();
+            final int ips = buffer.getInt();
+            if (!stats.isUnique()) {
+                stats.addHits(app, appHits);
+            }
+            for (int j = 0; j < ips; j++) {
+                if (stats.isUnique()) {
+                    stats.addIp(app, getString(buffer));
+                } else {
+                    skipString(buffer);
+                }
+            }
+        }
+    }
+
+    private int firstAfter(int timesPosition, int hits, long time) {
+        int low = 0;
+        int high = hits;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (index.getLong(timesPosition + middle * Long.BYTES) <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private ByteBuffer entryBuffer(int entry) {
+        final ByteBuffer buffer = index.duplicate();
+        buffer.position(index.getInt(offsetsPosition + entry * Integer.BYTES));
+        return buffer;
+    }
+
+    private static boolean isComplete(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < FOOTER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(magic, channel.size() - Integer.BYTES);
+            return magic.flip().getInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Write index to temporary file and move it to path, so that index file is either complete or absent.
+     */
+    private static void write(Path path, SegmentHits hits) throws IOException {
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            final Writer writer = new Writer(out);
+            hits.write(writer);
+            final int offsetsPosition = out.size();
+            for (int offset : writer.offsets) {
+                out.writeInt(offset);
+            }
+            out.writeLong(hits.getMinTime());
+            out.writeLong(hits.getMaxTime());
+            out.writeLong(offsetsPosition);
+            out.writeInt(writer.offsets.size());
+            out.writeInt(MAGIC);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        final int length = buffer.getShort() & 0xFFFF;
+        buffer.position(buffer.position() + length);
+    }
+
+    /**
+     * Writer of index entries, called by {@link SegmentHits} in order of uri.
+     */
+    static final class Writer {
+
+        private final DataOutputStream out;
+
+        private final List<Integer> offsets = new ArrayList<>();
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void uri(String uri, long[] times, int[] positions, int apps) {
+            try {
+                offsets.add(out.size());
+                putString(uri);
+                out.writeInt(times.length);
+                for (long time : times) {
+                    out.writeLong(time);
+                }
+                for (int position : positions) {
+                    out.writeInt(position);
+                }
+                out.writeInt(apps);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void app(String app, long hits, Stream<String> ips) {
+            try {
+                putString(app);
+                out.writeLong(hits);
+                final List<String> appIps = new ArrayList<>();
+                ips.forEach(appIps::add);
+                out.writeInt(appIps.size());
+                for (String ip : appIps) {
+                    putString(ip);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void putString(String value) throws IOException {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.yandex.storage;
+
+import ru.practicum.yandex.model.ViewStats;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Hits of one uri per app, collected from log segments. Counts all hits or hits from distinct ips.
+ */
+class UriStats {
+
+    private final boolean unique;
+
+    private final Map<String, Long> hitsByApp = new TreeMap<>();
+
+    private final Map<String, Set<String>> ipsByApp = new TreeMap<>();
+
+    UriStats(boolean unique) {
+        this.unique = unique;
+    }
+
+    boolean isUnique() {
+        return unique;
+    }
+
+    void addHit(String app, String ip) {
+        if (unique) {
+            addIp(app, ip);
+        } else {
+            addHits(app, 1);
+        }
+    }
+
+    void addHits(String app, long hits) {
+        hitsByApp.merge(app, hits, Long::sum);
+    }
+
+    void addIp(String app, String ip) {
+        ipsByApp.computeIfAbsent(app, key -> new HashSet<>()).add(ip);
+    }
+
+    void addAll(UriStats stats) {
+        stats.hitsByApp.forEach(this::addHits);
+        stats.ipsByApp.forEach((app, ips) -> ipsByApp.computeIfAbsent(app, key -> new HashSet<>()).addAll(ips));
+    }
+
+    /**
+     * Pass stats of uri per app to consumer, in order of app.
+     */
+    void forEachRow(String uri, Consumer<ViewStats> consumer) {
+        if (unique) {
+            ipsByApp.forEach((app, ips) ->
+                    consumer.accept(ViewStats.builder().app(app).uri(uri).hits((long) ips.size()).build()));
+        } else {
+            hitsByApp.forEach((app, hits) -> consumer.accept(ViewStats.builder().app(app).uri(uri).hits(hits).build()));
+        }
+    }
+}
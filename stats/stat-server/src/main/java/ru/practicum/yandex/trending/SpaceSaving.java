@@ -0,0 +1,73 @@
+package ru.practicum.yandex.trending;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Space-Saving summary of most frequent keys of a stream. At most 'capacity' keys are counted, when a new key comes
+ * to full summary, key with minimal count is replaced and new key inherits its count. Counts of reported keys are
+ * overestimated by no more than number of items divided by capacity, any key with larger frequency is reported.
+ *
+ * @param <K> type of counted keys
+ */
+class SpaceSaving<K> {
+
+    private final int capacity;
+
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+
+    private final TreeSet<Counter<K>> countersByCount = new TreeSet<>(Comparator
+            .comparingLong((Counter<K> counter) -> counter.count)
+            .thenComparingLong(counter -> counter.sequence));
+
+    private long sequence;
+
+    SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(K key) {
+        Counter<K> counter = counters.get(key);
+        if (counter == null) {
+            long count = 0;
+            if (counters.size() >= capacity) {
+                final Counter<K> evicted = countersByCount.pollFirst();
+                counters.remove(evicted.key);
+                count = evicted.count;
+            }
+            counter = new Counter<>(key, count);
+            counters.put(key, counter);
+        } else {
+            countersByCount.remove(counter);
+        }
+        counter.count++;
+        counter.sequence = sequence++;
+        countersByCount.add(counter);
+    }
+
+    void forEach(ObjLongConsumer<K> consumer) {
+        counters.values().forEach(counter -> consumer.accept(counter.key, counter.count));
+    }
+
+    void clear() {
+        counters.clear();
+        countersByCount.clear();
+    }
+
+    private static final class Counter<K> {
+
+        private final K key;
+
+        private long count;
+
+        private long sequence;
+
+        private Counter(K key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.yandex.trending;
+
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Most viewed uris per sliding window, maintained on hit registration. Each window keeps a {@link SpaceSaving} summary
+ * per bucket, summaries of buckets inside the window are merged into ranking on request. Ranking is reused for
+ * 'stat-server.trending.refresh-interval', so top uris are returned without touching hits storage. Counts are
+ * approximate and start from zero after restart.
+ */
+@Component
+@Slf4j
+public class TrendingTracker {
+
+    private final Map<TrendingWindow, Window> windows = new EnumMap<>(TrendingWindow.class);
+
+    private final Duration refreshInterval;
+
+    public TrendingTracker(@Value("${stat-server.trending.capacity:1000}") int capacity,
+                           @Value("${stat-server.trending.refresh-interval:1s}") Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+        for (TrendingWindow window : TrendingWindow.values()) {
+            windows.put(window, new Window(window, capacity));
+        }
+    }
+
+    /**
+     * Count hit in all windows. Hits older than window are ignored, hits from the future are counted as current.
+     *
+     * @param hit registered hit
+     */
+    public void record(EndpointHit hit) {
+        final long now = now();
+        final long time = Math.min(hit.getTimestamp().toEpochSecond(ZoneOffset.UTC), now);
+        final Key key = new Key(hit.getApp(), hit.getUri());
+        windows.values().forEach(window -> window.add(key, time, now));
+    }
+
+    /**
+     * Get most viewed uris of window.
+     *
+     * @param window sliding window
+     * @param app    app to get uris of, all apps if null
+     * @param limit  maximum number of uris
+     * @return stats sorted by approximate number of hits in descending order
+     */
+    public List<ViewStats> getTrending(TrendingWindow window, String app, int limit) {
+        return windows.get(window).ranking(now()).stream()
+                .filter(stats -> app == null || app.equals(stats.getApp()))
+                .limit(Math.max(limit, 0))
+                .collect(Collectors.toList());
+    }
+
+    private static long now() {
+        return LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private final class Window {
+
+        private final TrendingWindow window;
+
+        private final SpaceSaving<Key>[] buckets;
+
+        private final long[] bucketIndexes;
+
+        private List<ViewStats> ranking;
+
+        private long rankingExpiresAt;
+
+        @SuppressWarnings("unchecked")
+        private Window(TrendingWindow window, int capacity) {
+            this.window = window;
+            this.buckets = new SpaceSaving[window.getBuckets()];
+            this.bucketIndexes = new long[window.getBuckets()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new SpaceSaving<>(capacity);
+                bucketIndexes[i] = -1;
+            }
+        }
+
+        private synchronized void add(Key key, long time, long now) {
+            final long bucketIndex = Math.floorDiv(time, window.getBucketSeconds());
+            if (!isInWindow(bucketIndex, now)) {
+                return;
+            }
+            final int slot = (int) Math.floorMod(bucketIndex, (long) buckets.length);
+            if (bucketIndexes[slot] != bucketIndex) {
+                if (bucketIndexes[slot] > bucketIndex) {
+                    return;
+                }
+                buckets[slot].clear();
+                bucketIndexes[slot] = bucketIndex;
+            }
+            buckets[slot].add(key);
+        }
+
+        private synchronized List<ViewStats> ranking(long now) {
+            if (ranking != null && System.nanoTime() - rankingExpiresAt < 0) {
+                return ranking;
+            }
+            final Map<Key, Long> hits = new HashMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                if (isInWindow(bucketIndexes[i], now)) {
+                    buckets[i].forEach((key, count) -> hits.merge(key, count, Long::sum));
+                }
+            }
+            final List<ViewStats> stats = new ArrayList<>(hits.size());
+            hits.forEach((key, count) -> stats.add(new ViewStats(key.app, key.uri, count)));
+            stats.sort(Comparator.comparing(ViewStats::getHits).reversed());
+            ranking = stats;
+            rankingExpiresAt = System.nanoTime() + refreshInterval.toNanos();
+            return ranking;
+        }
+
+        private boolean isInWindow(long bucketIndex, long now) {
+            final long currentBucketIndex = Math.floorDiv(now, window.getBucketSeconds());
+            return bucketIndex > currentBucketIndex - buckets.length && bucketIndex <= currentBucketIndex;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static final class Key {
+
+        private final String app;
+
+        private final String uri;
+
+        private Key(String app, String uri) {
+            this.app = app;
+            this.uri = uri;
+        }
+    }
+}
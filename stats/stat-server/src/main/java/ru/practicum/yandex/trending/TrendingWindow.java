@@ -0,0 +1,31 @@
+package ru.practicum.yandex.trending;
+
+import java.time.Duration;
+
+/**
+ * Sliding window of trending uris. Window is split into buckets, hits of the oldest bucket are dropped all at once
+ * when window slides.
+ */
+public enum TrendingWindow {
+
+    HOUR(Duration.ofHours(1), Duration.ofMinutes(5)),
+    DAY(Duration.ofDays(1), Duration.ofHours(1)),
+    WEEK(Duration.ofDays(7), Duration.ofHours(6));
+
+    private final long bucketSeconds;
+
+    private final int buckets;
+
+    TrendingWindow(Duration length, Duration bucket) {
+        this.bucketSeconds = bucket.getSeconds();
+        this.buckets = (int) (length.getSeconds() / bucketSeconds);
+    }
+
+    long getBucketSeconds() {
+        return bucketSeconds;
+    }
+
+    int getBuckets() {
+        return buckets;
+    }
+}
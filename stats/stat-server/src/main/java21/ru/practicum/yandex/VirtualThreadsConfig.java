@@ -0,0 +1,23 @@
+package ru.practicum.yandex;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Serves requests on virtual threads instead of Tomcat platform thread pool. Available only in build with
+ * 'virtual-threads' profile (JDK 21), enabled by 'spring.threads.virtual.enabled=true'. Blocking JDBC calls made while
+ * handling hit and stats requests run on the same virtual thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -6,4 +6,15 @@ CREATE TABLE IF NOT EXISTS endpointhits (
     uri VARCHAR(255) NOT NULL,
     ip VARCHAR(255) NOT NULL,
     created TIMESTAMP NOT NULL 
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS endpointhits_created_idx ON endpointhits (created);
+
+CREATE TABLE IF NOT EXISTS hit_buckets (
+    granularity VARCHAR(16) NOT NULL,
+    app VARCHAR(255) NOT NULL,
+    uri VARCHAR(255) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_hit_buckets PRIMARY KEY (granularity, uri, bucket_start, app)
+);
@@ -2,47 +2,72 @@ package ru.practicum.yandex;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import ru.practicum.yandex.apps.AppAuthenticator;
+import ru.practicum.yandex.apps.AppIngestScheduler;
+import ru.practicum.yandex.apps.AppMetrics;
+import ru.practicum.yandex.apps.AppRateLimiter;
 import ru.practicum.yandex.controller.StatController;
 import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.StatBinaryFormat;
 import ru.practicum.yandex.dto.ViewStatsDto;
 import ru.practicum.yandex.exception.IncorrectDateIntervalException;
 import ru.practicum.yandex.mapper.EndpointHitMapper;
+import ru.practicum.yandex.mapper.HitHistogramMapper;
 import ru.practicum.yandex.mapper.ViewStatsMapper;
 import ru.practicum.yandex.model.EndpointHit;
 import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.service.HitHistogramService;
+import ru.practicum.yandex.service.HitIngestServiceImpl;
 import ru.practicum.yandex.service.StatService;
+import ru.practicum.yandex.trending.TrendingTracker;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(controllers = StatController.class)
+@WebMvcTest(controllers = StatController.class, properties = "stat-server.apps.api-keys.ewm-main-service=test-key")
+@Import({AppIngestScheduler.class, HitIngestServiceImpl.class, AppAuthenticator.class})
 class StatControllerTest {
 
+    private static final MediaType SMILE = MediaType.parseMediaType(StatBinaryFormat.MEDIA_TYPE);
+
+    private final ObjectMapper smileObjectMapper = StatBinaryFormat.createObjectMapper();
+
     @Autowired
     private MockMvc mvc;
 
@@ -58,6 +83,27 @@ class StatControllerTest {
     @MockBean
     private ViewStatsMapper viewStatsMapper;
 
+    @MockBean
+    private TrendingTracker trendingTracker;
+
+    @MockBean
+    private HitHistogramService hitHistogramService;
+
+    @MockBean
+    private HitHistogramMapper hitHistogramMapper;
+
+    @MockBean
+    private AppMetrics appMetrics;
+
+    @MockBean
+    private AppRateLimiter appRateLimiter;
+
+    @BeforeEach
+    void init() {
+        when(appRateLimiter.tryAcquire(any()))
+                .thenReturn(true);
+    }
+
     @Test
     @SneakyThrows
     @DisplayName("Request with all parameters should return 200")
@@ -169,6 +215,21 @@ class StatControllerTest {
         verify(viewStatsMapper, never()).toDtoList(anyList());
     }
 
+    @Test
+    @SneakyThrows
+    @DisplayName("When uri is missing, should return 400")
+    void methodHit_whenUriIsMissing_ShouldReturn400() {
+        EndpointHitDto endpointHitDto = EndpointHitDto.of(null, "appDto", null, "124.43.23.12",
+                LocalDateTime.of(2024, 10, 23, 11, 34, 44));
+
+        mvc.perform(post("/hit")
+                        .content(objectMapper.writeValueAsString(endpointHitDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(statService, never()).methodHit(any());
+    }
+
     @Test
     @SneakyThrows
     @DisplayName("When all fields are valid, should return 201")
@@ -186,9 +247,12 @@ class StatControllerTest {
                 .thenReturn(endpointHitDto);
 
         DateTimeFormatter pattern = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        mvc.perform(post("/hit")
+        MvcResult mvcResult = mvc.perform(post("/hit")
                         .content(objectMapper.writeValueAsString(endpointHitDto))
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isCreated())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(endpointHitDto.getId())))
@@ -200,5 +264,114 @@ class StatControllerTest {
         verify(statService, times(1)).methodHit(endpointHit);
         verify(endpointHitMapper, times(1)).toModel(endpointHitDto);
         verify(endpointHitMapper, times(1)).toDto(endpointHit);
+        verify(trendingTracker, times(1)).record(endpointHit);
+        verify(hitHistogramService, times(1)).record(endpointHit);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Query rate limit should be applied to app authenticated by key, not to app name from header")
+    void viewStats_shouldLimitQueriesOfAuthenticatedApp() {
+        for (String key : new String[]{"test-key", null, "wrong-key"}) {
+            MockHttpServletRequestBuilder request = get("/stats")
+                    .param("start", "2020-11-03 11:54:22")
+                    .param("end", "2020-11-04 12:34:11")
+                    .header(AppAuthenticator.APP_HEADER, "ewm-main-service");
+            if (key != null) {
+                request.header(AppAuthenticator.APP_KEY_HEADER, key);
+            }
+            mvc.perform(request)
+                    .andExpect(status().isOk());
+        }
+
+        verify(appRateLimiter, times(1)).tryAcquire("ewm-main-service");
+        verify(appRateLimiter, times(2)).tryAcquire("unknown");
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("When client accepts Smile, stats should be returned as Smile")
+    void viewStats_whenAcceptSmile_ShouldReturnSmile() {
+        LocalDateTime start = LocalDateTime.of(2020, 11, 3, 11, 54, 22);
+        LocalDateTime end = LocalDateTime.of(2020, 11, 4, 12, 34, 11);
+        ViewStats viewStats = new ViewStats("app", "uri", 4L);
+        ViewStatsDto viewStatsDto = new ViewStatsDto("appDto", "uriDto", 4L);
+
+        when(statService.viewStats(start, end, null, false))
+                .thenReturn(List.of(viewStats));
+        when(viewStatsMapper.toDtoList(List.of(viewStats)))
+                .thenReturn(List.of(viewStatsDto));
+
+        byte[] body = mvc.perform(get("/stats")
+                        .param("start", "2020-11-03 11:54:22")
+                        .param("end", "2020-11-04 12:34:11")
+                        .accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(List.of(viewStatsDto),
+                Arrays.asList(smileObjectMapper.readValue(body, ViewStatsDto[].class)));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("When hit is sent as Smile, should return 201 with Smile body")
+    void methodHit_whenBodyIsSmile_ShouldReturn201WithSmile() {
+        EndpointHit endpointHit = EndpointHit.of(null, "app", "/uri/er", "123.43.23.12",
+                LocalDateTime.of(2022, 10, 23, 11, 34, 44));
+        EndpointHitDto endpointHitDto = EndpointHitDto.of(null, "appDto", "/uri/erDto", "124.43.23.12",
+                LocalDateTime.of(2024, 10, 23, 11, 34, 44));
+
+        when(statService.methodHit(endpointHit))
+                .thenReturn(endpointHit);
+        when(endpointHitMapper.toModel(endpointHitDto))
+                .thenReturn(endpointHit);
+        when(endpointHitMapper.toDto(endpointHit))
+                .thenReturn(endpointHitDto);
+
+        MvcResult mvcResult = mvc.perform(post("/hit")
+                        .content(smileObjectMapper.writeValueAsBytes(endpointHitDto))
+                        .contentType(SMILE)
+                        .accept(SMILE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] body = mvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(endpointHitDto, smileObjectMapper.readValue(body, EndpointHitDto.class));
+        verify(endpointHitMapper, times(1)).toModel(endpointHitDto);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Export stats as csv should stream rows with header")
+    void exportStats_whenFormatIsCsv_ShouldReturnCsvRows() {
+        LocalDateTime start = LocalDateTime.of(2020, 11, 3, 11, 54, 22);
+        LocalDateTime end = LocalDateTime.of(2020, 11, 4, 12, 34, 11);
+        ViewStats viewStats = new ViewStats("app", "uri", 4L);
+        ViewStatsDto viewStatsDto = new ViewStatsDto("app", "/events/1,2", 4L);
+
+        doAnswer(invocation -> {
+            Consumer<ViewStats> consumer = invocation.getArgument(4);
+            consumer.accept(viewStats);
+            return null;
+        }).when(statService).exportStats(eq(start), eq(end), eq(null), eq(false), any());
+        when(viewStatsMapper.toDto(viewStats))
+                .thenReturn(viewStatsDto);
+
+        MvcResult result = mvc.perform(get("/stats/export")
+                        .param("start", "2020-11-03 11:54:22")
+                        .param("end", "2020-11-04 12:34:11")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("app,uri,hits\napp,\"/events/1,2\",4\n"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package ru.practicum.yandex.apps;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AppAuthenticatorTest {
+
+    private AppIsolationProperties properties;
+
+    @BeforeEach
+    void init() {
+        properties = new AppIsolationProperties();
+    }
+
+    @Test
+    @DisplayName("Authenticate app by its key, app with wrong key is unknown")
+    void authenticate_shouldAcceptOnlyValidKey() {
+        properties.getApiKeys().put("ewm-main-service", "key");
+        AppAuthenticator appAuthenticator = new AppAuthenticator(properties);
+
+        assertThat(appAuthenticator.authenticate("ewm-main-service", "key"), is("ewm-main-service"));
+        assertThat(appAuthenticator.authenticate("ewm-main-service", "wrong"), is(AppIngestScheduler.UNKNOWN_APP));
+        assertThat(appAuthenticator.authenticate("ewm-main-service", null), is(AppIngestScheduler.UNKNOWN_APP));
+    }
+
+    @Test
+    @DisplayName("When app key placeholder is not resolved, authenticator is not created")
+    void create_whenKeyNotResolved_shouldFail() {
+        properties.getApiKeys().put("ewm-main-service", "${STATS_EWM_MAIN_SERVICE_KEY}");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> new AppAuthenticator(properties));
+
+        assertThat(e.getMessage(), containsString("stat-server.apps.api-keys.ewm-main-service"));
+    }
+
+    @Test
+    @DisplayName("When app key is empty, authenticator is not created")
+    void create_whenKeyEmpty_shouldFail() {
+        properties.getApiKeys().put("ewm-main-service", " ");
+
+        assertThrows(IllegalStateException.class, () -> new AppAuthenticator(properties));
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.yandex.apps;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.yandex.exception.ServiceUnavailableException;
+import ru.practicum.yandex.exception.TooManyRequestsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+class AppIngestSchedulerTest {
+
+    @Mock
+    private AppMetrics appMetrics;
+
+    private AppIngestScheduler appIngestScheduler;
+
+    private final CountDownLatch ingestBlocked = new CountDownLatch(1);
+
+    private final CountDownLatch ingestReleased = new CountDownLatch(1);
+
+    private final List<String> savedHits = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void init() throws InterruptedException {
+        AppIsolationProperties properties = new AppIsolationProperties();
+        properties.setIngestThreads(1);
+        properties.setQueueCapacity(4);
+        appIngestScheduler = new AppIngestScheduler(properties, appMetrics);
+        appIngestScheduler.submit("app1", () -> {
+            ingestBlocked.countDown();
+            await(ingestReleased);
+            return "blocking";
+        });
+        await(ingestBlocked);
+    }
+
+    @AfterEach
+    void shutdown() {
+        ingestReleased.countDown();
+        appIngestScheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("Hits of apps are saved in turn")
+    void submit_whenAppSendsBurst_shouldSaveHitsOfOtherAppsInTurn() {
+        for (String hit : List.of("app1-1", "app1-2", "app1-3", "app2-1")) {
+            appIngestScheduler.submit(hit.substring(0, 4), () -> save(hit));
+        }
+        ingestReleased.countDown();
+        appIngestScheduler.submit("app1", () -> "last").join();
+
+        assertThat(savedHits, contains("app1-1", "app2-1", "app1-2", "app1-3"));
+    }
+
+    @Test
+    @DisplayName("Hits over queue capacity are rejected")
+    void submit_whenQueueIsFull_shouldRejectHit() {
+        for (int i = 0; i < 4; i++) {
+            appIngestScheduler.submit("app1", () -> "queued");
+        }
+
+        CompletableFuture<String> rejected = appIngestScheduler.submit("app1", () -> "rejected");
+        CompletableFuture<String> otherApp = appIngestScheduler.submit("app2", () -> "accepted");
+
+        ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+        assertThat(e.getCause(), instanceOf(TooManyRequestsException.class));
+        ingestReleased.countDown();
+        assertThat(otherApp.join(), is("accepted"));
+    }
+
+    @Test
+    @DisplayName("Hits submitted with waiting over queue capacity wait for room and are saved in order")
+    void submitWaiting_whenQueueIsFull_shouldSaveHitsInOrder() {
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            String hit = "app1-" + i;
+            results.add(appIngestScheduler.submitWaiting("app1", () -> save(hit)));
+        }
+
+        assertThat(results.get(5).isDone(), is(false));
+        ingestReleased.countDown();
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+        assertThat(savedHits, contains("app1-1", "app1-2", "app1-3", "app1-4", "app1-5", "app1-6"));
+    }
+
+    @Test
+    @DisplayName("Queued hits are failed on shutdown, hits submitted after shutdown are rejected")
+    void shutdown_shouldFailQueuedHits() {
+        CompletableFuture<String> queued = appIngestScheduler.submit("app1", () -> "queued");
+
+        ingestReleased.countDown();
+        appIngestScheduler.shutdown();
+
+        assertThat(queued.isDone(), is(true));
+        CompletableFuture<String> submitted = appIngestScheduler.submit("app1", () -> "submitted");
+        ExecutionException e = assertThrows(ExecutionException.class, submitted::get);
+        assertThat(e.getCause(), instanceOf(ServiceUnavailableException.class));
+    }
+
+    private String save(String hit) {
+        savedHits.add(hit);
+        return hit;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
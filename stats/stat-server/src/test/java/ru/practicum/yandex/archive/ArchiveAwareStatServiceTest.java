@@ -0,0 +1,156 @@
+package ru.practicum.yandex.archive;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.repository.StatExportRepository;
+import ru.practicum.yandex.repository.StatRepository;
+import ru.practicum.yandex.service.StatServiceImpl;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(StatExportRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ArchiveAwareStatServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0, 0);
+
+    private final LocalDateTime end = LocalDateTime.now().plusDays(1);
+
+    private final LocalDateTime archivedDay = LocalDateTime.of(2022, 9, 21, 0, 0, 0);
+
+    @Autowired
+    private StatRepository statRepository;
+
+    @Autowired
+    private StatExportRepository statExportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StatServiceImpl statService;
+
+    private HitArchive hitArchive;
+
+    private HitArchiver hitArchiver;
+
+    private ArchiveAwareStatService archiveAwareStatService;
+
+    @BeforeEach
+    void init() throws Exception {
+        saveHit("app1", "/a", "1.1.1.1", archivedDay.plusHours(1));
+        saveHit("app1", "/a", "2.2.2.2", archivedDay.plusHours(2));
+        saveHit("app1", "/a", "1.1.1.1", archivedDay.plusHours(3));
+        saveHit("app2", "/b", "3.3.3.3", archivedDay.plusHours(4));
+        saveHit("app1", "/a", "3.3.3.3", archivedDay.plusDays(1).plusHours(1));
+        saveHit("app1", "/c", "1.1.1.1", archivedDay.plusDays(1).plusHours(2));
+        saveHit("app1", "/a", "1.1.1.1", LocalDateTime.now().minusHours(1));
+        saveHit("app1", "/a", "4.4.4.4", LocalDateTime.now().minusHours(1));
+        saveHit("app2", "/d", "5.5.5.5", LocalDateTime.now().minusHours(1));
+        statService = new StatServiceImpl(statRepository, statExportRepository);
+        hitArchive = new HitArchive(directory.toString());
+        hitArchive.load();
+        hitArchiver = new HitArchiver(hitArchive, jdbcTemplate, new TransactionTemplate(transactionManager),
+                Duration.ofDays(90), Duration.ofDays(1));
+        archiveAwareStatService = new ArchiveAwareStatService(statService, hitArchive, statExportRepository);
+    }
+
+    @AfterEach
+    void cleanup() {
+        statRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Archived hits are moved from table to segments")
+    void archive_shouldMoveOldHitsToSegments() {
+        hitArchiver.archive();
+
+        assertThat(hitArchive.segments().size(), is(2));
+        assertThat(hitArchive.pendingSegments().isEmpty(), is(true));
+        assertThat(statRepository.count(), is(3L));
+    }
+
+    @Test
+    @DisplayName("Stats of archive and table are merged like stats of table")
+    void viewStats_whenHitsArchived_shouldReturnSameStatsAsBeforeArchiving() {
+        List<ViewStats> all = statService.viewStats(start, end, null, false);
+        List<ViewStats> unique = statService.viewStats(start, end, null, true);
+        List<ViewStats> uris = statService.viewStats(start, end, List.of("/a", "/b"), true);
+        List<ViewStats> partOfSlice = statService.viewStats(archivedDay.plusHours(2), end, null, false);
+
+        hitArchiver.archive();
+
+        assertThat(archiveAwareStatService.viewStats(start, end, null, false), containsInAnyOrder(all.toArray()));
+        assertThat(archiveAwareStatService.viewStats(start, end, null, true),
+                containsInAnyOrder(unique.toArray()));
+        assertThat(archiveAwareStatService.viewStats(start, end, List.of("/a", "/b"), true),
+                containsInAnyOrder(uris.toArray()));
+        assertThat(archiveAwareStatService.viewStats(archivedDay.plusHours(2), end, null, false),
+                containsInAnyOrder(partOfSlice.toArray()));
+    }
+
+    @Test
+    @DisplayName("Unique ip stats of uri count ips of archive and table once")
+    void viewStatsForSingleUriWithUniqueIps_whenHitsArchived_shouldReturnSameStatsAsBeforeArchiving() {
+        ViewStats stats = statService.viewStatsForSingleUriWithUniqueIps("/a");
+
+        hitArchiver.archive();
+
+        assertThat(stats, is(new ViewStats("app1", "/a", 4L)));
+        assertThat(archiveAwareStatService.viewStatsForSingleUriWithUniqueIps("/a"), is(stats));
+    }
+
+    @Test
+    @DisplayName("Export merges stats of archive and table")
+    void exportStats_whenHitsArchived_shouldPassSameRowsAsBeforeArchiving() {
+        List<ViewStats> all = statService.viewStats(start, end, null, false);
+        List<ViewStats> unique = statService.viewStats(start, end, null, true);
+        List<ViewStats> uris = statService.viewStats(start, end, List.of("/a", "/c"), true);
+
+        hitArchiver.archive();
+
+        assertThat(export(null, false), containsInAnyOrder(all.toArray()));
+        assertThat(export(null, true), containsInAnyOrder(unique.toArray()));
+        assertThat(export(List.of("/a", "/c"), true), containsInAnyOrder(uris.toArray()));
+    }
+
+    private List<ViewStats> export(List<String> uris, boolean unique) {
+        List<ViewStats> stats = new ArrayList<>();
+        archiveAwareStatService.exportStats(start, end, uris, unique, stats::add);
+        return stats;
+    }
+
+    private void saveHit(String app, String uri, String ip, LocalDateTime timestamp) {
+        statRepository.save(EndpointHit.of(null, app, uri, ip, timestamp));
+    }
+}
@@ -0,0 +1,214 @@
+package ru.practicum.yandex.archive;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.repository.StatExportRepository;
+import ru.practicum.yandex.repository.StatRepository;
+import ru.practicum.yandex.service.StatServiceImpl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Archiving of hits when server stops or table changes between steps of archiving: segment is written, segment is
+ * published, hits are deleted from table.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(StatExportRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HitArchiverTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0, 0);
+
+    private final LocalDateTime end = LocalDateTime.now().plusDays(1);
+
+    private final LocalDateTime sliceStart = LocalDateTime.of(2022, 9, 21, 0, 0, 0);
+
+    @Autowired
+    private StatRepository statRepository;
+
+    @Autowired
+    private StatExportRepository statExportRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private StatServiceImpl statService;
+
+    private List<ViewStats> expectedStats;
+
+    private List<ViewStats> expectedUniqueStats;
+
+    @BeforeEach
+    void init() {
+        saveHit("app1", "/a", "1.1.1.1", sliceStart.plusHours(1));
+        saveHit("app1", "/a", "2.2.2.2", sliceStart.plusHours(2));
+        saveHit("app1", "/a", "1.1.1.1", sliceStart.plusHours(3));
+        saveHit("app2", "/b", "3.3.3.3", sliceStart.plusHours(4));
+        saveHit("app1", "/a", "1.1.1.1", LocalDateTime.now().minusHours(1));
+        statService = new StatServiceImpl(statRepository, statExportRepository);
+        expectedStats = statService.viewStats(start, end, null, false);
+        expectedUniqueStats = statService.viewStats(start, end, null, true);
+    }
+
+    @AfterEach
+    void cleanup() {
+        statRepository.deleteAll();
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Hits of published segment left in table are not counted twice and are deleted on startup")
+    void deleteArchivedHits_whenStoppedBeforeHitsDeleted_shouldDeleteHitsOnStartup() {
+        HitArchive hitArchive = openArchive();
+        HitSegment segment = hitArchive.addSegment(writeSegment(hitArchive, "id > 0"));
+
+        assertStats(hitArchive);
+        assertThat(statRepository.count(), is(5L));
+
+        HitArchive restartedArchive = openArchive();
+        assertThat(restartedArchive.pendingSegments().size(), is(1));
+        assertStats(restartedArchive);
+        newArchiver(restartedArchive).deleteArchivedHits();
+
+        assertThat(restartedArchive.pendingSegments().isEmpty(), is(true));
+        assertThat(statRepository.count(), is(1L));
+        assertThat(Files.exists(segment.path()), is(true));
+        assertStats(restartedArchive);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Segment written before stop is published on startup")
+    void load_whenStoppedBeforeSegmentPublished_shouldPublishSegmentOnStartup() {
+        HitArchive hitArchive = openArchive();
+        writeSegment(hitArchive, "id > 0");
+
+        assertThat(hitArchive.segments().isEmpty(), is(true));
+        assertStats(hitArchive);
+
+        HitArchive restartedArchive = openArchive();
+        assertStats(restartedArchive);
+        newArchiver(restartedArchive).deleteArchivedHits();
+
+        assertThat(restartedArchive.segments().size(), is(1));
+        assertThat(statRepository.count(), is(1L));
+        assertStats(restartedArchive);
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Hits of segment that were deleted before stop are not deleted again")
+    void deleteArchivedHits_whenHitsAlreadyDeleted_shouldSettleSegment() {
+        HitArchive hitArchive = openArchive();
+        newArchiver(hitArchive).archive();
+        assertThat(statRepository.count(), is(1L));
+        saveHit("app1", "/a", "2.2.2.2", sliceStart.plusHours(5));
+
+        HitArchive restartedArchive = openArchive();
+        newArchiver(restartedArchive).deleteArchivedHits();
+
+        assertThat(restartedArchive.pendingSegments().isEmpty(), is(true));
+        assertThat(statRepository.count(), is(2L));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Segment missing hit committed after slice was read is removed and slice is archived again")
+    void archive_whenHitOfSliceCommittedAfterRead_shouldArchiveSliceAgain() {
+        HitArchive hitArchive = openArchive();
+        long skippedId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM endpointhits", Long.class);
+        Path path = writeSegment(hitArchive, "id <> " + skippedId);
+        HitSegment segment = hitArchive.addSegment(path);
+        HitArchiver hitArchiver = newArchiver(hitArchive);
+
+        hitArchiver.deleteArchivedHits();
+
+        assertThat(hitArchive.segments().isEmpty(), is(true));
+        assertThat(Files.exists(segment.path()), is(false));
+        assertThat(statRepository.count(), is(5L));
+        assertStats(hitArchive);
+
+        hitArchiver.archive();
+
+        assertThat(hitArchive.segments().size(), is(1));
+        assertThat(hitArchive.segments().get(0).size(), is(4));
+        assertThat(statRepository.count(), is(1L));
+        assertStats(hitArchive);
+    }
+
+    private void assertStats(HitArchive hitArchive) {
+        ArchiveAwareStatService archiveAwareStatService =
+                new ArchiveAwareStatService(statService, hitArchive, statExportRepository);
+        assertThat(archiveAwareStatService.viewStats(start, end, null, false),
+                containsInAnyOrder(expectedStats.toArray()));
+        assertThat(archiveAwareStatService.viewStats(start, end, null, true),
+                containsInAnyOrder(expectedUniqueStats.toArray()));
+    }
+
+    @SneakyThrows
+    private HitArchive openArchive() {
+        HitArchive hitArchive = new HitArchive(directory.toString());
+        hitArchive.load();
+        return hitArchive;
+    }
+
+    private HitArchiver newArchiver(HitArchive hitArchive) {
+        return new HitArchiver(hitArchive, jdbcTemplate, new TransactionTemplate(transactionManager),
+                Duration.ofDays(90), Duration.ofDays(1));
+    }
+
+    /**
+     * Write segment of slice with hits matching condition, as archiver does before publishing it.
+     */
+    @SneakyThrows
+    private Path writeSegment(HitArchive hitArchive, String condition) {
+        HitColumns hits = new HitColumns();
+        jdbcTemplate.query("SELECT id, app, uri, ip, created FROM endpointhits WHERE created >= ? AND created < ? " +
+                        "AND " + condition + " ORDER BY created",
+                rs -> {
+                    hits.add(rs.getLong("id"), rs.getString("app"), rs.getString("uri"), rs.getString("ip"),
+                            rs.getTimestamp("created").toLocalDateTime());
+                },
+                Timestamp.valueOf(sliceStart), Timestamp.valueOf(sliceStart.plusDays(1)));
+        long start = HitColumns.toEpochSecond(sliceStart);
+        Path path = hitArchive.segmentPath(start, hits.maxHitId());
+        HitSegment.write(path, start, start + 86_400, hits);
+        return path;
+    }
+
+    private void saveHit(String app, String uri, String ip, LocalDateTime timestamp) {
+        statRepository.save(EndpointHit.of(null, app, uri, ip, timestamp));
+    }
+}
@@ -0,0 +1,129 @@
+package ru.practicum.yandex.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class HitSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    private final LocalDateTime sliceStart = LocalDateTime.of(2022, 9, 21, 0, 0, 0);
+
+    private HitArchive hitArchive;
+
+    @BeforeEach
+    void init() throws Exception {
+        HitColumns hits = new HitColumns();
+        hits.add(1L, "app1", "/app1", "1.1.1.1", sliceStart.plusHours(1));
+        hits.add(3L, "app2", "/app2", "1.1.1.1", sliceStart.plusHours(2));
+        hits.add(2L, "app2", "/app2", "2.1.1.1", sliceStart.plusHours(3));
+        hits.add(4L, "app2", "/app2", "1.1.1.1", sliceStart.plusHours(4));
+        hitArchive = new HitArchive(directory.toString());
+        hitArchive.load();
+        long start = HitColumns.toEpochSecond(sliceStart);
+        Path path = hitArchive.segmentPath(start, hits.maxHitId());
+        HitSegment.write(path, start, start + 86_400, hits);
+        hitArchive.addSegment(path);
+    }
+
+    @Test
+    @DisplayName("Segment keeps header and hits")
+    void open_shouldReadHeaderAndDictionaries() {
+        HitSegment segment = hitArchive.segments().get(0);
+
+        assertThat(segment.size(), is(4));
+        assertThat(segment.maxHitId(), is(4L));
+        assertThat(segment.sliceStart(), is(HitColumns.toEpochSecond(sliceStart)));
+        assertThat(segment.ipCount(), is(2));
+    }
+
+    @Test
+    @DisplayName("Scan stops at end of range and skips not matching uris")
+    void scan_withRangeAndUri_shouldVisitMatchingHits() {
+        HitSegment segment = hitArchive.segments().get(0);
+        List<String> visited = new ArrayList<>();
+
+        segment.scan(HitColumns.toEpochSecond(sliceStart.plusHours(1)), HitColumns.toEpochSecond(sliceStart.plusHours(4)),
+                List.of("/app2"), (appId, uriId, ipId) -> visited.add(segment.uri(uriId) + " " + segment.ip(ipId)));
+
+        assertThat(visited, is(List.of("/app2 1.1.1.1", "/app2 2.1.1.1")));
+    }
+
+    @Test
+    @DisplayName("Archive stats are aggregated like stats of hot table")
+    void accumulate_shouldCountAllAndUniqueHits() {
+        StatsAccumulator all = new StatsAccumulator(false);
+        StatsAccumulator unique = new StatsAccumulator(true);
+
+        hitArchive.query(snapshot -> {
+            snapshot.accumulate(sliceStart.minusDays(1), sliceStart.plusDays(1), null, all);
+            snapshot.accumulate(sliceStart.minusDays(1), sliceStart.plusDays(1), null, unique);
+            return null;
+        });
+
+        assertThat(all.toViewStats(), is(List.of(new ViewStats("app2", "/app2", 3L),
+                new ViewStats("app1", "/app1", 1L))));
+        assertThat(unique.toViewStats(), is(List.of(new ViewStats("app2", "/app2", 2L),
+                new ViewStats("app1", "/app1", 1L))));
+    }
+
+    @Test
+    @DisplayName("Stored summary has hits and distinct ips per uri and app")
+    void summary_whenRangeCoversSegment_shouldReturnStoredSummary() {
+        HitSegment segment = hitArchive.segments().get(0);
+
+        SegmentSummary summary = segment.summary(Long.MIN_VALUE, Long.MAX_VALUE, null);
+
+        assertThat(summary.size(), is(2));
+        int entry = summary.find("app2", "/app2");
+        assertThat(summary.hits(entry), is(3L));
+        List<String> ips = new ArrayList<>();
+        summary.forEachIp(entry, ips::add);
+        assertThat(ips, is(List.of("1.1.1.1", "2.1.1.1")));
+        assertThat(summary.find("app1", "/app2"), is(-1));
+        assertThat(summary.find("app1", "/app3"), is(-1));
+    }
+
+    @Test
+    @DisplayName("Summary of part of segment counts only hits in range")
+    void summary_whenRangeCoversPartOfSegment_shouldCountHitsInRange() {
+        HitSegment segment = hitArchive.segments().get(0);
+
+        SegmentSummary summary = segment.summary(HitColumns.toEpochSecond(sliceStart.plusHours(2)),
+                HitColumns.toEpochSecond(sliceStart.plusDays(1)), List.of("/app2"));
+
+        assertThat(summary.size(), is(1));
+        assertThat(summary.hits(summary.find("app2", "/app2")), is(2L));
+    }
+
+    @Test
+    @DisplayName("Summary entries of uris are passed in order of uri and app")
+    void forEachEntry_withUris_shouldPassEntriesOfUris() {
+        SegmentSummary summary = hitArchive.segments().get(0).summary(Long.MIN_VALUE, Long.MAX_VALUE, null);
+        List<String> visited = new ArrayList<>();
+
+        summary.forEachEntry(List.of("/app2", "/app3", "/app1"), entry ->
+                visited.add(summary.app(entry) + " " + summary.uri(entry)));
+
+        assertThat(visited, is(List.of("app1 /app1", "app2 /app2")));
+    }
+
+    @Test
+    @DisplayName("Archive covers date range only if it starts before end of archived slice")
+    void covers_shouldCompareWithArchivedSlices() {
+        assertThat(hitArchive.covers(sliceStart.plusHours(23)), is(true));
+        assertThat(hitArchive.covers(sliceStart.plusDays(1)), is(false));
+    }
+}
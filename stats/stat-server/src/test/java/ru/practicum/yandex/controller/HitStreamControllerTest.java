@@ -0,0 +1,140 @@
+package ru.practicum.yandex.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import ru.practicum.yandex.apps.AppAuthenticator;
+import ru.practicum.yandex.dto.EndpointHitDto;
+import ru.practicum.yandex.dto.HitBatchAckDto;
+import ru.practicum.yandex.dto.HitBatchDto;
+import ru.practicum.yandex.exception.ServiceUnavailableException;
+import ru.practicum.yandex.mapper.EndpointHitMapper;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.service.HitIngestService;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HitStreamControllerTest {
+
+    @Mock
+    private HitIngestService hitIngestService;
+
+    @Mock
+    private EndpointHitMapper endpointHitMapper;
+
+    @Mock
+    private AppAuthenticator appAuthenticator;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private HitStreamController hitStreamController;
+
+    @Test
+    @DisplayName("Batches should be acknowledged in order with number of accepted and rejected hits")
+    void streamHits_shouldAcknowledgeBatchesInOrder() {
+        when(endpointHitMapper.toModel(any()))
+                .thenAnswer(invocation -> hit(invocation.<EndpointHitDto>getArgument(0).getUri()));
+        when(appAuthenticator.authenticate("ewm-main-service", "test-key"))
+                .thenReturn("ewm-main-service");
+        when(hitIngestService.ingestWaiting(eq("ewm-main-service"), any()))
+                .thenAnswer(invocation -> invocation.<EndpointHit>getArgument(1).getUri().equals("/events/2")
+                        ? CompletableFuture.failedFuture(new IllegalStateException("Failed to save hit."))
+                        : CompletableFuture.completedFuture(invocation.getArgument(1)));
+
+        List<HitBatchAckDto> acks = hitStreamController.streamHits("ewm-main-service", "test-key", Flux.just(
+                        new HitBatchDto(1L, List.of(hitDto("/events/1"), hitDto("/events/2"), hitDto("/events/3"))),
+                        new HitBatchDto(2L, List.of(hitDto("/events/4")))))
+                .collectList()
+                .block();
+
+        assertThat(acks, contains(new HitBatchAckDto(1L, 2, 1), new HitBatchAckDto(2L, 1, 0)));
+        verify(hitIngestService, times(4)).ingestWaiting(eq("ewm-main-service"), any());
+    }
+
+    @Test
+    @DisplayName("Hits that are not valid should be rejected without ingest")
+    void streamHits_whenHitIsNotValid_shouldRejectHit() {
+        when(endpointHitMapper.toModel(any()))
+                .thenAnswer(invocation -> hit(invocation.<EndpointHitDto>getArgument(0).getUri()));
+        when(hitIngestService.ingestWaiting(any(), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(1)));
+
+        List<HitBatchAckDto> acks = hitStreamController.streamHits(null, null, Flux.just(
+                        new HitBatchDto(1L, List.of(hitDto("/events/1"), hitDto(null), hitDto(" ")))))
+                .collectList()
+                .block();
+
+        assertThat(acks, contains(new HitBatchAckDto(1L, 1, 2)));
+        verify(hitIngestService, times(1)).ingestWaiting(any(), any());
+    }
+
+    @Test
+    @DisplayName("When stat server shuts down, stream should fail without acknowledging batch")
+    void streamHits_whenShuttingDown_shouldFailStream() {
+        when(endpointHitMapper.toModel(any()))
+                .thenAnswer(invocation -> hit(invocation.<EndpointHitDto>getArgument(0).getUri()));
+        when(hitIngestService.ingestWaiting(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new ServiceUnavailableException("Shutting down.")));
+
+        Flux<HitBatchAckDto> acks = hitStreamController.streamHits(null, null, Flux.just(
+                new HitBatchDto(1L, List.of(hitDto("/events/1")))));
+
+        assertThrows(ServiceUnavailableException.class, acks::blockLast);
+    }
+
+    @Test
+    @DisplayName("Only few batches should be requested ahead of acknowledged ones")
+    void streamHits_shouldLimitRequestedBatches() {
+        List<CompletableFuture<EndpointHit>> pending = new ArrayList<>();
+        when(endpointHitMapper.toModel(any()))
+                .thenAnswer(invocation -> hit(invocation.<EndpointHitDto>getArgument(0).getUri()));
+        when(hitIngestService.ingestWaiting(any(), any()))
+                .thenAnswer(invocation -> {
+                    CompletableFuture<EndpointHit> result = new CompletableFuture<>();
+                    pending.add(result);
+                    return result;
+                });
+        AtomicLong requested = new AtomicLong();
+
+        hitStreamController.streamHits(null, null, Flux.range(1, 100)
+                        .map(i -> new HitBatchDto((long) i, List.of(hitDto("/events/" + i))))
+                        .doOnRequest(requested::addAndGet))
+                .subscribe();
+
+        assertThat(pending.size(), is(1));
+        assertThat(requested.get(), lessThanOrEqualTo((long) HitStreamController.PREFETCH_BATCHES));
+    }
+
+    private EndpointHitDto hitDto(String uri) {
+        return EndpointHitDto.of(null, "ewm-main-service", uri, "127.0.0.1", LocalDateTime.of(2022, 9, 6, 11, 0));
+    }
+
+    private EndpointHit hit(String uri) {
+        return EndpointHit.of(null, "ewm-main-service", uri, "127.0.0.1", LocalDateTime.of(2022, 9, 6, 11, 0));
+    }
+}
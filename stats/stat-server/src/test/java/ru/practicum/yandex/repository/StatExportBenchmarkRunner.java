@@ -0,0 +1,116 @@
+package ru.practicum.yandex.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.yandex.mapper.ViewStatsMapper;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Export of stats run by {@link StatExportRepositoryBenchmarkTest} in separate JVM, so that heap of export is not
+ * shared with database and test. Writes all stats rows as NDJSON to discarding stream and prints result line
+ * 'rows=.. hits=.. bytes=.. millis=.. peakHeapKb=..'.
+ * <p>
+ * Arguments: jdbc url, user, password, start, end, fetch size and mode: 'stream' writes rows as they are read,
+ * 'collect' collects all rows in list first, as /stats endpoint does.
+ */
+public class StatExportBenchmarkRunner {
+
+    public static void main(String[] args) {
+        final String url = args[0];
+        final String user = args[1];
+        final String password = args[2];
+        final LocalDateTime start = LocalDateTime.parse(args[3]);
+        final LocalDateTime end = LocalDateTime.parse(args[4]);
+        final int fetchSize = Integer.parseInt(args[5]);
+        final boolean collect = "collect".equals(args[6]);
+
+        final SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, user, password, true);
+        final StatExportRepository statExportRepository = new StatExportRepository(dataSource, fetchSize);
+        final TransactionTemplate transactionTemplate =
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        final ViewStatsMapper viewStatsMapper = Mappers.getMapper(ViewStatsMapper.class);
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final CountingOutputStream out = new CountingOutputStream();
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong hits = new AtomicLong();
+        final Consumer<ViewStats> write = stats -> {
+            rows.incrementAndGet();
+            hits.addAndGet(stats.getHits());
+            try {
+                writer.write(objectMapper.writeValueAsString(viewStatsMapper.toDto(stats)));
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+
+        resetPeakHeapUsage();
+        final long exportStart = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (collect) {
+                final List<ViewStats> statsList = new ArrayList<>();
+                statExportRepository.streamStats(start, end, null, false, statsList::add);
+                statsList.forEach(write);
+            } else {
+                statExportRepository.streamStats(start, end, null, false, write);
+            }
+        });
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final long millis = (System.nanoTime() - exportStart) / 1_000_000;
+        dataSource.destroy();
+
+        System.out.println("rows=" + rows.get() + " hits=" + hits.get() + " bytes=" + out.count + " millis=" + millis
+                + " peakHeapKb=" + getPeakHeapUsage() / 1024);
+    }
+
+    private static void resetPeakHeapUsage() {
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private static long getPeakHeapUsage() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.yandex.repository;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Export of stats over large number of hits in PostgreSQL. Export runs in separate JVM with small heap
+ * ('benchmark.xmx'), so that it fails with OutOfMemoryError if rows are collected in memory, and its peak heap usage
+ * is measured apart from database and test. Same export collecting rows in list first is run for comparison.
+ * <p>
+ * Disabled by default, requires Docker. Run with 'mvn test -Dbenchmark=true -Dtest=StatExportRepositoryBenchmarkTest',
+ * number of hits and uris are set by 'benchmark.hits' and 'benchmark.uris'.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class StatExportRepositoryBenchmarkTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2022, 9, 21, 0, 0, 0);
+
+    private static final long PROCESS_TIMEOUT_MINUTES = 30;
+
+    private static PostgreSQLContainer<?> postgres;
+
+    private final long hits = Long.getLong("benchmark.hits", 10_000_000L);
+
+    private final long uris = Long.getLong("benchmark.uris", 1_000_000L);
+
+    private final String xmx = System.getProperty("benchmark.xmx", "64m");
+
+    @BeforeAll
+    static void startDatabase() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available.");
+        postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Stream stats over 10M hits in separate JVM with small heap")
+    void streamStats_over10MillionHits() {
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(),
+                postgres.getUsername(), postgres.getPassword());
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+        }
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        final long insertStart = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO endpointhits (app, uri, ip, created) " +
+                "SELECT 'ewm-main-service', '/events/' || (g % CAST(? AS BIGINT)), " +
+                "'10.0.' || (g % 256) || '.' || (g % 97), " +
+                "CAST(? AS TIMESTAMP) + (g % 86400) * INTERVAL '1 second' " +
+                "FROM generate_series(0, CAST(? AS BIGINT) - 1) AS g", uris, CREATED, hits);
+        jdbcTemplate.execute("ANALYZE endpointhits");
+        log.info("Inserted '{}' hits over '{}' uris in '{}' ms.", hits, uris,
+                (System.nanoTime() - insertStart) / 1_000_000);
+
+        final Map<String, Long> streamed = runExport("stream");
+        log.info("Streamed export with -Xmx{}: {}.", xmx, streamed);
+        final Map<String, Long> collected = runExport("collect");
+        log.info("Collected export with -Xmx{}: {}.", xmx, collected.isEmpty() ? "failed" : collected);
+
+        assertThat(streamed.get("rows"), is(Math.min(hits, uris)));
+        assertThat(streamed.get("hits"), is(hits));
+    }
+
+    /**
+     * Run export in separate JVM and parse its result line.
+     *
+     * @return result values or empty map if export failed
+     */
+    @SneakyThrows
+    private Map<String, Long> runExport(String mode) {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Process process = new ProcessBuilder(List.of(java, "-Xmx" + xmx,
+                "-cp", System.getProperty("java.class.path"),
+                StatExportBenchmarkRunner.class.getName(),
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(),
+                CREATED.minusDays(1).toString(), CREATED.plusDays(2).toString(), "1000", mode))
+                .redirectErrorStream(true)
+                .start();
+        final Map<String, Long> result = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("rows=")) {
+                    for (String value : line.split(" ")) {
+                        final String[] keyValue = value.split("=");
+                        result.put(keyValue[0], Long.parseLong(keyValue[1]));
+                    }
+                } else {
+                    log.debug("Export '{}': {}", mode, line);
+                }
+            }
+        }
+        if (!process.waitFor(PROCESS_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            throw new AssertionError("Export '" + mode + "' did not finish in time.");
+        }
+        if (process.exitValue() != 0) {
+            log.warn("Export '{}' failed with exit code '{}'.", mode, process.exitValue());
+            if ("stream".equals(mode)) {
+                throw new AssertionError("Streamed export failed with -Xmx" + xmx + ".");
+            }
+            return Map.of();
+        }
+        return result;
+    }
+}
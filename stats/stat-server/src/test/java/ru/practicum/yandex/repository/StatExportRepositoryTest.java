@@ -0,0 +1,69 @@
+package ru.practicum.yandex.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(StatExportRepository.class)
+class StatExportRepositoryTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2021, 9, 21, 11, 23, 44);
+
+    private final LocalDateTime end = LocalDateTime.of(2022, 12, 21, 11, 23, 44);
+
+    @Autowired
+    private StatRepository statRepository;
+
+    @Autowired
+    private StatExportRepository statExportRepository;
+
+    @BeforeEach
+    void init() {
+        statRepository.save(EndpointHit.of(null, "app1", "/app1", "1.1.1.1",
+                LocalDateTime.of(2022, 9, 21, 11, 23, 44)));
+        statRepository.save(EndpointHit.of(null, "app2", "/app2", "2.1.1.1",
+                LocalDateTime.of(2022, 9, 24, 11, 23, 44)));
+        statRepository.save(EndpointHit.of(null, "app2", "/app2", "1.1.1.1",
+                LocalDateTime.of(2022, 9, 23, 11, 23, 44)));
+        statRepository.save(EndpointHit.of(null, "app2", "/app2", "1.1.1.1",
+                LocalDateTime.of(2022, 9, 25, 11, 23, 44)));
+        statRepository.flush();
+    }
+
+    @Test
+    @DisplayName("Stream all hits")
+    void streamStats_withoutUris_shouldPassSameRowsAsFindStats() {
+        List<ViewStats> stats = new ArrayList<>();
+
+        statExportRepository.streamStats(start, end, null, false, stats::add);
+
+        assertThat(stats, is(statRepository.findStats(start, end)));
+    }
+
+    @Test
+    @DisplayName("Stream hits from unique ips for uri list")
+    void streamStats_withUrisAndUniqueIps_shouldPassSameRowsAsFindStatsFromUriListWithUniqueIps() {
+        List<ViewStats> stats = new ArrayList<>();
+
+        statExportRepository.streamStats(start, end, List.of("/app2"), true, stats::add);
+
+        assertThat(stats.size(), is(1));
+        assertThat(stats, is(statRepository.findStatsFromUriListWithUniqueIps(start, end, List.of("/app2"))));
+    }
+}
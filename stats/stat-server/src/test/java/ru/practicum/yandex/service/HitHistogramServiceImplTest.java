@@ -0,0 +1,102 @@
+package ru.practicum.yandex.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.yandex.exception.IncorrectDateIntervalException;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.HistogramInterval;
+import ru.practicum.yandex.model.HitHistogram;
+import ru.practicum.yandex.repository.HitBucketRepository;
+import ru.practicum.yandex.repository.StatRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import({HitBucketRepository.class, HitHistogramServiceImpl.class})
+class HitHistogramServiceImplTest {
+
+    private final LocalDateTime start = LocalDateTime.of(2022, 9, 21, 11, 0, 0);
+
+    @Autowired
+    private HitHistogramService hitHistogramService;
+
+    @Autowired
+    private HitBucketRepository hitBucketRepository;
+
+    @Autowired
+    private StatRepository statRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void init() {
+        hitHistogramService.record(EndpointHit.of(null, "app1", "/app1", "1.1.1.1", start.plusMinutes(10)));
+        hitHistogramService.record(EndpointHit.of(null, "app1", "/app1", "1.1.1.1", start.plusMinutes(20)));
+        hitHistogramService.flush();
+        hitHistogramService.record(EndpointHit.of(null, "app1", "/app1", "2.1.1.1", start.plusHours(2)));
+        hitHistogramService.record(EndpointHit.of(null, "app2", "/app2", "1.1.1.1", start.plusHours(1)));
+        hitHistogramService.flush();
+    }
+
+    @Test
+    @DisplayName("Hits are counted per hour, intervals without hits have zero hits")
+    void getHistograms_byHour_shouldReturnHitsPerHour() {
+        List<HitHistogram> histograms = hitHistogramService.getHistograms(HistogramInterval.HOUR, start.plusMinutes(5),
+                start.plusHours(2).plusMinutes(5), null);
+
+        assertThat(histograms.size(), is(2));
+        assertThat(histograms.get(0).getUri(), is("/app1"));
+        assertThat(histograms.get(0).getStart(), is(start));
+        assertThat(histograms.get(0).getHits(), contains(2L, 0L, 1L));
+        assertThat(histograms.get(1).getHits(), contains(0L, 1L, 0L));
+    }
+
+    @Test
+    @DisplayName("Buckets of next flushes are added to existing buckets")
+    void getHistograms_byDayForUri_shouldSumAllFlushes() {
+        List<HitHistogram> histograms = hitHistogramService.getHistograms(HistogramInterval.DAY, start, start,
+                List.of("/app1"));
+
+        assertThat(histograms.size(), is(1));
+        assertThat(histograms.get(0).getHits(), contains(3L));
+    }
+
+    @Test
+    @DisplayName("Empty buckets table is filled from registered hits")
+    void backfill_whenNoBuckets_shouldCountRegisteredHits() {
+        jdbcTemplate.update("DELETE FROM hit_buckets");
+        statRepository.save(EndpointHit.of(null, "app1", "/app1", "1.1.1.1", start.plusMinutes(10)));
+        statRepository.save(EndpointHit.of(null, "app1", "/app1", "2.1.1.1", start.plusMinutes(10).plusSeconds(30)));
+        statRepository.save(EndpointHit.of(null, "app1", "/app1", "1.1.1.1", start.plusHours(1)));
+        statRepository.flush();
+
+        assertThat(hitBucketRepository.backfill(), is(2 + 2 + 1));
+        assertThat(hitBucketRepository.backfill(), is(0));
+        assertThat(hitHistogramService.getHistograms(HistogramInterval.MINUTE, start.plusMinutes(9),
+                start.plusMinutes(11), null).get(0).getHits(), contains(0L, 2L, 0L));
+        assertThat(hitHistogramService.getHistograms(HistogramInterval.HOUR, start, start.plusHours(1), null)
+                .get(0).getHits(), contains(2L, 1L));
+    }
+
+    @Test
+    @DisplayName("Too many intervals in date range")
+    void getHistograms_whenTooManyIntervals_shouldThrowIncorrectDateIntervalException() {
+        assertThrows(IncorrectDateIntervalException.class, () -> hitHistogramService.getHistograms(
+                HistogramInterval.MINUTE, start, start.plusYears(1), null));
+    }
+}
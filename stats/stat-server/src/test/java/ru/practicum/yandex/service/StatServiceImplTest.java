@@ -1,5 +1,6 @@
 package ru.practicum.yandex.service;
 
+import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -7,13 +8,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.practicum.yandex.model.EndpointHit;
 import ru.practicum.yandex.model.ViewStats;
 import ru.practicum.yandex.repository.StatRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
@@ -133,4 +143,66 @@ class StatServiceImplTest {
 
         verify(statRepository, times(1)).findStatsForUriWithUniqueIps(uri);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Get stats for uri with unique ips shares result of recent identical request")
+    void viewUniqueIpStatsForUri_whenRequestedTwice_shouldInvokeFindUniqueIpStatsForUriOnce() {
+        String uri = "/uri";
+        when(statRepository.findStatsForUriWithUniqueIps(uri))
+                .thenReturn(viewStats);
+
+        ViewStats first = statService.viewStatsForSingleUriWithUniqueIps(uri);
+        ViewStats second = statService.viewStatsForSingleUriWithUniqueIps(uri);
+
+        assertThat(second, is(first));
+        verify(statRepository, times(1)).findStatsForUriWithUniqueIps(uri);
+    }
+
+    @Test
+    @DisplayName("Concurrent requests of stats for uri with unique ips share one query")
+    @SneakyThrows
+    void viewUniqueIpStatsForUri_whenRequestedConcurrently_shouldInvokeFindUniqueIpStatsForUriOnce() {
+        String uri = "/uri";
+        int threads = 8;
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(statRepository.findStatsForUriWithUniqueIps(uri)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await();
+            return viewStats;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<ViewStats> first = executor.submit(() -> statService.viewStatsForSingleUriWithUniqueIps(uri));
+            queryStarted.await();
+            List<Future<ViewStats>> joined = new ArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                joined.add(executor.submit(() -> statService.viewStatsForSingleUriWithUniqueIps(uri)));
+            }
+            releaseQuery.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS), is(viewStats));
+            for (Future<ViewStats> result : joined) {
+                assertThat(result.get(5, TimeUnit.SECONDS), is(viewStats));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(statRepository, times(1)).findStatsForUriWithUniqueIps(uri);
+    }
+
+    @Test
+    @DisplayName("Stats for uri with unique ips over single flight limit are not shared")
+    void viewUniqueIpStatsForUri_whenSingleFlightLimitReached_shouldInvokeFindUniqueIpStatsForEachRequest() {
+        ReflectionTestUtils.setField(statService, "singleFlightMaxEntries", 1);
+        when(statRepository.findStatsForUriWithUniqueIps(any()))
+                .thenReturn(viewStats);
+
+        statService.viewStatsForSingleUriWithUniqueIps("/uri/1");
+        statService.viewStatsForSingleUriWithUniqueIps("/uri/2");
+        statService.viewStatsForSingleUriWithUniqueIps("/uri/2");
+
+        verify(statRepository, times(1)).findStatsForUriWithUniqueIps("/uri/1");
+        verify(statRepository, times(2)).findStatsForUriWithUniqueIps("/uri/2");
+    }
+}
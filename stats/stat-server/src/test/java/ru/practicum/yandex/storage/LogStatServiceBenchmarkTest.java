@@ -0,0 +1,157 @@
+package ru.practicum.yandex.storage;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+import ru.practicum.yandex.repository.StatExportRepository;
+import ru.practicum.yandex.repository.StatRepository;
+import ru.practicum.yandex.service.StatService;
+import ru.practicum.yandex.service.StatServiceImpl;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Ingest throughput and query latency of log storage ('stat-server.storage=log') against JPA storage in PostgreSQL.
+ * Hits are registered by 'benchmark.threads' threads, then stats of all uris and unique stats of single uris are
+ * requested from both services.
+ * <p>
+ * Disabled by default, requires Docker. Run with 'mvn test -Dbenchmark=true -Dtest=LogStatServiceBenchmarkTest',
+ * number of hits and uris are set by 'benchmark.hits' and 'benchmark.uris', size of log segment by
+ * 'benchmark.segment-size', so that stats are read from index files of sealed segments.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StatExportRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class LogStatServiceBenchmarkTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2022, 9, 21, 0, 0, 0);
+
+    private static final int SINGLE_URI_REQUESTS = 1_000;
+
+    private static PostgreSQLContainer<?> postgres;
+
+    private final int hits = Integer.getInteger("benchmark.hits", 200_000);
+
+    private final int uris = Integer.getInteger("benchmark.uris", 10_000);
+
+    private final int threads = Integer.getInteger("benchmark.threads", 8);
+
+    private final int segmentSize = Integer.getInteger("benchmark.segment-size", 8 * 1024 * 1024);
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private StatRepository statRepository;
+
+    @Autowired
+    private StatExportRepository statExportRepository;
+
+    @BeforeAll
+    static void startDatabase() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available.");
+        postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+        postgres.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl());
+        registry.add("spring.datasource.username", () -> postgres.getUsername());
+        registry.add("spring.datasource.password", () -> postgres.getPassword());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Register hits and request stats with log and JPA storage")
+    void logAgainstJpa() {
+        final HitLog hitLog = new HitLog(directory.toString(), segmentSize);
+        final LogStatService logStatService = new LogStatService(hitLog);
+        logStatService.recover();
+        final StatServiceImpl jpaStatService = new StatServiceImpl(statRepository, statExportRepository);
+        try {
+            final List<ViewStats> logStats = measure("log", logStatService);
+            final List<ViewStats> jpaStats = measure("jpa", jpaStatService);
+
+            assertThat(logStats.stream().mapToLong(ViewStats::getHits).sum(), is((long) hits));
+            assertThat(jpaStats.stream().mapToLong(ViewStats::getHits).sum(), is((long) hits));
+        } finally {
+            hitLog.close();
+            statRepository.deleteAll();
+        }
+    }
+
+    @SneakyThrows
+    private List<ViewStats> measure(String storage, StatService statService) {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final long ingestStart = System.nanoTime();
+        final List<Future<?>> futures = IntStream.range(0, threads)
+                .mapToObj(thread -> executor.submit(() -> {
+                    for (int i = thread; i < hits; i += threads) {
+                        statService.methodHit(EndpointHit.of(null, "ewm-main-service", "/events/" + i % uris,
+                                "10.0." + i % 256 + "." + i % 97, CREATED.plusSeconds(i % 86_400)));
+                    }
+                }))
+                .collect(Collectors.toList());
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        final long ingestNanos = System.nanoTime() - ingestStart;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        final long statsStart = System.nanoTime();
+        final List<ViewStats> stats = statService.viewStats(CREATED.minusDays(1), CREATED.plusDays(2), null, false);
+        final long statsNanos = System.nanoTime() - statsStart;
+
+        final long singleUriStart = System.nanoTime();
+        for (int i = 0; i < SINGLE_URI_REQUESTS; i++) {
+            statService.viewStatsForSingleUriWithUniqueIps("/events/" + i % uris);
+        }
+        final long singleUriNanos = System.nanoTime() - singleUriStart;
+
+        log.info("Storage '{}': '{}' hits/s with '{}' threads, stats of all uris in '{}' ms, " +
+                        "unique stats of single uri in '{}' us.", storage, hits * 1_000_000_000L / ingestNanos,
+                threads, statsNanos / 1_000_000, singleUriNanos / 1_000 / SINGLE_URI_REQUESTS);
+        return stats;
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.yandex.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+class LogStatServiceTest {
+
+    private static final int SEGMENT_SIZE = 128;
+
+    @TempDir
+    Path directory;
+
+    private final LocalDateTime start = LocalDateTime.of(2022, 9, 21, 0, 0, 0);
+
+    private HitLog hitLog;
+
+    private LogStatService statService;
+
+    @BeforeEach
+    void init() {
+        hitLog = new HitLog(directory.toString(), SEGMENT_SIZE);
+        statService = new LogStatService(hitLog);
+        statService.recover();
+        statService.methodHit(EndpointHit.of(null, "app1", "/app1", "1.1.1.1", start.plusHours(1)));
+        statService.methodHit(EndpointHit.of(null, "app2", "/app2", "1.1.1.1", start.plusHours(3)));
+        statService.methodHit(EndpointHit.of(null, "app2", "/app2", "2.1.1.1", start.plusHours(2)));
+        statService.methodHit(EndpointHit.of(null, "app2", "/app2", "1.1.1.1", start.plusHours(4)));
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        hitLog.close();
+    }
+
+    @Test
+    @DisplayName("Hits are counted within range, sorted by hits")
+    void viewStats_shouldCountHitsWithinRange() {
+        List<ViewStats> stats = statService.viewStats(start, start.plusDays(1), null, false);
+
+        assertThat(stats, contains(new ViewStats("app2", "/app2", 3L), new ViewStats("app1", "/app1", 1L)));
+        assertThat(statService.viewStats(start.plusHours(1), start.plusHours(4), List.of("/app2"), true),
+                contains(new ViewStats("app2", "/app2", 2L)));
+    }
+
+    @Test
+    @DisplayName("Hits are recovered from log after restart with the same ids")
+    void recover_afterRestart_shouldRestoreHitsAndIds() throws Exception {
+        hitLog.close();
+        hitLog = new HitLog(directory.toString(), SEGMENT_SIZE);
+        statService = new LogStatService(hitLog);
+        statService.recover();
+
+        EndpointHit hit = statService.methodHit(EndpointHit.of(null, "app1", "/app1", "1.1.1.1", start.plusHours(5)));
+
+        assertThat(hit.getId(), is(5L));
+        assertThat(segmentCount(), is(3L));
+        assertThat(statService.viewStats(start, start.plusDays(1), List.of("/app1"), false),
+                contains(new ViewStats("app1", "/app1", 2L)));
+    }
+
+    @Test
+    @DisplayName("Record with wrong checksum at the end of log is discarded")
+    void recover_withTornRecord_shouldDiscardRecord() throws Exception {
+        hitLog.close();
+        Path lastSegment;
+        try (Stream<Path> files = Files.list(directory)) {
+            lastSegment = files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(lastSegment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(header, 0);
+            int lastRecordPosition = Integer.BYTES * 2 + header.flip().getInt();
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 42L), lastRecordPosition + Integer.BYTES * 2);
+        }
+        hitLog = new HitLog(directory.toString(), SEGMENT_SIZE);
+        statService = new LogStatService(hitLog);
+        statService.recover();
+
+        EndpointHit hit = statService.methodHit(EndpointHit.of(null, "app1", "/app1", "1.1.1.1", start.plusHours(5)));
+
+        assertThat(statService.viewStats(start, start.plusDays(1), null, false).stream()
+                .map(ViewStats::getHits)
+                .collect(Collectors.toList()), contains(2L, 2L));
+        assertThat(hit.getId(), is(4L));
+    }
+
+    @Test
+    @DisplayName("Hits of sealed segments are read from index files and merged with hits of active segment")
+    void exportStats_shouldMergeSealedAndActiveSegments() throws Exception {
+        List<ViewStats> exported = new ArrayList<>();
+
+        statService.exportStats(start, start.plusDays(1), null, null, exported::add);
+
+        assertThat(Files.exists(hitLog.indexPath(0)), is(true));
+        assertThat(exported, contains(new ViewStats("app1", "/app1", 1L), new ViewStats("app2", "/app2", 3L)));
+        assertThat(statService.viewStats(start.plusHours(2), start.plusDays(1), List.of("/app2", "/app3"), true),
+                contains(new ViewStats("app2", "/app2", 1L)));
+        assertThat(statService.viewStats(start, start.plusDays(1), List.of("/app1"), null),
+                contains(new ViewStats("app1", "/app1", 1L)));
+        assertThat(statService.viewStatsForSingleUriWithUniqueIps("/app2"), is(new ViewStats("app2", "/app2", 2L)));
+    }
+
+    @Test
+    @DisplayName("Index file of segment that was not sealed before restart is written again when segment is sealed")
+    void recover_withIndexOfLastSegment_shouldRewriteIndex() throws Exception {
+        hitLog.close();
+        Files.write(hitLog.indexPath(1), new byte[]{1, 2, 3});
+        hitLog = new HitLog(directory.toString(), SEGMENT_SIZE);
+        statService = new LogStatService(hitLog);
+        statService.recover();
+
+        statService.methodHit(EndpointHit.of(null, "app1", "/app1", "1.1.1.1", start.plusHours(5)));
+
+        assertThat(Files.size(hitLog.indexPath(1)) > 3, is(true));
+        assertThat(statService.viewStats(start.plusHours(1), start.plusDays(1), null, false),
+                contains(new ViewStats("app2", "/app2", 3L), new ViewStats("app1", "/app1", 1L)));
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).count();
+        }
+    }
+}
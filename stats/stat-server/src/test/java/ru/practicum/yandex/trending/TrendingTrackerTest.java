@@ -0,0 +1,54 @@
+package ru.practicum.yandex.trending;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.yandex.model.EndpointHit;
+import ru.practicum.yandex.model.ViewStats;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+class TrendingTrackerTest {
+
+    private TrendingTracker trendingTracker;
+
+    @BeforeEach
+    void init() {
+        trendingTracker = new TrendingTracker(2, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Most viewed uris are returned in order of hits, replaced uri count is inherited")
+    void getTrending_shouldReturnMostViewedUris() {
+        LocalDateTime now = LocalDateTime.now();
+        hit("app", "/events/1", now, 3);
+        hit("app", "/events/2", now, 1);
+        hit("app", "/events/3", now, 5);
+
+        List<ViewStats> trending = trendingTracker.getTrending(TrendingWindow.HOUR, "app", 2);
+
+        assertThat(trending, contains(new ViewStats("app", "/events/3", 6L), new ViewStats("app", "/events/1", 3L)));
+    }
+
+    @Test
+    @DisplayName("Hits older than window are not counted")
+    void getTrending_whenHitsAreOlderThanWindow_shouldIgnoreHits() {
+        hit("app", "/events/1", LocalDateTime.now().minusHours(2), 3);
+
+        assertThat(trendingTracker.getTrending(TrendingWindow.HOUR, null, 10), empty());
+        assertThat(trendingTracker.getTrending(TrendingWindow.DAY, null, 10),
+                contains(new ViewStats("app", "/events/1", 3L)));
+    }
+
+    private void hit(String app, String uri, LocalDateTime timestamp, int times) {
+        for (int i = 0; i < times; i++) {
+            trendingTracker.record(EndpointHit.of(null, app, uri, "1.1.1.1", timestamp));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.yandex;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import ru.practicum.yandex.dto.EndpointHitDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=true", "stat-server.apps.query-rate-limit=100000"})
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class VirtualThreadPinningTest {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Requests served on virtual threads should not pin carrier threads")
+    void hitAndStats_whenServedOnVirtualThreads_shouldNotPinCarrierThreads() {
+        List<RecordedEvent> pinnedEvents = new CopyOnWriteArrayList<>();
+        List<Future<HttpStatus>> statuses = new ArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(20)).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinnedEvents::add);
+            recording.startAsync();
+            try (ExecutorService clients = Executors.newFixedThreadPool(32)) {
+                for (int i = 0; i < REQUESTS; i++) {
+                    EndpointHitDto hit = EndpointHitDto.of(null, "app", "/events/" + i % 10, "127.0.0." + i % 255,
+                            LocalDateTime.now());
+                    statuses.add(clients.submit(() -> restTemplate.postForEntity("/hit", hit, EndpointHitDto.class)
+                            .getStatusCode()));
+                    statuses.add(clients.submit(() -> restTemplate.getForEntity("/statistic?uri=/events/1",
+                            String.class).getStatusCode()));
+                }
+            }
+            recording.stop();
+        }
+
+        assertThat(pinnedEvents.toString(), pinnedEvents, empty());
+        for (Future<HttpStatus> status : statuses) {
+            assertThat(status.get().is2xxSuccessful(), is(true));
+        }
+    }
+}
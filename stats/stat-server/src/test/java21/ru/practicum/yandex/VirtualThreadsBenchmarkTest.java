@@ -0,0 +1,97 @@
+package ru.practicum.yandex;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import ru.practicum.yandex.dto.EndpointHitDto;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Throughput and latency of hits and stats requests of many concurrent clients, served on virtual threads or on Tomcat
+ * platform thread pool. Disabled by default, run in build with 'virtual-threads' profile with
+ * 'mvn test -P virtual-threads -Dbenchmark=true -Dtest=VirtualThreadsBenchmarkTest' and compare with
+ * '-Dbenchmark.virtual=false'. Number of requests, concurrent clients and platform threads are set by
+ * 'benchmark.requests', 'benchmark.clients' and 'benchmark.tomcat-threads'.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.threads.virtual.enabled=${benchmark.virtual:true}",
+                "server.tomcat.threads.max=${benchmark.tomcat-threads:200}",
+                "stat-server.apps.query-rate-limit=1000000"})
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Slf4j
+class VirtualThreadsBenchmarkTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Value("${spring.threads.virtual.enabled}")
+    private boolean virtualThreads;
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Hits and stats requests of concurrent clients")
+    void hitAndStats() {
+        final int requests = Integer.getInteger("benchmark.requests", 20_000);
+        final int clients = Integer.getInteger("benchmark.clients", 1_000);
+        final long[] latencies = new long[requests];
+        final AtomicInteger failed = new AtomicInteger();
+        final Semaphore inFlight = new Semaphore(clients);
+
+        final long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                final int request = i;
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        final long requestStart = System.nanoTime();
+                        if (!send(request)) {
+                            failed.incrementAndGet();
+                        }
+                        latencies[request] = System.nanoTime() - requestStart;
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        final long time = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        log.info("{}: '{}' requests per second, latency p50 '{}' ms, p99 '{}' ms, max '{}' ms, '{}' clients.",
+                virtualThreads ? "Virtual threads" : "Platform threads", requests * 1_000_000_000L / time,
+                latencies[requests / 2] / 1_000_000, latencies[requests * 99 / 100] / 1_000_000,
+                latencies[requests - 1] / 1_000_000, clients);
+        assertThat(failed.get(), is(0));
+    }
+
+    private boolean send(int request) {
+        final String uri = "/events/" + request % 100;
+        if (request % 2 == 0) {
+            final EndpointHitDto hit = EndpointHitDto.of(null, "app", uri, "10.0.0." + request % 255,
+                    LocalDateTime.now());
+            return restTemplate.postForEntity("/hit", hit, EndpointHitDto.class).getStatusCode().is2xxSuccessful();
+        }
+        return restTemplate.getForEntity("/statistic?uri=" + uri, String.class).getStatusCode().is2xxSuccessful();
+    }
+}